@@ -178,11 +178,9 @@ public class IsNullAnalysis extends AnalysisDriver<Stmt, IsNullFact> {
                 for (ClassType classType : edge.getExceptions()) {
                     if (classType.getName().equals(ClassNames.CLONE_NOT_SUPPORTED_EXCEPTION)
                             || classType.getName().equals(ClassNames.INTERRUPTED_EXCEPTION)) {
-                        resultFact.entries()
-                                .filter(entry -> entry.getValue().isDefinitelyNull()
-                                        || entry.getValue().isNullOnSomePath())
-                                .forEach(entry ->
-                                        entry.setValue(IsNullValue.NCP));
+                        resultFact.replaceAll((var, value) ->
+                                value.isDefinitelyNull() || value.isNullOnSomePath()
+                                        ? IsNullValue.NCP : value);
                     }
                 }
             } else if (edge.getKind() == CFGEdge.Kind.IF_TRUE || edge.getKind() == CFGEdge.Kind.IF_FALSE) {
@@ -393,10 +391,9 @@ public class IsNullAnalysis extends AnalysisDriver<Stmt, IsNullFact> {
                 IsNullFact oldOut = out.copy();
                 out.copyFrom(in);
                 if (isAssertionCall(invokeMethod)) { // downgrade null value after an assertion call
-                    out.entries()
-                            .filter(entry -> entry.getValue().isNullOnSomePath()
-                                    || entry.getValue().isDefinitelyNull())
-                            .forEach(entry -> entry.setValue(IsNullValue.NCP));
+                    out.replaceAll((var, value) ->
+                            value.isNullOnSomePath() || value.isDefinitelyNull()
+                                    ? IsNullValue.NCP : value);
                     return !out.equals(oldOut);
                 } else { // use parameter annotation info
                     for (int paramIndex = 0; paramIndex < invokeMethod.getParamCount(); ++paramIndex) {
@@ -428,12 +425,7 @@ public class IsNullAnalysis extends AnalysisDriver<Stmt, IsNullFact> {
                 Var lValue = stmt.getLValue();
                 assert lValue != null;
                 if (lValue.getType() instanceof ReferenceType) {
-                    boolean changed = false;
-                    for (Var inVar : in.keySet()) {
-                        if (!inVar.equals(lValue)) {
-                            changed |= out.update(inVar, in.get(inVar));
-                        }
-                    }
+                    boolean changed = out.copyFromExcept(in, lValue);
                     return out.update(lValue, newValue) || changed;
                 }
                 return out.copyFrom(in);
@@ -46,7 +46,7 @@ class IsNullFact extends MapFact<Var, IsNullValue> {
 
     @Override
     public IsNullValue get(Var var) {
-        return map.getOrDefault(var, IsNullValue.UNDEF);
+        return getMap().getOrDefault(var, IsNullValue.UNDEF);
     }
 
     @Override
@@ -60,7 +60,7 @@ class IsNullFact extends MapFact<Var, IsNullValue> {
 
     @Override
     public IsNullFact copy() {
-        return new IsNullFact(this.map);
+        return new IsNullFact(getMap());
     }
 
     public IsNullConditionDecision getDecision() {
@@ -72,14 +72,12 @@ class IsNullFact extends MapFact<Var, IsNullValue> {
     }
 
     public void downgradeOnControlSplit() {
-        map.entrySet()
-                .stream()
-                .filter(entry -> entry.getValue().isNullOnSomePath())
-                .forEach(entry -> entry.setValue(IsNullValue.NCP));
+        replaceAll((var, value) ->
+                value.isNullOnSomePath() ? IsNullValue.NCP : value);
     }
 
     public void setInvalid() {
-        map.clear();
+        clear();
         isValid = false;
     }
 
@@ -28,6 +28,7 @@ import pascal.taie.analysis.dataflow.solver.Solver;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.IR;
 
 /**
@@ -44,7 +45,9 @@ public abstract class AnalysisDriver<Node, Fact>
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
         DataflowAnalysis<Node, Fact> analysis = makeAnalysis(cfg);
-        Solver<Node, Fact> solver = Solver.getSolver();
+        AnalysisOptions options = getOptions();
+        boolean blockCFG = options.has("block-cfg") && options.getBoolean("block-cfg");
+        Solver<Node, Fact> solver = Solver.getSolver(analysis, blockCFG);
         return solver.solve(analysis);
     }
 
@@ -0,0 +1,244 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IndexerBitSet;
+
+/**
+ * Template for gen/kill data-flow analyses whose facts are sets of
+ * indexable elements, e.g., live variables and reaching definitions.
+ * <p>
+ * The transfer function of each node is described by its gen and kill
+ * sets, i.e., {@code target = gen ∪ (source - kill)}, where the source
+ * (target) fact is the in (out) fact of the node for forward analysis,
+ * and vice versa for backward analysis. Optionally, the gen set of a node
+ * takes effect only when the source fact contains a given element.
+ * <p>
+ * The gen and kill sets are computed once from the IR and kept as
+ * {@code long[]} masks, so that the solver of this kind of analyses
+ * computes the fixed point with in-place word operations, and converts
+ * the bit vectors to {@link SetFact}s only at the end.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <E>    type of elements in data-flow facts
+ */
+public abstract class BitVectorDataflowAnalysis<Node, E>
+        extends AbstractDataflowAnalysis<Node, SetFact<E>> {
+
+    /**
+     * Indicates that the gen set of a node takes effect unconditionally.
+     */
+    private static final int NO_CONDITION = -1;
+
+    private final Indexer<E> indexer;
+
+    /**
+     * Number of 64-bit words of each bit vector.
+     */
+    private final int words;
+
+    /**
+     * Gen masks of all nodes, where the mask of the node
+     * with index {@code i} starts at {@code i * words}.
+     */
+    private long[] gen;
+
+    /**
+     * Kill masks of all nodes, laid out in the same way as {@link #gen}.
+     */
+    private long[] kill;
+
+    /**
+     * For each node, the index of the element which must be contained in
+     * the source fact for the gen set to take effect, or {@link #NO_CONDITION}.
+     */
+    private int[] genConditions;
+
+    /**
+     * @param indexer  indexer for the elements of data-flow facts
+     * @param universe number of elements of data-flow facts, i.e.,
+     *                 the indexes of the elements are in [0, universe)
+     */
+    protected BitVectorDataflowAnalysis(CFG<Node> cfg, Indexer<E> indexer,
+                                        int universe) {
+        super(cfg);
+        this.indexer = indexer;
+        this.words = (universe + 63) >>> 6;
+    }
+
+    /**
+     * Computes the gen and kill sets of given node. This method is called
+     * once for each node before the analysis is solved.
+     */
+    protected abstract void computeGenKill(Node node, GenKill genKill);
+
+    /**
+     * Receives the gen and kill sets of a node.
+     */
+    protected final class GenKill {
+
+        private int node;
+
+        private GenKill() {
+        }
+
+        public void gen(E e) {
+            set(gen, indexer.getIndex(e));
+        }
+
+        public void kill(E e) {
+            set(kill, indexer.getIndex(e));
+        }
+
+        /**
+         * Makes the gen set of the node take effect only when
+         * the source fact contains given element.
+         */
+        public void genOnlyIf(E e) {
+            genConditions[node] = indexer.getIndex(e);
+        }
+
+        private void set(long[] masks, int index) {
+            masks[node * words + (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * Computes the gen and kill masks of all nodes, if not computed yet.
+     */
+    private void computeMasks() {
+        if (gen != null) {
+            return;
+        }
+        int nodes = cfg.getNumberOfNodes();
+        gen = new long[nodes * words];
+        kill = new long[nodes * words];
+        genConditions = new int[nodes];
+        GenKill genKill = new GenKill();
+        for (Node node : cfg) {
+            genKill.node = cfg.getIndex(node);
+            genConditions[genKill.node] = NO_CONDITION;
+            computeGenKill(node, genKill);
+        }
+    }
+
+    /**
+     * @return number of 64-bit words of each bit vector.
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Applies the transfer function of given node in place, i.e.,
+     * {@code target = gen ∪ (source - kill)}.
+     *
+     * @param node         index of the node
+     * @param source       array holding the source fact
+     * @param sourceOffset start of the source fact in {@code source}
+     * @param target       array holding the target fact
+     * @param targetOffset start of the target fact in {@code target}
+     * @return true if the target fact changed, otherwise false.
+     */
+    public boolean transferNode(int node, long[] source, int sourceOffset,
+                                long[] target, int targetOffset) {
+        computeMasks();
+        int mask = node * words;
+        int cond = genConditions[node];
+        boolean applyGen = cond == NO_CONDITION ||
+                (source[sourceOffset + (cond >>> 6)] & (1L << cond)) != 0;
+        boolean changed = false;
+        for (int i = 0; i < words; ++i) {
+            long word = source[sourceOffset + i] & ~kill[mask + i];
+            if (applyGen) {
+                word |= gen[mask + i];
+            }
+            if (word != target[targetOffset + i]) {
+                target[targetOffset + i] = word;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Converts the bit vector starting at given offset to a data-flow fact.
+     */
+    public SetFact<E> toFact(long[] vectors, int offset) {
+        SetFact<E> fact = newInitialFact();
+        for (int i = 0; i < words; ++i) {
+            long word = vectors[offset + i];
+            while (word != 0) {
+                fact.add(indexer.getObject((i << 6) + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+        return fact;
+    }
+
+    /**
+     * Stores given data-flow fact to the bit vector starting at given offset.
+     */
+    private void toBitVector(SetFact<E> fact, long[] vectors, int offset) {
+        fact.forEach(e -> {
+            int index = indexer.getIndex(e);
+            vectors[offset + (index >>> 6)] |= 1L << index;
+        });
+    }
+
+    @Override
+    public SetFact<E> newBoundaryFact() {
+        return newInitialFact();
+    }
+
+    @Override
+    public SetFact<E> newInitialFact() {
+        return new SetFact<>(new IndexerBitSet<>(indexer, false));
+    }
+
+    @Override
+    public void meetInto(SetFact<E> fact, SetFact<E> target) {
+        target.union(fact);
+    }
+
+    /**
+     * Applies the transfer function on {@link SetFact}s, so that this
+     * analysis can also be solved by the solvers of general analyses.
+     */
+    @Override
+    public boolean transferNode(Node node, SetFact<E> in, SetFact<E> out) {
+        SetFact<E> source = isForward() ? in : out;
+        SetFact<E> target = isForward() ? out : in;
+        long[] vectors = new long[2 * words];
+        toBitVector(source, vectors, 0);
+        toBitVector(target, vectors, words);
+        if (transferNode(cfg.getIndex(node), vectors, 0, vectors, words)) {
+            target.set(toFact(vectors, words));
+            return true;
+        }
+        return false;
+    }
+}
@@ -28,8 +28,6 @@ import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Stmt;
-import pascal.taie.util.Indexer;
-import pascal.taie.util.collection.IndexerBitSet;
 
 /**
  * Implementation of live variable analysis.
@@ -47,22 +45,16 @@ public class LiveVariable extends AnalysisDriver<Stmt, SetFact<Var>> {
         return new Analysis(cfg, getOptions().getBoolean("strongly"));
     }
 
-    private static class Analysis extends AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+    private static class Analysis extends BitVectorDataflowAnalysis<Stmt, Var> {
 
         /**
          * Whether enable strongly live variable analysis.
          */
         private final boolean strongly;
 
-        /**
-         * Indexer for variables in the IR.
-         */
-        private final Indexer<Var> varIndexer;
-
         private Analysis(CFG<Stmt> cfg, boolean strongly) {
-            super(cfg);
+            super(cfg, cfg.getIR().getVarIndexer(), cfg.getIR().getVars().size());
             this.strongly = strongly;
-            this.varIndexer = cfg.getIR().getVarIndexer();
         }
 
         @Override
@@ -71,59 +63,28 @@ public class LiveVariable extends AnalysisDriver<Stmt, SetFact<Var>> {
         }
 
         @Override
-        public SetFact<Var> newBoundaryFact() {
-            return newInitialFact();
-        }
-
-        @Override
-        public SetFact<Var> newInitialFact() {
-            return new SetFact<>(new IndexerBitSet<>(varIndexer, false));
-        }
-
-        @Override
-        public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
-            target.union(fact);
-        }
-
-        @Override
-        public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
-            SetFact<Var> oldIn = in.copy();
-            in.set(out);
+        protected void computeGenKill(Stmt stmt, GenKill genKill) {
             // kill definition in stmt
             stmt.getDef().ifPresent(def -> {
                 if (def instanceof Var) {
-                    in.remove((Var) def);
+                    genKill.kill((Var) def);
                 }
             });
             // generate uses in stmt
-            if (strongly) {
-                // only add strongly live variables
-                if (stmt instanceof Copy copy) {
-                    // for a Copy statement, say x = y, we consider y as
-                    // strongly live only when x is also strongly live
-                    Var lVar = copy.getLValue();
-                    Var rVar = copy.getRValue();
-                    if (out.contains(lVar)) {
-                        in.add(rVar);
-                    }
-                } else {
-                    // for non-Copy statements, all used variables
-                    // are considered strongly live
-                    stmt.getUses().forEach(use -> {
-                        if (use instanceof Var) {
-                            in.add((Var) use);
-                        }
-                    });
-                }
+            if (strongly && stmt instanceof Copy copy) {
+                // for a Copy statement, say x = y, we consider y as
+                // strongly live only when x is also strongly live
+                genKill.gen(copy.getRValue());
+                genKill.genOnlyIf(copy.getLValue());
             } else {
-                // add all used variables
+                // for non-Copy statements (or when strongly live variable
+                // analysis is disabled), all used variables are live
                 stmt.getUses().forEach(use -> {
                     if (use instanceof Var) {
-                        in.add((Var) use);
+                        genKill.gen((Var) use);
                     }
                 });
             }
-            return !in.equals(oldIn);
         }
     }
 }
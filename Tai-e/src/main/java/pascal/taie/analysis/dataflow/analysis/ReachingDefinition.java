@@ -29,10 +29,10 @@ import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
-import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.IndexMap;
-import pascal.taie.util.collection.IndexerBitSet;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class ReachingDefinition extends AnalysisDriver<Stmt, SetFact<Stmt>> {
@@ -48,37 +48,30 @@ public class ReachingDefinition extends AnalysisDriver<Stmt, SetFact<Stmt>> {
         return new Analysis(cfg);
     }
 
-    private static class Analysis extends AbstractDataflowAnalysis<Stmt, SetFact<Stmt>> {
-
-        /**
-         * Indexer for stmts (nodes) in the CFG.
-         */
-        private final Indexer<Stmt> stmtIndexer;
+    private static class Analysis extends BitVectorDataflowAnalysis<Stmt, Stmt> {
 
         /**
          * Maps a variable to all statements that define it.
          * This information can accelerate kill operation of live variable analysis.
          */
-        private final Map<Var, SetFact<Stmt>> defs;
-
-        private static final SetFact<Stmt> EMPTY_DEFS = new SetFact<>();
+        private final Map<Var, List<Stmt>> defs;
 
         private Analysis(CFG<Stmt> cfg) {
-            super(cfg);
-            stmtIndexer = new CFGNodeIndexer<>(cfg);
-            defs = computeDefs(cfg.getIR());
+            super(cfg, new CFGNodeIndexer<>(cfg), cfg.getNumberOfNodes());
+            defs = computeDefs(cfg);
         }
 
         /**
-         * Pre-computes all definitions of all variables in given ir.
+         * Pre-computes all definitions of all variables in given cfg.
          */
-        private Map<Var, SetFact<Stmt>> computeDefs(IR ir) {
-            Map<Var, SetFact<Stmt>> defs = new IndexMap<>(
+        private static Map<Var, List<Stmt>> computeDefs(CFG<Stmt> cfg) {
+            IR ir = cfg.getIR();
+            Map<Var, List<Stmt>> defs = new IndexMap<>(
                     ir.getVarIndexer(), ir.getVars().size());
-            for (Stmt stmt : ir) {
+            for (Stmt stmt : cfg) {
                 stmt.getDef().ifPresent(def -> {
                     if (def instanceof Var defVar) {
-                        defs.computeIfAbsent(defVar, __ -> newInitialFact())
+                        defs.computeIfAbsent(defVar, __ -> new ArrayList<>())
                                 .add(stmt);
                     }
                 });
@@ -92,33 +85,15 @@ public class ReachingDefinition extends AnalysisDriver<Stmt, SetFact<Stmt>> {
         }
 
         @Override
-        public SetFact<Stmt> newBoundaryFact() {
-            return newInitialFact();
-        }
-
-        @Override
-        public SetFact<Stmt> newInitialFact() {
-            return new SetFact<>(new IndexerBitSet<>(stmtIndexer, false));
-        }
-
-        @Override
-        public void meetInto(SetFact<Stmt> fact, SetFact<Stmt> target) {
-            target.union(fact);
-        }
-
-        @Override
-        public boolean transferNode(Stmt stmt, SetFact<Stmt> in, SetFact<Stmt> out) {
-            SetFact<Stmt> oldOut = out.copy();
-            out.set(in);
+        protected void computeGenKill(Stmt stmt, GenKill genKill) {
             stmt.getDef().ifPresent(def -> {
                 if (def instanceof Var defVar) {
                     // kill previous definitions of defVar
-                    out.removeAll(defs.getOrDefault(defVar, EMPTY_DEFS));
+                    defs.get(defVar).forEach(genKill::kill);
                     // generate definition of defVar
-                    out.add(stmt);
+                    genKill.gen(stmt);
                 }
             });
-            return !out.equals(oldOut);
         }
     }
 }
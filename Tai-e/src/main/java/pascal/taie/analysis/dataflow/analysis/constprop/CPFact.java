@@ -70,7 +70,7 @@ public class CPFact extends MapFact<Var, Value> {
             // the associated value
             return Value.makeConstant(i.getValue());
         } else {
-            return map.getOrDefault(var, Value.getUndef());
+            return getMap().getOrDefault(var, Value.getUndef());
         }
     }
 
@@ -91,6 +91,6 @@ public class CPFact extends MapFact<Var, Value> {
 
     @Override
     public CPFact copy() {
-        return new CPFact(this.map);
+        return new CPFact(getMap());
     }
 }
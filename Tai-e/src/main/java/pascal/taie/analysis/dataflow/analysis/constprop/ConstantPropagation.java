@@ -92,6 +92,12 @@ public class ConstantPropagation extends AnalysisDriver<Stmt, CPFact> {
 
         @Override
         public void meetInto(CPFact fact, CPFact target) {
+            if (target.isEmpty()) {
+                // meeting with UNDEF does not change the values,
+                // so the target can share the map of the fact
+                target.copyFrom(fact);
+                return;
+            }
             fact.forEach((var, value) ->
                     target.update(var, meetValue(value, target.get(var))));
         }
@@ -120,12 +126,7 @@ public class ConstantPropagation extends AnalysisDriver<Stmt, CPFact> {
                 Exp lvalue = ((DefinitionStmt<?, ?>) stmt).getLValue();
                 if (lvalue instanceof Var lhs) {
                     Exp rhs = ((DefinitionStmt<?, ?>) stmt).getRValue();
-                    boolean changed = false;
-                    for (Var inVar : in.keySet()) {
-                        if (!inVar.equals(lhs)) {
-                            changed |= out.update(inVar, in.get(inVar));
-                        }
-                    }
+                    boolean changed = out.copyFromExcept(in, lhs);
                     return Exps.holdsInt(lhs) ?
                             out.update(lhs, Evaluator.evaluate(rhs, in)) || changed :
                             changed;
@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.ssa.SSA;
+import pascal.taie.analysis.ssa.SSAVar;
+import pascal.taie.ir.exp.Exps;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Result of {@link SparseConstantPropagation}, which keeps only the values
+ * of the versions of variables in SSA form, and computes the {@link CPFact}s
+ * of statements on query from the versions reaching the statements.
+ */
+public class SparseCPResult implements NodeResult<Stmt, CPFact> {
+
+    private final SSA ssa;
+
+    /**
+     * Values of versions, indexed by {@link SSAVar#getIndex()}.
+     */
+    private final Value[] values;
+
+    /**
+     * Whether the basic blocks may be executed,
+     * indexed by the indexes of the blocks.
+     */
+    private final boolean[] executable;
+
+    SparseCPResult(SSA ssa, Value[] values, boolean[] executable) {
+        this.ssa = ssa;
+        this.values = values;
+        this.executable = executable;
+    }
+
+    /**
+     * @return the value of given version.
+     */
+    public Value getValue(SSAVar ssaVar) {
+        return values[ssaVar.getIndex()];
+    }
+
+    /**
+     * @return {@code true} if {@code stmt} may be executed according to
+     * the values of the conditions of branches, otherwise {@code false}.
+     */
+    public boolean isExecutable(Stmt stmt) {
+        return executable[ssa.getBlockCFG().getBlockOf(stmt).getIndex()];
+    }
+
+    /**
+     * @return the in fact of {@code stmt}, which is empty
+     * if {@code stmt} is not executable.
+     */
+    @Override
+    public CPFact getInFact(Stmt stmt) {
+        return toFact(stmt, false);
+    }
+
+    /**
+     * @return the out fact of {@code stmt}, which is empty
+     * if {@code stmt} is not executable.
+     */
+    @Override
+    public CPFact getOutFact(Stmt stmt) {
+        return toFact(stmt, true);
+    }
+
+    private CPFact toFact(Stmt stmt, boolean after) {
+        CPFact fact = new CPFact();
+        if (isExecutable(stmt)) {
+            for (SSAVar ssaVar : ssa.getReachingVersions(stmt, after)) {
+                if (Exps.holdsInt(ssaVar.getVar())) {
+                    fact.update(ssaVar.getVar(), getValue(ssaVar));
+                }
+            }
+        }
+        return fact;
+    }
+}
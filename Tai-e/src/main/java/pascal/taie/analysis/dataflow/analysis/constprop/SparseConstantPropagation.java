@@ -0,0 +1,247 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFGEdge;
+import pascal.taie.analysis.ssa.Phi;
+import pascal.taie.analysis.ssa.SSA;
+import pascal.taie.analysis.ssa.SSABuilder;
+import pascal.taie.analysis.ssa.SSAVar;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Exps;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Sparse conditional constant propagation for int values, i.e., the
+ * algorithm in paper "Constant Propagation with Conditional Branches"
+ * (Wegman and Zadeck). Instead of carrying the values of all variables
+ * through every statement as {@link ConstantPropagation}, this analysis
+ * keeps one value for each version of variables in {@link SSA} form and
+ * propagates the values along def-use chains. Besides, it only considers
+ * the control-flow edges which may be executed according to the values
+ * of the conditions of branches.
+ * <p>
+ * The result is a {@link pascal.taie.analysis.dataflow.fact.NodeResult}
+ * of {@link CPFact}s as the result of {@link ConstantPropagation},
+ * thus it can be used by the clients of constant propagation.
+ */
+public class SparseConstantPropagation extends MethodAnalysis<SparseCPResult> {
+
+    public static final String ID = "sparse-const-prop";
+
+    public SparseConstantPropagation(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public SparseCPResult analyze(IR ir) {
+        return new Solver(ir.getResult(SSABuilder.ID)).solve();
+    }
+
+    private static class Solver {
+
+        private final SSA ssa;
+
+        private final BlockCFG blockCFG;
+
+        private final Value[] values;
+
+        private final boolean[] executableBlocks;
+
+        private final Set<CFGEdge<BasicBlock>> executableEdges = Sets.newSet();
+
+        private final Queue<BasicBlock> blockWorkList = new ArrayDeque<>();
+
+        private final Queue<SSAVar> varWorkList = new ArrayDeque<>();
+
+        private Solver(SSA ssa) {
+            this.ssa = ssa;
+            this.blockCFG = ssa.getBlockCFG();
+            this.values = new Value[ssa.getSSAVars().size()];
+            this.executableBlocks = new boolean[blockCFG.getNumberOfNodes()];
+            Arrays.fill(values, Value.getUndef());
+            // make conservative assumption about parameters: assign NAC to them
+            ssa.getIR().getParams()
+                    .stream()
+                    .filter(Exps::holdsInt)
+                    .forEach(p -> values[ssa.getEntryVersion(p).getIndex()] = Value.getNAC());
+        }
+
+        private SparseCPResult solve() {
+            markExecutable(blockCFG.getEntry());
+            while (!blockWorkList.isEmpty() || !varWorkList.isEmpty()) {
+                if (!blockWorkList.isEmpty()) {
+                    visitBlock(blockWorkList.poll());
+                } else {
+                    SSAVar ssaVar = varWorkList.poll();
+                    for (Phi phi : ssaVar.getPhiUsers()) {
+                        if (executableBlocks[phi.getBlock().getIndex()]) {
+                            visitPhi(phi);
+                        }
+                    }
+                    for (Stmt stmt : ssaVar.getStmtUsers()) {
+                        BasicBlock block = blockCFG.getBlockOf(stmt);
+                        if (executableBlocks[block.getIndex()]) {
+                            visitStmt(stmt);
+                            if (stmt == block.getLastStmt()) {
+                                visitBranch(block);
+                            }
+                        }
+                    }
+                }
+            }
+            return new SparseCPResult(ssa, values, executableBlocks);
+        }
+
+        private void markExecutable(BasicBlock block) {
+            if (!executableBlocks[block.getIndex()]) {
+                executableBlocks[block.getIndex()] = true;
+                blockWorkList.add(block);
+            }
+        }
+
+        private void markExecutable(CFGEdge<BasicBlock> edge) {
+            if (executableEdges.add(edge)) {
+                BasicBlock target = edge.target();
+                if (executableBlocks[target.getIndex()]) {
+                    // the phi functions of visited block need to be
+                    // re-evaluated with the operand from the new edge
+                    ssa.getPhis(target).forEach(this::visitPhi);
+                } else {
+                    markExecutable(target);
+                }
+            }
+        }
+
+        private void visitBlock(BasicBlock block) {
+            ssa.getPhis(block).forEach(this::visitPhi);
+            block.getStmts().forEach(this::visitStmt);
+            visitBranch(block);
+        }
+
+        private void visitPhi(Phi phi) {
+            if (!Exps.holdsInt(phi.getVar())) {
+                return;
+            }
+            Value value = Value.getUndef();
+            for (CFGEdge<BasicBlock> edge : blockCFG.getInEdgesOf(phi.getBlock())) {
+                if (executableEdges.contains(edge)) {
+                    value = meetValue(value, getValue(phi.getOperand(edge.source())));
+                }
+            }
+            update(phi.getResult(), value);
+        }
+
+        private void visitStmt(Stmt stmt) {
+            SSAVar def = ssa.getDef(stmt);
+            if (def != null && Exps.holdsInt(def.getVar())) {
+                Value value = stmt instanceof DefinitionStmt<?, ?> defStmt
+                        ? Evaluator.evaluate(defStmt.getRValue(), getInFact(stmt))
+                        : Value.getNAC();
+                update(def, value);
+            }
+        }
+
+        /**
+         * Marks the out edges of given block which may be executed.
+         */
+        private void visitBranch(BasicBlock block) {
+            Stmt last = block.getLastStmt();
+            Value cond = null;
+            if (last instanceof If ifStmt) {
+                cond = Evaluator.evaluate(ifStmt.getCondition(), getInFact(last));
+            } else if (last instanceof SwitchStmt switchStmt) {
+                cond = Evaluator.evaluate(switchStmt.getVar(), getInFact(last));
+            }
+            for (CFGEdge<BasicBlock> edge : blockCFG.getOutEdgesOf(block)) {
+                if (cond == null || cond.isNAC() || edge.isExceptional()
+                        || cond.isConstant() && isTaken(edge, last, cond.getConstant())) {
+                    markExecutable(edge);
+                }
+            }
+        }
+
+        private static boolean isTaken(CFGEdge<BasicBlock> edge, Stmt branch, int v) {
+            return switch (edge.getKind()) {
+                case IF_TRUE -> v == 1;
+                case IF_FALSE -> v == 0;
+                case SWITCH_CASE -> v == edge.getCaseValue();
+                case SWITCH_DEFAULT -> !((SwitchStmt) branch).getCaseValues().contains(v);
+                default -> true;
+            };
+        }
+
+        /**
+         * @return a fact that contains the values of the versions
+         * used by given statement.
+         */
+        private CPFact getInFact(Stmt stmt) {
+            CPFact fact = new CPFact();
+            for (SSAVar use : ssa.getUses(stmt)) {
+                if (Exps.holdsInt(use.getVar())) {
+                    fact.update(use.getVar(), getValue(use));
+                }
+            }
+            return fact;
+        }
+
+        private Value getValue(SSAVar ssaVar) {
+            return values[ssaVar.getIndex()];
+        }
+
+        private void update(SSAVar ssaVar, Value value) {
+            Value oldValue = getValue(ssaVar);
+            // meet with the old value to keep the values monotonic
+            Value newValue = meetValue(oldValue, value);
+            if (!newValue.equals(oldValue)) {
+                values[ssaVar.getIndex()] = newValue;
+                varWorkList.add(ssaVar);
+            }
+        }
+
+        private static Value meetValue(Value v1, Value v2) {
+            if (v1.isUndef()) {
+                return v2;
+            } else if (v2.isUndef()) {
+                return v1;
+            } else if (v1.equals(v2)) {
+                return v1;
+            } else {
+                return Value.getNAC();
+            }
+        }
+    }
+}
@@ -23,7 +23,7 @@
 package pascal.taie.analysis.dataflow.fact;
 
 import pascal.taie.util.Copyable;
-import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.PersistentHashMap;
 
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
@@ -31,11 +31,18 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Represents map-like data-flow facts.
+ * <p>
+ * The mappings are held by a {@link PersistentHashMap}, and updating
+ * this fact replaces the map with a new version that shares the unchanged
+ * parts with the old one. Thus, copying a fact takes constant time, and
+ * the facts copied from each other, e.g., the facts along straight-line
+ * code, share most of their storage.
  *
  * @param <K> type of keys
  * @param <V> type of values
@@ -45,15 +52,26 @@ public class MapFact<K, V> implements Copyable<MapFact<K, V>> {
     /**
      * The map holding the mappings of this MapFact.
      */
-    protected final Map<K, V> map;
+    private PersistentHashMap<K, V> map;
 
     /**
      * Constructs a new MapFact with the same mappings as specified Map.
+     * If the specified Map is a {@link PersistentHashMap}, then it is
+     * shared by this fact instead of copied.
      *
      * @param map the map whose mappings are to be placed in this map.
      */
     public MapFact(Map<K, V> map) {
-        this.map = Maps.newHybridMap(map);
+        this.map = PersistentHashMap.copyOf(map);
+    }
+
+    /**
+     * @return an unmodifiable snapshot of the mappings of this fact,
+     * which is not affected by later updates of this fact. Passing the
+     * snapshot to {@link #MapFact(Map)} shares it instead of copying it.
+     */
+    protected Map<K, V> getMap() {
+        return map;
     }
 
     /**
@@ -66,11 +84,35 @@ public class MapFact<K, V> implements Copyable<MapFact<K, V>> {
 
     /**
      * Updates the key-value mapping in this fact.
+     * <p>
+     * The value may be null, then the key is mapped to null. As
+     * {@link #get(Object)} also returns null for absent keys, mapping
+     * an absent key to null is not regarded as a change of this fact.
      *
      * @return if the update changes this fact.
      */
     public boolean update(K key, V value) {
-        return !Objects.equals(map.put(key, value), value);
+        PersistentHashMap<K, V> oldMap = map;
+        map = map.with(key, value);
+        return map != oldMap && (value != null || oldMap.containsKey(key));
+    }
+
+    /**
+     * Replaces the value of each entry in this fact with the result of
+     * the given function, by {@link #update(Object, Object)}.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        boolean changed = false;
+        // iterates the old map, which is not affected by the updates
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            V value = function.apply(entry.getKey(), entry.getValue());
+            if (!Objects.equals(value, entry.getValue())) {
+                changed |= update(entry.getKey(), value);
+            }
+        }
+        return changed;
     }
 
     /**
@@ -80,15 +122,43 @@ public class MapFact<K, V> implements Copyable<MapFact<K, V>> {
      * or null if there was no mapping for key.
      */
     public V remove(K key) {
-        return map.remove(key);
+        V oldValue = map.get(key);
+        map = map.without(key);
+        return oldValue;
     }
 
     /**
      * Copies the content from given fact to this fact.
+     * <p>
+     * If given fact is of the same class as this fact, then its mappings
+     * must already satisfy the constraints that the class imposes in
+     * {@link #update(Object, Object)}, so the two maps are merged directly,
+     * which skips the parts shared by them. For example, this fact takes
+     * the map of given fact if this fact is empty. In either case, the
+     * result is the same as updating the mappings one by one.
      *
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean copyFrom(MapFact<K, V> fact) {
+        if (fact.getClass() == getClass()) {
+            PersistentHashMap<K, V> oldMap = map;
+            map = map.withAll(fact.map);
+            if (map == oldMap) {
+                return false;
+            }
+            if (map.size() == oldMap.size()) {
+                // only the values of existing keys are changed
+                return true;
+            }
+            // some keys are added, which do not change this fact
+            // if all of them are mapped to null, see update()
+            for (Map.Entry<K, V> entry : fact.map.entrySet()) {
+                if (!Objects.equals(oldMap.get(entry.getKey()), entry.getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
         boolean changed = false;
         for (Map.Entry<K, V> entry : fact.map.entrySet()) {
             changed |= update(entry.getKey(), entry.getValue());
@@ -96,6 +166,18 @@ public class MapFact<K, V> implements Copyable<MapFact<K, V>> {
         return changed;
     }
 
+    /**
+     * Copies the content from given fact to this fact,
+     * except the mapping for given key.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFromExcept(MapFact<K, V> fact, K key) {
+        MapFact<K, V> copy = fact.copy();
+        copy.remove(key);
+        return copyFrom(copy);
+    }
+
     /**
      * Creates and returns a copy of this fact.
      */
@@ -108,7 +190,14 @@ public class MapFact<K, V> implements Copyable<MapFact<K, V>> {
      * Clears all content in this fact.
      */
     public void clear() {
-        map.clear();
+        map = PersistentHashMap.empty();
+    }
+
+    /**
+     * @return true if this fact contains no mappings, otherwise false.
+     */
+    public boolean isEmpty() {
+        return map.isEmpty();
     }
 
     /**
@@ -218,14 +218,9 @@ public class InterConstantPropagation extends
 
             @Override
             public Boolean visit(LoadArray load) {
-                boolean changed = false;
                 Var lhs = load.getLValue();
                 // do not propagate lhs
-                for (Var inVar : in.keySet()) {
-                    if (!inVar.equals(lhs)) {
-                        changed |= out.update(inVar, in.get(inVar));
-                    }
-                }
+                boolean changed = out.copyFromExcept(in, lhs);
                 for (StoreArray store : arrayLoadToStores.get(load)) {
                     changed |= transferLoadArray(store, load);
                 }
@@ -269,14 +264,9 @@ public class InterConstantPropagation extends
 
             @Override
             public Boolean visit(LoadField load) {
-                boolean changed = false;
                 Var lhs = load.getLValue();
                 // do not propagate lhs
-                for (Var inVar : in.keySet()) {
-                    if (!inVar.equals(lhs)) {
-                        changed |= out.update(inVar, in.get(inVar));
-                    }
-                }
+                boolean changed = out.copyFromExcept(in, lhs);
                 return changed;
             }
 
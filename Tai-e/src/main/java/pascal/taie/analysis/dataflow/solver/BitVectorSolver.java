@@ -0,0 +1,198 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.BitVectorDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGNodeIndexer;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.IndexMap;
+
+/**
+ * Work-list solver for {@link BitVectorDataflowAnalysis}.
+ * <p>
+ * This solver keeps the facts in flat {@code long[]} arrays, and the visits
+ * of nodes only perform in-place word operations without allocations.
+ * The bit vectors are converted to {@link SetFact}s after the fixed point
+ * is reached, so the results are the same as the ones computed by
+ * {@link WorkListSolver}.
+ * <p>
+ * In block mode, this solver iterates over basic blocks and keeps
+ * the bit vectors only at the boundaries of blocks,
+ * as {@link BlockSolver} does.
+ */
+class BitVectorSolver<Node, E> implements Solver<Node, SetFact<E>> {
+
+    /**
+     * Whether this solver iterates over basic blocks.
+     */
+    private final boolean blockMode;
+
+    BitVectorSolver(boolean blockMode) {
+        this.blockMode = blockMode;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DataflowResult<Node, SetFact<E>> solve(
+            DataflowAnalysis<Node, SetFact<E>> dataflowAnalysis) {
+        var analysis = (BitVectorDataflowAnalysis<Node, E>) dataflowAnalysis;
+        CFG<Node> cfg = analysis.getCFG();
+        if (blockMode) {
+            var blockAnalysis = (BitVectorDataflowAnalysis<Stmt, E>) analysis;
+            BlockCFG blockCFG = new BlockCFG(blockAnalysis.getCFG());
+            Units units = Units.of(blockCFG, analysis.isForward());
+            long[][] facts = solve(analysis, units);
+            var result = new BlockDataflowResult<>(blockAnalysis, blockCFG);
+            int words = analysis.getWords();
+            for (BasicBlock block : blockCFG) {
+                int offset = block.getIndex() * words;
+                result.setInFact(block, analysis.toFact(facts[0], offset));
+                result.setOutFact(block, analysis.toFact(facts[1], offset));
+            }
+            return (DataflowResult<Node, SetFact<E>>) (DataflowResult<?, ?>) result;
+        } else {
+            long[][] facts = solve(analysis, Units.of(cfg, analysis.isForward()));
+            var indexer = new CFGNodeIndexer<>(cfg);
+            int nodes = cfg.getNumberOfNodes();
+            DataflowResult<Node, SetFact<E>> result = new DataflowResult<>(
+                    new IndexMap<>(indexer, nodes), new IndexMap<>(indexer, nodes));
+            int words = analysis.getWords();
+            for (Node node : cfg) {
+                int offset = cfg.getIndex(node) * words;
+                result.setInFact(node, analysis.toFact(facts[0], offset));
+                result.setOutFact(node, analysis.toFact(facts[1], offset));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Units of the fixed-point computation, i.e., single nodes or
+     * basic blocks.
+     *
+     * @param nodes indexes of the nodes in each unit, in control-flow order
+     * @param preds indexes of the predecessors of each unit
+     * @param succs indexes of the successors of each unit
+     * @param entry index of the entry unit
+     * @param exit  index of the exit unit
+     * @param order indexes of the units in reverse postorder
+     *              in the direction of the analysis
+     */
+    private record Units(int[][] nodes, int[][] preds, int[][] succs,
+                         int entry, int exit, int[] order) {
+
+        private static <N> Units of(CFG<N> cfg, boolean forward) {
+            int n = cfg.getNumberOfNodes();
+            int[][] nodes = new int[n][];
+            int[][] preds = new int[n][];
+            int[][] succs = new int[n][];
+            for (N node : cfg) {
+                int i = cfg.getIndex(node);
+                nodes[i] = new int[]{i};
+                preds[i] = cfg.getPredsOf(node).stream().mapToInt(cfg::getIndex).toArray();
+                succs[i] = cfg.getSuccsOf(node).stream().mapToInt(cfg::getIndex).toArray();
+            }
+            return new Units(nodes, preds, succs,
+                    cfg.getIndex(cfg.getEntry()), cfg.getIndex(cfg.getExit()),
+                    OrderedWorkList.reversePostOrder(cfg, forward));
+        }
+
+        private static Units of(BlockCFG blockCFG, boolean forward) {
+            Units units = of((CFG<BasicBlock>) blockCFG, forward);
+            CFG<Stmt> cfg = blockCFG.getStmtCFG();
+            for (BasicBlock block : blockCFG) {
+                units.nodes[block.getIndex()] = block.getStmts()
+                        .stream()
+                        .mapToInt(cfg::getIndex)
+                        .toArray();
+            }
+            return units;
+        }
+    }
+
+    /**
+     * Computes the fixed point in the direction of the analysis.
+     * The units are visited in reverse postorder as {@link WorkListSolver}.
+     *
+     * @return the in facts and out facts of all units, i.e.,
+     * the in facts of their first nodes and the out facts of their last nodes.
+     */
+    private long[][] solve(BitVectorDataflowAnalysis<Node, E> analysis, Units units) {
+        boolean forward = analysis.isForward();
+        int n = units.nodes().length;
+        int words = analysis.getWords();
+        long[] in = new long[n * words];
+        long[] out = new long[n * words];
+        // the facts flowing into and resulting from the units
+        long[] sources = forward ? in : out;
+        long[] targets = forward ? out : in;
+        int[][] preds = forward ? units.preds() : units.succs();
+        int[][] succs = forward ? units.succs() : units.preds();
+        // the fact of boundary unit remains the boundary fact (empty set)
+        int boundary = forward ? units.entry() : units.exit();
+        // scratch vectors for the nodes inside units
+        long[] scratch = new long[2 * words];
+        OrderedWorkList workList = new OrderedWorkList(units.order());
+        for (int i = 0; i < n; ++i) {
+            if (i != boundary) {
+                workList.add(i);
+            }
+        }
+        int unit;
+        while ((unit = workList.poll()) != -1) {
+            int offset = unit * words;
+            // meet incoming facts
+            for (int pred : preds[unit]) {
+                int predOffset = pred * words;
+                for (int i = 0; i < words; ++i) {
+                    sources[offset + i] |= targets[predOffset + i];
+                }
+            }
+            // apply transfer functions of the nodes in the unit
+            int[] nodes = units.nodes()[unit];
+            long[] source = sources;
+            int sourceOffset = offset;
+            for (int i = 1; i < nodes.length; ++i) {
+                int node = nodes[forward ? i - 1 : nodes.length - i];
+                int scratchOffset = (i & 1) * words;
+                analysis.transferNode(node, source, sourceOffset,
+                        scratch, scratchOffset);
+                source = scratch;
+                sourceOffset = scratchOffset;
+            }
+            int node = nodes[forward ? nodes.length - 1 : 0];
+            if (analysis.transferNode(node, source, sourceOffset, targets, offset)) {
+                for (int succ : succs[unit]) {
+                    workList.add(succ);
+                }
+            }
+        }
+        return new long[][]{in, out};
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGEdge;
+import pascal.taie.analysis.graph.cfg.CFGNodeIndexer;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.CollectionUtils;
+import pascal.taie.util.collection.IndexMap;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data-flow result which stores the facts only at the boundaries of
+ * basic blocks, i.e., the in facts of the first statements and the out
+ * facts of the last statements of the blocks. The facts of the other
+ * statements are recomputed from the boundary facts on query.
+ * <p>
+ * The facts set by clients via {@link #setInFact(Stmt, Object)} and
+ * {@link #setOutFact(Stmt, Object)} are kept apart from the boundary
+ * facts, and are returned for the statements instead of the computed
+ * facts. As with the results which store the facts of all statements,
+ * setting the fact of a statement does not change the facts of the
+ * other statements.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+class BlockDataflowResult<Fact> extends DataflowResult<Stmt, Fact> {
+
+    private final DataflowAnalysis<Stmt, Fact> analysis;
+
+    private final BlockCFG blockCFG;
+
+    /**
+     * The block whose facts are recomputed last time, which benefits
+     * the clients that query the facts of statements in order.
+     */
+    private BasicBlock cachedBlock;
+
+    private Fact[] cachedInFacts;
+
+    private Fact[] cachedOutFacts;
+
+    /**
+     * The in facts set by clients, which override the computed ones.
+     * This map is created on the first call to {@link #setInFact(Stmt, Object)}.
+     */
+    private Map<Stmt, Fact> inOverrides;
+
+    /**
+     * The out facts set by clients, which override the computed ones.
+     * This map is created on the first call to {@link #setOutFact(Stmt, Object)}.
+     */
+    private Map<Stmt, Fact> outOverrides;
+
+    BlockDataflowResult(DataflowAnalysis<Stmt, Fact> analysis, BlockCFG blockCFG) {
+        this(analysis, blockCFG, new CFGNodeIndexer<>(blockCFG.getStmtCFG()));
+    }
+
+    private BlockDataflowResult(DataflowAnalysis<Stmt, Fact> analysis,
+                                BlockCFG blockCFG, CFGNodeIndexer<Stmt> indexer) {
+        super(new IndexMap<>(indexer, indexer.cfg().getNumberOfNodes()),
+                new IndexMap<>(indexer, indexer.cfg().getNumberOfNodes()));
+        this.analysis = analysis;
+        this.blockCFG = blockCFG;
+    }
+
+    /**
+     * Sets the in fact of the first statement of given block.
+     */
+    void setInFact(BasicBlock block, Fact fact) {
+        super.setInFact(block.getFirstStmt(), fact);
+    }
+
+    /**
+     * Sets the out fact of the last statement of given block.
+     */
+    void setOutFact(BasicBlock block, Fact fact) {
+        super.setOutFact(block.getLastStmt(), fact);
+    }
+
+    /**
+     * @return the in fact of the first statement of given block.
+     */
+    Fact getInFact(BasicBlock block) {
+        return super.getInFact(block.getFirstStmt());
+    }
+
+    /**
+     * @return the out fact of the last statement of given block.
+     */
+    Fact getOutFact(BasicBlock block) {
+        return super.getOutFact(block.getLastStmt());
+    }
+
+    @Override
+    public synchronized Fact getInFact(Stmt stmt) {
+        if (inOverrides != null && inOverrides.containsKey(stmt)) {
+            return inOverrides.get(stmt);
+        }
+        BasicBlock block = blockCFG.getBlockOf(stmt);
+        if (block.getFirstStmt() == stmt) {
+            return getInFact(block);
+        }
+        recompute(block);
+        return cachedInFacts[blockCFG.getIndexInBlock(stmt)];
+    }
+
+    @Override
+    public synchronized Fact getOutFact(Stmt stmt) {
+        if (outOverrides != null && outOverrides.containsKey(stmt)) {
+            return outOverrides.get(stmt);
+        }
+        BasicBlock block = blockCFG.getBlockOf(stmt);
+        if (block.getLastStmt() == stmt) {
+            return getOutFact(block);
+        }
+        recompute(block);
+        return cachedOutFacts[blockCFG.getIndexInBlock(stmt)];
+    }
+
+    @Override
+    public synchronized void setInFact(Stmt stmt, Fact fact) {
+        if (inOverrides == null) {
+            inOverrides = Maps.newMap();
+        }
+        inOverrides.put(stmt, fact);
+    }
+
+    @Override
+    public synchronized void setOutFact(Stmt stmt, Fact fact) {
+        if (outOverrides == null) {
+            outOverrides = Maps.newMap();
+        }
+        outOverrides.put(stmt, fact);
+    }
+
+    /**
+     * Recomputes the facts of the statements in given block
+     * from the boundary facts.
+     */
+    @SuppressWarnings("unchecked")
+    private void recompute(BasicBlock block) {
+        if (block == cachedBlock) {
+            return;
+        }
+        List<Stmt> stmts = block.getStmts();
+        int last = stmts.size() - 1;
+        Fact[] inFacts = (Fact[]) new Object[stmts.size()];
+        Fact[] outFacts = (Fact[]) new Object[stmts.size()];
+        inFacts[0] = getInFact(block);
+        outFacts[last] = getOutFact(block);
+        CFG<Stmt> cfg = blockCFG.getStmtCFG();
+        if (analysis.isForward()) {
+            for (int i = 0; i < last; ++i) {
+                Fact out = analysis.newInitialFact();
+                analysis.transferNode(stmts.get(i), inFacts[i], out);
+                outFacts[i] = out;
+                inFacts[i + 1] = transferEdge(
+                        CollectionUtils.getOne(cfg.getOutEdgesOf(stmts.get(i))), out);
+            }
+        } else {
+            for (int i = last; i > 0; --i) {
+                Fact in = analysis.newInitialFact();
+                analysis.transferNode(stmts.get(i), in, outFacts[i]);
+                inFacts[i] = in;
+                outFacts[i - 1] = transferEdge(
+                        CollectionUtils.getOne(cfg.getInEdgesOf(stmts.get(i))), in);
+            }
+        }
+        cachedBlock = block;
+        cachedInFacts = inFacts;
+        cachedOutFacts = outFacts;
+    }
+
+    /**
+     * Applies edge transfer on the edge between two statements in a block,
+     * if the analysis needs it.
+     */
+    Fact transferEdge(CFGEdge<Stmt> edge, Fact fact) {
+        return analysis.needTransferEdge(edge) ?
+                analysis.transferEdge(edge, fact) : fact;
+    }
+}
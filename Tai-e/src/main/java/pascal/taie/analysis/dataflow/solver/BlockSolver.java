@@ -0,0 +1,258 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGEdge;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.CollectionUtils;
+
+import java.util.List;
+
+/**
+ * Work-list solver which iterates over basic blocks (see {@link BlockCFG})
+ * instead of statements. It keeps the facts only at the boundaries of
+ * blocks, and the facts of the statements inside the blocks are
+ * recomputed on query (see {@link BlockDataflowResult}), which reduces
+ * the memory of facts and the work-list operations by roughly
+ * the average size of blocks.
+ */
+class BlockSolver<Fact> implements Solver<Stmt, Fact> {
+
+    @Override
+    public DataflowResult<Stmt, Fact> solve(DataflowAnalysis<Stmt, Fact> analysis) {
+        BlockCFG blockCFG = new BlockCFG(analysis.getCFG());
+        BlockDataflowResult<Fact> result = new BlockDataflowResult<>(analysis, blockCFG);
+        if (analysis.isForward()) {
+            initializeForward(analysis, blockCFG, result);
+            doSolveForward(analysis, blockCFG, result);
+        } else {
+            initializeBackward(analysis, blockCFG, result);
+            doSolveBackward(analysis, blockCFG, result);
+        }
+        return result;
+    }
+
+    private void initializeForward(DataflowAnalysis<Stmt, Fact> analysis,
+                                   BlockCFG blockCFG, BlockDataflowResult<Fact> result) {
+        CFG<Stmt> cfg = blockCFG.getStmtCFG();
+        // initialize entry
+        BasicBlock entry = blockCFG.getEntry();
+        Fact entryFact = analysis.newBoundaryFact();
+        result.setInFact(entry, entryFact);
+        result.setOutFact(entry, entryFact);
+        blockCFG.forEach(block -> {
+            // skip entry which has been initialized
+            if (blockCFG.isEntry(block)) {
+                return;
+            }
+            // initialize in fact
+            Stmt first = block.getFirstStmt();
+            if (cfg.getInDegreeOf(first) == 1) {
+                cfg.getInEdgesOf(first).forEach(edge -> {
+                    if (!analysis.needTransferEdge(edge)) {
+                        result.setInFact(block, getOrNewOutFact(result, analysis,
+                                blockCFG.getBlockOf(edge.source())));
+                    }
+                });
+            }
+            if (result.getInFact(block) == null) {
+                result.setInFact(block, analysis.newInitialFact());
+            }
+            // initialize out fact
+            getOrNewOutFact(result, analysis, block);
+        });
+    }
+
+    private Fact getOrNewOutFact(BlockDataflowResult<Fact> result,
+                                 DataflowAnalysis<Stmt, Fact> analysis,
+                                 BasicBlock block) {
+        Fact fact = result.getOutFact(block);
+        if (fact == null) {
+            fact = analysis.newInitialFact();
+            result.setOutFact(block, fact);
+        }
+        return fact;
+    }
+
+    private void doSolveForward(DataflowAnalysis<Stmt, Fact> analysis,
+                                BlockCFG blockCFG, BlockDataflowResult<Fact> result) {
+        CFG<Stmt> cfg = blockCFG.getStmtCFG();
+        OrderedWorkList workList = new OrderedWorkList(
+                OrderedWorkList.reversePostOrder(blockCFG, true));
+        blockCFG.forEach(block -> {
+            if (!blockCFG.isEntry(block)) {
+                workList.add(block.getIndex());
+            }
+        });
+        int index;
+        while ((index = workList.poll()) != -1) {
+            BasicBlock block = blockCFG.getNode(index);
+            Stmt first = block.getFirstStmt();
+            // meet incoming facts
+            Fact in;
+            int inDegree = cfg.getInDegreeOf(first);
+            if (inDegree > 1) {
+                in = result.getInFact(block);
+                for (CFGEdge<Stmt> inEdge : cfg.getInEdgesOf(first)) {
+                    Fact fact = result.getOutFact(blockCFG.getBlockOf(inEdge.source()));
+                    if (analysis.needTransferEdge(inEdge)) {
+                        fact = analysis.transferEdge(inEdge, fact);
+                    }
+                    analysis.meetInto(fact, in);
+                }
+            } else if (inDegree == 1) {
+                CFGEdge<Stmt> inEdge = CollectionUtils.getOne(cfg.getInEdgesOf(first));
+                if (analysis.needTransferEdge(inEdge)) {
+                    in = analysis.transferEdge(inEdge,
+                            result.getOutFact(blockCFG.getBlockOf(inEdge.source())));
+                    result.setInFact(block, in);
+                } else {
+                    in = result.getInFact(block);
+                }
+            } else {
+                in = result.getInFact(block);
+            }
+            // apply transfer functions of the statements in the block
+            List<Stmt> stmts = block.getStmts();
+            int last = stmts.size() - 1;
+            for (int i = 0; i < last; ++i) {
+                Stmt stmt = stmts.get(i);
+                Fact out = analysis.newInitialFact();
+                analysis.transferNode(stmt, in, out);
+                in = result.transferEdge(
+                        CollectionUtils.getOne(cfg.getOutEdgesOf(stmt)), out);
+            }
+            Fact out = result.getOutFact(block);
+            boolean changed = analysis.transferNode(stmts.get(last), in, out);
+            if (changed) {
+                for (BasicBlock succ : blockCFG.getSuccsOf(block)) {
+                    workList.add(succ.getIndex());
+                }
+            }
+        }
+    }
+
+    private void initializeBackward(DataflowAnalysis<Stmt, Fact> analysis,
+                                    BlockCFG blockCFG, BlockDataflowResult<Fact> result) {
+        CFG<Stmt> cfg = blockCFG.getStmtCFG();
+        // initialize exit
+        BasicBlock exit = blockCFG.getExit();
+        Fact exitFact = analysis.newBoundaryFact();
+        result.setInFact(exit, exitFact);
+        result.setOutFact(exit, exitFact);
+        blockCFG.forEach(block -> {
+            // skip exit which has been initialized
+            if (blockCFG.isExit(block)) {
+                return;
+            }
+            // initialize out fact
+            Stmt last = block.getLastStmt();
+            if (cfg.getOutDegreeOf(last) == 1) {
+                cfg.getOutEdgesOf(last).forEach(edge -> {
+                    if (!analysis.needTransferEdge(edge)) {
+                        result.setOutFact(block, getOrNewInFact(result, analysis,
+                                blockCFG.getBlockOf(edge.target())));
+                    }
+                });
+            }
+            if (result.getOutFact(block) == null) {
+                result.setOutFact(block, analysis.newInitialFact());
+            }
+            // initialize in fact
+            getOrNewInFact(result, analysis, block);
+        });
+    }
+
+    private Fact getOrNewInFact(BlockDataflowResult<Fact> result,
+                                DataflowAnalysis<Stmt, Fact> analysis,
+                                BasicBlock block) {
+        Fact fact = result.getInFact(block);
+        if (fact == null) {
+            fact = analysis.newInitialFact();
+            result.setInFact(block, fact);
+        }
+        return fact;
+    }
+
+    private void doSolveBackward(DataflowAnalysis<Stmt, Fact> analysis,
+                                 BlockCFG blockCFG, BlockDataflowResult<Fact> result) {
+        CFG<Stmt> cfg = blockCFG.getStmtCFG();
+        OrderedWorkList workList = new OrderedWorkList(
+                OrderedWorkList.reversePostOrder(blockCFG, false));
+        blockCFG.forEach(block -> {
+            if (!blockCFG.isExit(block)) {
+                workList.add(block.getIndex());
+            }
+        });
+        int index;
+        while ((index = workList.poll()) != -1) {
+            BasicBlock block = blockCFG.getNode(index);
+            Stmt last = block.getLastStmt();
+            // meet incoming facts
+            Fact out;
+            int outDegree = cfg.getOutDegreeOf(last);
+            if (outDegree > 1) {
+                out = result.getOutFact(block);
+                for (CFGEdge<Stmt> outEdge : cfg.getOutEdgesOf(last)) {
+                    Fact fact = result.getInFact(blockCFG.getBlockOf(outEdge.target()));
+                    if (analysis.needTransferEdge(outEdge)) {
+                        fact = analysis.transferEdge(outEdge, fact);
+                    }
+                    analysis.meetInto(fact, out);
+                }
+            } else if (outDegree == 1) {
+                CFGEdge<Stmt> outEdge = CollectionUtils.getOne(cfg.getOutEdgesOf(last));
+                if (analysis.needTransferEdge(outEdge)) {
+                    out = analysis.transferEdge(outEdge,
+                            result.getInFact(blockCFG.getBlockOf(outEdge.target())));
+                    result.setOutFact(block, out);
+                } else {
+                    out = result.getOutFact(block);
+                }
+            } else {
+                out = result.getOutFact(block);
+            }
+            // apply transfer functions of the statements in the block
+            List<Stmt> stmts = block.getStmts();
+            for (int i = stmts.size() - 1; i > 0; --i) {
+                Stmt stmt = stmts.get(i);
+                Fact in = analysis.newInitialFact();
+                analysis.transferNode(stmt, in, out);
+                out = result.transferEdge(
+                        CollectionUtils.getOne(cfg.getInEdgesOf(stmt)), in);
+            }
+            Fact in = result.getInFact(block);
+            boolean changed = analysis.transferNode(stmts.get(0), in, out);
+            if (changed) {
+                for (BasicBlock pred : blockCFG.getPredsOf(block)) {
+                    workList.add(pred.getIndex());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.RegularBitSet;
+
+/**
+ * Work list of CFG nodes (represented by their indexes), which polls
+ * the nodes in a precomputed order. The work list is a bit set indexed by
+ * the positions of the nodes in the order, so that both adding and polling
+ * a node take (amortized) constant time without allocations.
+ * <p>
+ * For data-flow analysis, the reverse postorder of the CFG (or of the
+ * reverse CFG for backward analysis) lets each node be visited after its
+ * predecessors (successors) except for back edges, which reduces the
+ * iterations to reach the fixed point.
+ */
+class OrderedWorkList {
+
+    /**
+     * Node indexes in the order.
+     */
+    private final int[] order;
+
+    /**
+     * Positions of the nodes in the order, indexed by node indexes.
+     */
+    private final int[] positions;
+
+    private final RegularBitSet bits;
+
+    /**
+     * Lower bound of the positions of the nodes in this work list.
+     */
+    private int first;
+
+    OrderedWorkList(int[] order) {
+        this.order = order;
+        this.positions = new int[order.length];
+        for (int i = 0; i < order.length; ++i) {
+            positions[order[i]] = i;
+        }
+        this.bits = new RegularBitSet(order.length);
+        this.first = order.length;
+    }
+
+    void add(int node) {
+        int pos = positions[node];
+        bits.set(pos);
+        if (pos < first) {
+            first = pos;
+        }
+    }
+
+    boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    /**
+     * Removes and returns the first node in this work list.
+     *
+     * @return index of the node, or -1 if this work list is empty.
+     */
+    int poll() {
+        int pos = bits.nextSetBit(first);
+        if (pos == -1) {
+            first = order.length;
+            return -1;
+        }
+        bits.clear(pos);
+        first = pos + 1;
+        return order[pos];
+    }
+
+    /**
+     * Computes the reverse postorder of the nodes of given CFG by
+     * depth-first search from the entry (exit for backward direction).
+     * The nodes unreachable from the entry (exit) follow in order of
+     * their indexes (reverse order for backward direction), where each
+     * of them, if not visited yet, starts another depth-first search.
+     *
+     * @param forward whether the search follows the control-flow edges
+     *                forward or backward
+     * @return indexes of the nodes in reverse postorder.
+     */
+    static <N> int[] reversePostOrder(CFG<N> cfg, boolean forward) {
+        int n = cfg.getNumberOfNodes();
+        int[][] succs = new int[n][];
+        for (N node : cfg) {
+            succs[cfg.getIndex(node)] = (forward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node))
+                    .stream()
+                    .mapToInt(cfg::getIndex)
+                    .toArray();
+        }
+        int[] order = new int[n];
+        int ordered = 0;
+        boolean[] visited = new boolean[n];
+        // use iterative (non-recursive) algorithm to avoid stack overflow
+        // for large graph
+        int[] stack = new int[n];
+        int[] nextSucc = new int[n];
+        int start = cfg.getIndex(forward ? cfg.getEntry() : cfg.getExit());
+        for (int i = 0; i <= n; ++i) {
+            int root = i == 0 ? start : (forward ? i - 1 : n - i);
+            if (visited[root]) {
+                continue;
+            }
+            int begin = ordered;
+            int top = 0;
+            stack[top++] = root;
+            visited[root] = true;
+            while (top > 0) {
+                int node = stack[top - 1];
+                if (nextSucc[node] < succs[node].length) {
+                    int succ = succs[node][nextSucc[node]++];
+                    if (!visited[succ]) {
+                        visited[succ] = true;
+                        stack[top++] = succ;
+                    }
+                } else {
+                    order[ordered++] = node; // postorder
+                    --top;
+                }
+            }
+            // reverse postorder of this search
+            for (int l = begin, r = ordered - 1; l < r; ++l, --r) {
+                int tmp = order[l];
+                order[l] = order[r];
+                order[r] = tmp;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return indexes of the nodes of given CFG in ascending order
+     * (descending for backward direction).
+     */
+    static <N> int[] indexOrder(CFG<N> cfg, boolean forward) {
+        int n = cfg.getNumberOfNodes();
+        int[] order = new int[n];
+        for (int i = 0; i < n; ++i) {
+            order[i] = forward ? i : n - 1 - i;
+        }
+        return order;
+    }
+}
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import pascal.taie.analysis.dataflow.analysis.BitVectorDataflowAnalysis;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 
@@ -47,6 +48,44 @@ public interface Solver<Node, Fact> {
         return (Solver<Node, Fact>) SOLVER;
     }
 
+    /**
+     * The solver for {@link BitVectorDataflowAnalysis}.
+     */
+    @SuppressWarnings("rawtypes")
+    Solver BIT_VECTOR_SOLVER = new BitVectorSolver<>(false);
+
+    /**
+     * The solver which iterates over basic blocks.
+     */
+    @SuppressWarnings("rawtypes")
+    Solver BLOCK_SOLVER = new BlockSolver<>();
+
+    /**
+     * The solver for {@link BitVectorDataflowAnalysis},
+     * which iterates over basic blocks.
+     */
+    @SuppressWarnings("rawtypes")
+    Solver BLOCK_BIT_VECTOR_SOLVER = new BitVectorSolver<>(true);
+
+    /**
+     * Static factory method for obtaining a solver for given analysis.
+     *
+     * @param blockMode whether the solver iterates over basic blocks,
+     *                  which requires the CFG of the analysis to have
+     *                  statements as nodes
+     */
+    @SuppressWarnings("unchecked")
+    static <Node, Fact> Solver<Node, Fact> getSolver(
+            DataflowAnalysis<Node, Fact> analysis, boolean blockMode) {
+        Solver<?, ?> solver;
+        if (analysis instanceof BitVectorDataflowAnalysis) {
+            solver = blockMode ? BLOCK_BIT_VECTOR_SOLVER : BIT_VECTOR_SOLVER;
+        } else {
+            solver = blockMode ? BLOCK_SOLVER : SOLVER;
+        }
+        return (Solver<Node, Fact>) solver;
+    }
+
     /**
      * Solves the given analysis problem.
      *
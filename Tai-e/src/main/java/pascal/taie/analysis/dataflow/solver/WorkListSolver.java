@@ -27,16 +27,35 @@ import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGEdge;
 import pascal.taie.util.collection.CollectionUtils;
-import pascal.taie.util.collection.Sets;
-
-import java.util.Comparator;
-import java.util.NavigableSet;
 
 /**
  * Work-list solver with optimization.
+ * <p>
+ * The work list polls the nodes in reverse postorder of the CFG
+ * (or of the reverse CFG for backward analysis), see {@link OrderedWorkList}.
  */
 class WorkListSolver<Node, Fact> extends AbstractSolver<Node, Fact> {
 
+    /**
+     * Whether the work list polls nodes in reverse postorder,
+     * otherwise in order of node indexes.
+     */
+    private final boolean reversePostOrder;
+
+    WorkListSolver() {
+        this(true);
+    }
+
+    WorkListSolver(boolean reversePostOrder) {
+        this.reversePostOrder = reversePostOrder;
+    }
+
+    private OrderedWorkList newWorkList(CFG<Node> cfg, boolean forward) {
+        return new OrderedWorkList(reversePostOrder
+                ? OrderedWorkList.reversePostOrder(cfg, forward)
+                : OrderedWorkList.indexOrder(cfg, forward));
+    }
+
     @Override
     protected void initializeForward(DataflowAnalysis<Node, Fact> analysis,
                                      DataflowResult<Node, Fact> result) {
@@ -82,15 +101,15 @@ class WorkListSolver<Node, Fact> extends AbstractSolver<Node, Fact> {
     protected void doSolveForward(DataflowAnalysis<Node, Fact> analysis,
                                   DataflowResult<Node, Fact> result) {
         CFG<Node> cfg = analysis.getCFG();
-        NavigableSet<Node> workList = Sets.newOrderedSet(
-                Comparator.comparingInt(cfg::getIndex));
+        OrderedWorkList workList = newWorkList(cfg, true);
         cfg.forEach(node -> {
             if (!cfg.isEntry(node)) {
-                workList.add(node);
+                workList.add(cfg.getIndex(node));
             }
         });
-        while (!workList.isEmpty()) {
-            Node node = workList.pollFirst();
+        int index;
+        while ((index = workList.poll()) != -1) {
+            Node node = cfg.getNode(index);
             // meet incoming facts
             Fact in;
             int inDegree = cfg.getInDegreeOf(node);
@@ -119,7 +138,9 @@ class WorkListSolver<Node, Fact> extends AbstractSolver<Node, Fact> {
             Fact out = result.getOutFact(node);
             boolean changed = analysis.transferNode(node, in, out);
             if (changed) {
-                workList.addAll(cfg.getSuccsOf(node));
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.add(cfg.getIndex(succ));
+                }
             }
         }
     }
@@ -169,15 +190,15 @@ class WorkListSolver<Node, Fact> extends AbstractSolver<Node, Fact> {
     protected void doSolveBackward(DataflowAnalysis<Node, Fact> analysis,
                                    DataflowResult<Node, Fact> result) {
         CFG<Node> cfg = analysis.getCFG();
-        NavigableSet<Node> workList = Sets.newOrderedSet(
-                Comparator.comparingInt(n -> -cfg.getIndex(n)));
+        OrderedWorkList workList = newWorkList(cfg, false);
         cfg.forEach(node -> {
             if (!cfg.isExit(node)) {
-                workList.add(node);
+                workList.add(cfg.getIndex(node));
             }
         });
-        while (!workList.isEmpty()) {
-            Node node = workList.pollFirst();
+        int index;
+        while ((index = workList.poll()) != -1) {
+            Node node = cfg.getNode(index);
             // meet incoming facts
             Fact out;
             int outDegree = cfg.getOutDegreeOf(node);
@@ -206,7 +227,9 @@ class WorkListSolver<Node, Fact> extends AbstractSolver<Node, Fact> {
             Fact in = result.getInFact(node);
             boolean changed = analysis.transferNode(node, in, out);
             if (changed) {
-                workList.addAll(cfg.getPredsOf(node));
+                for (Node pred : cfg.getPredsOf(node)) {
+                    workList.add(cfg.getIndex(pred));
+                }
             }
         }
     }
@@ -27,6 +27,7 @@ import pascal.taie.analysis.dataflow.analysis.LiveVariable;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Evaluator;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
@@ -61,16 +62,23 @@ public class DeadCodeDetection extends MethodAnalysis<Set<Stmt>> {
 
     public static final String ID = "dead-code";
 
+    /**
+     * Whether use the result of sparse conditional constant propagation
+     * instead of the one of constant propagation.
+     */
+    private final boolean sparse;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBoolean("sparse");
     }
 
     @Override
     public Set<Stmt> analyze(IR ir) {
         // obtain results of pre-analyses
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
-        NodeResult<Stmt, CPFact> constants =
-                ir.getResult(ConstantPropagation.ID);
+        NodeResult<Stmt, CPFact> constants = ir.getResult(sparse ?
+                SparseConstantPropagation.ID : ConstantPropagation.ID);
         NodeResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariable.ID);
         // keep statements (dead code) sorted in the resulting set
@@ -0,0 +1,78 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+/**
+ * Basic block, i.e., a maximal sequence of statements in which the control
+ * flows from one statement to the next one only, without branches, merges,
+ * or exceptional edges between them.
+ */
+public class BasicBlock {
+
+    private final int index;
+
+    private final List<Stmt> stmts;
+
+    BasicBlock(int index, List<Stmt> stmts) {
+        this.index = index;
+        this.stmts = List.copyOf(stmts);
+    }
+
+    /**
+     * @return the index of this block in its {@link BlockCFG}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the statements in this block, in control-flow order.
+     */
+    public List<Stmt> getStmts() {
+        return stmts;
+    }
+
+    public Stmt getFirstStmt() {
+        return stmts.get(0);
+    }
+
+    public Stmt getLastStmt() {
+        return stmts.get(stmts.size() - 1);
+    }
+
+    /**
+     * @return the number of statements in this block.
+     */
+    public int size() {
+        return stmts.size();
+    }
+
+    @Override
+    public String toString() {
+        return "B" + index + stmts;
+    }
+}
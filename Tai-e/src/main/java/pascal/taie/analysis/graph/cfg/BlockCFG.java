@@ -0,0 +1,197 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.CollectionUtils;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CFG with {@link BasicBlock}s as nodes, which is built from a CFG with
+ * {@link Stmt}s as nodes. The entry and exit of the statement-level CFG
+ * form their own blocks, which are the entry and exit of this CFG.
+ * Each edge of this CFG corresponds to an edge of the statement-level CFG
+ * from the last statement of a block to the first statement of another
+ * (or the same) block, and has the same kind.
+ */
+public class BlockCFG extends AbstractCFG<BasicBlock> {
+
+    private final CFG<Stmt> stmtCFG;
+
+    private final List<BasicBlock> blocks = new ArrayList<>();
+
+    /**
+     * Blocks of statements, indexed by the indexes of statements
+     * in {@link #stmtCFG}.
+     */
+    private final BasicBlock[] blockOf;
+
+    /**
+     * Indexes of statements in their blocks, indexed by the indexes
+     * of statements in {@link #stmtCFG}.
+     */
+    private final int[] indexInBlock;
+
+    public BlockCFG(CFG<Stmt> stmtCFG) {
+        super(stmtCFG.getIR());
+        this.stmtCFG = stmtCFG;
+        this.blockOf = new BasicBlock[stmtCFG.getNumberOfNodes()];
+        this.indexInBlock = new int[stmtCFG.getNumberOfNodes()];
+        buildBlocks();
+        buildEdges();
+    }
+
+    private void buildBlocks() {
+        // build the blocks starting from leaders in order of statements
+        for (int i = 0; i < blockOf.length; ++i) {
+            Stmt stmt = stmtCFG.getNode(i);
+            if (isLeader(stmt)) {
+                addBlock(stmt);
+            }
+        }
+        // the remaining statements are in cycles without leaders,
+        // e.g., an infinite loop of fall-through statements
+        for (int i = 0; i < blockOf.length; ++i) {
+            if (blockOf[i] == null) {
+                addBlock(stmtCFG.getNode(i));
+            }
+        }
+        setEntry(getBlockOf(stmtCFG.getEntry()));
+        setExit(getBlockOf(stmtCFG.getExit()));
+    }
+
+    /**
+     * @return true if given statement starts a basic block, otherwise false.
+     */
+    private boolean isLeader(Stmt stmt) {
+        if (stmtCFG.isEntry(stmt) || stmtCFG.isExit(stmt)
+                || stmtCFG.getInDegreeOf(stmt) != 1) {
+            return true;
+        }
+        CFGEdge<Stmt> inEdge = CollectionUtils.getOne(stmtCFG.getInEdgesOf(stmt));
+        Stmt pred = inEdge.source();
+        return inEdge.isExceptional() || stmtCFG.isEntry(pred)
+                || stmtCFG.getOutDegreeOf(pred) != 1;
+    }
+
+    /**
+     * Adds the block started by given statement, which is extended until
+     * the control flow branches or reaches another block.
+     */
+    private void addBlock(Stmt leader) {
+        List<Stmt> stmts = new ArrayList<>();
+        Stmt stmt = leader;
+        while (true) {
+            stmts.add(stmt);
+            if (stmtCFG.isExit(stmt) || stmtCFG.isEntry(stmt)
+                    || stmtCFG.getOutDegreeOf(stmt) != 1) {
+                break;
+            }
+            Stmt succ = CollectionUtils.getOne(stmtCFG.getSuccsOf(stmt));
+            if (isLeader(succ) || succ == leader
+                    || blockOf[stmtCFG.getIndex(succ)] != null) {
+                break;
+            }
+            stmt = succ;
+        }
+        BasicBlock block = new BasicBlock(blocks.size(), stmts);
+        blocks.add(block);
+        for (int i = 0; i < stmts.size(); ++i) {
+            int s = stmtCFG.getIndex(stmts.get(i));
+            blockOf[s] = block;
+            indexInBlock[s] = i;
+        }
+        addNode(block);
+    }
+
+    private void buildEdges() {
+        for (BasicBlock block : blocks) {
+            for (CFGEdge<Stmt> edge : stmtCFG.getOutEdgesOf(block.getLastStmt())) {
+                BasicBlock target = getBlockOf(edge.target());
+                CFGEdge<BasicBlock> blockEdge;
+                if (edge.isExceptional()) {
+                    blockEdge = new ExceptionalEdge<>(edge.getKind(),
+                            block, target, edge.getExceptions());
+                } else if (edge.isSwitchCase()) {
+                    blockEdge = new SwitchCaseEdge<>(block, target,
+                            edge.getCaseValue());
+                } else {
+                    blockEdge = new CFGEdge<>(edge.getKind(), block, target);
+                }
+                addEdge(blockEdge);
+            }
+        }
+    }
+
+    /**
+     * @return the statement-level CFG that this CFG is built from.
+     */
+    public CFG<Stmt> getStmtCFG() {
+        return stmtCFG;
+    }
+
+    /**
+     * @return the block containing given statement.
+     */
+    public BasicBlock getBlockOf(Stmt stmt) {
+        return blockOf[stmtCFG.getIndex(stmt)];
+    }
+
+    /**
+     * @return the index of given statement in the statements of its block,
+     * i.e., {@code getBlockOf(stmt).getStmts().get(index) == stmt}.
+     */
+    public int getIndexInBlock(Stmt stmt) {
+        return indexInBlock[stmtCFG.getIndex(stmt)];
+    }
+
+    @Override
+    public int getIndex(BasicBlock block) {
+        return block.getIndex();
+    }
+
+    @Override
+    public BasicBlock getNode(int index) {
+        return blocks.get(index);
+    }
+
+    @Override
+    public Set<BasicBlock> getNodes() {
+        // keep nodes sorted to ease debugging
+        Set<BasicBlock> nodes = Sets.newOrderedSet(
+                Comparator.comparingInt(BasicBlock::getIndex));
+        nodes.addAll(blocks);
+        return Collections.unmodifiableSet(nodes);
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return blocks.size();
+    }
+}
@@ -23,14 +23,20 @@
 package pascal.taie.analysis.pta;
 
 import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.solver.DefaultSolver;
+import pascal.taie.analysis.pta.core.solver.LibrarySummary;
+import pascal.taie.analysis.pta.core.solver.ParallelSolver;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.AnalysisTimer;
 import pascal.taie.analysis.pta.plugin.ClassInitializer;
@@ -54,17 +60,25 @@ import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
 
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
 
     public static final String ID = "pta";
 
+    private static final Logger logger = LogManager.getLogger(PointerAnalysis.class);
+
     public PointerAnalysis(AnalysisConfig config) {
         super(config);
     }
@@ -72,28 +86,37 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        HeapModel heapModel = new AllocationSiteBasedModel(options);
-        ContextSelector selector = null;
+        // heap models and context selectors may keep states of the analysis
+        // (e.g., merged objects and the budgets of adaptive selector), thus
+        // each solver run creates new instances by the suppliers
+        Supplier<HeapModel> heapModel = () -> new AllocationSiteBasedModel(options);
+        Supplier<ContextSelector> selector = null;
         String advanced = options.getString("advanced");
         String cs = options.getString("cs");
         if (advanced != null) {
             if (advanced.equals("collection")) {
-                selector = ContextSelectorFactory.makeSelectiveSelector(cs,
-                        new CollectionMethods(World.get().getClassHierarchy()).get());
+                Set<JMethod> csMethods = new CollectionMethods(
+                        World.get().getClassHierarchy()).get();
+                selector = () -> ContextSelectorFactory.makeSelectiveSelector(
+                        cs, csMethods);
             } else {
                 // run context-insensitive analysis as pre-analysis
-                PointerAnalysisResult preResult = runAnalysis(heapModel,
+                PointerAnalysisResult preResult = runAnalysis(heapModel.get(),
                         ContextSelectorFactory.makeCISelector());
                 if (advanced.startsWith("scaler")) {
-                    selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                    .makeGuidedSelector(Scaler.run(preResult, advanced)),
+                    Map<JMethod, String> csMap = Timer.runAndCount(
+                            () -> Scaler.run(preResult, advanced),
                             "Scaler", Level.INFO);
+                    selector = () -> ContextSelectorFactory.makeGuidedSelector(csMap);
                 } else if (advanced.startsWith("zipper")) {
-                    selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                    .makeSelectiveSelector(cs, Zipper.run(preResult, advanced)),
+                    Set<JMethod> csMethods = Timer.runAndCount(
+                            () -> Zipper.run(preResult, advanced),
                             "Zipper", Level.INFO);
+                    selector = () -> ContextSelectorFactory.makeSelectiveSelector(
+                            cs, csMethods);
                 } else if (advanced.equals("mahjong")) {
-                    heapModel = Timer.runAndCount(() -> Mahjong.run(preResult, options),
+                    heapModel = () -> Timer.runAndCount(
+                            () -> Mahjong.run(preResult, options),
                             "Mahjong", Level.INFO);
                 } else {
                     throw new IllegalArgumentException(
@@ -102,31 +125,130 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
             }
         }
         if (selector == null) {
-            selector = ContextSelectorFactory.makePlainSelector(cs);
+            selector = () -> ContextSelectorFactory.makePlainSelector(cs);
+        }
+        if (options.getBoolean("adaptive-cs")) {
+            Supplier<ContextSelector> delegate = selector;
+            selector = () -> ContextSelectorFactory.makeAdaptiveSelector(
+                    delegate.get(),
+                    options.getInt("adaptive-method-budget"),
+                    options.getInt("adaptive-pts-budget"),
+                    options.getInt("adaptive-global-budget"));
+        }
+        String librarySummary = options.getString("library-summary");
+        if (librarySummary != null) {
+            summarizeLibrary(new File(librarySummary), heapModel, selector);
         }
-        return runAnalysis(heapModel, selector);
+        return runAnalysis(heapModel.get(), selector.get());
     }
 
     private PointerAnalysisResult runAnalysis(HeapModel heapModel,
                                               ContextSelector selector) {
         AnalysisOptions options = getOptions();
-        Solver solver = new DefaultSolver(options,
-                heapModel, selector, new MapBasedCSManager());
+        Solver solver = makeSolver(options, heapModel, selector);
         // The initialization of some Plugins may read the fields in solver,
         // e.g., contextSelector or csManager, thus we initialize Plugins
         // after setting all other fields of solver.
-        setPlugin(solver, options);
+        setPlugin(solver, options, false);
         solver.solve();
         return solver.getResult();
     }
 
-    private static void setPlugin(Solver solver, AnalysisOptions options) {
+    /**
+     * Computes the library summary by analyzing the implicit entries alone,
+     * if the summary does not exist in given directory.
+     * The summary is computed with its own heap model and context selector,
+     * so that the main analysis does not depend on whether the summary
+     * has been computed.
+     */
+    private void summarizeLibrary(File dir, Supplier<HeapModel> heapModel,
+                                  Supplier<ContextSelector> selector) {
+        AnalysisOptions options = getSummaryOptions(getOptions());
+        LibrarySummary summary = new LibrarySummary(dir,
+                World.get().getClassHierarchy(), options);
+        if (!summary.exists()) {
+            logger.info("Computing library summary {}", summary.getFile());
+            Solver solver = makeSolver(options, heapModel.get(), selector.get());
+            setPlugin(solver, options, true);
+            solver.solve();
+            if (!solver.getResult().isPartial()) {
+                summary.save(solver.getCSManager());
+            }
+        }
+    }
+
+    /**
+     * @return the options for computing library summary, where the options
+     * that make the solver load or save the files of the main analysis,
+     * and the time limit of the main analysis, are cleared. Otherwise,
+     * the summary may be seeded by the facts of application code from
+     * the checkpoint or incremental state of the main analysis, and the
+     * checkpoint and incremental state would be overwritten by the
+     * library-only run.
+     */
+    private static AnalysisOptions getSummaryOptions(AnalysisOptions options) {
+        Map<String, Object> summaryOptions = Maps.newMap();
+        options.keySet().forEach(key -> summaryOptions.put(key, options.get(key)));
+        summaryOptions.put("resume", false);
+        summaryOptions.put("checkpoint-interval", -1);
+        summaryOptions.put("incremental-state", null);
+        summaryOptions.put("time-limit", -1);
+        return new AnalysisOptions(summaryOptions);
+    }
+
+    private static Solver makeSolver(AnalysisOptions options,
+                                     HeapModel heapModel,
+                                     ContextSelector selector) {
+        String solver = options.getString("solver");
+        CSManager csManager = makeCSManager(options);
+        return switch (solver) {
+            case "default" -> new DefaultSolver(options, heapModel, selector,
+                    csManager);
+            case "parallel" -> {
+                if (options.getString("incremental-state") != null) {
+                    throw new ConfigException(
+                            "Incremental analysis is not supported by parallel solver");
+                }
+                if (options.getBoolean("resume")) {
+                    throw new ConfigException(
+                            "Resuming from checkpoint is not supported by parallel solver");
+                }
+                if (options.getString("library-summary") != null) {
+                    throw new ConfigException(
+                            "Library summary is not supported by parallel solver");
+                }
+                yield new ParallelSolver(options, heapModel, selector, csManager);
+            }
+            default -> throw new ConfigException(
+                    "Unknown pointer analysis solver: " + solver);
+        };
+    }
+
+    private static CSManager makeCSManager(AnalysisOptions options) {
+        String csManager = options.getString("cs-manager");
+        boolean substituteVars = options.getBoolean("var-substitution");
+        return switch (csManager) {
+            case "map" -> new MapBasedCSManager(substituteVars);
+            case "array" -> new ArrayBasedCSManager(substituteVars);
+            default -> throw new ConfigException(
+                    "Unknown CS manager: " + csManager);
+        };
+    }
+
+    /**
+     * @param summarizingLibrary whether the solver computes library summary,
+     *                           which processes only the implicit entries,
+     *                           and skips the plugins for result processing
+     *                           and the plugins specified in options.
+     */
+    private static void setPlugin(Solver solver, AnalysisOptions options,
+                                  boolean summarizingLibrary) {
         CompositePlugin plugin = new CompositePlugin();
         // add builtin plugins
         // To record elapsed time precisely, AnalysisTimer should be added at first.
         plugin.addPlugin(
                 new AnalysisTimer(),
-                new EntryPointHandler(),
+                new EntryPointHandler(!summarizingLibrary),
                 new ClassInitializer(),
                 new ThreadHandler(),
                 new NativeModeller(),
@@ -154,10 +276,16 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         if (options.getString("taint-config") != null) {
             plugin.addPlugin(new TaintAnalysis());
         }
-        plugin.addPlugin(new ResultProcessor());
-        // add plugins specified in options
-        // noinspection unchecked
-        addPlugins(plugin, (List<String>) options.get("plugins"));
+        if (solver.getContextSelector() instanceof Plugin selectorPlugin) {
+            // e.g., adaptive selector which observes the analysis
+            plugin.addPlugin(selectorPlugin);
+        }
+        if (!summarizingLibrary) {
+            plugin.addPlugin(new ResultProcessor());
+            // add plugins specified in options
+            // noinspection unchecked
+            addPlugins(plugin, (List<String>) options.get("plugins"));
+        }
         // connects plugins and solver
         plugin.setSolver(solver);
         solver.setPlugin(plugin);
@@ -180,4 +180,11 @@ public interface PointerAnalysisResult extends ResultHolder {
      * @return the resulting object flow graph.
      */
     ObjectFlowGraph getObjectFlowGraph();
+
+    /**
+     * @return {@code true} if the analysis stopped before reaching the fixed
+     * point (e.g., due to time limit or memory pressure), and thus this result
+     * may be unsound.
+     */
+    boolean isPartial();
 }
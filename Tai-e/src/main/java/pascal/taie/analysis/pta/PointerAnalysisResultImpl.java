@@ -40,11 +40,15 @@ import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.core.solver.PointerFlowGraph;
 import pascal.taie.analysis.pta.core.solver.PropagateTypes;
+import pascal.taie.analysis.pta.pts.BDDPointsToRelation;
 import pascal.taie.ir.exp.ArrayAccess;
 import pascal.taie.ir.exp.InstanceFieldAccess;
 import pascal.taie.ir.exp.StaticFieldAccess;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.ArrayType;
@@ -55,11 +59,18 @@ import pascal.taie.util.collection.HybridBitSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Pair;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class PointerAnalysisResultImpl extends AbstractResultHolder
@@ -71,6 +82,11 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
 
     private final CSManager csManager;
 
+    /**
+     * Whether the points-to sets are represented by BDDs.
+     */
+    private final boolean bddPointsToSets;
+
     /**
      * Points-to set of local variables.
      */
@@ -123,16 +139,30 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
      */
     private ObjectFlowGraph ofg;
 
+    /**
+     * Whether the analysis stopped before reaching the fixed point.
+     */
+    private final boolean partial;
+
+    /**
+     * Eagerly computed context-insensitive view of the points-to sets,
+     * or {@code null} if {@link #project()} has not been called.
+     */
+    @Nullable
+    private volatile Projection projection;
+
     public PointerAnalysisResultImpl(
             PropagateTypes propTypes, CSManager csManager,
             Indexer<Obj> objIndexer, CallGraph<CSCallSite, CSMethod> csCallGraph,
-            PointerFlowGraph pfg) {
+            PointerFlowGraph pfg, boolean partial) {
         this.propTypes = propTypes;
         this.csManager = csManager;
         this.objIndexer = objIndexer;
         this.csCallGraph = csCallGraph;
         this.pfg = pfg;
+        this.partial = partial;
         this.objects = removeContexts(getCSObjects().stream());
+        this.bddPointsToSets = BDDPointsToRelation.isApplicable(csManager.getCSVars());
     }
 
     @Override
@@ -180,10 +210,27 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
         if (!propTypes.isAllowed(var)) {
             return Set.of();
         }
+        Projection proj = projection;
+        if (proj != null) {
+            return proj.varPointsTo.getOrDefault(var, Set.of());
+        }
         return varPointsTo.computeIfAbsent(var, v ->
                 removeContexts(csManager.getCSVarsOf(var)
                         .stream()
-                        .flatMap(Pointer::objects)));
+                        .flatMap(CSVar::objects)));
+    }
+
+    /**
+     * Builds the BDD-encoded points-to relation of all context-sensitive
+     * variables. The relation is not kept by this result, as it duplicates
+     * the points-to sets of the variables; the caller may keep it instead.
+     *
+     * @return the relation, or {@code null} if points-to sets are not
+     * represented by BDDs (i.e., option {@code pts-bdd} is disabled).
+     */
+    @Nullable
+    public BDDPointsToRelation getCSVarPointsToRelation() {
+        return BDDPointsToRelation.of(csManager.getCSVars());
     }
 
     @Override
@@ -206,7 +253,15 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
             return Set.of();
         }
         // TODO - properly handle non-exist base.field
-        return ifieldPointsTo.computeIfAbsent(new Pair<>(base, field), p ->
+        Pair<Var, JField> access = new Pair<>(base, field);
+        Projection proj = projection;
+        if (proj != null) {
+            Set<Obj> pts = proj.ifieldPointsTo.get(access);
+            if (pts != null) {
+                return pts;
+            }
+        }
+        return ifieldPointsTo.computeIfAbsent(access, p ->
                 removeContexts(csManager.getCSVarsOf(base)
                         .stream()
                         .flatMap(Pointer::objects)
@@ -224,6 +279,10 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
             return Set.of();
         }
         // TODO - properly handle non-exist base.field
+        Projection proj = projection;
+        if (proj != null) {
+            return proj.objFieldPointsTo.getOrDefault(new Pair<>(base, field), Set.of());
+        }
         return removeContexts(csManager.getCSObjsOf(base)
                 .stream()
                 .map(o -> csManager.getInstanceField(o, field))
@@ -248,6 +307,10 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
             logger.warn("{} is not a static field", field);
             return Set.of();
         }
+        Projection proj = projection;
+        if (proj != null) {
+            return proj.sfieldPointsTo.getOrDefault(field, Set.of());
+        }
         return sfieldPointsTo.computeIfAbsent(field, f ->
                 removeContexts(csManager.getStaticField(field).objects()));
     }
@@ -270,6 +333,10 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
             logger.warn("{} is not an array", base);
             return Set.of();
         }
+        Projection proj = projection;
+        if (proj != null) {
+            return proj.arrayPointsTo.getOrDefault(base, Set.of());
+        }
         return arrayPointsTo.computeIfAbsent(base, b ->
                 removeContexts(csManager.getCSVarsOf(b)
                         .stream()
@@ -288,6 +355,10 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
             logger.warn("{} is not an array", array);
             return Set.of();
         }
+        Projection proj = projection;
+        if (proj != null) {
+            return proj.objArrayPointsTo.getOrDefault(array, Set.of());
+        }
         return removeContexts(csManager.getCSObjsOf(array)
                 .stream()
                 .map(csManager::getArrayIndex)
@@ -314,6 +385,134 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
         return mayAlias(a1.getBase(), a2.getBase());
     }
 
+    /**
+     * Eagerly removes contexts of the points-to sets of all variables,
+     * instance field accesses (v.f) and array accesses (a[i]) in the IR,
+     * static fields, and fields and array indexes of all objects.
+     * The results are canonicalized and kept in a read-only structure,
+     * which answers the subsequent queries without contention.
+     * The projection is computed in parallel, unless the points-to sets
+     * are represented by BDDs.
+     * <p>
+     * This method should be called after the pointer analysis finishes.
+     */
+    public void project() {
+        if (projection != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        // index the instance fields and array indexes by their bases,
+        // so that the parallel projection never creates new pointers
+        Map<CSObj, Map<JField, InstanceField>> csObjFields = Maps.newMap();
+        Map<Pair<Obj, JField>, List<InstanceField>> objFields = Maps.newMap();
+        for (InstanceField ifield : csManager.getInstanceFields()) {
+            csObjFields.computeIfAbsent(ifield.getBase(), __ -> Maps.newSmallMap())
+                    .put(ifield.getField(), ifield);
+            objFields.computeIfAbsent(new Pair<>(ifield.getBase().getObject(),
+                    ifield.getField()), __ -> new ArrayList<>()).add(ifield);
+        }
+        Map<CSObj, ArrayIndex> csObjArrays = Maps.newMap();
+        Map<Obj, List<ArrayIndex>> objArrays = Maps.newMap();
+        for (ArrayIndex arrayIndex : csManager.getArrayIndexes()) {
+            csObjArrays.put(arrayIndex.getArray(), arrayIndex);
+            objArrays.computeIfAbsent(arrayIndex.getArray().getObject(),
+                    __ -> new ArrayList<>()).add(arrayIndex);
+        }
+        boolean parallel = !bddPointsToSets; // BDDs are not thread-safe
+        Map<Var, Set<Obj>> vars = project(getVars(), parallel, var ->
+                propTypes.isAllowed(var) ? objectsOf(var) : Stream.empty());
+        List<Pair<Var, JField>> fieldAccesses = getVars()
+                .stream()
+                .flatMap(var -> Stream.concat(
+                                var.getLoadFields().stream().map(LoadField::getFieldRef),
+                                var.getStoreFields().stream().map(StoreField::getFieldRef))
+                        .map(FieldRef::resolveNullable)
+                        .filter(f -> f != null && !f.isStatic()
+                                && propTypes.isAllowed(f.getType()))
+                        .map(f -> new Pair<>(var, f)))
+                .distinct()
+                .toList();
+        Map<Pair<Var, JField>, Set<Obj>> ifields = project(fieldAccesses,
+                parallel, access -> objectsOf(access.first())
+                        .map(o -> {
+                            Map<JField, InstanceField> fields = csObjFields.get(o);
+                            return fields != null ? fields.get(access.second()) : null;
+                        })
+                        .filter(Objects::nonNull)
+                        .flatMap(InstanceField::objects));
+        Map<Var, Set<Obj>> arrays = project(
+                getVars().stream()
+                        .filter(var -> var.getType() instanceof ArrayType arrayType
+                                && propTypes.isAllowed(arrayType.elementType()))
+                        .toList(),
+                parallel, var -> objectsOf(var)
+                        .map(csObjArrays::get)
+                        .filter(Objects::nonNull)
+                        .flatMap(ArrayIndex::objects));
+        Map<JField, Set<Obj>> sfields = project(
+                getStaticFields().stream()
+                        .filter(sfield -> propTypes.isAllowed(sfield.getField().getType()))
+                        .toList(),
+                parallel, StaticField::objects)
+                .entrySet()
+                .stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        e -> e.getKey().getField(), Map.Entry::getValue));
+        Map<Pair<Obj, JField>, Set<Obj>> objFieldPts = project(objFields.keySet(),
+                parallel, p -> objFields.get(p).stream().flatMap(InstanceField::objects));
+        Map<Obj, Set<Obj>> objArrayPts = project(objArrays.keySet(),
+                parallel, o -> objArrays.get(o).stream().flatMap(ArrayIndex::objects));
+        long buildTime = System.nanoTime() - start;
+        Projection proj = new Projection(vars, ifields, sfields, arrays,
+                objFieldPts, objArrayPts, buildTime);
+        projection = proj;
+        logger.info("Context-insensitive projection: {} entries ({} distinct" +
+                        " points-to sets, ~{} KB) built in {} ms",
+                proj.getEntries(), proj.getDistinctSets(),
+                proj.getFootprint() / 1024,
+                TimeUnit.NANOSECONDS.toMillis(buildTime));
+    }
+
+    /**
+     * Removes contexts of the points-to sets of given keys.
+     *
+     * @return a read-only map from the keys to the resulting sets.
+     */
+    private <K> Map<K, Set<Obj>> project(
+            Collection<K> keys, boolean parallel, Function<K, Stream<CSObj>> objects) {
+        Stream<K> stream = parallel ? keys.parallelStream() : keys.stream();
+        return stream.collect(Collectors.toUnmodifiableMap(
+                Function.identity(), k -> removeContexts(objects.apply(k))));
+    }
+
+    /**
+     * @return the objects pointed to by given variable in all contexts.
+     */
+    private Stream<CSObj> objectsOf(Var var) {
+        return csManager.getCSVarsOf(var)
+                .stream()
+                .flatMap(CSVar::objects);
+    }
+
+    /**
+     * @return the time (in nanoseconds) spent to build the context-insensitive
+     * projection, or -1 if {@link #project()} has not been called.
+     */
+    public long getProjectionTime() {
+        Projection proj = projection;
+        return proj != null ? proj.buildTime : -1;
+    }
+
+    /**
+     * @return the approximate memory footprint (in bytes) of the
+     * context-insensitive projection, or -1 if {@link #project()}
+     * has not been called.
+     */
+    public long getProjectionFootprint() {
+        Projection proj = projection;
+        return proj != null ? proj.getFootprint() : -1;
+    }
+
     /**
      * Removes contexts of a context-sensitive points-to set and
      * returns a new resulting set.
@@ -387,4 +586,72 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
         }
         return ofg;
     }
+
+    @Override
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Read-only context-insensitive view of points-to sets, where equal
+     * points-to sets are shared.
+     */
+    private record Projection(
+            Map<Var, Set<Obj>> varPointsTo,
+            Map<Pair<Var, JField>, Set<Obj>> ifieldPointsTo,
+            Map<JField, Set<Obj>> sfieldPointsTo,
+            Map<Var, Set<Obj>> arrayPointsTo,
+            Map<Pair<Obj, JField>, Set<Obj>> objFieldPointsTo,
+            Map<Obj, Set<Obj>> objArrayPointsTo,
+            long buildTime) {
+
+        /**
+         * Approximate size (in bytes) of an object reference.
+         */
+        private static final int REF_SIZE = 8;
+
+        /**
+         * Approximate size (in bytes) of the header and fields
+         * of a points-to set.
+         */
+        private static final int SET_OVERHEAD = 64;
+
+        private Stream<Map<?, Set<Obj>>> maps() {
+            return Stream.of(varPointsTo, ifieldPointsTo, sfieldPointsTo,
+                    arrayPointsTo, objFieldPointsTo, objArrayPointsTo);
+        }
+
+        private int getEntries() {
+            return maps().mapToInt(Map::size).sum();
+        }
+
+        private Set<Set<Obj>> distinctSets() {
+            Set<Set<Obj>> sets = Collections.newSetFromMap(new IdentityHashMap<>());
+            maps().forEach(m -> sets.addAll(m.values()));
+            return sets;
+        }
+
+        private int getDistinctSets() {
+            return distinctSets().size();
+        }
+
+        /**
+         * Estimates the memory footprint of this projection, i.e.,
+         * the references held by the maps and the (shared) points-to sets,
+         * each of which costs roughly one bit per object index
+         * or one reference per object, whichever is smaller.
+         */
+        private long getFootprint() {
+            long footprint = 2L * REF_SIZE * getEntries();
+            for (Set<Obj> set : distinctSets()) {
+                long bits = set.stream()
+                        .mapToLong(o -> o.getIndex() + 1)
+                        .max()
+                        .orElse(0);
+                footprint += SET_OVERHEAD
+                        + Math.min((bits + 63) / 64 * 8, (long) REF_SIZE * set.size());
+            }
+            return footprint;
+        }
+    }
 }
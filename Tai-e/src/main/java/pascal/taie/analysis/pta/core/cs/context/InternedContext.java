@@ -0,0 +1,271 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * An implementation of {@link Context}, where each context is interned
+ * and identified by an integer id.
+ * <p>
+ * Compared to {@link TrieContext}, which keeps the children of each context
+ * in a map of its own, the factory of this class keeps all contexts in a
+ * global {@code (parent id, element id) -> child id} table. In addition,
+ * it caches the results of {@link Factory#append(Context, Object, int)}
+ * which exceed the length limit, so that the truncated suffix of a context
+ * is computed only once for each pair of context and appended element,
+ * instead of on every call edge in k-limiting analyses.
+ */
+public class InternedContext implements Context {
+
+    private final int id;
+
+    @Nullable
+    private final InternedContext parent;
+
+    private final Object elem;
+
+    private final int length;
+
+    private InternedContext(int id, @Nullable InternedContext parent, Object elem) {
+        this.id = id;
+        this.parent = parent;
+        this.elem = elem;
+        this.length = parent == null ? 0 : parent.getLength() + 1;
+    }
+
+    /**
+     * @return the id of this context, which is unique among the contexts
+     * produced by the same factory.
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public Object getElementAt(int i) {
+        assert 0 <= i && i < length;
+        InternedContext c = this;
+        for (int j = length - 1; j > i; --j) {
+            c = c.parent;
+        }
+        return c.elem;
+    }
+
+    /**
+     * Contexts are canonical, thus they are compared by identity, and
+     * their dense ids serve as hash codes, which are cheaper to obtain
+     * than identity hash codes in the hash tables of context-sensitive
+     * elements, e.g., {@link pascal.taie.analysis.pta.core.cs.element.CSVar}.
+     */
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        Object[] elems = new Object[length];
+        InternedContext c = this;
+        for (int i = length - 1; i >= 0; --i) {
+            elems[i] = c.elem;
+            c = c.parent;
+        }
+        return Arrays.toString(elems);
+    }
+
+    public static class Factory<T> implements ContextFactory<T> {
+
+        /**
+         * The empty context, whose id is 0.
+         */
+        private final InternedContext emptyContext =
+                new InternedContext(0, null, null);
+
+        /**
+         * Map from ids to contexts.
+         */
+        private InternedContext[] contexts = new InternedContext[1024];
+
+        private int nContexts = 0;
+
+        /**
+         * Map from context elements to their ids.
+         */
+        private final ObjectIntTable elemIds = new ObjectIntTable();
+
+        /**
+         * Ids of the abstract objects used as context elements, indexed by
+         * {@link Obj#getIndex()}, so that the ids of objects, which are
+         * the elements of object-sensitive contexts, are found in arrays.
+         */
+        private int[] objIds = new int[0];
+
+        private int nElems = 0;
+
+        /**
+         * Map from (parent id, element id) to child id.
+         */
+        private final LongIntTable children = new LongIntTable();
+
+        /**
+         * Caches of the appending which exceeds the length limit:
+         * appendCaches[limit] maps (context id, element id) to result id.
+         */
+        private LongIntTable[] appendCaches = new LongIntTable[0];
+
+        public Factory() {
+            addContext(emptyContext);
+        }
+
+        @Override
+        public InternedContext getEmptyContext() {
+            return emptyContext;
+        }
+
+        @Override
+        public InternedContext make(T elem) {
+            return getChild(emptyContext, elem);
+        }
+
+        @Override
+        public InternedContext make(T... elems) {
+            InternedContext result = emptyContext;
+            for (T elem : elems) {
+                result = getChild(result, elem);
+            }
+            return result;
+        }
+
+        @Override
+        public InternedContext makeLastK(Context context, int k) {
+            if (k == 0) {
+                return emptyContext;
+            }
+            InternedContext c = (InternedContext) context;
+            if (c.getLength() <= k) {
+                return c;
+            }
+            Object[] elems = new Object[k];
+            for (int i = k; i > 0; --i) {
+                elems[i - 1] = c.elem;
+                c = c.parent;
+            }
+            InternedContext result = emptyContext;
+            for (Object elem : elems) {
+                result = getChild(result, elem);
+            }
+            return result;
+        }
+
+        @Override
+        public InternedContext append(Context parent, T elem, int limit) {
+            InternedContext p = (InternedContext) parent;
+            if (p.getLength() < limit) {
+                return getChild(p, elem);
+            }
+            LongIntTable cache = getAppendCache(limit);
+            long key = pack(p.id, getElemId(elem));
+            int resultId = cache.get(key);
+            if (resultId == LongIntTable.ABSENT) {
+                resultId = getChild(makeLastK(p, limit - 1), elem).id;
+                cache.put(key, resultId);
+            }
+            return contexts[resultId];
+        }
+
+        /**
+         * @return number of contexts produced by this factory.
+         */
+        public int getContextCount() {
+            return nContexts;
+        }
+
+        private InternedContext getChild(InternedContext parent, Object elem) {
+            long key = pack(parent.id, getElemId(elem));
+            int childId = children.get(key);
+            if (childId == LongIntTable.ABSENT) {
+                InternedContext child = new InternedContext(nContexts, parent, elem);
+                addContext(child);
+                children.put(key, child.id);
+                return child;
+            }
+            return contexts[childId];
+        }
+
+        private int getElemId(Object elem) {
+            if (elem instanceof Obj obj && obj.getIndex() >= 0) {
+                int index = obj.getIndex();
+                if (index >= objIds.length) {
+                    int oldLength = objIds.length;
+                    objIds = Arrays.copyOf(objIds,
+                            Math.max(index + 1, oldLength * 2));
+                    Arrays.fill(objIds, oldLength, objIds.length, ObjectIntTable.ABSENT);
+                }
+                int id = objIds[index];
+                if (id == ObjectIntTable.ABSENT) {
+                    id = nElems++;
+                    objIds[index] = id;
+                }
+                return id;
+            }
+            int id = elemIds.get(elem);
+            if (id == ObjectIntTable.ABSENT) {
+                id = nElems++;
+                elemIds.put(elem, id);
+            }
+            return id;
+        }
+
+        private void addContext(InternedContext context) {
+            if (nContexts == contexts.length) {
+                contexts = Arrays.copyOf(contexts, contexts.length * 2);
+            }
+            contexts[nContexts++] = context;
+        }
+
+        private LongIntTable getAppendCache(int limit) {
+            if (limit >= appendCaches.length) {
+                appendCaches = Arrays.copyOf(appendCaches, limit + 1);
+            }
+            LongIntTable cache = appendCaches[limit];
+            if (cache == null) {
+                cache = new LongIntTable();
+                appendCaches[limit] = cache;
+            }
+            return cache;
+        }
+
+        private static long pack(int contextId, int elemId) {
+            return ((long) contextId << 32) | (elemId & 0xffffffffL);
+        }
+    }
+}
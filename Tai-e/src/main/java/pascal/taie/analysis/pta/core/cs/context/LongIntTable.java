@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} keys to non-negative
+ * {@code int} values, which involves no boxing.
+ */
+final class LongIntTable {
+
+    /**
+     * Value of empty slots, which is also returned for absent keys.
+     */
+    static final int ABSENT = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    private int[] values = newValues(INITIAL_CAPACITY);
+
+    private int size = 0;
+
+    /**
+     * @return the value of given key, or {@link #ABSENT} if the key is absent.
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int value = values[i];
+            if (value == ABSENT || keys[i] == key) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Associates given value with given key.
+     */
+    void put(long key, int value) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (values[i] != ABSENT && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == ABSENT) {
+            ++size;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = newValues(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldValues[i] != ABSENT) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int[] newValues(int capacity) {
+        int[] values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        return values;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -23,6 +23,7 @@
 package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.graph.flowgraph.FlowKind;
+import pascal.taie.analysis.pta.core.solver.Identity;
 import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.util.collection.ArraySet;
@@ -30,20 +31,58 @@ import pascal.taie.util.collection.HybridIndexableSet;
 import pascal.taie.util.collection.Sets;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 abstract class AbstractPointer implements Pointer {
 
+    private static final Pointer[] EMPTY_TARGETS = {};
+
+    private static final byte[] EMPTY_KINDS = {};
+
+    private static final FlowKind[] KINDS = FlowKind.values();
+
+    /**
+     * When the out degree of this pointer exceeds this threshold,
+     * the successors are indexed by {@link #successors}, otherwise
+     * they are looked up by linear search.
+     */
+    private static final int INDEX_THRESHOLD = 16;
+
     private PointsToSet pointsToSet;
 
     private final int index;
 
-    private final Set<Pointer> successors = new HybridIndexableSet<>(true);
+    /**
+     * Targets of plain out edges. The plain edges are stored in growable
+     * arrays, and no {@link PointerFlowEdge} objects are kept for them.
+     */
+    private Pointer[] plainTargets = EMPTY_TARGETS;
+
+    /**
+     * Ordinals of {@link FlowKind} of plain out edges.
+     */
+    private byte[] plainKinds = EMPTY_KINDS;
+
+    /**
+     * Number of plain out edges.
+     */
+    private int plainSize = 0;
 
-    private final ArrayList<PointerFlowEdge> outEdges = new ArrayList<>(4);
+    /**
+     * Out edges which are not plain edges.
+     */
+    private ArrayList<PointerFlowEdge> transferEdges;
+
+    /**
+     * Successors of this pointer, created when out degree
+     * exceeds {@link #INDEX_THRESHOLD}.
+     */
+    private Set<Pointer> successors;
 
     private Set<Predicate<CSObj>> filters = Set.of();
 
@@ -93,28 +132,158 @@ abstract class AbstractPointer implements Pointer {
     @Override
     public PointerFlowEdge addEdge(PointerFlowEdge edge) {
         assert edge.source() == this;
-        if (successors.add(edge.target())) {
-            outEdges.add(edge);
+        Pointer target = edge.target();
+        if (!hasSuccessor(target)) {
+            addTransferEdge(edge);
             return edge;
         } else if (edge.kind() == FlowKind.OTHER) {
-            for (PointerFlowEdge outEdge : outEdges) {
-                if (outEdge.equals(edge)) {
-                    return outEdge;
+            if (transferEdges != null) {
+                for (PointerFlowEdge outEdge : transferEdges) {
+                    if (outEdge.equals(edge)) {
+                        return outEdge;
+                    }
+                }
+            }
+            if (edge.getClass() == PointerFlowEdge.class) {
+                // edge equals the plain edge (if exists) to the same target
+                int i = indexOfPlainTarget(target);
+                if (i >= 0) {
+                    return promotePlainEdge(i);
                 }
             }
-            outEdges.add(edge);
+            addTransferEdge(edge);
             return edge;
         }
         return null;
     }
 
+    @Override
+    public boolean addPlainEdge(FlowKind kind, Pointer target) {
+        if (!hasSuccessor(target)) {
+            addPlainTarget(kind, target);
+            return true;
+        } else if (kind == FlowKind.OTHER) {
+            if (indexOfPlainTarget(target) >= 0) {
+                return false;
+            }
+            if (transferEdges != null) {
+                for (PointerFlowEdge outEdge : transferEdges) {
+                    if (outEdge.getClass() == PointerFlowEdge.class
+                            && outEdge.target() == target) {
+                        return outEdge.addTransfer(Identity.get());
+                    }
+                }
+            }
+            addPlainTarget(kind, target);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean hasSuccessor(Pointer target) {
+        if (successors != null) {
+            return successors.contains(target);
+        }
+        if (indexOfPlainTarget(target) >= 0) {
+            return true;
+        }
+        if (transferEdges != null) {
+            for (PointerFlowEdge outEdge : transferEdges) {
+                if (outEdge.target() == target) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int indexOfPlainTarget(Pointer target) {
+        for (int i = 0; i < plainSize; ++i) {
+            if (plainTargets[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void addPlainTarget(FlowKind kind, Pointer target) {
+        if (plainSize == plainTargets.length) {
+            int newLength = Math.max(4, plainSize + (plainSize >> 1));
+            plainTargets = Arrays.copyOf(plainTargets, newLength);
+            plainKinds = Arrays.copyOf(plainKinds, newLength);
+        }
+        plainTargets[plainSize] = target;
+        plainKinds[plainSize] = (byte) kind.ordinal();
+        ++plainSize;
+        indexSuccessor(target);
+    }
+
+    private void addTransferEdge(PointerFlowEdge edge) {
+        if (transferEdges == null) {
+            transferEdges = new ArrayList<>(2);
+        }
+        transferEdges.add(edge);
+        indexSuccessor(edge.target());
+    }
+
+    private void indexSuccessor(Pointer target) {
+        if (successors != null) {
+            successors.add(target);
+        } else if (getOutDegree() > INDEX_THRESHOLD) {
+            successors = new HybridIndexableSet<>(true);
+            successors.addAll(getPlainTargets());
+            getTransferEdges().forEach(e -> successors.add(e.target()));
+        }
+    }
+
+    /**
+     * Converts the i-th plain edge to a {@link PointerFlowEdge} object,
+     * so that other transfers can be added to it.
+     */
+    private PointerFlowEdge promotePlainEdge(int i) {
+        PointerFlowEdge edge = newPlainEdge(i);
+        System.arraycopy(plainTargets, i + 1, plainTargets, i, plainSize - i - 1);
+        System.arraycopy(plainKinds, i + 1, plainKinds, i, plainSize - i - 1);
+        plainTargets[--plainSize] = null;
+        if (transferEdges == null) {
+            transferEdges = new ArrayList<>(2);
+        }
+        transferEdges.add(edge);
+        return edge;
+    }
+
+    private PointerFlowEdge newPlainEdge(int i) {
+        PointerFlowEdge edge = new PointerFlowEdge(
+                KINDS[plainKinds[i]], this, plainTargets[i]);
+        edge.addTransfer(Identity.get());
+        return edge;
+    }
+
     @Override
     public Set<PointerFlowEdge> getOutEdges() {
+        ArrayList<PointerFlowEdge> outEdges = new ArrayList<>(getOutDegree());
+        for (int i = 0; i < plainSize; ++i) {
+            outEdges.add(newPlainEdge(i));
+        }
+        outEdges.addAll(getTransferEdges());
         return Collections.unmodifiableSet(new ArraySet<>(outEdges, true));
     }
 
+    @Override
+    public List<Pointer> getPlainTargets() {
+        return plainSize == 0 ? List.of()
+                : Collections.unmodifiableList(
+                Arrays.asList(plainTargets).subList(0, plainSize));
+    }
+
+    @Override
+    public List<PointerFlowEdge> getTransferEdges() {
+        return transferEdges == null ? List.of()
+                : Collections.unmodifiableList(transferEdges);
+    }
+
     @Override
     public int getOutDegree() {
-        return outEdges.size();
+        return plainSize + (transferEdges == null ? 0 : transferEdges.size());
     }
 }
@@ -0,0 +1,220 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Streams;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Manages data by maintaining the data and their context-sensitive
+ * counterparts by open-addressing tables (see {@link ElementTable}).
+ * Compared to {@link MapBasedCSManager}, this manager looks up the elements
+ * on the hot paths of the solver (e.g., {@link #getCSVar(Context, Var)})
+ * with one probe sequence and no entry objects.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    private final CSObjManager objManager = new CSObjManager();
+
+    /**
+     * CS variables, including the ones of substituted variables.
+     */
+    private final ElementTable<Var, Context, CSVar> vars =
+            new ElementTable<>(CSVar::getVar, CSVar::getContext);
+
+    /**
+     * Map from variables to their CS variables, which is only
+     * updated when new CS variables are created.
+     */
+    private final Map<Var, List<CSVar>> varCSVars = Maps.newLinkedHashMap();
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    private final ElementTable<CSObj, JField, InstanceField> instanceFields =
+            new ElementTable<>(InstanceField::getBase, InstanceField::getField);
+
+    private final Map<CSObj, ArrayIndex> arrayIndexes = Maps.newMap();
+
+    private final ElementTable<Invoke, Context, CSCallSite> callSites =
+            new ElementTable<>(CSCallSite::getCallSite, CSCallSite::getContext);
+
+    private final ElementTable<JMethod, Context, CSMethod> methods =
+            new ElementTable<>(CSMethod::getMethod, CSMethod::getContext);
+
+    @Nullable
+    private final VarSubstitution substitution;
+
+    /**
+     * Counter for assigning unique indexes to Pointers.
+     */
+    private int counter = 0;
+
+    public ArrayBasedCSManager() {
+        this(false);
+    }
+
+    /**
+     * @param substituteVars if {@code true}, the variables that are
+     *                       pointer-equivalent share one representative
+     *                       {@link CSVar}, see {@link VarSubstitution}.
+     */
+    public ArrayBasedCSManager(boolean substituteVars) {
+        substitution = substituteVars ? new VarSubstitution() : null;
+    }
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        CSVar csVar = vars.get(var, context);
+        if (csVar instanceof SubstitutedCSVar substituted) {
+            return substituted.getRepresentative();
+        } else if (csVar != null) {
+            return csVar;
+        }
+        if (substitution != null) {
+            Var rep = substitution.getRepresentative(var);
+            if (rep != var) {
+                CSVar csRep = getCSVar(context, rep);
+                // records the substituted variable, so that its
+                // points-to set is still available in the results
+                vars.computeIfAbsent(var, context, (v, c) -> newCSVar(
+                        new SubstitutedCSVar(v, c, counter++, csRep)));
+                return csRep;
+            }
+        }
+        return vars.computeIfAbsent(var, context,
+                (v, c) -> newCSVar(new CSVar(v, c, counter++)));
+    }
+
+    private CSVar newCSVar(CSVar csVar) {
+        varCSVars.computeIfAbsent(csVar.getVar(), __ -> new ArrayList<>(2))
+                .add(csVar);
+        return csVar;
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> new StaticField(f, counter++));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return instanceFields.computeIfAbsent(base, field,
+                (b, f) -> new InstanceField(b, f, counter++));
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        return arrayIndexes.computeIfAbsent(array,
+                a -> new ArrayIndex(a, counter++));
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableSet(varCSVars.keySet());
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return vars.values();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        List<CSVar> csVars = varCSVars.get(var);
+        return csVars != null ? Collections.unmodifiableList(csVars) : List.of();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return instanceFields.values();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableCollection(arrayIndexes.values());
+    }
+
+    @Override
+    public Stream<Pointer> pointers() {
+        return Streams.concat(
+                getCSVars().stream()
+                        .filter(v -> !(v instanceof SubstitutedCSVar)),
+                getInstanceFields().stream(),
+                getArrayIndexes().stream(),
+                getStaticFields().stream());
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objManager.getCSObj(heapContext, obj);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objManager.getObjects();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjsOf(Obj obj) {
+        return objManager.getCSObjsOf(obj);
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objManager;
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return callSites.computeIfAbsent(callSite, context, (cs, ctx) -> {
+            CSMethod container = getCSMethod(ctx, cs.getContainer());
+            return new CSCallSite(cs, ctx, container);
+        });
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return methods.computeIfAbsent(method, context, CSMethod::new);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import javax.annotation.Nullable;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Open-addressing hash table of context-sensitive elements, which are
+ * keyed by pairs of objects, e.g., (variable, context) of {@link CSVar}.
+ * <p>
+ * The table stores the elements in one flat array, and obtains the keys
+ * from the elements themselves, thus it needs no entry objects and looks up
+ * an element by one probe sequence, compared to two nested hash lookups
+ * of {@link pascal.taie.util.collection.TwoKeyMap}.
+ * The elements cannot be removed.
+ *
+ * @param <K1> type of first keys
+ * @param <K2> type of second keys
+ * @param <E>  type of elements
+ */
+final class ElementTable<K1, K2, E> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Function<E, K1> key1Getter;
+
+    private final Function<E, K2> key2Getter;
+
+    private Object[] table = new Object[INITIAL_CAPACITY];
+
+    private int size = 0;
+
+    ElementTable(Function<E, K1> key1Getter, Function<E, K2> key2Getter) {
+        this.key1Getter = key1Getter;
+        this.key2Getter = key2Getter;
+    }
+
+    /**
+     * @return the element of given keys, or {@code null} if absent.
+     */
+    @Nullable
+    E get(K1 key1, K2 key2) {
+        Object[] tab = table;
+        int mask = tab.length - 1;
+        for (int i = hash(key1, key2) & mask; ; i = (i + 1) & mask) {
+            E e = elementAt(tab, i);
+            if (e == null) {
+                return null;
+            } else if (matches(e, key1, key2)) {
+                return e;
+            }
+        }
+    }
+
+    /**
+     * @return the element of given keys. If absent, creates the element
+     * by given factory and adds it to this table.
+     */
+    E computeIfAbsent(K1 key1, K2 key2, BiFunction<K1, K2, E> factory) {
+        Object[] tab = table;
+        int mask = tab.length - 1;
+        int i = hash(key1, key2) & mask;
+        for (E e; (e = elementAt(tab, i)) != null; i = (i + 1) & mask) {
+            if (matches(e, key1, key2)) {
+                return e;
+            }
+        }
+        // the factory may add other elements to this table
+        // (e.g., CSMethod for CSCallSite), so we re-probe if needed
+        E e = factory.apply(key1, key2);
+        if (table != tab || tab[i] != null) {
+            E existing = get(key1, key2);
+            if (existing != null) {
+                return existing;
+            }
+            add(e);
+        } else {
+            tab[i] = e;
+            if (++size * 2 > tab.length) {
+                resize();
+            }
+        }
+        return e;
+    }
+
+    private void add(E e) {
+        Object[] tab = table;
+        int mask = tab.length - 1;
+        int i = hash(key1Getter.apply(e), key2Getter.apply(e)) & mask;
+        while (tab[i] != null) {
+            i = (i + 1) & mask;
+        }
+        tab[i] = e;
+        if (++size * 2 > tab.length) {
+            resize();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        Object[] oldTable = table;
+        table = new Object[oldTable.length * 2];
+        size = 0;
+        for (Object e : oldTable) {
+            if (e != null) {
+                add((E) e);
+            }
+        }
+    }
+
+    private boolean matches(E e, K1 key1, K2 key2) {
+        return key1Getter.apply(e).equals(key1)
+                && key2Getter.apply(e).equals(key2);
+    }
+
+    private static int hash(Object key1, Object key2) {
+        // mixes the hash codes, as the ones of contexts are dense ids
+        // (see InternedContext) which would otherwise cluster in the table
+        int h = (key1.hashCode() * 31 + key2.hashCode()) * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(Object[] tab, int i) {
+        return (E) tab[i];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return an unmodifiable view of the elements in this table.
+     */
+    Collection<E> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<E> iterator() {
+                return new ElementIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private class ElementIterator implements Iterator<E> {
+
+        private final Object[] tab = table;
+
+        private int next = advance(0);
+
+        private int advance(int i) {
+            while (i < tab.length && tab[i] == null) {
+                ++i;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < tab.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E e = elementAt(tab, next);
+            next = advance(next + 1);
+            return e;
+        }
+    }
+}
@@ -22,22 +22,18 @@
 
 package pascal.taie.analysis.pta.core.cs.element;
 
-import pascal.taie.World;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
-import pascal.taie.language.classes.ClassNames;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.language.type.Type;
-import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Streams;
 import pascal.taie.util.collection.TwoKeyMap;
 
-import java.util.Arrays;
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -50,7 +46,7 @@ import java.util.stream.Stream;
  */
 public class MapBasedCSManager implements CSManager {
 
-    private final PointerManager ptrManager = new PointerManager();
+    private final PointerManager ptrManager;
 
     private final CSObjManager objManager = new CSObjManager();
 
@@ -58,6 +54,20 @@ public class MapBasedCSManager implements CSManager {
 
     private final TwoKeyMap<JMethod, Context, CSMethod> methods = Maps.newTwoKeyMap();
 
+    public MapBasedCSManager() {
+        this(false);
+    }
+
+    /**
+     * @param substituteVars if {@code true}, the variables that are
+     *                       pointer-equivalent share one representative
+     *                       {@link CSVar}, see {@link VarSubstitution}.
+     */
+    public MapBasedCSManager(boolean substituteVars) {
+        ptrManager = new PointerManager(
+                substituteVars ? new VarSubstitution() : null);
+    }
+
     @Override
     public CSVar getCSVar(Context context, Var var) {
         return ptrManager.getCSVar(context, var);
@@ -148,6 +158,9 @@ public class MapBasedCSManager implements CSManager {
 
     private static class PointerManager {
 
+        /**
+         * CS variables, including the ones of substituted variables.
+         */
         private final TwoKeyMap<Var, Context, CSVar> vars = Maps.newTwoKeyMap();
 
         private final Map<JField, StaticField> staticFields = Maps.newMap();
@@ -161,7 +174,25 @@ public class MapBasedCSManager implements CSManager {
          */
         private int counter = 0;
 
+        @Nullable
+        private final VarSubstitution substitution;
+
+        private PointerManager(@Nullable VarSubstitution substitution) {
+            this.substitution = substitution;
+        }
+
         private CSVar getCSVar(Context context, Var var) {
+            if (substitution != null) {
+                Var rep = substitution.getRepresentative(var);
+                if (rep != var) {
+                    CSVar csRep = getCSVar(context, rep);
+                    // records the substituted variable, so that its
+                    // points-to set is still available in the results
+                    vars.computeIfAbsent(var, context,
+                            (v, c) -> new SubstitutedCSVar(v, c, counter++, csRep));
+                    return csRep;
+                }
+            }
             return vars.computeIfAbsent(var, context,
                     (v, c) -> new CSVar(v, c, counter++));
         }
@@ -208,105 +239,11 @@ public class MapBasedCSManager implements CSManager {
 
         private Stream<Pointer> pointers() {
             return Streams.concat(
-                    getCSVars().stream(),
+                    getCSVars().stream()
+                            .filter(v -> !(v instanceof SubstitutedCSVar)),
                     getInstanceFields().stream(),
                     getArrayIndexes().stream(),
                     getStaticFields().stream());
         }
     }
-
-    private static class CSObjManager implements Indexer<CSObj> {
-
-        private final TwoKeyMap<Obj, Context, CSObj> objMap = Maps.newTwoKeyMap();
-
-        private final TypeSystem typeSystem = World.get().getTypeSystem();
-
-        private final Type throwable = typeSystem.getClassType(ClassNames.THROWABLE);
-
-        private final Type string = typeSystem.getClassType(ClassNames.STRING);
-
-        /**
-         * Counter for assign unique indexes to throwable objects.
-         */
-        private int throwableCounter = 0;
-
-        /**
-         * Number of indexes reserved for throwable objects.
-         */
-        private static final int THROWABLE_BUDGET = 2048;
-
-        /**
-         * Counter for assign unique indexes to string objects.
-         */
-        private int stringCounter = THROWABLE_BUDGET;
-
-        /**
-         * Number of indexes reserved for string objects.
-         */
-        private static final int STRING_BUDGET = 4096;
-
-        /**
-         * Counter for assigning unique indexes to other CSObjs.
-         */
-        private int counter = THROWABLE_BUDGET + STRING_BUDGET;
-
-        /**
-         * Maps index to CSObj.
-         * Since there are empty slots, using array (instead of List)
-         * is more convenient.
-         */
-        private CSObj[] objs = new CSObj[65536];
-
-        CSObj getCSObj(Context heapContext, Obj obj) {
-            return objMap.computeIfAbsent(obj, heapContext, (o, c) -> {
-                int index = getCSObjIndex(o);
-                CSObj csObj = new CSObj(o, c, index);
-                storeCSObj(csObj, index);
-                return csObj;
-            });
-        }
-
-        private int getCSObjIndex(Obj obj) {
-            if (typeSystem.isSubtype(throwable, obj.getType()) &&
-                    throwableCounter < THROWABLE_BUDGET) {
-                return throwableCounter++;
-            } else if (obj.getType().equals(string) &&
-                    stringCounter < THROWABLE_BUDGET + STRING_BUDGET) {
-                return stringCounter++;
-            } else {
-                return counter++;
-            }
-        }
-
-        /**
-         * Stores {@code csObj} to the {@code objs} array with the position
-         * specified by {@code index}.
-         */
-        private void storeCSObj(CSObj csObj, int index) {
-            if (index >= objs.length) {
-                int newLength = Math.max(index + 1, (int) (objs.length * 1.5));
-                objs = Arrays.copyOf(objs, newLength);
-            }
-            objs[index] = csObj;
-        }
-
-        Collection<CSObj> getObjects() {
-            return objMap.values();
-        }
-
-        Collection<CSObj> getCSObjsOf(Obj obj) {
-            var csObjs = objMap.get(obj);
-            return csObjs != null ? csObjs.values() : Set.of();
-        }
-
-        @Override
-        public int getIndex(CSObj o) {
-            return o.getIndex();
-        }
-
-        @Override
-        public CSObj getObject(int index) {
-            return objs[index];
-        }
-    }
 }
@@ -23,12 +23,14 @@
 package pascal.taie.analysis.pta.core.cs.element;
 
 import pascal.taie.analysis.graph.flowgraph.FlowKind;
+import pascal.taie.analysis.pta.core.solver.Identity;
 import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.Indexable;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -97,11 +99,37 @@ public interface Pointer extends Indexable {
      */
     PointerFlowEdge addEdge(PointerFlowEdge edge);
 
+    /**
+     * Adds a plain pointer flow edge, i.e., an edge of class
+     * {@link PointerFlowEdge} whose only transfer is {@link Identity}.
+     * Plain edges are stored compactly without {@link PointerFlowEdge}
+     * objects.
+     *
+     * @return {@code true} if the identity flow from this pointer to
+     * {@code target} is new, i.e., the objects pointed to by this pointer
+     * need to be propagated to {@code target}; otherwise {@code false}.
+     */
+    boolean addPlainEdge(FlowKind kind, Pointer target);
+
     /**
      * @return out edges of this pointer in pointer flow graph.
+     * The plain edges are materialized as {@link PointerFlowEdge} objects
+     * on every call, thus the solver should use {@link #getPlainTargets()}
+     * and {@link #getTransferEdges()} instead.
      */
     Set<PointerFlowEdge> getOutEdges();
 
+    /**
+     * @return targets of the plain out edges of this pointer.
+     */
+    List<Pointer> getPlainTargets();
+
+    /**
+     * @return out edges of this pointer which are not plain edges,
+     * e.g., the edges with type filters.
+     */
+    List<PointerFlowEdge> getTransferEdges();
+
     /**
      * @return out degree of this pointer in pointer flow graph.
      */
@@ -0,0 +1,59 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+
+/**
+ * CS variable of a substituted variable. It is not a node of pointer
+ * flow graph, and its points-to set is the one of its representative.
+ */
+class SubstitutedCSVar extends CSVar {
+
+    private final CSVar representative;
+
+    SubstitutedCSVar(Var var, Context context, int index,
+                     CSVar representative) {
+        super(var, context, index);
+        this.representative = representative;
+    }
+
+    /**
+     * @return the CS variable of the representative variable.
+     */
+    CSVar getRepresentative() {
+        return representative;
+    }
+
+    @Override
+    public PointsToSet getPointsToSet() {
+        return representative.getPointsToSet();
+    }
+
+    @Override
+    public void setPointsToSet(PointsToSet pointsToSet) {
+        representative.setPointsToSet(pointsToSet);
+    }
+}
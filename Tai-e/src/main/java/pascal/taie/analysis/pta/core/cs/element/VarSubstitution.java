@@ -0,0 +1,147 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline variable substitution, which finds the variables that are
+ * pointer-equivalent before pointer analysis, so that they can share
+ * one representative pointer.
+ * <p>
+ * A variable {@code x} is substituted by {@code y} if the only definition
+ * of {@code x} is {@code x = y}, and {@code x} is only used as the source
+ * of other copies and casts. Then the points-to set of {@code x} is always
+ * the same as {@code y} (flow-insensitively), and as {@code x} is not used
+ * by any statements that the solver or plugins handle specially (e.g.,
+ * field accesses, invocations, returns and throws), the solver needs not
+ * to know {@code x}. Chains of such copies are collapsed to the variable
+ * at the start of the chain, i.e., the representative.
+ * <p>
+ * The substitution of each method is computed on demand, so that only
+ * the reachable methods are processed.
+ */
+class VarSubstitution {
+
+    /**
+     * Map from each method to the representatives of its substituted variables.
+     */
+    private final Map<JMethod, Map<Var, Var>> reps = Maps.newMap();
+
+    /**
+     * @return the representative variable of {@code var}, or {@code var}
+     * itself if it is not substituted.
+     */
+    Var getRepresentative(Var var) {
+        Map<Var, Var> methodReps = reps.computeIfAbsent(
+                var.getMethod(), m -> computeRepresentatives(m.getIR()));
+        return methodReps.getOrDefault(var, var);
+    }
+
+    private static Map<Var, Var> computeRepresentatives(IR ir) {
+        // collect copies x = y where x can be substituted by y
+        Map<Var, Copy> defs = Maps.newMap();
+        Set<Var> excluded = Sets.newSet();
+        for (Stmt stmt : ir) {
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var v) {
+                    if (stmt instanceof Copy copy && !defs.containsKey(v)
+                            && !excluded.contains(v)) {
+                        defs.put(v, copy);
+                    } else {
+                        defs.remove(v);
+                        excluded.add(v);
+                    }
+                }
+            });
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var v && !isCopySource(stmt, v)) {
+                    excluded.add(v);
+                }
+            }
+        }
+        Map<Var, Var> copyFrom = Maps.newMap();
+        defs.forEach((x, copy) -> {
+            Var y = copy.getRValue();
+            if (!excluded.contains(x) && !ir.isThisOrParam(x) && x != y
+                    && x.getType() instanceof ReferenceType
+                    && y.getType() instanceof ReferenceType) {
+                copyFrom.put(x, y);
+            }
+        });
+        if (copyFrom.isEmpty()) {
+            return Map.of();
+        }
+        // collapse chains of copies to their representatives
+        Map<Var, Var> result = Maps.newMap(copyFrom.size());
+        List<Var> path = new ArrayList<>();
+        Set<Var> onPath = Sets.newSet();
+        for (Var x : copyFrom.keySet()) {
+            Var v = x;
+            while (copyFrom.containsKey(v) && !result.containsKey(v)
+                    && onPath.add(v)) {
+                path.add(v);
+                v = copyFrom.get(v);
+            }
+            // if v is on the path, the copies form a cycle,
+            // and v is chosen as the representative of the cycle
+            Var rep = result.getOrDefault(v, v);
+            for (Var p : path) {
+                if (p != rep) {
+                    result.put(p, rep);
+                }
+            }
+            path.clear();
+            onPath.clear();
+        }
+        return result;
+    }
+
+    /**
+     * @return whether {@code var} is used by {@code stmt} only as
+     * the source of a copy or a cast.
+     */
+    private static boolean isCopySource(Stmt stmt, Var var) {
+        if (stmt instanceof Copy copy) {
+            return copy.getRValue() == var && copy.getLValue() != var;
+        } else if (stmt instanceof Cast cast) {
+            return cast.getRValue().getValue() == var
+                    && cast.getLValue() != var;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+/**
+ * Context selector which starts with the context sensitivity of its
+ * delegate, and adapts it on the fly according to the cost of the analysis.
+ * <p>
+ * This selector is also a {@link Plugin}, through which it observes, for
+ * each method, the number of context-sensitive methods and the number of
+ * context-sensitive points-to entries (i.e., total size of points-to sets
+ * of the variables) created for the method. Once the cost of a method
+ * exceeds the per-method budgets, the method is demoted, i.e., the length
+ * of its contexts is limited to one less than before, until it becomes
+ * context-insensitive. Similarly, once the total number of points-to
+ * entries exceeds the global budget, the length of the contexts of all
+ * methods is limited to one less than before, and the global budget
+ * is doubled.
+ * <p>
+ * Note that demotion only affects the contexts selected afterwards;
+ * the elements that have been created with longer contexts are kept.
+ */
+class AdaptiveSelector implements ContextSelector, Plugin {
+
+    private static final Logger logger = LogManager.getLogger(AdaptiveSelector.class);
+
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * Delegate context selector, whose context factory is also used
+     * to truncate the contexts.
+     */
+    private final AbstractContextSelector<?> delegate;
+
+    /**
+     * Budget of number of contexts for each method.
+     */
+    private final int methodBudget;
+
+    /**
+     * Budget of number of points-to entries for each method.
+     */
+    private final long ptsBudget;
+
+    /**
+     * Budget of number of points-to entries for the whole program.
+     */
+    private long globalBudget;
+
+    private final Map<JMethod, Cost> costs = Maps.newMap();
+
+    /**
+     * Limit of context length for all methods.
+     */
+    private int globalLimit = UNLIMITED;
+
+    /**
+     * Maximum length of method contexts selected by the delegate.
+     */
+    private int maxLength = 0;
+
+    private long totalPtsEntries = 0;
+
+    private int demotions = 0;
+
+    private int ciMethods = 0;
+
+    AdaptiveSelector(AbstractContextSelector<?> delegate, int methodBudget,
+                     long ptsBudget, long globalBudget) {
+        this.delegate = delegate;
+        this.methodBudget = methodBudget;
+        this.ptsBudget = ptsBudget;
+        this.globalBudget = globalBudget;
+    }
+
+    @Override
+    public Context getEmptyContext() {
+        return delegate.getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        return limit(delegate.selectContext(callSite, callee), callee);
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        return limit(delegate.selectContext(callSite, recv, callee), callee);
+    }
+
+    @Override
+    public Context selectHeapContext(CSMethod method, Obj obj) {
+        Context heapContext = delegate.selectHeapContext(method, obj);
+        int limit = getLimit(getCost(method.getMethod()));
+        return heapContext.getLength() > limit ?
+                delegate.factory.makeLastK(heapContext, limit) : heapContext;
+    }
+
+    private Context limit(Context context, JMethod method) {
+        Cost cost = getCost(method);
+        int length = context.getLength();
+        cost.maxLength = Math.max(cost.maxLength, length);
+        maxLength = Math.max(maxLength, length);
+        int limit = getLimit(cost);
+        return length > limit ?
+                delegate.factory.makeLastK(context, limit) : context;
+    }
+
+    private int getLimit(Cost cost) {
+        return Math.min(cost.limit, globalLimit);
+    }
+
+    private Cost getCost(JMethod method) {
+        return costs.computeIfAbsent(method, __ -> new Cost());
+    }
+
+    @Override
+    public void onNewCSMethod(CSMethod csMethod) {
+        JMethod method = csMethod.getMethod();
+        Cost cost = getCost(method);
+        if (++cost.contexts > methodBudget) {
+            demote(method, cost, "contexts");
+        }
+    }
+
+    @Override
+    public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+        JMethod method = csVar.getVar().getMethod();
+        Cost cost = getCost(method);
+        cost.ptsEntries += pts.size();
+        if (cost.ptsEntries > ptsBudget) {
+            demote(method, cost, "points-to entries");
+        }
+        totalPtsEntries += pts.size();
+        if (totalPtsEntries > globalBudget) {
+            demoteAll();
+        }
+    }
+
+    private void demote(JMethod method, Cost cost, String reason) {
+        int current = Math.min(getLimit(cost), cost.maxLength);
+        if (current > 0) {
+            cost.limit = current - 1;
+            ++demotions;
+            if (cost.limit == 0) {
+                ++ciMethods;
+            }
+            logger.debug("{} exceeds the budget of {}, limit its context length to {}",
+                    method, reason, cost.limit);
+        }
+        // resets the counters, so that the method is demoted
+        // at most once per budget
+        cost.contexts = 0;
+        cost.ptsEntries = 0;
+    }
+
+    private void demoteAll() {
+        int current = Math.min(globalLimit, maxLength);
+        if (current > 0) {
+            globalLimit = current - 1;
+            logger.info("#points-to entries ({}) exceeds the global budget ({})," +
+                    " limit context length to {}", totalPtsEntries, globalBudget, globalLimit);
+        }
+        globalBudget *= 2;
+    }
+
+    @Override
+    public void reportStatistics() {
+        logger.info("Adaptive context selection: {} demotions," +
+                        " {} methods demoted to context-insensitive," +
+                        " global context length limit: {}", demotions, ciMethods,
+                globalLimit == UNLIMITED ? "none" : globalLimit);
+        delegate.reportStatistics();
+    }
+
+    /**
+     * Cost and context length limit of a method.
+     */
+    private static class Cost {
+
+        private int limit = UNLIMITED;
+
+        private int maxLength = 0;
+
+        private int contexts = 0;
+
+        private long ptsEntries = 0;
+    }
+}
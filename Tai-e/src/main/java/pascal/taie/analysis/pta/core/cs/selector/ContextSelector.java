@@ -67,4 +67,11 @@ public interface ContextSelector {
      * @return the heap context for the object.
      */
     Context selectHeapContext(CSMethod method, Obj obj);
+
+    /**
+     * Reports the statistics of context selection (if any).
+     * This method is called when pointer analysis finishes.
+     */
+    default void reportStatistics() {
+    }
 }
@@ -109,4 +109,22 @@ public class ContextSelectorFactory {
     public static ContextSelector makeGuidedSelector(Map<JMethod, String> csMap) {
         return new GuidedSelector(csMap);
     }
+
+    /**
+     * @return an adaptive context selector which starts with the context
+     * sensitivity of given selector, and demotes methods to shorter contexts
+     * once they exceed the given budgets.
+     * The returned selector should also be added to the plugins of
+     * pointer analysis, so that it can observe the cost of analysis.
+     */
+    public static ContextSelector makeAdaptiveSelector(
+            ContextSelector selector, int methodBudget,
+            long ptsBudget, long globalBudget) {
+        if (selector instanceof AbstractContextSelector<?> delegate) {
+            return new AdaptiveSelector(delegate, methodBudget, ptsBudget, globalBudget);
+        } else {
+            throw new ConfigException(
+                    "Adaptive context selection is not supported for " + selector);
+        }
+    }
 }
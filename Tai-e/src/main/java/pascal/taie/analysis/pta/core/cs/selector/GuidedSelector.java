@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.pta.core.cs.selector;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
@@ -32,25 +34,52 @@ import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Set;
+import java.util.StringJoiner;
 
 /**
  * Guided context selector.
+ * <p>
+ * The guide, i.e., the map from methods to context sensitivity variants,
+ * is compiled into a map from methods to {@link Strategy}s when this
+ * selector is created, so that selecting a context involves one lookup
+ * and no string comparison.
  */
 class GuidedSelector extends AbstractContextSelector<Object> {
 
+    private static final Logger logger = LogManager.getLogger(GuidedSelector.class);
+
     /**
-     * Default context sensitivity variant for the methods that are not specified.
+     * Context sensitivity variants supported by this selector.
      */
-    private static final String DEFAULT_CS = "ci";
+    private enum Strategy {
+
+        CI("ci"), TYPE_1("1-type"), TYPE_2("2-type"), OBJ_2("2-obj");
+
+        private final String name;
+
+        Strategy(String name) {
+            this.name = name;
+        }
+
+        private static Strategy of(String cs) {
+            for (Strategy strategy : values()) {
+                if (strategy.name.equals(cs)) {
+                    return strategy;
+                }
+            }
+            throw new AnalysisException(cs + " is not supported " +
+                    "(currently supported cs: " + Arrays.stream(values())
+                    .map(s -> s.name).toList() + ")");
+        }
+    }
 
     /**
-     * Supported context sensitivity variants.
+     * Default context sensitivity variant for the methods that are not specified.
      */
-    private static final Set<String> SUPPORTED_CS = Set.of(
-            "ci", "1-type", "2-type", "2-obj"
-    );
+    private static final Strategy DEFAULT_STRATEGY = Strategy.CI;
 
     /**
      * Default limit for heap contexts.
@@ -58,9 +87,14 @@ class GuidedSelector extends AbstractContextSelector<Object> {
     private static final int DEFAULT_H_LIMIT = 1;
 
     /**
-     * Guide for context sensitivity variant selection.
+     * Map from methods to their context sensitivity variants.
+     */
+    private final Map<JMethod, Strategy> strategies;
+
+    /**
+     * Number of selections made by each strategy, indexed by ordinals.
      */
-    private final Map<JMethod, String> csMap;
+    private final long[] selections = new long[Strategy.values().length];
 
     /**
      * Limit for heap contexts.
@@ -68,7 +102,8 @@ class GuidedSelector extends AbstractContextSelector<Object> {
     private final int hLimit;
 
     GuidedSelector(Map<JMethod, String> csMap, int hLimit) {
-        this.csMap = csMap;
+        this.strategies = new IdentityHashMap<>(csMap.size());
+        csMap.forEach((method, cs) -> strategies.put(method, Strategy.of(cs)));
         this.hLimit = hLimit;
     }
 
@@ -83,17 +118,25 @@ class GuidedSelector extends AbstractContextSelector<Object> {
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        String cs = csMap.getOrDefault(callee, DEFAULT_CS);
-        return switch (cs) {
-            case "ci" -> selectCI();
-            case "1-type" -> select1Type(recv);
-            case "2-type" -> select2Type(recv);
-            case "2-obj" -> select2Obj(recv);
-            default -> throw new AnalysisException(cs + " is not supported " +
-                    "(currently supported cs: " + SUPPORTED_CS + ")");
+        Strategy strategy = strategies.getOrDefault(callee, DEFAULT_STRATEGY);
+        ++selections[strategy.ordinal()];
+        return switch (strategy) {
+            case CI -> selectCI();
+            case TYPE_1 -> select1Type(recv);
+            case TYPE_2 -> select2Type(recv);
+            case OBJ_2 -> select2Obj(recv);
         };
     }
 
+    @Override
+    public void reportStatistics() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Strategy strategy : Strategy.values()) {
+            joiner.add(strategy.name + ": " + selections[strategy.ordinal()]);
+        }
+        logger.info("Guided context selections: {}", joiner);
+    }
+
     private Context selectCI() {
         return factory.getEmptyContext();
     }
@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.pta.core.cs.selector;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
@@ -29,14 +31,27 @@ import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.Arrays;
 import java.util.function.Predicate;
 
 /**
  * Selective context selector which applies context sensitivity
  * for part of methods and objects.
+ * <p>
+ * The decisions for objects are cached in an array indexed by
+ * {@link Obj#getIndex()}, so that the predicate is evaluated at most
+ * once per object.
  */
 class SelectiveSelector implements ContextSelector {
 
+    private static final Logger logger = LogManager.getLogger(SelectiveSelector.class);
+
+    private static final byte UNKNOWN = 0;
+
+    private static final byte CS = 1;
+
+    private static final byte CI = 2;
+
     /**
      * Delegate context selector.
      */
@@ -52,6 +67,23 @@ class SelectiveSelector implements ContextSelector {
      */
     private final Predicate<Obj> isCSObj;
 
+    /**
+     * Decisions of {@link #isCSObj} for objects, indexed by object indexes.
+     */
+    private byte[] objDecisions = new byte[1024];
+
+    /**
+     * Number of context-sensitive and context-insensitive
+     * selections for methods.
+     */
+    private long csMethodSelections, ciMethodSelections;
+
+    /**
+     * Number of context-sensitive and context-insensitive
+     * selections for heap objects.
+     */
+    private long csObjSelections, ciObjSelections;
+
     SelectiveSelector(ContextSelector delegate,
                       Predicate<JMethod> isCSMethod, Predicate<Obj> isCSObj) {
         this.delegate = delegate;
@@ -66,22 +98,59 @@ class SelectiveSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        return isCSMethod.test(callee) ?
-                delegate.selectContext(callSite, callee) :
-                delegate.getEmptyContext();
+        if (isCSMethod.test(callee)) {
+            ++csMethodSelections;
+            return delegate.selectContext(callSite, callee);
+        } else {
+            ++ciMethodSelections;
+            return delegate.getEmptyContext();
+        }
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        return isCSMethod.test(callee) ?
-                delegate.selectContext(callSite, recv, callee) :
-                delegate.getEmptyContext();
+        if (isCSMethod.test(callee)) {
+            ++csMethodSelections;
+            return delegate.selectContext(callSite, recv, callee);
+        } else {
+            ++ciMethodSelections;
+            return delegate.getEmptyContext();
+        }
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        return isCSObj.test(obj) ?
-                delegate.selectHeapContext(method, obj) :
-                delegate.getEmptyContext();
+        if (isCSObj(obj)) {
+            ++csObjSelections;
+            return delegate.selectHeapContext(method, obj);
+        } else {
+            ++ciObjSelections;
+            return delegate.getEmptyContext();
+        }
+    }
+
+    private boolean isCSObj(Obj obj) {
+        int index = obj.getIndex();
+        if (index < 0) { // the object has not been indexed
+            return isCSObj.test(obj);
+        }
+        if (index >= objDecisions.length) {
+            objDecisions = Arrays.copyOf(objDecisions,
+                    Math.max(index + 1, objDecisions.length * 2));
+        }
+        byte decision = objDecisions[index];
+        if (decision == UNKNOWN) {
+            decision = isCSObj.test(obj) ? CS : CI;
+            objDecisions[index] = decision;
+        }
+        return decision == CS;
+    }
+
+    @Override
+    public void reportStatistics() {
+        logger.info("Selective context selections: methods {} cs/{} ci," +
+                        " objects {} cs/{} ci", csMethodSelections,
+                ciMethodSelections, csObjSelections, ciObjSelections);
+        delegate.reportStatistics();
     }
 }
@@ -62,11 +62,16 @@ public abstract class AbstractHeapModel implements HeapModel {
      */
     private final Predicate<String> isDistinguishedSC;
 
-    private final boolean isMergeStringObjects;
+    private boolean isMergeStringObjects;
 
-    private final boolean isMergeStringBuilders;
+    private boolean isMergeStringBuilders;
 
-    private final boolean isMergeExceptionObjects;
+    private boolean isMergeExceptionObjects;
+
+    /**
+     * Whether merges all objects of the same type.
+     */
+    private boolean isMergeAllObjects = false;
 
     private final TypeSystem typeSystem;
 
@@ -141,6 +146,9 @@ public abstract class AbstractHeapModel implements HeapModel {
 
     @Override
     public Obj getObj(New allocSite) {
+        if (isMergeAllObjects) {
+            return getMergedObj(allocSite);
+        }
         Type type = allocSite.getRValue().getType();
         if (isMergeStringObjects && type.equals(string)) {
             return getMergedObj(allocSite);
@@ -155,6 +163,30 @@ public abstract class AbstractHeapModel implements HeapModel {
         return doGetObj(allocSite);
     }
 
+    /**
+     * Merges more objects for the allocation sites processed afterwards,
+     * which reduces the number of objects at the cost of precision.
+     * The first call merges string objects, string builders and exception
+     * objects (if they are not merged yet), and the next call merges
+     * all objects of the same type.
+     *
+     * @return {@code false} if all objects have been merged before this call.
+     */
+    public boolean mergeMoreObjects() {
+        if (!isMergeStringObjects || !isMergeStringBuilders
+                || !isMergeExceptionObjects) {
+            isMergeStringObjects = true;
+            isMergeStringBuilders = true;
+            isMergeExceptionObjects = true;
+            return true;
+        } else if (!isMergeAllObjects) {
+            isMergeAllObjects = true;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
     /**
      * Merges given object given by its type.
      *
@@ -0,0 +1,135 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+
+import java.util.function.Supplier;
+
+/**
+ * Maintains the objects whose types are assignable to a specific type,
+ * so that filtering a points-to set by the type can be done by
+ * intersecting the points-to set with these objects, which is a bitwise
+ * AND on the underlying bit sets.
+ * <p>
+ * The allowed objects are filled in incrementally: each object is checked
+ * against the type only once, when it first reaches a filter of the type.
+ * The objects which have been checked are recorded in another set,
+ * which is also indexed by the object indexer.
+ * <p>
+ * This class is thread-safe, as the filters may be applied by
+ * multiple threads (see {@link ParallelSolver}). The two sets are
+ * published together as a {@link Snapshot}, and filtering a points-to set
+ * whose objects have all been checked only reads the current snapshot,
+ * without locking. Whether all objects have been checked is decided by
+ * a containment test on the checked set, which is word-wise on the
+ * underlying bit sets. Only the objects that are new to the filter are checked
+ * under the lock. If the filter is shared by multiple threads, they are
+ * added to copies of the sets, which are then published as a new snapshot,
+ * so that the snapshot being read by other threads is never modified.
+ */
+final class AllowedObjects {
+
+    /**
+     * The guard type.
+     */
+    private final Type type;
+
+    private final TypeSystem typeSystem;
+
+    private final Supplier<PointsToSet> ptsFactory;
+
+    /**
+     * Whether the filter may be applied by multiple threads.
+     */
+    private final boolean concurrent;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param checked objects which have been checked against the guard type
+     * @param allowed objects whose types are assignable to the guard type
+     */
+    private record Snapshot(PointsToSet checked, PointsToSet allowed) {
+    }
+
+    AllowedObjects(Type type, TypeSystem typeSystem,
+                   Supplier<PointsToSet> ptsFactory, boolean concurrent) {
+        this.type = type;
+        this.typeSystem = typeSystem;
+        this.ptsFactory = ptsFactory;
+        this.concurrent = concurrent;
+        this.snapshot = new Snapshot(ptsFactory.get(), ptsFactory.get());
+    }
+
+    /**
+     * @return a new points-to set containing the objects in {@code input}
+     * whose types are assignable to the guard type.
+     */
+    PointsToSet filter(PointsToSet input) {
+        Snapshot s = snapshot;
+        if (!s.checked().containsAll(input)) {
+            s = check(input);
+        }
+        return input.intersect(s.allowed());
+    }
+
+    /**
+     * Checks the objects in {@code input} which have not been checked.
+     *
+     * @return the snapshot which covers all objects in {@code input}.
+     */
+    private synchronized Snapshot check(PointsToSet input) {
+        Snapshot s = snapshot;
+        PointsToSet checked = s.checked();
+        PointsToSet allowed = s.allowed();
+        if (concurrent) {
+            checked = ptsFactory.get();
+            checked.addAll(s.checked());
+            allowed = ptsFactory.get();
+            allowed.addAll(s.allowed());
+        }
+        for (CSObj obj : checked.addAllDiff(input)) {
+            if (isAssignable(obj.getObject().getType(), type)) {
+                allowed.addObject(obj);
+            }
+        }
+        if (concurrent) {
+            s = new Snapshot(checked, allowed);
+            snapshot = s;
+        }
+        return s;
+    }
+
+    private boolean isAssignable(Type from, Type to) {
+        return (from instanceof NullType)
+                ? to instanceof ReferenceType
+                : typeSystem.isSubtype(to, from);
+    }
+}
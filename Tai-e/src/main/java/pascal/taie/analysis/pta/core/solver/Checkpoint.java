@@ -0,0 +1,301 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Strings;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Checkpoint of pointer analysis, which keeps the points-to sets computed
+ * so far in a file, so that an interrupted analysis (e.g., by time limit,
+ * crash or being killed) can be resumed.
+ * <p>
+ * As pointer analysis computes the least fixed point of monotone constraints,
+ * the facts derived by an interrupted run are a subset of the fixed point.
+ * Thus, a resumed run seeds the solver with the points-to sets in the
+ * checkpoint (see {@link PointsToSeeds}), and re-solves the program from
+ * the entry points, where the points-to sets are propagated in bulk.
+ * The rest of solver state, i.e., the work list, pointer flow graph,
+ * call graph, reachable methods and the states of plugins, is determined by
+ * the points-to sets, and is rebuilt by the re-solving, thus it is not saved.
+ * <p>
+ * The checkpoint keeps the fingerprint of the classes (including the bodies
+ * of their methods) and analysis options, and is loaded only if current
+ * program has the same fingerprint, as the facts derived from another
+ * version of the program may not be in the fixed point of current one.
+ */
+final class Checkpoint {
+
+    private static final Logger logger = LogManager.getLogger(Checkpoint.class);
+
+    static final String FILE_NAME = "pta-checkpoint.bin";
+
+    /**
+     * Version of the checkpoint file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Options that control the run of the analysis, but do not affect
+     * its result, thus they are excluded from the fingerprint.
+     */
+    private static final Set<String> RUN_OPTIONS = Set.of(
+            "time-limit", "checkpoint-interval", "resume", "library-summary",
+            "dump", "dump-ci", "dump-yaml", "expected-file", "ci-projection");
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final File file;
+
+    /**
+     * Fingerprint of classes (including method bodies) and analysis options.
+     */
+    private final long programFingerprint;
+
+    /**
+     * Description of the saved points-to sets, used in logging.
+     */
+    private final String description;
+
+    Checkpoint(File file, ClassHierarchy hierarchy, AnalysisOptions options) {
+        this(file, fingerprint(hierarchy.allClasses(), options), "checkpoint");
+    }
+
+    Checkpoint(File file, long programFingerprint, String description) {
+        this.file = file;
+        this.programFingerprint = programFingerprint;
+        this.description = description;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Saves the points-to sets of all pointers. The checkpoint is first
+     * written to a temporary file, so that the last checkpoint is kept
+     * intact if current run is killed during saving.
+     */
+    void save(CSManager csManager) {
+        Set<String> ambiguous = PointsToSeeds.getAmbiguousKeys(csManager);
+        Map<String, Integer> strings = Maps.newMap();
+        List<Pointer> pointers = new ArrayList<>();
+        csManager.pointers().forEach(p -> {
+            PointsToSet pts = p.getPointsToSet();
+            if (pts != null && !pts.isEmpty()) {
+                pointers.add(p);
+                strings.putIfAbsent(PointsToSeeds.key(p), strings.size());
+                pts.forEach(o -> strings.putIfAbsent(o.toString(), strings.size()));
+            }
+        });
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(tmpFile))))) {
+            out.writeInt(VERSION);
+            out.writeLong(programFingerprint);
+            String[] stringArray = new String[strings.size()];
+            strings.forEach((s, i) -> stringArray[i] = s);
+            out.writeInt(stringArray.length);
+            for (String s : stringArray) {
+                writeString(out, s);
+            }
+            out.writeInt(pointers.size());
+            for (Pointer p : pointers) {
+                out.writeInt(strings.get(PointsToSeeds.key(p)));
+                List<Integer> objs = new ArrayList<>();
+                p.getPointsToSet().forEach(o -> {
+                    if (!ambiguous.contains(o.toString())) {
+                        objs.add(strings.get(o.toString()));
+                    }
+                });
+                out.writeInt(objs.size());
+                for (int o : objs) {
+                    out.writeInt(o);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to save {} to {}", description, tmpFile, e);
+            return;
+        }
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved {} ({} points-to sets) to {}",
+                    description, pointers.size(), file);
+        } catch (IOException e) {
+            logger.error("Failed to save {} to {}", description, file, e);
+        }
+    }
+
+    /**
+     * @return map from the keys of the pointers in the checkpoint
+     * to the keys of the objects they point to. If the checkpoint does
+     * not exist or does not match current program, returns an empty map.
+     */
+    Map<String, String[]> load() {
+        if (!file.exists()) {
+            logger.warn("{} {} does not exist, analyze from scratch",
+                    Strings.capitalize(description), file);
+            return Map.of();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != VERSION
+                    || in.readLong() != programFingerprint) {
+                logger.warn("{} {} is saved for another program" +
+                                " or analysis options, analyze from scratch",
+                        Strings.capitalize(description), file);
+                return Map.of();
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; ++i) {
+                strings[i] = readString(in);
+            }
+            int nPointers = in.readInt();
+            Map<String, String[]> pointsTo = Maps.newMap(nPointers);
+            for (int i = 0; i < nPointers; ++i) {
+                String pointer = strings[in.readInt()];
+                String[] objs = new String[in.readInt()];
+                for (int j = 0; j < objs.length; ++j) {
+                    objs[j] = strings[in.readInt()];
+                }
+                pointsTo.put(pointer, objs);
+            }
+            logger.info("Load {} {} ({} points-to sets)",
+                    description, file, nPointers);
+            return pointsTo;
+        } catch (IOException e) {
+            logger.warn("Failed to load {} from {} ({})," +
+                    " analyze from scratch", description, file, e.toString());
+            return Map.of();
+        }
+    }
+
+    /**
+     * @return fingerprint of the IR of a method.
+     */
+    static long fingerprint(IR ir) {
+        long h = FNV_OFFSET;
+        h = hash(h, String.valueOf(ir.getThis()));
+        h = hash(h, ir.getParams().toString());
+        for (Stmt stmt : ir) {
+            h = hash(h, stmt.getIndex() + "@L" + stmt.getLineNumber() + ":" + stmt);
+        }
+        return h;
+    }
+
+    /**
+     * @return fingerprint of given classes and the analysis options
+     * which may affect the result of the analysis. The fingerprint
+     * covers the bodies of the methods, so that a checkpoint (or summary)
+     * computed from other versions of the classes, which may contain facts
+     * not in the fixed point of current classes, is not loaded.
+     */
+    static long fingerprint(Stream<JClass> classes, AnalysisOptions options) {
+        long h = FNV_OFFSET;
+        for (String key : options.keySet().stream().sorted().toList()) {
+            if (!RUN_OPTIONS.contains(key)) {
+                h = hash(h, key + "=" + options.get(key));
+            }
+        }
+        // the class hashes are summed up to be independent of class order
+        long classHash = classes.mapToLong(Checkpoint::fingerprint).sum();
+        return hash(h, Long.toString(classHash));
+    }
+
+    private static long fingerprint(JClass jclass) {
+        long h = hash(FNV_OFFSET, jclass.getName());
+        h = hash(h, String.valueOf(jclass.getSuperClass()));
+        h = hash(h, jclass.getModifiers().toString());
+        for (JClass iface : jclass.getInterfaces()) {
+            h = hash(h, iface.getName());
+        }
+        for (JField field : jclass.getDeclaredFields()) {
+            h = hash(h, field.getModifiers() + " " + field.getSignature());
+        }
+        for (JMethod method : jclass.getDeclaredMethods()) {
+            h = hash(h, method.getModifiers() + " " + method.getSignature());
+            if (!method.isAbstract() && !method.isNative()) {
+                h = hash(h, Long.toString(fingerprint(method.getIR())));
+            }
+        }
+        return h;
+    }
+
+    /**
+     * 64-bit FNV-1a hash, which continues the hash value h with s.
+     */
+    private static long hash(long h, String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
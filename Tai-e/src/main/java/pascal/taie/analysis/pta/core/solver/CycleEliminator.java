@@ -0,0 +1,371 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Detects and collapses cycles in pointer flow graph online.
+ * <p>
+ * A cycle of copy edges (i.e., the plain edges and the edges with
+ * {@link Identity} transfer, see {@link Pointer#addPlainEdge})
+ * implies that all pointers on the cycle have the same points-to set,
+ * thus this class merges the pointers in a strongly connected component
+ * of copy edges, and makes them share one points-to set. Each component
+ * is represented by one of its pointers, and the solver only needs to
+ * propagate new objects to the representative once.
+ * <p>
+ * The cycles are detected by lazy cycle detection (Hardekopf and Lin,
+ * PLDI'07): when objects are propagated along a copy edge whose source
+ * and target have the same points-to set, the target may reach the source,
+ * then we search the strongly connected components from the target.
+ * Each edge triggers the detection at most once.
+ * <p>
+ * The pointers with filters (see {@link Pointer#getFilters()}) are never
+ * merged, as their points-to sets may differ from their predecessors.
+ */
+final class CycleEliminator {
+
+    private final Supplier<PointsToSet> ptsFactory;
+
+    /**
+     * Map from merged pointers to the representatives of their components.
+     */
+    private final Map<Pointer, Pointer> reps = Maps.newMap();
+
+    /**
+     * Map from representatives to the members of their components.
+     */
+    private final Map<Pointer, List<Pointer>> members = Maps.newMap();
+
+    /**
+     * Copy edges (source -> target) which have triggered cycle detection.
+     */
+    private final MultiMap<Pointer, Pointer> checkedEdges = Maps.newMultiMap();
+
+    /**
+     * Sources of the copy edges which may trigger cycle detection.
+     */
+    private final List<Pointer> candidateSources = new ArrayList<>();
+
+    /**
+     * Targets of the copy edges which may trigger cycle detection.
+     */
+    private final List<Pointer> candidateTargets = new ArrayList<>();
+
+    /**
+     * Number of collapsed cycles.
+     */
+    private int cycles;
+
+    CycleEliminator(Supplier<PointsToSet> ptsFactory) {
+        this.ptsFactory = ptsFactory;
+    }
+
+    /**
+     * @return the representative of the component containing given pointer.
+     * If the pointer has not been merged, returns the pointer itself.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        return reps.getOrDefault(pointer, pointer);
+    }
+
+    /**
+     * @return the pointers in the component represented by given pointer.
+     * If the pointer does not represent a component, returns a list
+     * containing only the pointer itself.
+     */
+    List<Pointer> getMembers(Pointer rep) {
+        List<Pointer> result = members.get(rep);
+        return result != null ? result : List.of(rep);
+    }
+
+    /**
+     * @return {@code true} if given pointer has been merged with
+     * other pointers.
+     */
+    boolean isMerged(Pointer pointer) {
+        return reps.containsKey(pointer);
+    }
+
+    /**
+     * @return {@code true} if given pointers have been merged
+     * into the same component.
+     */
+    boolean isMerged(Pointer p1, Pointer p2) {
+        Pointer rep1 = reps.get(p1);
+        return rep1 != null && rep1 == reps.get(p2);
+    }
+
+    /**
+     * Records a copy edge along which objects have been propagated.
+     * The edge will be checked by next call to {@link #collapseCycles()}.
+     */
+    void addCandidate(Pointer source, Pointer target) {
+        if (source.getFilters().isEmpty()
+                && target.getFilters().isEmpty()
+                && !checkedEdges.contains(source, target)) {
+            candidateSources.add(source);
+            candidateTargets.add(target);
+        }
+    }
+
+    /**
+     * Checks the candidate edges, and collapses the cycles on which they lie.
+     * As the merged pointers share one points-to set after collapsing,
+     * a pointer may gain the objects of other pointers in its component,
+     * and the solver must propagate these objects for it.
+     *
+     * @return the map from pointers to the objects they gain.
+     */
+    Map<Pointer, PointsToSet> collapseCycles() {
+        if (candidateSources.isEmpty()) {
+            return Map.of();
+        }
+        Map<Pointer, PointsToSet> gains = Maps.newLinkedHashMap();
+        for (int i = 0; i < candidateSources.size(); ++i) {
+            Pointer source = candidateSources.get(i);
+            Pointer target = candidateTargets.get(i);
+            if (!checkedEdges.put(source, target)) {
+                continue;
+            }
+            source = getRepresentative(source);
+            target = getRepresentative(target);
+            if (source != target && isSamePointsToSet(source, target)) {
+                for (List<Pointer> scc : findSCCs(target)) {
+                    collapse(scc, gains);
+                }
+            }
+        }
+        candidateSources.clear();
+        candidateTargets.clear();
+        return gains;
+    }
+
+    /**
+     * Removes given pointer from its component, which is necessary when
+     * a filter is added to the pointer after it has been merged.
+     * The pointer keeps a copy of the objects in the component.
+     */
+    void detach(Pointer pointer) {
+        Pointer rep = reps.remove(pointer);
+        if (rep == null) {
+            return;
+        }
+        // creates a new list as the old one may be being iterated
+        List<Pointer> component = new ArrayList<>(members.remove(rep));
+        component.remove(pointer);
+        pointer.setPointsToSet(pointer.getPointsToSet().copy());
+        if (component.size() == 1) {
+            reps.remove(component.get(0));
+        } else {
+            Pointer newRep = component.get(0);
+            component.forEach(p -> reps.put(p, newRep));
+            members.put(newRep, component);
+        }
+    }
+
+    /**
+     * @return number of collapsed cycles.
+     */
+    int getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return number of merged pointers.
+     */
+    int getMergedPointers() {
+        return reps.size();
+    }
+
+    private static boolean isCopyEdge(Pointer source, Pointer target) {
+        return source.getFilters().isEmpty() && target.getFilters().isEmpty();
+    }
+
+    private static boolean isSamePointsToSet(Pointer p1, Pointer p2) {
+        PointsToSet pts1 = p1.getPointsToSet();
+        PointsToSet pts2 = p2.getPointsToSet();
+        if (pts1 == null || pts2 == null || pts1.size() != pts2.size()) {
+            return false;
+        }
+        for (CSObj obj : pts1) {
+            if (!pts2.contains(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the true strongly connected components of copy edges which
+     * are reachable from given representative, using an iterative version
+     * of Tarjan's algorithm (the same as {@link pascal.taie.util.graph.SCC}).
+     */
+    private List<List<Pointer>> findSCCs(Pointer root) {
+        List<List<Pointer>> result = new ArrayList<>();
+        int index = 0;
+        Map<Pointer, Integer> indexes = Maps.newMap();
+        Map<Pointer, Integer> lows = Maps.newMap();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Set<Pointer> inStack = Sets.newSet();
+        Deque<Pointer> workStack = new ArrayDeque<>();
+        workStack.push(root);
+        while (!workStack.isEmpty()) {
+            Pointer node = workStack.peek();
+            if (!indexes.containsKey(node)) {
+                indexes.put(node, index);
+                lows.put(node, index);
+                ++index;
+                stack.push(node);
+                inStack.add(node);
+            }
+            boolean hasUnvisitedSucc = false;
+            for (Pointer succ : getSuccsOf(node)) {
+                if (!indexes.containsKey(succ)) {
+                    workStack.push(succ);
+                    hasUnvisitedSucc = true;
+                    break;
+                } else if (indexes.get(node) < indexes.get(succ)) {
+                    // node->succ is a forward edge
+                    lows.put(node, Math.min(lows.get(node), lows.get(succ)));
+                } else if (inStack.contains(succ)) {
+                    lows.put(node, Math.min(lows.get(node), indexes.get(succ)));
+                }
+            }
+            if (!hasUnvisitedSucc) {
+                if (lows.get(node).equals(indexes.get(node))) {
+                    List<Pointer> scc = new ArrayList<>();
+                    Pointer p;
+                    do {
+                        p = stack.pop();
+                        inStack.remove(p);
+                        scc.add(p);
+                    } while (p != node);
+                    if (scc.size() > 1) {
+                        result.add(scc);
+                    }
+                }
+                workStack.pop();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return representatives of the copy-edge successors of
+     * the component represented by given pointer.
+     */
+    private List<Pointer> getSuccsOf(Pointer rep) {
+        List<Pointer> succs = new ArrayList<>();
+        for (Pointer member : getMembers(rep)) {
+            for (Pointer target : member.getPlainTargets()) {
+                if (isCopyEdge(member, target)) {
+                    addSucc(succs, rep, target);
+                }
+            }
+            for (PointerFlowEdge edge : member.getTransferEdges()) {
+                if (edge.getTransfers().contains(Identity.INSTANCE)
+                        && isCopyEdge(member, edge.target())) {
+                    addSucc(succs, rep, edge.target());
+                }
+            }
+        }
+        return succs;
+    }
+
+    private void addSucc(List<Pointer> succs, Pointer rep, Pointer target) {
+        Pointer succ = getRepresentative(target);
+        if (succ != rep) {
+            succs.add(succ);
+        }
+    }
+
+    /**
+     * Merges the components represented by the pointers in {@code scc},
+     * and records the objects gained by each member in {@code gains}.
+     */
+    private void collapse(List<Pointer> scc, Map<Pointer, PointsToSet> gains) {
+        ++cycles;
+        // use the largest component as representative to reduce the updates
+        Pointer rep = Collections.max(scc,
+                (p1, p2) -> Integer.compare(getMembers(p1).size(), getMembers(p2).size()));
+        PointsToSet shared = rep.getPointsToSet();
+        if (shared == null) {
+            shared = ptsFactory.get();
+        }
+        // old points-to sets of the components before collapsing
+        Map<Pointer, PointsToSet> oldSets = Maps.newMap(scc.size());
+        PointsToSet repGain = ptsFactory.get();
+        for (Pointer p : scc) {
+            if (p != rep && p.getPointsToSet() != null) {
+                oldSets.put(p, p.getPointsToSet());
+                repGain.addAll(shared.addAllDiff(p.getPointsToSet()));
+            }
+        }
+        List<Pointer> component = new ArrayList<>();
+        for (Pointer p : scc) {
+            PointsToSet gain;
+            if (p == rep) {
+                gain = repGain;
+            } else {
+                PointsToSet old = oldSets.get(p);
+                gain = ptsFactory.get();
+                for (CSObj obj : shared) {
+                    if (old == null || !old.contains(obj)) {
+                        gain.addObject(obj);
+                    }
+                }
+            }
+            List<Pointer> pMembers = members.remove(p);
+            for (Pointer member : (pMembers != null ? pMembers : List.of(p))) {
+                member.setPointsToSet(shared);
+                reps.put(member, rep);
+                component.add(member);
+                if (!gain.isEmpty()) {
+                    PointsToSet memberGain = gains.get(member);
+                    if (memberGain == null) {
+                        gains.put(member, gain.copy());
+                    } else {
+                        memberGain.addAll(gain);
+                    }
+                }
+            }
+        }
+        members.put(rep, component);
+    }
+}
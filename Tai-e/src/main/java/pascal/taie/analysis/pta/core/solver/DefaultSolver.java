@@ -43,6 +43,7 @@ import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.heap.AbstractHeapModel;
 import pascal.taie.analysis.pta.core.heap.Descriptor;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.MockObj;
@@ -51,6 +52,7 @@ import pascal.taie.analysis.pta.plugin.Plugin;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.CastExp;
 import pascal.taie.ir.exp.InvokeExp;
@@ -83,12 +85,16 @@ import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import static pascal.taie.language.classes.Signatures.FINALIZE;
@@ -134,6 +140,74 @@ public class DefaultSolver implements Solver {
      */
     private final long timeLimit;
 
+    /**
+     * Whether detects and collapses cycles in pointer flow graph.
+     */
+    private final boolean cycleElimination;
+
+    /**
+     * Map from guard types of {@link TypeFilter} to their allowed objects.
+     */
+    private final Map<Type, AllowedObjects> allowedObjects = Maps.newConcurrentMap();
+
+    /**
+     * Path of the file that keeps the state of incremental analysis,
+     * or {@code null} if incremental analysis is disabled.
+     */
+    @Nullable
+    private final String incrementalStatePath;
+
+    /**
+     * Interval of saving checkpoints (in seconds).
+     */
+    private final long checkpointInterval;
+
+    /**
+     * Whether resumes the analysis from the last checkpoint.
+     */
+    private final boolean resume;
+
+    /**
+     * Directory of library summaries, or {@code null} if library summaries
+     * are disabled.
+     */
+    private final String librarySummaryDir;
+
+    /**
+     * Steps of memory watchdog, or {@code null} if the watchdog is disabled.
+     */
+    private final String memoryWatchdogSteps;
+
+    /**
+     * Number of work list entries processed between two deliveries of
+     * buffered plugin events, or 0 if the events are delivered immediately.
+     */
+    private final int pluginBatchSize;
+
+    /**
+     * Buffered new points-to sets, which have not been delivered to plugin.
+     */
+    private Map<CSVar, PointsToSet> pendingPointsToSets = Maps.newLinkedHashMap();
+
+    /**
+     * Variables whose buffered points-to sets are created by this solver
+     * and thus can be updated in place.
+     */
+    private final Set<CSVar> mergedPointsToSets = Sets.newSet();
+
+    /**
+     * Buffered new call edges grouped by callees, which have not been
+     * delivered to plugin.
+     */
+    private Map<CSMethod, List<Edge<CSCallSite, CSMethod>>> pendingCallEdges =
+            Maps.newLinkedHashMap();
+
+    /**
+     * Number of work list entries processed since last delivery
+     * of buffered plugin events.
+     */
+    private int undeliveredEntries;
+
     private TimeLimiter timeLimiter;
 
     /**
@@ -141,6 +215,29 @@ public class DefaultSolver implements Solver {
      */
     private volatile boolean isTimeout;
 
+    private MemoryWatchdog memoryWatchdog;
+
+    /**
+     * Whether the analysis is stopped due to memory pressure.
+     */
+    private boolean isOutOfMemory;
+
+    /**
+     * Whether uses context insensitivity for new call edges,
+     * which is enabled under memory pressure.
+     */
+    private boolean isCICallEdges;
+
+    /**
+     * Whether the analysis is requested to stop by {@link #requestStop()}.
+     */
+    private volatile boolean isStopRequested;
+
+    /**
+     * Whether the analysis stops before reaching the fixed point.
+     */
+    private boolean isPartial;
+
     private Plugin plugin;
 
     private WorkList workList;
@@ -149,8 +246,50 @@ public class DefaultSolver implements Solver {
 
     private PointerFlowGraph pointerFlowGraph;
 
+    /**
+     * Collapses cycles in pointer flow graph.
+     * This field is {@code null} if cycle elimination is disabled.
+     */
+    private CycleEliminator cycleEliminator;
+
+    /**
+     * Tracks the dependencies among facts, and seeds the analysis with
+     * the reusable facts of previous run.
+     * This field is {@code null} if incremental analysis is disabled.
+     */
+    private IncrementalState incremental;
+
+    /**
+     * Saves the points-to sets computed so far.
+     * This field is {@code null} if checkpoints are disabled.
+     */
+    private Checkpoint checkpoint;
+
+    /**
+     * Time (by {@link System#nanoTime()}) to save next checkpoint.
+     */
+    private long nextCheckpointTime;
+
+    /**
+     * Points-to sets of previous runs which are used to seed this run.
+     * This field is {@code null} if there are no such points-to sets.
+     */
+    private PointsToSeeds seeds;
+
+    /**
+     * Defers the heap accesses on the objects seeded by library summary.
+     * This field is {@code null} if library summary is disabled, or the
+     * seeds also come from other sources.
+     */
+    private DeferredHeapAccesses deferredHeapAccesses;
+
     private Set<JMethod> reachableMethods;
 
+    /**
+     * Caches the callees of virtual call sites for each receiver type.
+     */
+    private DispatchCache dispatchCache;
+
     /**
      * Set of classes that have been initialized.
      */
@@ -174,12 +313,25 @@ public class DefaultSolver implements Solver {
         this.csManager = csManager;
         hierarchy = World.get().getClassHierarchy();
         typeSystem = World.get().getTypeSystem();
-        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer());
+        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer(),
+                options.getBoolean("pts-sharing"),
+                options.getBoolean("pts-bdd"));
         propTypes = new PropagateTypes(
                 (List<String>) options.get("propagate-types"),
                 typeSystem);
         onlyApp = options.getBoolean("only-app");
         timeLimit = options.getInt("time-limit");
+        cycleElimination = options.getBoolean("cycle-elimination");
+        incrementalStatePath = options.getString("incremental-state");
+        checkpointInterval = options.getInt("checkpoint-interval");
+        resume = options.getBoolean("resume");
+        librarySummaryDir = options.getString("library-summary");
+        memoryWatchdogSteps = options.getString("memory-watchdog");
+        pluginBatchSize = options.getInt("plugin-batch-size");
+        if (pluginBatchSize < 0) {
+            throw new ConfigException(
+                    "plugin-batch-size must be non-negative, given: " + pluginBatchSize);
+        }
     }
 
     @Override
@@ -223,6 +375,9 @@ public class DefaultSolver implements Solver {
         if (pts == null) {
             pts = ptsFactory.make();
             pointer.setPointsToSet(pts);
+            if (seeds != null) {
+                seeds.seed(pointer);
+            }
         }
         return pts;
     }
@@ -232,6 +387,27 @@ public class DefaultSolver implements Solver {
         return ptsFactory.make();
     }
 
+    PropagateTypes getPropagateTypes() {
+        return propTypes;
+    }
+
+    /**
+     * @return the allowed objects of given guard type, which are shared
+     * by all type filters of the type.
+     */
+    AllowedObjects getAllowedObjects(Type type) {
+        return allowedObjects.computeIfAbsent(type,
+                t -> new AllowedObjects(t, typeSystem, ptsFactory::make, isParallel()));
+    }
+
+    /**
+     * @return {@code true} if this solver applies transfers
+     * by multiple threads.
+     */
+    boolean isParallel() {
+        return false;
+    }
+
     @Override
     public void setPlugin(Plugin plugin) {
         this.plugin = plugin;
@@ -254,8 +430,44 @@ public class DefaultSolver implements Solver {
     private void initialize() {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph(csManager);
-        workList = new WorkList();
+        workList = new WorkList(PointerQueue.make(
+                options.getString("worklist-order"), pointerFlowGraph));
+        if (cycleElimination) {
+            cycleEliminator = new CycleEliminator(ptsFactory::make);
+        }
+        // heap accesses can be deferred only if the seeds come from
+        // library summary alone, which is a fixed point of the library
+        boolean deferHeapAccesses = librarySummaryDir != null
+                && incrementalStatePath == null && !resume && !cycleElimination;
+        seeds = new PointsToSeeds(this, deferHeapAccesses);
+        if (incrementalStatePath != null) {
+            incremental = new IncrementalState(
+                    new File(incrementalStatePath), this, options);
+            seeds.addAll(incremental.load());
+        }
+        if (checkpointInterval != UNLIMITED || resume) {
+            checkpoint = new Checkpoint(
+                    new File(World.get().getOptions().getOutputDir(), Checkpoint.FILE_NAME),
+                    hierarchy, options);
+            if (resume) {
+                seeds.addAll(checkpoint.load());
+            }
+            if (checkpointInterval > 0) {
+                nextCheckpointTime = System.nanoTime()
+                        + TimeUnit.SECONDS.toNanos(checkpointInterval);
+            }
+        }
+        if (librarySummaryDir != null) {
+            seeds.addAll(new LibrarySummary(new File(librarySummaryDir),
+                    hierarchy, options).load());
+        }
+        if (seeds.isEmpty()) {
+            seeds = null;
+        } else if (deferHeapAccesses) {
+            deferredHeapAccesses = new DeferredHeapAccesses(this, seeds);
+        }
         reachableMethods = Sets.newSet();
+        dispatchCache = new DispatchCache();
         initializedClasses = Sets.newSet();
         ignoredMethods = Sets.newSet();
         stmtProcessor = new StmtProcessor();
@@ -264,6 +476,12 @@ public class DefaultSolver implements Solver {
             timeLimiter = new TimeLimiter(timeLimit);
             timeLimiter.countDown();
         }
+        isOutOfMemory = false;
+        isCICallEdges = false;
+        if (memoryWatchdogSteps != null) {
+            memoryWatchdog = MemoryWatchdog.make(memoryWatchdogSteps);
+            memoryWatchdog.start();
+        }
         plugin.onStart();
     }
 
@@ -305,43 +523,340 @@ public class DefaultSolver implements Solver {
      * Processes work list entries until the work list is empty.
      */
     private void analyze() {
-        while (!workList.isEmpty() && !isTimeout) {
+        while (!workList.isEmpty() && !isStopped()) {
             // phase starts
-            while (!workList.isEmpty() && !isTimeout) {
-                WorkList.Entry entry = workList.pollEntry();
-                if (entry instanceof WorkList.PointerEntry pEntry) {
-                    Pointer p = pEntry.pointer();
-                    PointsToSet pts = pEntry.pointsToSet();
-                    PointsToSet diff = propagate(p, pts);
-                    if (!diff.isEmpty() && p instanceof CSVar v) {
-                        processInstanceStore(v, diff);
-                        processInstanceLoad(v, diff);
-                        processArrayStore(v, diff);
-                        processArrayLoad(v, diff);
-                        processCall(v, diff);
-                        plugin.onNewPointsToSet(v, diff);
-                    }
-                } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
-                    processCallEdge(eEntry.edge());
-                }
-            }
+            processWorkList();
+            Object cause = setCause(IncrementalState.VOLATILE);
             plugin.onPhaseFinish();
+            setCause(cause);
+        }
+        // deliver the remaining events if the analysis is stopped early
+        deliverPluginEvents();
+        isPartial = !workList.isEmpty();
+        if (isPartial) {
+            if (isOutOfMemory) {
+                logger.warn("Pointer analysis stops early due to memory pressure," +
+                        " and the result may be unsound!");
+            } else if (isTimeout) {
+                logger.warn("Pointer analysis stops early as it reaches time limit" +
+                        " ({} seconds), and the result may be unsound!", timeLimit);
+            } else {
+                logger.warn("Pointer analysis is stopped early," +
+                        " and the result may be unsound!");
+            }
+            if (checkpoint != null) {
+                checkpoint.save(csManager);
+                logger.info("Run with option resume:true to continue the analysis" +
+                        " from checkpoint {}", checkpoint.getFile());
+            }
         }
-        if (!workList.isEmpty() && isTimeout) {
-            logger.warn("Pointer analysis stops early as it reaches time limit ({} seconds)," +
-                    " and the result may be unsound!", timeLimit);
-        } else if (timeLimiter != null) { // finish normally but time limiter is still running
+        if (timeLimiter != null) { // time limiter may be still running
             timeLimiter.stop();
         }
+        if (memoryWatchdog != null) {
+            memoryWatchdog.stop();
+        }
+        logger.info("Work list: {} pointer entries and {} call edges processed," +
+                        " {} objects merged into pending entries",
+                workList.getProcessedPointerEntries(),
+                workList.getProcessedCallEdges(), workList.getMergedObjects());
+        logger.info("Dispatch cache: {} hits, {} misses",
+                dispatchCache.getHits(), dispatchCache.getMisses());
+        contextSelector.reportStatistics();
+        if (cycleEliminator != null) {
+            logger.info("Cycle elimination: {} cycles collapsed, {} pointers merged",
+                    cycleEliminator.getCycles(), cycleEliminator.getMergedPointers());
+        }
+        if (deferredHeapAccesses != null) {
+            logger.info("Library summary: heap accesses deferred on {} objects," +
+                            " {} of them processed later",
+                    deferredHeapAccesses.getDeferredObjects(),
+                    deferredHeapAccesses.getProcessedObjects());
+        }
+        ptsFactory.share(csManager.pointers().map(Pointer::getPointsToSet));
+        ptsFactory.reportSharing(csManager.pointers().map(Pointer::getPointsToSet));
+        setCause(IncrementalState.VOLATILE);
         plugin.onFinish();
+        setCause(null);
+        if (incremental != null && !isPartial) {
+            incremental.save(reachableMethods);
+        }
+    }
+
+    /**
+     * Sets the cause of the facts derived afterwards, which is tracked
+     * by incremental analysis.
+     *
+     * @return the previous cause.
+     */
+    @Nullable
+    private Object setCause(@Nullable Object cause) {
+        return incremental != null ? incremental.setCause(cause) : null;
+    }
+
+    WorkList getWorkList() {
+        return workList;
+    }
+
+    /**
+     * @return {@code true} if the analysis has reached the time limit,
+     * or has been stopped due to memory pressure or by request.
+     */
+    boolean isStopped() {
+        return isTimeout || isOutOfMemory || isStopRequested;
+    }
+
+    /**
+     * Requests the analysis to stop before reaching the fixed point,
+     * as if it reaches the time limit, i.e., the solver stops after
+     * current work list entry, and saves a checkpoint if enabled.
+     */
+    void requestStop() {
+        isStopRequested = true;
+    }
+
+    /**
+     * Processes work list entries until the work list is empty
+     * or the analysis is stopped.
+     */
+    void processWorkList() {
+        do {
+            processWorkListEntries();
+            // plugins may add new entries to the work list
+        } while (deliverPluginEvents() && !isStopped());
+    }
+
+    private void processWorkListEntries() {
+        while (!workList.isEmpty() && !isStopped()) {
+            WorkList.Entry entry = workList.pollEntry();
+            if (entry instanceof WorkList.PointerEntry pEntry) {
+                Pointer p = getRepresentative(pEntry.pointer());
+                PointsToSet pts = pEntry.pointsToSet();
+                PointsToSet diff = propagate(p, pts);
+                if (!diff.isEmpty()) {
+                    if (seeds != null) {
+                        seeds.addObjects(diff);
+                    }
+                    if (deferredHeapAccesses != null) {
+                        deferredHeapAccesses.onNewObjects(p, diff);
+                    }
+                    processNewPointsToSet(getMembers(p), diff);
+                }
+                collapseCycles();
+            } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
+                processCallEdge(eEntry.edge());
+            }
+            if (pluginBatchSize > 0 && ++undeliveredEntries >= pluginBatchSize) {
+                deliverPluginEvents();
+            }
+            checkpoint();
+            checkMemory();
+        }
+    }
+
+    /**
+     * Delivers buffered new points-to sets and call edges to plugin.
+     *
+     * @return {@code true} if any events are delivered.
+     */
+    boolean deliverPluginEvents() {
+        undeliveredEntries = 0;
+        if (pendingPointsToSets.isEmpty() && pendingCallEdges.isEmpty()) {
+            return false;
+        }
+        Object cause = setCause(IncrementalState.VOLATILE);
+        // call edges are delivered first, so that plugins are aware of
+        // the new callees before the points-to sets of their variables
+        if (!pendingCallEdges.isEmpty()) {
+            Map<CSMethod, List<Edge<CSCallSite, CSMethod>>> edges = pendingCallEdges;
+            pendingCallEdges = Maps.newLinkedHashMap();
+            plugin.onNewCallEdges(Collections.unmodifiableMap(edges));
+        }
+        if (!pendingPointsToSets.isEmpty()) {
+            Map<CSVar, PointsToSet> ptsMap = pendingPointsToSets;
+            pendingPointsToSets = Maps.newLinkedHashMap();
+            mergedPointsToSets.clear();
+            plugin.onNewPointsToSets(Collections.unmodifiableMap(ptsMap));
+        }
+        setCause(cause);
+        return true;
+    }
+
+    /**
+     * Saves a checkpoint if it is time to do so.
+     */
+    void checkpoint() {
+        if (nextCheckpointTime != 0 && System.nanoTime() >= nextCheckpointTime) {
+            checkpoint.save(csManager);
+            nextCheckpointTime = System.nanoTime()
+                    + TimeUnit.SECONDS.toNanos(checkpointInterval);
+        }
+    }
+
+    /**
+     * Replaces the memory watchdog created from the options, which is
+     * used by tests to drive the watchdog by given heap usage.
+     */
+    void setMemoryWatchdog(MemoryWatchdog memoryWatchdog) {
+        if (this.memoryWatchdog != null) {
+            this.memoryWatchdog.stop();
+        }
+        this.memoryWatchdog = memoryWatchdog;
+    }
+
+    /**
+     * @return {@code true} if new call edges are analyzed
+     * context-insensitively due to memory pressure.
+     */
+    boolean isCICallEdges() {
+        return isCICallEdges;
+    }
+
+    /**
+     * Takes the actions scheduled by memory watchdog, if any.
+     */
+    void checkMemory() {
+        if (memoryWatchdog == null) {
+            return;
+        }
+        MemoryWatchdog.Action action;
+        while ((action = memoryWatchdog.pollAction()) != null) {
+            switch (action) {
+                case MERGE -> {
+                    if (heapModel instanceof AbstractHeapModel model
+                            && model.mergeMoreObjects()) {
+                        logger.warn("Memory pressure: merge more heap objects");
+                    } else {
+                        logger.warn("Memory pressure: no more heap objects to merge");
+                    }
+                }
+                case CI -> {
+                    isCICallEdges = true;
+                    logger.warn("Memory pressure: analyze new call edges" +
+                            " context-insensitively");
+                }
+                case STOP -> {
+                    isOutOfMemory = true;
+                    logger.warn("Memory pressure: stop the analysis");
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the points-to set of given pointer computed by previous runs,
+     * which is not derived by current cause.
+     */
+    void addSeeds(Pointer pointer, PointsToSet pts) {
+        Object cause = setCause(null);
+        addPointsTo(pointer, pts);
+        setCause(cause);
     }
 
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
+     * If pointer represents a component of merged pointers,
+     * then pointsToSet is propagated to the successors of all
+     * pointers in the component.
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         logger.trace("Propagate {} to {}", pointsToSet, pointer);
+        PointsToSet diff = getPointsToSetOf(pointer)
+                .addAllDiff(applyFilters(pointer, pointsToSet));
+        if (!diff.isEmpty()) {
+            for (Pointer member : getMembers(pointer)) {
+                propagateToSuccessors(member, diff);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Propagates diff along the out edges of given pointer.
+     */
+    private void propagateToSuccessors(Pointer pointer, PointsToSet diff) {
+        for (Pointer target : pointer.getPlainTargets()) {
+            // copy edges in collapsed cycles are redundant
+            if (!isMerged(pointer, target)) {
+                addPointsTo(target, diff);
+                addCycleCandidate(pointer, target);
+            }
+        }
+        for (PointerFlowEdge edge : pointer.getTransferEdges()) {
+            Pointer target = edge.target();
+            boolean inCycle = isMerged(pointer, target);
+            edge.getTransfers().forEach(transfer -> {
+                if (!inCycle || transfer != Identity.INSTANCE) {
+                    addPointsTo(target, transfer.apply(edge, diff));
+                }
+            });
+            if (!inCycle && edge.getTransfers().contains(Identity.INSTANCE)) {
+                addCycleCandidate(pointer, target);
+            }
+        }
+    }
+
+    /**
+     * @return the representative of the merged pointers containing
+     * given pointer. If cycle elimination is disabled or the pointer
+     * has not been merged, returns the pointer itself.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        return cycleEliminator != null
+                ? cycleEliminator.getRepresentative(pointer)
+                : pointer;
+    }
+
+    /**
+     * @return the pointers that are merged into the component represented
+     * by given pointer, including the pointer itself.
+     */
+    List<Pointer> getMembers(Pointer rep) {
+        return cycleEliminator != null
+                ? cycleEliminator.getMembers(rep)
+                : List.of(rep);
+    }
+
+    /**
+     * @return {@code true} if given pointers have been merged
+     * and share the same points-to set.
+     */
+    boolean isMerged(Pointer p1, Pointer p2) {
+        return cycleEliminator != null && cycleEliminator.isMerged(p1, p2);
+    }
+
+    /**
+     * Records that objects have been propagated along the copy edge
+     * from source to target, which may trigger cycle detection.
+     */
+    void addCycleCandidate(Pointer source, Pointer target) {
+        if (cycleEliminator != null) {
+            cycleEliminator.addCandidate(source, target);
+        }
+    }
+
+    /**
+     * Collapses the cycles found by cycle detection, and processes
+     * the objects gained by the merged pointers.
+     */
+    void collapseCycles() {
+        if (cycleEliminator != null) {
+            cycleEliminator.collapseCycles().forEach((pointer, gain) -> {
+                propagateToSuccessors(pointer, gain);
+                if (pointer instanceof CSVar csVar) {
+                    processNewPointsToSet(csVar, gain);
+                }
+            });
+        }
+    }
+
+    /**
+     * Applies the filters of given pointer on pointsToSet.
+     *
+     * @return the objects in pointsToSet that pass all filters of the pointer.
+     */
+    PointsToSet applyFilters(Pointer pointer, PointsToSet pointsToSet) {
         Set<Predicate<CSObj>> filters = pointer.getFilters();
         if (!filters.isEmpty()) {
             // apply filters (of the pointer) on pointsToSet
@@ -349,15 +864,72 @@ public class DefaultSolver implements Solver {
                     .filter(o -> filters.stream().allMatch(f -> f.test(o)))
                     .collect(ptsFactory::make, PointsToSet::addObject, PointsToSet::addAll);
         }
-        PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(pointsToSet);
-        if (!diff.isEmpty()) {
-            pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge -> {
-                Pointer target = edge.target();
-                edge.getTransfers().forEach(transfer ->
-                        addPointsTo(target, transfer.apply(edge, diff)));
-            });
+        return pointsToSet;
+    }
+
+    /**
+     * Processes the statements and plugins that are relevant to the
+     * context-sensitive variables among given pointers, which share
+     * the changed points-to set.
+     *
+     * @param pointers the pointers whose points-to set changes
+     * @param diff     set of new discovered objects pointed by the pointers.
+     */
+    void processNewPointsToSet(List<Pointer> pointers, PointsToSet diff) {
+        for (Pointer pointer : pointers) {
+            if (pointer instanceof CSVar csVar) {
+                processNewPointsToSet(csVar, diff);
+            }
+        }
+    }
+
+    /**
+     * Processes the statements and plugins that are relevant to
+     * a context-sensitive variable whose points-to set changes.
+     *
+     * @param csVar the variable whose points-to set changes
+     * @param diff  set of new discovered objects pointed by the variable.
+     */
+    void processNewPointsToSet(CSVar csVar, PointsToSet diff) {
+        Object cause = setCause(csVar);
+        processHeapAccesses(csVar, deferredHeapAccesses != null
+                ? deferredHeapAccesses.defer(csVar, diff) : diff);
+        processCall(csVar, diff);
+        if (pluginBatchSize > 0) {
+            PointsToSet pending = pendingPointsToSets.get(csVar);
+            if (pending == null) {
+                pendingPointsToSets.put(csVar, diff);
+            } else {
+                // diff may be shared, thus we merge it into a new set
+                if (mergedPointsToSets.add(csVar)) {
+                    PointsToSet merged = makePointsToSet();
+                    merged.addAll(pending);
+                    pending = merged;
+                    pendingPointsToSets.put(csVar, pending);
+                }
+                pending.addAll(diff);
+            }
+        } else {
+            setCause(IncrementalState.VOLATILE);
+            plugin.onNewPointsToSet(csVar, diff);
+        }
+        setCause(cause);
+    }
+
+    /**
+     * Processes the field and array accesses on a variable
+     * when its points-to set changes.
+     *
+     * @param csVar the variable whose points-to set changes
+     * @param pts   set of new discovered objects pointed by the variable.
+     */
+    void processHeapAccesses(CSVar csVar, PointsToSet pts) {
+        if (!pts.isEmpty()) {
+            processInstanceStore(csVar, pts);
+            processInstanceLoad(csVar, pts);
+            processArrayStore(csVar, pts);
+            processArrayLoad(csVar, pts);
         }
-        return diff;
     }
 
     /**
@@ -467,36 +1039,59 @@ public class DefaultSolver implements Solver {
     private void processCall(CSVar recv, PointsToSet pts) {
         Context context = recv.getContext();
         Var var = recv.getVar();
-        for (Invoke callSite : var.getInvokes()) {
-            pts.forEach(recvObj -> {
+        List<Invoke> callSites = var.getInvokes();
+        if (callSites.isEmpty()) {
+            return;
+        }
+        // group receiver objects by types, so that each call site
+        // is resolved once per type
+        Map<Type, List<CSObj>> recvObjs = Maps.newLinkedHashMap();
+        pts.forEach(recvObj -> recvObjs.computeIfAbsent(
+                recvObj.getObject().getType(), __ -> new ArrayList<>())
+                .add(recvObj));
+        for (Invoke callSite : callSites) {
+            CSCallSite csCallSite = null;
+            for (Map.Entry<Type, List<CSObj>> entry : recvObjs.entrySet()) {
                 // resolve callee
-                JMethod callee = CallGraphs.resolveCallee(
-                        recvObj.getObject().getType(), callSite);
+                JMethod callee = dispatchCache.resolveCallee(
+                        callSite, entry.getKey());
                 if (callee != null) {
-                    // select context
-                    CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
-                    Context calleeContext = contextSelector.selectContext(
-                            csCallSite, recvObj, callee);
-                    // build call edge
-                    CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
-                    addCallEdge(new Edge<>(CallGraphs.getCallKind(callSite),
-                            csCallSite, csCallee));
-                    // pass receiver object to *this* variable
-                    if (!isIgnored(callee)) {
-                        addVarPointsTo(calleeContext, callee.getIR().getThis(),
-                                recvObj);
+                    if (csCallSite == null) {
+                        csCallSite = csManager.getCSCallSite(context, callSite);
+                    }
+                    for (CSObj recvObj : entry.getValue()) {
+                        // select context
+                        Context calleeContext = isCICallEdges ?
+                                contextSelector.getEmptyContext() :
+                                contextSelector.selectContext(csCallSite, recvObj, callee);
+                        // build call edge
+                        CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
+                        addCallEdge(new Edge<>(CallGraphs.getCallKind(callSite),
+                                csCallSite, csCallee));
+                        // pass receiver object to *this* variable
+                        if (!isIgnored(callee)) {
+                            addVarPointsTo(calleeContext, callee.getIR().getThis(),
+                                    recvObj);
+                        }
                     }
                 } else {
-                    plugin.onUnresolvedCall(recvObj, context, callSite);
+                    Object cause = setCause(IncrementalState.VOLATILE);
+                    for (CSObj recvObj : entry.getValue()) {
+                        plugin.onUnresolvedCall(recvObj, context, callSite);
+                    }
+                    setCause(cause);
                 }
-            });
+            }
         }
     }
 
-    private void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
+    void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
         if (callGraph.addEdge(edge)) {
             // process new call edge
             CSMethod csCallee = edge.getCallee();
+            // the facts derived by the edge depend on the causes of
+            // the edge, which are recorded as the causes of the callee
+            Object cause = setCause(csCallee);
             addCSMethod(csCallee);
             if (edge.getKind() != CallKind.OTHER
                     && !isIgnored(csCallee.getMethod())) {
@@ -527,7 +1122,14 @@ public class DefaultSolver implements Solver {
                     }
                 }
             }
-            plugin.onNewCallEdge(edge);
+            if (pluginBatchSize > 0) {
+                pendingCallEdges.computeIfAbsent(edge.getCallee(),
+                        __ -> new ArrayList<>()).add(edge);
+            } else {
+                setCause(IncrementalState.VOLATILE);
+                plugin.onNewCallEdge(edge);
+            }
+            setCause(cause);
         }
     }
 
@@ -651,7 +1253,9 @@ public class DefaultSolver implements Solver {
                 JMethod callee = CallGraphs.resolveCallee(null, callSite);
                 if (callee != null) {
                     CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
-                    Context calleeCtx = contextSelector.selectContext(csCallSite, callee);
+                    Context calleeCtx = isCICallEdges ?
+                            contextSelector.getEmptyContext() :
+                            contextSelector.selectContext(csCallSite, callee);
                     CSMethod csCallee = csManager.getCSMethod(calleeCtx, callee);
                     addCallEdge(new Edge<>(CallKind.STATIC, csCallSite, csCallee));
                 }
@@ -677,7 +1281,11 @@ public class DefaultSolver implements Solver {
                 if (propTypes.isAllowed(rvalue)) {
                     CSVar from = csManager.getCSVar(context, rvalue);
                     CSVar to = csManager.getCSVar(context, stmt.getLValue());
-                    addPFGEdge(from, to, FlowKind.LOCAL_ASSIGN);
+                    // from and to are the same pointer if the lvalue
+                    // is substituted by the rvalue
+                    if (from != to) {
+                        addPFGEdge(from, to, FlowKind.LOCAL_ASSIGN);
+                    }
                 }
                 return null;
             }
@@ -740,7 +1348,10 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointsTo(Pointer pointer, PointsToSet pts) {
-        workList.addEntry(pointer, pts);
+        if (incremental != null) {
+            incremental.addDependency(pointer);
+        }
+        workList.addEntry(getRepresentative(pointer), pts);
     }
 
     @Override
@@ -772,13 +1383,43 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointerFilter(Pointer pointer, Predicate<CSObj> filter) {
+        if (cycleEliminator != null && cycleEliminator.isMerged(pointer)) {
+            // the filtered pointer cannot share points-to set with others,
+            // and the pending objects of its component may be kept
+            // in the entry of the pointer
+            Pointer rep = cycleEliminator.getRepresentative(pointer);
+            List<Pointer> component = List.copyOf(cycleEliminator.getMembers(rep));
+            PointsToSet pending = workList.removeEntry(rep);
+            cycleEliminator.detach(pointer);
+            if (pending != null) {
+                component.forEach(p -> addPointsTo(p, pending));
+            }
+        }
+        if (incremental != null) {
+            incremental.addDependency(pointer);
+        }
         pointer.addFilter(filter);
     }
 
     @Override
     public void addPFGEdge(PointerFlowEdge edge, Transfer transfer) {
+        if (transfer == Identity.INSTANCE && isPlain(edge)) {
+            if (pointerFlowGraph.addPlainEdge(edge.kind(), edge.source(), edge.target())) {
+                if (incremental != null) {
+                    incremental.addFlow(edge.source(), edge.target());
+                }
+                PointsToSet sourceSet = getPointsToSetOf(edge.source());
+                if (!sourceSet.isEmpty()) {
+                    addPointsTo(edge.target(), sourceSet);
+                }
+            }
+            return;
+        }
         edge = pointerFlowGraph.addEdge(edge);
         if (edge != null && edge.addTransfer(transfer)) {
+            if (incremental != null) {
+                incremental.addFlow(edge.source(), edge.target());
+            }
             PointsToSet targetSet = transfer.apply(
                     edge, getPointsToSetOf(edge.source()));
             if (!targetSet.isEmpty()) {
@@ -787,6 +1428,15 @@ public class DefaultSolver implements Solver {
         }
     }
 
+    /**
+     * @return {@code true} if given edge can be stored as a plain edge,
+     * i.e., it carries no information other than its kind, source and target.
+     */
+    private static boolean isPlain(PointerFlowEdge edge) {
+        return edge.getClass() == PointerFlowEdge.class
+                && edge.getTransfers().isEmpty();
+    }
+
     @Override
     public void addEntryPoint(EntryPoint entryPoint) {
         Context entryCtx = contextSelector.getEmptyContext();
@@ -827,20 +1477,28 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (incremental != null) {
+            incremental.addDependency(edge.getCallee());
+        }
         workList.addEntry(edge);
     }
 
     @Override
     public void addCSMethod(CSMethod csMethod) {
+        if (incremental != null) {
+            incremental.addDependency(csMethod);
+        }
         if (callGraph.addReachableMethod(csMethod)) {
             // process new reachable context-sensitive method
             JMethod method = csMethod.getMethod();
             if (isIgnored(method)) {
                 return;
             }
+            Object cause = setCause(csMethod);
             processNewMethod(method);
             addStmts(csMethod, method.getIR().getStmts());
             plugin.onNewCSMethod(csMethod);
+            setCause(cause);
         }
     }
 
@@ -881,9 +1539,13 @@ public class DefaultSolver implements Solver {
     @Override
     public PointerAnalysisResult getResult() {
         if (result == null) {
-            result = new PointerAnalysisResultImpl(
+            PointerAnalysisResultImpl resultImpl = new PointerAnalysisResultImpl(
                     propTypes, csManager, heapModel,
-                    callGraph, pointerFlowGraph);
+                    callGraph, pointerFlowGraph, isPartial);
+            if (options.getBoolean("ci-projection")) {
+                resultImpl.project();
+            }
+            result = resultImpl;
         }
         return result;
     }
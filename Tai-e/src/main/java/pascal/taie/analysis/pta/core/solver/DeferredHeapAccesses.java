@@ -0,0 +1,304 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Defers the processing of the heap accesses (i.e., field and array loads
+ * and stores) on the objects seeded by {@link LibrarySummary}.
+ * <p>
+ * The summary is the fixed point of the analysis of the library alone,
+ * thus for a variable {@code x} and an object {@code o} in the summary of
+ * {@code x}, the summary already contains the objects propagated along
+ * the pointer flow edges of the heap accesses on {@code o}, e.g., for
+ * {@code x.f = y}, the summary of {@code o.f} contains the summary of
+ * {@code y}. Such edges are needed only when their sources receive
+ * objects which are not in their summaries, e.g., objects of application
+ * code. Hence, the solver does not process the heap accesses of {@code x}
+ * on {@code o} (but still creates the points-to sets of the accessed
+ * pointers, which are then seeded by the summary), until
+ * <ul>
+ *     <li>the right-hand side variable of a store on {@code x}, or</li>
+ *     <li>a field or the elements of {@code o}</li>
+ * </ul>
+ * receives objects beyond its summary. The points-to sets are the same as
+ * the ones without deferral, while the pointer flow graph lacks the edges
+ * of the heap accesses that are never processed.
+ * <p>
+ * This class requires that the seeds of the solver come from the library
+ * summary alone, and that the pointer flow graph is not collapsed by
+ * cycle elimination.
+ */
+final class DeferredHeapAccesses {
+
+    private final DefaultSolver solver;
+
+    private final CSManager csManager;
+
+    private final PointsToSeeds seeds;
+
+    /**
+     * Map from variables to the objects whose heap accesses are deferred.
+     */
+    private final Map<CSVar, PointsToSet> deferred = Maps.newMap();
+
+    /**
+     * Map from the right-hand side variables of stores to the base
+     * variables of the stores, which have deferred objects.
+     */
+    private final Map<CSVar, Set<CSVar>> storeBases = Maps.newMap();
+
+    /**
+     * Map from deferred objects to the base variables of the loads,
+     * which are deferred on the objects.
+     */
+    private final Map<CSObj, Set<CSVar>> loadBases = Maps.newMap();
+
+    /**
+     * Number of objects whose heap accesses are deferred.
+     */
+    private long deferredObjects;
+
+    /**
+     * Number of objects whose deferred heap accesses are processed.
+     */
+    private long processedObjects;
+
+    DeferredHeapAccesses(DefaultSolver solver, PointsToSeeds seeds) {
+        this.solver = solver;
+        this.csManager = solver.getCSManager();
+        this.seeds = seeds;
+    }
+
+    /**
+     * Defers the heap accesses of given variable on the objects
+     * in its summary if possible.
+     *
+     * @param base the variable whose points-to set changes.
+     * @param diff the new objects pointed by the variable.
+     * @return the objects whose heap accesses should be processed now.
+     */
+    PointsToSet defer(CSVar base, PointsToSet diff) {
+        Var var = base.getVar();
+        if (var.getStoreFields().isEmpty() && var.getLoadFields().isEmpty()
+                && var.getStoreArrays().isEmpty() && var.getLoadArrays().isEmpty()) {
+            return diff;
+        }
+        PointsToSet summary = seeds.getSeeds(base);
+        if (summary == null) {
+            return diff;
+        }
+        PointsToSet now = solver.makePointsToSet();
+        PointsToSet later = solver.makePointsToSet();
+        for (CSObj obj : diff) {
+            if (summary.contains(obj) && obj.getObject().isFunctional()) {
+                later.addObject(obj);
+            } else {
+                now.addObject(obj);
+            }
+        }
+        if (later.isEmpty()) {
+            return diff;
+        }
+        if (!canDefer(base, later)) {
+            return diff;
+        }
+        register(base, later);
+        deferred.computeIfAbsent(base, __ -> solver.makePointsToSet())
+                .addAll(later);
+        deferredObjects += later.size();
+        return now;
+    }
+
+    /**
+     * Creates the points-to sets of the pointers accessed by the heap
+     * accesses of given variable on given objects (so that they are seeded),
+     * and checks whether the pointers that flow to others have received
+     * objects beyond their summaries.
+     *
+     * @return {@code true} if the heap accesses can be deferred.
+     */
+    private boolean canDefer(CSVar base, PointsToSet objs) {
+        Context context = base.getContext();
+        Var var = base.getVar();
+        PropagateTypes propTypes = solver.getPropagateTypes();
+        boolean result = true;
+        for (StoreField store : var.getStoreFields()) {
+            Var from = store.getRValue();
+            if (propTypes.isAllowed(from)) {
+                result &= isSummarized(csManager.getCSVar(context, from));
+                for (CSObj obj : objs) {
+                    solver.getPointsToSetOf(csManager.getInstanceField(
+                            obj, store.getFieldRef().resolve()));
+                }
+            }
+        }
+        for (LoadField load : var.getLoadFields()) {
+            Var to = load.getLValue();
+            if (propTypes.isAllowed(to)) {
+                solver.getPointsToSetOf(csManager.getCSVar(context, to));
+                for (CSObj obj : objs) {
+                    result &= isSummarized(csManager.getInstanceField(
+                            obj, load.getFieldRef().resolve()));
+                }
+            }
+        }
+        for (StoreArray store : var.getStoreArrays()) {
+            Var from = store.getRValue();
+            if (propTypes.isAllowed(from)) {
+                result &= isSummarized(csManager.getCSVar(context, from));
+                for (CSObj obj : objs) {
+                    solver.getPointsToSetOf(csManager.getArrayIndex(obj));
+                }
+            }
+        }
+        for (LoadArray load : var.getLoadArrays()) {
+            Var to = load.getLValue();
+            if (propTypes.isAllowed(to)) {
+                solver.getPointsToSetOf(csManager.getCSVar(context, to));
+                for (CSObj obj : objs) {
+                    result &= isSummarized(csManager.getArrayIndex(obj));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers the pointers whose new objects trigger the processing
+     * of the deferred heap accesses of given variable.
+     */
+    private void register(CSVar base, PointsToSet objs) {
+        Context context = base.getContext();
+        Var var = base.getVar();
+        PropagateTypes propTypes = solver.getPropagateTypes();
+        for (StoreField store : var.getStoreFields()) {
+            if (propTypes.isAllowed(store.getRValue())) {
+                addBase(storeBases,
+                        csManager.getCSVar(context, store.getRValue()), base);
+            }
+        }
+        for (StoreArray store : var.getStoreArrays()) {
+            if (propTypes.isAllowed(store.getRValue())) {
+                addBase(storeBases,
+                        csManager.getCSVar(context, store.getRValue()), base);
+            }
+        }
+        if (!var.getLoadFields().isEmpty() || !var.getLoadArrays().isEmpty()) {
+            for (CSObj obj : objs) {
+                addBase(loadBases, obj, base);
+            }
+        }
+    }
+
+    private static <K> void addBase(Map<K, Set<CSVar>> bases, K key, CSVar base) {
+        bases.computeIfAbsent(key, __ -> Sets.newHybridSet()).add(base);
+    }
+
+    /**
+     * Processes the deferred heap accesses that depend on given pointer,
+     * if the pointer receives objects beyond its summary.
+     *
+     * @param pointer the pointer whose points-to set changes.
+     * @param diff    the new objects pointed by the pointer.
+     */
+    void onNewObjects(Pointer pointer, PointsToSet diff) {
+        Map<?, Set<CSVar>> bases;
+        Object key;
+        if (pointer instanceof CSVar csVar) {
+            bases = storeBases;
+            key = csVar;
+        } else if (pointer instanceof InstanceField instField) {
+            bases = loadBases;
+            key = instField.getBase();
+        } else if (pointer instanceof ArrayIndex arrayIndex) {
+            bases = loadBases;
+            key = arrayIndex.getArray();
+        } else {
+            return;
+        }
+        if (bases.containsKey(key) && !isSummarized(pointer, diff)) {
+            for (CSVar base : bases.remove(key)) {
+                PointsToSet objs = deferred.remove(base);
+                if (objs != null) {
+                    processedObjects += objs.size();
+                    solver.processHeapAccesses(base, objs);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if all objects pointed by given pointer
+     * are in its summary.
+     */
+    private boolean isSummarized(Pointer pointer) {
+        PointsToSet pts = pointer.getPointsToSet();
+        return pts == null || isSummarized(pointer, pts);
+    }
+
+    /**
+     * @return {@code true} if given objects are in the summary of given pointer.
+     */
+    private boolean isSummarized(Pointer pointer, PointsToSet objs) {
+        if (objs.isEmpty()) {
+            return true;
+        }
+        PointsToSet summary = seeds.getSeeds(pointer);
+        return summary != null && objs.objects().allMatch(summary::contains);
+    }
+
+    /**
+     * @return number of objects whose heap accesses are deferred.
+     */
+    long getDeferredObjects() {
+        return deferredObjects;
+    }
+
+    /**
+     * @return number of objects whose heap accesses are deferred,
+     * and then processed as the accessed pointers receive objects
+     * beyond their summaries.
+     */
+    long getProcessedObjects() {
+        return processedObjects;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caches the callees of virtual call sites for each receiver type.
+ * <p>
+ * A polymorphic call site may receive many objects, but usually of
+ * a few types. The solver groups the new receiver objects by their types,
+ * and resolves the callee once per type via this cache, instead of looking
+ * up the dispatch table of class hierarchy once per object.
+ */
+final class DispatchCache {
+
+    private final Map<Invoke, Map<Type, JMethod>> callees = Maps.newMap();
+
+    /**
+     * Map from call sites to the receiver types that cannot be resolved
+     * to any callee.
+     */
+    private final Map<Invoke, Set<Type>> unresolved = Maps.newMap();
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * @return the callee of given call site for receiver objects of given type,
+     * or {@code null} if the call site cannot be resolved for the type.
+     */
+    @Nullable
+    JMethod resolveCallee(Invoke callSite, Type recvType) {
+        Map<Type, JMethod> typeCallees = callees.computeIfAbsent(
+                callSite, __ -> Maps.newHybridMap());
+        JMethod callee = typeCallees.get(recvType);
+        if (callee != null) {
+            ++hits;
+            return callee;
+        }
+        Set<Type> unresolvedTypes = unresolved.get(callSite);
+        if (unresolvedTypes != null && unresolvedTypes.contains(recvType)) {
+            ++hits;
+            return null;
+        }
+        ++misses;
+        callee = CallGraphs.resolveCallee(recvType, callSite);
+        if (callee != null) {
+            typeCallees.put(recvType, callee);
+        } else {
+            unresolved.computeIfAbsent(callSite, __ -> Sets.newHybridSet())
+                    .add(recvType);
+        }
+        return callee;
+    }
+
+    /**
+     * @return number of lookups that are answered by the cache.
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of lookups that resolve the callees via class hierarchy.
+     */
+    long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * State of incremental pointer analysis, which is saved to a file
+ * at the end of each run, and reused by the next run on the changed program.
+ * <p>
+ * During solving, the state records the dependencies among pointers
+ * and context-sensitive methods: {@code a -> b} means that the facts
+ * of {@code b} (its points-to set, or the reachability of a method) may
+ * be derived from the facts of {@code a}. The dependencies come from
+ * the pointer flow graph, and from the <i>cause</i> that the solver is
+ * processing when a fact is added, e.g., the base variable of a field load,
+ * the receiver variable of a call, or the method whose statements are
+ * being processed.
+ * <p>
+ * When the next run starts, the methods whose bodies have changed are
+ * found by comparing IR fingerprints, and the facts that (transitively)
+ * depend on the changed methods are retracted. The remaining facts still
+ * hold on the changed program, thus the solver is seeded with them
+ * (see {@link PointsToSeeds}),
+ * and re-solves the program starting from the seeded points-to sets.
+ * As the seeds are a subset of the fixed point, the result is the same as
+ * from-scratch analysis. Note that the re-solving still processes all
+ * reachable methods from the entry points, i.e., the unaffected methods
+ * are not skipped, and the saving comes only from propagating the seeded
+ * points-to sets in bulk instead of object by object. Since all elements are matched across runs by
+ * their string representations, any change of the class structure
+ * (e.g., added methods or fields) or analysis options makes the previous
+ * state unusable, and the analysis runs from scratch in such cases.
+ * <p>
+ * Plugins may derive facts from arbitrary inputs, thus the facts added by
+ * the plugin callbacks that are not bound to a method (e.g.,
+ * {@link pascal.taie.analysis.pta.plugin.Plugin#onNewPointsToSet})
+ * are regarded as <i>volatile</i>, and are always retracted.
+ */
+final class IncrementalState {
+
+    private static final Logger logger = LogManager.getLogger(IncrementalState.class);
+
+    /**
+     * Version of the state file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Cause of the facts that are always retracted in the next run.
+     */
+    static final Object VOLATILE = new Object() {
+        @Override
+        public String toString() {
+            return "VOLATILE";
+        }
+    };
+
+    private final File file;
+
+    private final Solver solver;
+
+    /**
+     * Fingerprint of class structure and analysis options.
+     */
+    private final long programFingerprint;
+
+    /**
+     * The element whose processing derives the facts being added.
+     * {@code null} means the facts are unconditional, or are derived
+     * by pointer flow graph, which is recorded separately.
+     */
+    @Nullable
+    private Object cause;
+
+    private final MultiMap<Object, Object> dependencies = Maps.newMultiMap();
+
+    private final Set<Object> volatileElements = Sets.newSet();
+
+    IncrementalState(File file, Solver solver, AnalysisOptions options) {
+        this.file = file;
+        this.solver = solver;
+        this.programFingerprint = Checkpoint.fingerprint(
+                solver.getHierarchy().allClasses(), options);
+    }
+
+    /**
+     * Sets the cause of the facts added afterwards.
+     *
+     * @return the previous cause.
+     */
+    @Nullable
+    Object setCause(@Nullable Object cause) {
+        Object prev = this.cause;
+        this.cause = cause;
+        return prev;
+    }
+
+    /**
+     * Records that the facts of given element depend on current cause.
+     */
+    void addDependency(Object element) {
+        if (cause == VOLATILE) {
+            volatileElements.add(element);
+        } else if (cause != null) {
+            dependencies.put(cause, element);
+        }
+    }
+
+    /**
+     * Records a pointer flow from source to target.
+     */
+    void addFlow(Pointer source, Pointer target) {
+        dependencies.put(source, target);
+        addDependency(target);
+    }
+
+    /**
+     * Loads the state of previous run (if exists), and retracts
+     * the facts that depend on the changed methods.
+     *
+     * @return map from the keys of reusable pointers to the keys of
+     * the objects they pointed to in previous run.
+     */
+    Map<String, String[]> load() {
+        if (!file.exists()) {
+            logger.info("Incremental state {} does not exist," +
+                    " analyze from scratch", file);
+            return Map.of();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != VERSION
+                    || in.readLong() != programFingerprint) {
+                logger.info("Class structure or analysis options have changed" +
+                        " since previous run, analyze from scratch");
+                return Map.of();
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; ++i) {
+                strings[i] = Checkpoint.readString(in);
+            }
+            // find changed methods
+            ClassHierarchy hierarchy = solver.getHierarchy();
+            Set<String> changedMethods = Sets.newSet();
+            int nMethods = in.readInt();
+            for (int i = 0; i < nMethods; ++i) {
+                String signature = strings[in.readInt()];
+                long fingerprint = in.readLong();
+                JMethod method = hierarchy.getMethod(signature);
+                if (method == null || method.isAbstract()
+                        || Checkpoint.fingerprint(method.getIR()) != fingerprint) {
+                    changedMethods.add(signature);
+                }
+            }
+            // read elements, and find the ones that are affected
+            // by the changed methods
+            int nElements = in.readInt();
+            String[] keys = new String[nElements];
+            int[][] objects = new int[nElements][];
+            boolean[] affected = new boolean[nElements];
+            Deque<Integer> workList = new ArrayDeque<>();
+            for (int i = 0; i < nElements; ++i) {
+                keys[i] = strings[in.readInt()];
+                int owner = in.readInt();
+                boolean isVolatile = in.readBoolean();
+                int[] objs = new int[in.readInt()];
+                for (int j = 0; j < objs.length; ++j) {
+                    objs[j] = in.readInt();
+                }
+                objects[i] = objs;
+                if (isVolatile || (owner >= 0
+                        && changedMethods.contains(strings[owner]))) {
+                    affected[i] = true;
+                    workList.add(i);
+                }
+            }
+            int[][] succs = new int[nElements][];
+            for (int i = 0; i < nElements; ++i) {
+                int[] s = new int[in.readInt()];
+                for (int j = 0; j < s.length; ++j) {
+                    s[j] = in.readInt();
+                }
+                succs[i] = s;
+            }
+            while (!workList.isEmpty()) {
+                for (int succ : succs[workList.poll()]) {
+                    if (!affected[succ]) {
+                        affected[succ] = true;
+                        workList.add(succ);
+                    }
+                }
+            }
+            // keep the points-to sets of unaffected pointers
+            Map<String, String[]> previous = Maps.newMap();
+            int nAffected = 0;
+            for (int i = 0; i < nElements; ++i) {
+                if (affected[i]) {
+                    ++nAffected;
+                } else if (objects[i].length > 0) {
+                    String[] objKeys = new String[objects[i].length];
+                    for (int j = 0; j < objKeys.length; ++j) {
+                        objKeys[j] = strings[objects[i][j]];
+                    }
+                    previous.put(keys[i], objKeys);
+                }
+            }
+            logger.info("Incremental analysis: {} changed methods," +
+                            " {}/{} elements retracted, {} points-to sets reused",
+                    changedMethods.size(), nAffected, nElements, previous.size());
+            return previous;
+        } catch (IOException e) {
+            logger.warn("Failed to load incremental state from {} ({})," +
+                    " analyze from scratch", file, e.toString());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Saves the state of current run.
+     *
+     * @param reachableMethods the methods whose statements have been processed.
+     */
+    void save(Collection<JMethod> reachableMethods) {
+        CSManager csManager = solver.getCSManager();
+        // objects whose keys are ambiguous are not saved
+        Set<String> ambiguous = PointsToSeeds.getAmbiguousKeys(csManager);
+        // collect elements
+        Map<Object, Integer> elements = Maps.newMap();
+        csManager.pointers().forEach(p -> elements.putIfAbsent(p, elements.size()));
+        dependencies.forEach((from, to) -> {
+            elements.putIfAbsent(from, elements.size());
+            elements.putIfAbsent(to, elements.size());
+        });
+        volatileElements.forEach(e -> elements.putIfAbsent(e, elements.size()));
+        Object[] elementArray = new Object[elements.size()];
+        elements.forEach((e, i) -> elementArray[i] = e);
+        // build string table
+        Map<String, Integer> strings = Maps.newMap();
+        for (JMethod method : reachableMethods) {
+            intern(strings, method.getSignature());
+        }
+        for (Object e : elementArray) {
+            intern(strings, PointsToSeeds.key(e));
+            JMethod owner = owner(e);
+            if (owner != null) {
+                intern(strings, owner.getSignature());
+            }
+            if (e instanceof Pointer p && p.getPointsToSet() != null) {
+                p.getPointsToSet().forEach(o -> intern(strings, o.toString()));
+            }
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            logger.warn("Failed to create directory {}", dir);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(file))))) {
+            out.writeInt(VERSION);
+            out.writeLong(programFingerprint);
+            String[] stringArray = new String[strings.size()];
+            strings.forEach((s, i) -> stringArray[i] = s);
+            out.writeInt(stringArray.length);
+            for (String s : stringArray) {
+                Checkpoint.writeString(out, s);
+            }
+            out.writeInt(reachableMethods.size());
+            for (JMethod method : reachableMethods) {
+                out.writeInt(strings.get(method.getSignature()));
+                out.writeLong(Checkpoint.fingerprint(method.getIR()));
+            }
+            out.writeInt(elementArray.length);
+            for (Object e : elementArray) {
+                out.writeInt(strings.get(PointsToSeeds.key(e)));
+                JMethod owner = owner(e);
+                out.writeInt(owner != null ? strings.get(owner.getSignature()) : -1);
+                out.writeBoolean(volatileElements.contains(e));
+                List<Integer> objs = new ArrayList<>();
+                if (e instanceof Pointer p && p.getPointsToSet() != null) {
+                    p.getPointsToSet().forEach(o -> {
+                        if (!ambiguous.contains(o.toString())) {
+                            objs.add(strings.get(o.toString()));
+                        }
+                    });
+                }
+                out.writeInt(objs.size());
+                for (int o : objs) {
+                    out.writeInt(o);
+                }
+            }
+            for (Object e : elementArray) {
+                Set<Object> succs = dependencies.get(e);
+                out.writeInt(succs.size());
+                for (Object succ : succs) {
+                    out.writeInt(elements.get(succ));
+                }
+            }
+            logger.info("Saved incremental state ({} elements) to {}",
+                    elementArray.length, file);
+        } catch (IOException e) {
+            logger.error("Failed to save incremental state to {}", file, e);
+        }
+    }
+
+    private static void intern(Map<String, Integer> strings, String s) {
+        strings.putIfAbsent(s, strings.size());
+    }
+
+    /**
+     * @return the method whose body derives the facts of given element,
+     * or {@code null} if the element does not belong to any method.
+     */
+    @Nullable
+    private static JMethod owner(Object element) {
+        if (element instanceof CSVar csVar) {
+            return csVar.getVar().getMethod();
+        } else if (element instanceof CSMethod csMethod) {
+            return csMethod.getMethod();
+        }
+        return null;
+    }
+}
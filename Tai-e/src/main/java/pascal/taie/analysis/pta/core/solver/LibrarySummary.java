@@ -0,0 +1,95 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.ClassHierarchy;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Summary of the library (e.g., JDK), i.e., the points-to sets derived by
+ * analyzing the implicit entries (see {@link World#getImplicitEntries()})
+ * alone, which are independent of the application code.
+ * <p>
+ * The summary is computed once by a run that processes only the implicit
+ * entries, and is saved in a file named by the Java version and the
+ * fingerprint of library classes (including the bodies of their methods)
+ * and analysis options, so that it is shared by the analyses of different
+ * applications on the same library, and is not loaded after the library
+ * is updated.
+ * As the facts derived from the implicit entries are a subset of the
+ * fixed point of the whole program, the later runs seed the solver with
+ * the summary (see {@link PointsToSeeds}), and the points-to sets of the
+ * library code are propagated in bulk instead of being re-solved object
+ * by object.
+ */
+public final class LibrarySummary {
+
+    private final File file;
+
+    private final Checkpoint store;
+
+    public LibrarySummary(File dir, ClassHierarchy hierarchy, AnalysisOptions options) {
+        long fingerprint = Checkpoint.fingerprint(hierarchy.allClasses()
+                .filter(c -> !c.isApplication()), options);
+        int javaVersion = World.get().getOptions().getJavaVersion();
+        file = new File(dir, String.format("pta-library-java%d-%016x.bin",
+                javaVersion, fingerprint));
+        store = new Checkpoint(file, fingerprint, "library summary");
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return {@code true} if the summary has been computed.
+     */
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Saves the points-to sets of given run as the summary.
+     */
+    public void save(CSManager csManager) {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        store.save(csManager);
+    }
+
+    /**
+     * @return the points-to sets in the summary (in the form of
+     * {@link Checkpoint#load()}), or an empty map if the summary
+     * has not been computed.
+     */
+    Map<String, String[]> load() {
+        return exists() ? store.load() : Map.of();
+    }
+}
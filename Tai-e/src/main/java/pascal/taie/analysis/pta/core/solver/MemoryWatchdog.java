@@ -0,0 +1,262 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Watches the heap usage of the JVM, and schedules the configured actions
+ * step by step as the memory pressure rises.
+ * <p>
+ * The watchdog sets the collection usage thresholds of the heap memory
+ * pools (see {@link MemoryPoolMXBean#setCollectionUsageThreshold(long)}),
+ * so that it is notified when the memory used after garbage collection
+ * exceeds the threshold of next step. As the notifications are delivered
+ * in another thread, the actions are queued and taken by the solver
+ * via {@link #pollAction()}.
+ * <p>
+ * For testing, the heap usage can be provided by a function instead of
+ * the memory pools, and then the watchdog is driven by calling
+ * {@link #check()} directly.
+ */
+final class MemoryWatchdog implements NotificationListener {
+
+    private static final Logger logger = LogManager.getLogger(MemoryWatchdog.class);
+
+    /**
+     * Actions for releasing the memory pressure.
+     */
+    enum Action {
+
+        /**
+         * Merges more heap objects.
+         */
+        MERGE,
+
+        /**
+         * Uses context insensitivity for new call edges.
+         */
+        CI,
+
+        /**
+         * Stops the analysis.
+         */
+        STOP,
+    }
+
+    /**
+     * @param threshold ratio of used memory to maximum memory
+     *                  at which the action is taken.
+     */
+    record Step(Action action, double threshold) {
+    }
+
+    private final List<Step> steps;
+
+    /**
+     * Provides the ratio of used memory to maximum memory after GC,
+     * or {@code null} if the ratio is obtained from the heap memory pools.
+     */
+    @Nullable
+    private final DoubleSupplier usageProvider;
+
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+
+    private final Queue<Action> actions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Index of next step to take.
+     */
+    private int nextStep = 0;
+
+    private MemoryWatchdog(List<Step> steps, @Nullable DoubleSupplier usageProvider) {
+        this.steps = steps;
+        this.usageProvider = usageProvider;
+    }
+
+    /**
+     * Creates a watchdog from given steps, which are of pattern
+     * {@code action=threshold[,action=threshold...]}, e.g.,
+     * {@code merge=0.8,ci=0.9,stop=0.95}.
+     */
+    static MemoryWatchdog make(String steps) {
+        return make(steps, null);
+    }
+
+    /**
+     * Creates a watchdog from given steps, whose heap usage is given
+     * by {@code usageProvider}, or by the heap memory pools if
+     * {@code usageProvider} is {@code null}.
+     */
+    static MemoryWatchdog make(String steps, @Nullable DoubleSupplier usageProvider) {
+        List<Step> result = new ArrayList<>();
+        double lastThreshold = 0;
+        for (String step : steps.split(",")) {
+            String[] splits = step.trim().split("=");
+            try {
+                if (splits.length != 2) {
+                    throw new IllegalArgumentException(
+                            "step should be of pattern action=threshold");
+                }
+                Action action = Action.valueOf(splits[0].trim().toUpperCase());
+                double threshold = Double.parseDouble(splits[1].trim());
+                if (threshold <= lastThreshold || threshold >= 1) {
+                    throw new IllegalArgumentException(
+                            "thresholds should be increasing and in (0, 1)");
+                }
+                result.add(new Step(action, threshold));
+                lastThreshold = threshold;
+            } catch (RuntimeException e) {
+                throw new ConfigException(
+                        "Illegal memory watchdog step: " + step, e);
+            }
+        }
+        return new MemoryWatchdog(List.copyOf(result), usageProvider);
+    }
+
+    /**
+     * @return the steps of this watchdog, in increasing order of thresholds.
+     */
+    List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Starts watching the heap usage.
+     */
+    void start() {
+        if (usageProvider != null) {
+            // the heap usage is not obtained from memory pools
+            return;
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP
+                    && pool.isCollectionUsageThresholdSupported()
+                    && pool.getUsage().getMax() > 0) {
+                pools.add(pool);
+            }
+        }
+        if (pools.isEmpty()) {
+            logger.warn("No heap memory pool supports collection usage thresholds," +
+                    " memory watchdog is disabled");
+            return;
+        }
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                .addNotificationListener(this, null, null);
+        setThresholds();
+    }
+
+    /**
+     * Stops watching the heap usage.
+     */
+    void stop() {
+        if (pools.isEmpty()) {
+            return;
+        }
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                    .removeNotificationListener(this);
+        } catch (Exception ignored) {
+        }
+        // 0 disables the thresholds
+        pools.forEach(pool -> pool.setCollectionUsageThreshold(0));
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED
+                .equals(notification.getType())) {
+            check();
+        }
+    }
+
+    /**
+     * Schedules the actions of all steps whose thresholds are exceeded.
+     */
+    synchronized void check() {
+        double ratio = usageProvider != null
+                ? usageProvider.getAsDouble() : getCollectionUsageRatio();
+        boolean changed = false;
+        while (nextStep < steps.size() && ratio >= steps.get(nextStep).threshold()) {
+            Step step = steps.get(nextStep++);
+            logger.warn("Heap usage after GC reaches {}% (threshold: {}%)," +
+                            " schedule action {}", Math.round(ratio * 100),
+                    Math.round(step.threshold() * 100), step.action());
+            actions.add(step.action());
+            changed = true;
+        }
+        if (changed) {
+            setThresholds();
+        }
+    }
+
+    /**
+     * @return the maximum ratio of used memory to maximum memory
+     * after GC among the watched memory pools.
+     */
+    private double getCollectionUsageRatio() {
+        double ratio = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null && usage.getMax() > 0) {
+                ratio = Math.max(ratio, (double) usage.getUsed() / usage.getMax());
+            }
+        }
+        return ratio;
+    }
+
+    private void setThresholds() {
+        double threshold = nextStep < steps.size() ?
+                steps.get(nextStep).threshold() : 0;
+        for (MemoryPoolMXBean pool : pools) {
+            pool.setCollectionUsageThreshold(
+                    (long) (pool.getUsage().getMax() * threshold));
+        }
+    }
+
+    /**
+     * @return the next action to take, or {@code null} if there is
+     * no pending action.
+     */
+    @Nullable
+    Action pollAction() {
+        return actions.poll();
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solver that propagates points-to sets in parallel.
+ * <p>
+ * This solver processes the work list in rounds. In each round, it takes
+ * all pointer entries out of the work list, and then
+ * <ol>
+ *     <li>propagates the entries to the points-to sets of their pointers
+ *     and computes the objects that flow along the out edges in parallel.
+ *     As the work list holds at most one entry per pointer, each points-to
+ *     set is updated by exactly one thread, and the pointer flow graph and
+ *     {@link CSManager} are only read in this step;</li>
+ *     <li>processes the new points-to sets sequentially, i.e., adds the
+ *     propagated objects to the work list, handles the relevant statements
+ *     (which may create new context-sensitive elements and pointer flow
+ *     edges), notifies plugins, and processes new call edges.</li>
+ * </ol>
+ * Only the objects that flow along edges with {@link Identity} and
+ * {@link TypeFilter} transfers are computed in parallel, as other
+ * transfers (e.g., the ones of taint analysis) may have side effects.
+ * Since pointer analysis computes the least fixed point of monotone
+ * constraints, the result is the same as the one of {@link DefaultSolver}.
+ */
+public class ParallelSolver extends DefaultSolver {
+
+    private static final Logger logger = LogManager.getLogger(ParallelSolver.class);
+
+    /**
+     * Rounds with fewer pointer entries are processed by current thread,
+     * as the parallelization does not pay off for them.
+     */
+    private static final int MIN_PARALLEL_ENTRIES = 16;
+
+    /**
+     * Number of tasks per thread in each round, which helps balance
+     * the workloads among the threads.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final int nThreads;
+
+    private int minParallelEntries = MIN_PARALLEL_ENTRIES;
+
+    private ExecutorService executor;
+
+    /**
+     * Number of rounds processed by this solver.
+     */
+    private long rounds;
+
+    /**
+     * Number of pointer entries propagated in parallel.
+     */
+    private long parallelEntries;
+
+    public ParallelSolver(AnalysisOptions options, HeapModel heapModel,
+                          ContextSelector contextSelector, CSManager csManager) {
+        super(options, heapModel, contextSelector, csManager);
+        int threads = options.getInt("solver-threads");
+        nThreads = threads > 0 ? threads
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets the minimum number of pointer entries of the rounds which are
+     * processed in parallel. This is only used by tests, to exercise
+     * parallel propagation on small programs.
+     */
+    void setMinParallelEntries(int minParallelEntries) {
+        this.minParallelEntries = minParallelEntries;
+    }
+
+    /**
+     * @return number of pointer entries propagated in parallel.
+     */
+    long getParallelEntries() {
+        return parallelEntries;
+    }
+
+    @Override
+    boolean isParallel() {
+        return true;
+    }
+
+    @Override
+    public void solve() {
+        executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            super.solve();
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Parallel solver: {} threads, {} rounds, {} entries" +
+                " propagated in parallel", nThreads, rounds, parallelEntries);
+    }
+
+    @Override
+    void processWorkList() {
+        WorkList workList = getWorkList();
+        while (!workList.isEmpty() && !isStopped()) {
+            // for correctness, we need to ensure that call edges
+            // are processed prior to the pointer entries
+            processCallEdges();
+            List<Propagation> propagations = propagate(
+                    groupByRepresentative(workList.pollPointerEntries()));
+            ++rounds;
+            for (Propagation prop : propagations) {
+                for (Target target : prop.targets()) {
+                    addPointsTo(target.target(), target.pointsToSet());
+                    if (target.isCopy()) {
+                        addCycleCandidate(target.source(), target.target());
+                    }
+                }
+                PointsToSet diff = prop.diff();
+                for (PointerFlowEdge edge : prop.otherEdges()) {
+                    edge.getTransfers().forEach(transfer -> {
+                        if (!isParallelizable(transfer)) {
+                            addPointsTo(edge.target(), transfer.apply(edge, diff));
+                        }
+                    });
+                }
+                processNewPointsToSet(getMembers(prop.pointer()), diff);
+                processCallEdges();
+            }
+            // cycles are collapsed after each round, so that the pointers
+            // keep their components during the round
+            collapseCycles();
+            // buffered plugin events are delivered after each round
+            deliverPluginEvents();
+            checkpoint();
+            checkMemory();
+        }
+    }
+
+    /**
+     * Merges the entries of the pointers which share the same
+     * representative, so that each points-to set is updated
+     * by at most one thread.
+     */
+    private List<WorkList.PointerEntry> groupByRepresentative(
+            List<WorkList.PointerEntry> entries) {
+        Map<Pointer, PointsToSet> groups = Maps.newLinkedHashMap();
+        for (WorkList.PointerEntry entry : entries) {
+            Pointer rep = getRepresentative(entry.pointer());
+            PointsToSet pts = groups.get(rep);
+            if (pts == null) {
+                groups.put(rep, entry.pointsToSet());
+            } else {
+                pts.addAll(entry.pointsToSet());
+            }
+        }
+        if (groups.size() == entries.size()) {
+            // no entries are merged
+            return entries;
+        }
+        List<WorkList.PointerEntry> result = new ArrayList<>(groups.size());
+        groups.forEach((p, pts) -> result.add(new WorkList.PointerEntry(p, pts)));
+        return result;
+    }
+
+    private void processCallEdges() {
+        WorkList workList = getWorkList();
+        while (workList.hasCallEdges()) {
+            processCallEdge(workList.pollCallEdge());
+        }
+    }
+
+    /**
+     * Propagates given entries, possibly in parallel.
+     *
+     * @return the propagations with non-empty difference sets,
+     * in the same order as the given entries.
+     */
+    private List<Propagation> propagate(List<WorkList.PointerEntry> entries) {
+        List<Propagation> result = new ArrayList<>();
+        if (entries.size() < minParallelEntries || nThreads == 1) {
+            propagate(entries, result);
+            return result;
+        }
+        parallelEntries += entries.size();
+        int nTasks = Math.min(entries.size(), nThreads * TASKS_PER_THREAD);
+        int chunkSize = (entries.size() + nTasks - 1) / nTasks;
+        List<Callable<List<Propagation>>> tasks = new ArrayList<>(nTasks);
+        for (int from = 0; from < entries.size(); from += chunkSize) {
+            List<WorkList.PointerEntry> chunk = entries.subList(
+                    from, Math.min(from + chunkSize, entries.size()));
+            tasks.add(() -> {
+                List<Propagation> props = new ArrayList<>();
+                propagate(chunk, props);
+                return props;
+            });
+        }
+        try {
+            for (Future<List<Propagation>> future : executor.invokeAll(tasks)) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AnalysisException("Parallel propagation is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new AnalysisException("Parallel propagation failed", e.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * Propagates given entries and adds the propagations with non-empty
+     * difference sets to {@code result}. This method may be executed by
+     * multiple threads simultaneously, thus it must not modify any data
+     * other than the points-to sets of the pointers in {@code entries}.
+     * If a pointer represents merged pointers, the objects are propagated
+     * along the out edges of all merged pointers.
+     */
+    private void propagate(List<WorkList.PointerEntry> entries,
+                           List<Propagation> result) {
+        for (WorkList.PointerEntry entry : entries) {
+            Pointer pointer = entry.pointer();
+            PointsToSet diff = getPointsToSetOf(pointer)
+                    .addAllDiff(applyFilters(pointer, entry.pointsToSet()));
+            if (diff.isEmpty()) {
+                continue;
+            }
+            List<Target> targets = new ArrayList<>(pointer.getOutDegree());
+            List<PointerFlowEdge> otherEdges = List.of();
+            for (Pointer member : getMembers(pointer)) {
+                for (Pointer target : member.getPlainTargets()) {
+                    // copy edges in collapsed cycles are redundant
+                    if (!isMerged(member, target)) {
+                        targets.add(new Target(member, target, diff, true));
+                    }
+                }
+                for (PointerFlowEdge edge : member.getTransferEdges()) {
+                    Pointer target = edge.target();
+                    boolean inCycle = isMerged(member, target);
+                    boolean hasOtherTransfer = false;
+                    for (Transfer transfer : edge.getTransfers()) {
+                        if (isParallelizable(transfer)) {
+                            boolean isCopy = transfer == Identity.INSTANCE;
+                            if (inCycle && isCopy) {
+                                continue;
+                            }
+                            PointsToSet pts = transfer.apply(edge, diff);
+                            if (!pts.isEmpty()) {
+                                targets.add(new Target(member, target, pts, isCopy));
+                            }
+                        } else {
+                            hasOtherTransfer = true;
+                        }
+                    }
+                    if (hasOtherTransfer) {
+                        if (otherEdges.isEmpty()) {
+                            otherEdges = new ArrayList<>();
+                        }
+                        otherEdges.add(edge);
+                    }
+                }
+            }
+            result.add(new Propagation(pointer, diff, targets, otherEdges));
+        }
+    }
+
+    /**
+     * @return {@code true} if given transfer is free of side effects,
+     * so that it can be applied in parallel.
+     */
+    private static boolean isParallelizable(Transfer transfer) {
+        return transfer == Identity.INSTANCE || transfer instanceof TypeFilter;
+    }
+
+    /**
+     * Objects propagated along a pointer flow edge.
+     *
+     * @param source      source of the edge
+     * @param target      target of the edge
+     * @param pointsToSet objects propagated to the target
+     * @param isCopy      whether the objects are propagated by
+     *                    {@link Identity} transfer
+     */
+    private record Target(Pointer source, Pointer target,
+                          PointsToSet pointsToSet, boolean isCopy) {
+    }
+
+    /**
+     * Result of propagating a pointer entry.
+     *
+     * @param pointer    the pointer whose points-to set changes
+     * @param diff       set of new discovered objects pointed by the pointer
+     * @param targets    objects propagated along the edges whose transfers
+     *                   have been applied in parallel
+     * @param otherEdges edges which have transfers that must be applied
+     *                   sequentially
+     */
+    private record Propagation(Pointer pointer, PointsToSet diff,
+                               List<Target> targets,
+                               List<PointerFlowEdge> otherEdges) {
+    }
+}
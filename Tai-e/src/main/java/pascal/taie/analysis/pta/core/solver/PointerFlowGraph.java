@@ -25,7 +25,7 @@ package pascal.taie.analysis.pta.core.solver;
 import pascal.taie.analysis.graph.flowgraph.FlowKind;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
-import pascal.taie.util.collection.Views;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.util.graph.Edge;
 import pascal.taie.util.graph.Graph;
 
@@ -40,6 +40,11 @@ public class PointerFlowGraph implements Graph<Pointer> {
 
     private final CSManager csManager;
 
+    /**
+     * Number of edges in this graph.
+     */
+    private long edges;
+
     PointerFlowGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -55,7 +60,33 @@ public class PointerFlowGraph implements Graph<Pointer> {
      * </ul>
      */
     public PointerFlowEdge addEdge(PointerFlowEdge edge) {
-        return edge.source().addEdge(edge);
+        Pointer source = edge.source();
+        int outDegree = source.getOutDegree();
+        PointerFlowEdge result = source.addEdge(edge);
+        edges += source.getOutDegree() - outDegree;
+        return result;
+    }
+
+    /**
+     * Adds a plain pointer flow edge, which is stored without
+     * {@link PointerFlowEdge} object.
+     *
+     * @return {@code true} if the objects pointed to by source need to be
+     * propagated to target.
+     * @see Pointer#addPlainEdge(FlowKind, Pointer)
+     */
+    public boolean addPlainEdge(FlowKind kind, Pointer source, Pointer target) {
+        int outDegree = source.getOutDegree();
+        boolean result = source.addPlainEdge(kind, target);
+        edges += source.getOutDegree() - outDegree;
+        return result;
+    }
+
+    /**
+     * @return the number of edges in this graph.
+     */
+    public long getNumberOfEdges() {
+        return edges;
     }
 
     @Override
@@ -79,8 +110,9 @@ public class PointerFlowGraph implements Graph<Pointer> {
 
     @Override
     public Set<Pointer> getSuccsOf(Pointer node) {
-        return Views.toMappedSet(node.getOutEdges(),
-                PointerFlowEdge::target);
+        Set<Pointer> succs = Sets.newHybridSet(node.getPlainTargets());
+        node.getTransferEdges().forEach(edge -> succs.add(edge.target()));
+        return succs;
     }
 
     @Override
@@ -0,0 +1,259 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Decides the order in which the pointer entries of {@link WorkList}
+ * are processed.
+ * <p>
+ * The work list holds at most one entry for each pointer, and adds
+ * a pointer to this queue when it creates the entry of the pointer.
+ * A queue may return a pointer whose entry has been removed from
+ * the work list, and the work list just skips such pointers.
+ */
+abstract class PointerQueue {
+
+    /**
+     * Creates a pointer queue of given order.
+     *
+     * @param order the order of processing pointer entries, i.e.,
+     *              {@code fifo}, {@code topo}, or {@code lrf}
+     * @param pfg   the pointer flow graph, used by topological order
+     */
+    static PointerQueue make(String order, PointerFlowGraph pfg) {
+        return switch (order) {
+            case "fifo" -> new FIFO();
+            case "topo" -> new Topological(pfg);
+            case "lrf" -> new LeastRecentlyFired();
+            default -> throw new ConfigException(
+                    "Unknown work list order: " + order);
+        };
+    }
+
+    /**
+     * Adds a pointer to this queue.
+     */
+    abstract void add(Pointer pointer);
+
+    /**
+     * Retrieves and removes the next pointer of this queue.
+     *
+     * @return the next pointer, or {@code null} if this queue is empty.
+     */
+    @Nullable
+    abstract Pointer poll();
+
+    /**
+     * Processes pointers in the order they are added.
+     */
+    private static class FIFO extends PointerQueue {
+
+        private final Queue<Pointer> queue = new ArrayDeque<>();
+
+        @Override
+        void add(Pointer pointer) {
+            queue.add(pointer);
+        }
+
+        @Override
+        Pointer poll() {
+            return queue.poll();
+        }
+    }
+
+    /**
+     * Pointer associated with a priority, and smaller value means
+     * higher priority. The sequence number breaks ties, so that
+     * the pointers with the same priority are processed in FIFO order.
+     */
+    private record Item(Pointer pointer, long priority, long seq) {
+
+        private static final Comparator<Item> COMPARATOR =
+                Comparator.comparingLong(Item::priority)
+                        .thenComparingLong(Item::seq);
+    }
+
+    /**
+     * Processes the pointer which was least recently fired (i.e., polled)
+     * first, and the pointers that have never been fired come first.
+     * This order gives the objects more chance to be accumulated in the
+     * entries of the recently fired pointers before they fire again.
+     */
+    private static class LeastRecentlyFired extends PointerQueue {
+
+        private final PriorityQueue<Item> queue = new PriorityQueue<>(Item.COMPARATOR);
+
+        /**
+         * Last time when each pointer was fired.
+         */
+        private final Map<Pointer, Long> lastFired = Maps.newMap();
+
+        private long time = 0;
+
+        private long seq = 0;
+
+        @Override
+        void add(Pointer pointer) {
+            queue.add(new Item(pointer, lastFired.getOrDefault(pointer, -1L), seq++));
+        }
+
+        @Override
+        Pointer poll() {
+            Item item = queue.poll();
+            if (item == null) {
+                return null;
+            }
+            lastFired.put(item.pointer(), time++);
+            return item.pointer();
+        }
+    }
+
+    /**
+     * Processes pointers in topological order of the strongly connected
+     * components of pointer flow graph, so that a pointer is processed
+     * after its predecessors, and it can propagate the objects from all
+     * of them at once.
+     * <p>
+     * The pointers are processed in waves: the pointers added during a wave
+     * are deferred to the next wave, and they are sorted when the next wave
+     * starts. As pointer flow graph keeps growing during the analysis, the
+     * topological order is recomputed at the start of a wave if the graph
+     * has grown considerably since the last computation.
+     */
+    private static class Topological extends PointerQueue {
+
+        /**
+         * The topological order is recomputed when the number of edges
+         * grows by this factor.
+         */
+        private static final double REORDER_FACTOR = 1.1;
+
+        private final PointerFlowGraph pfg;
+
+        /**
+         * Pointers to be processed in current wave.
+         */
+        private final PriorityQueue<Item> current = new PriorityQueue<>(Item.COMPARATOR);
+
+        /**
+         * Pointers to be processed in next wave.
+         */
+        private final List<Pointer> next = new ArrayList<>();
+
+        /**
+         * Topological number of each pointer.
+         */
+        private Map<Pointer, Integer> topoNumbers = Map.of();
+
+        /**
+         * Number of pointer flow edges when {@link #topoNumbers} is computed.
+         */
+        private long sortedEdges = -1;
+
+        private long seq = 0;
+
+        private Topological(PointerFlowGraph pfg) {
+            this.pfg = pfg;
+        }
+
+        @Override
+        void add(Pointer pointer) {
+            next.add(pointer);
+        }
+
+        @Override
+        Pointer poll() {
+            if (current.isEmpty()) {
+                if (next.isEmpty()) {
+                    return null;
+                }
+                if (pfg.getNumberOfEdges() > sortedEdges * REORDER_FACTOR) {
+                    sortedEdges = pfg.getNumberOfEdges();
+                    topoNumbers = computeTopoNumbers();
+                }
+                for (Pointer pointer : next) {
+                    // pointers created after the computation are put last
+                    current.add(new Item(pointer,
+                            topoNumbers.getOrDefault(pointer, Integer.MAX_VALUE),
+                            seq++));
+                }
+                next.clear();
+            }
+            return current.poll().pointer();
+        }
+
+        /**
+         * Computes the reverse postorder of pointer flow graph by iterative
+         * depth-first search. For any edge between different strongly
+         * connected components, the source precedes the target in reverse
+         * postorder, thus it is a topological order of the components.
+         */
+        private Map<Pointer, Integer> computeTopoNumbers() {
+            Map<Pointer, Integer> postNumbers = Maps.newMap();
+            Deque<Pointer> stack = new ArrayDeque<>();
+            Deque<Iterator<Pointer>> iterators = new ArrayDeque<>();
+            int[] postNumber = {0};
+            pfg.pointers().forEach(root -> {
+                if (postNumbers.containsKey(root)) {
+                    return;
+                }
+                // visited but unfinished pointers are marked by -1
+                postNumbers.put(root, -1);
+                stack.push(root);
+                iterators.push(pfg.getSuccsOf(root).iterator());
+                while (!stack.isEmpty()) {
+                    Iterator<Pointer> it = iterators.peek();
+                    if (it.hasNext()) {
+                        Pointer succ = it.next();
+                        if (!postNumbers.containsKey(succ)) {
+                            postNumbers.put(succ, -1);
+                            stack.push(succ);
+                            iterators.push(pfg.getSuccsOf(succ).iterator());
+                        }
+                    } else {
+                        postNumbers.put(stack.pop(), postNumber[0]++);
+                        iterators.pop();
+                    }
+                }
+            });
+            int max = postNumber[0];
+            postNumbers.replaceAll((p, n) -> max - n);
+            return postNumbers;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Points-to sets computed by a previous run, which are used to seed
+ * the solver, so that the points-to sets are propagated in bulk instead
+ * of object by object. The seeds must be a subset of the fixed point
+ * of current run, e.g., the facts that are not affected by program changes
+ * (see {@link IncrementalState}), or the facts derived by an interrupted
+ * run (see {@link Checkpoint}).
+ * <p>
+ * The pointers and objects are matched across runs by their keys
+ * (see {@link #key(Object)}). As the elements are created lazily by
+ * the solver, a pointer is seeded when its points-to set is created,
+ * with the objects that have been discovered, and the rest of its seeds
+ * are added when these objects are discovered later.
+ */
+final class PointsToSeeds {
+
+    private final DefaultSolver solver;
+
+    private final Indexer<CSObj> objIndexer;
+
+    /**
+     * Map from the keys of the pointers to the keys of their seeds.
+     */
+    private final Map<String, String[]> seeds = Maps.newMap();
+
+    /**
+     * Map from object keys to the pointers that wait for the objects.
+     */
+    private final Map<String, List<Pointer>> pending = Maps.newMap();
+
+    /**
+     * Map from keys to the objects that have been discovered.
+     */
+    private final Map<String, CSObj> discovered = Maps.newMap();
+
+    /**
+     * Indexes of the objects that have been discovered.
+     */
+    private final BitSet discoveredObjects = new BitSet();
+
+    /**
+     * Map from the seeded pointers to the objects they are seeded with.
+     * This field is {@code null} if the seeds are not kept after seeding.
+     */
+    @Nullable
+    private final Map<Pointer, PointsToSet> seeded;
+
+    /**
+     * @param keepSeeds whether keeps the seeds of each pointer after
+     *                  seeding, which can be queried by {@link #getSeeds}.
+     */
+    PointsToSeeds(DefaultSolver solver, boolean keepSeeds) {
+        this.solver = solver;
+        this.objIndexer = solver.getCSManager().getObjectIndexer();
+        this.seeded = keepSeeds ? Maps.newMap() : null;
+    }
+
+    /**
+     * Adds seeds, given as the map from pointer keys to object keys.
+     */
+    void addAll(Map<String, String[]> newSeeds) {
+        newSeeds.forEach((pointer, objects) -> seeds.merge(pointer, objects,
+                (objs1, objs2) -> {
+                    String[] merged = Arrays.copyOf(objs1, objs1.length + objs2.length);
+                    System.arraycopy(objs2, 0, merged, objs1.length, objs2.length);
+                    return merged;
+                }));
+    }
+
+    boolean isEmpty() {
+        return seeds.isEmpty();
+    }
+
+    /**
+     * Seeds given pointer whose points-to set has just been created.
+     */
+    void seed(Pointer pointer) {
+        String[] objects = seeds.remove(key(pointer));
+        if (objects != null) {
+            PointsToSet pts = solver.makePointsToSet();
+            for (String objKey : objects) {
+                CSObj obj = discovered.get(objKey);
+                if (obj != null) {
+                    pts.addObject(obj);
+                } else {
+                    pending.computeIfAbsent(objKey, __ -> new ArrayList<>())
+                            .add(pointer);
+                }
+            }
+            if (!pts.isEmpty()) {
+                keep(pointer, pts);
+                solver.addSeeds(pointer, pts);
+            }
+        }
+    }
+
+    /**
+     * Seeds the pointers which wait for the objects that are
+     * discovered for the first time.
+     */
+    void addObjects(PointsToSet pts) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (CSObj obj : pts) {
+            int index = objIndexer.getIndex(obj);
+            if (!discoveredObjects.get(index)) {
+                discoveredObjects.set(index);
+                String objKey = obj.toString();
+                // objects with the same key are ambiguous,
+                // and only the first one is used for seeding
+                if (discovered.putIfAbsent(objKey, obj) == null) {
+                    List<Pointer> pointers = pending.remove(objKey);
+                    if (pointers != null) {
+                        for (Pointer pointer : pointers) {
+                            PointsToSet seed = solver.makePointsToSet();
+                            seed.addObject(obj);
+                            keep(pointer, seed);
+                            solver.addSeeds(pointer, seed);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void keep(Pointer pointer, PointsToSet seed) {
+        if (seeded != null) {
+            seeded.computeIfAbsent(pointer, __ -> solver.makePointsToSet())
+                    .addAll(seed);
+        }
+    }
+
+    /**
+     * @return the objects that given pointer has been seeded with so far,
+     * or {@code null} if the pointer has not been seeded or the seeds
+     * are not kept.
+     */
+    @Nullable
+    PointsToSet getSeeds(Pointer pointer) {
+        return seeded != null ? seeded.get(pointer) : null;
+    }
+
+    /**
+     * @return the key that identifies given element across runs.
+     */
+    static String key(Object element) {
+        if (element instanceof InstanceField instField) {
+            // field name may be ambiguous, so we use field signature
+            return instField.getBase() + "." + instField.getField();
+        }
+        return element.toString();
+    }
+
+    /**
+     * @return the keys shared by multiple objects, which cannot be
+     * used to match the objects across runs.
+     */
+    static Set<String> getAmbiguousKeys(CSManager csManager) {
+        Map<String, CSObj> objKeys = Maps.newMap();
+        Set<String> ambiguous = Sets.newSet();
+        csManager.getObjects().forEach(obj -> {
+            CSObj prev = objKeys.putIfAbsent(obj.toString(), obj);
+            if (prev != null && prev != obj) {
+                ambiguous.add(obj.toString());
+            }
+        });
+        return ambiguous;
+    }
+}
@@ -28,6 +28,7 @@ import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
 
+import javax.annotation.Nullable;
 import java.util.function.Supplier;
 
 /**
@@ -45,14 +46,28 @@ public class TypeFilter implements Transfer {
 
     private final Supplier<PointsToSet> ptsFactory;
 
+    /**
+     * Allowed objects of the guard type, shared by all type filters
+     * of the same solver. This field is {@code null} if the solver
+     * does not maintain allowed objects, and then the filter checks
+     * each input object.
+     */
+    @Nullable
+    private final AllowedObjects allowedObjects;
+
     public TypeFilter(Type type, Solver solver) {
         this.type = type;
         this.typeSystem = solver.getTypeSystem();
         this.ptsFactory = solver::makePointsToSet;
+        this.allowedObjects = solver instanceof DefaultSolver defaultSolver
+                ? defaultSolver.getAllowedObjects(type) : null;
     }
 
     @Override
     public PointsToSet apply(PointerFlowEdge edge, PointsToSet input) {
+        if (allowedObjects != null) {
+            return allowedObjects.filter(input);
+        }
         PointsToSet result = ptsFactory.get();
         input.objects()
                 .filter(o -> isAssignable(o.getObject().getType(), type))
@@ -29,7 +29,10 @@ import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.util.collection.Maps;
 
+import javax.annotation.Nullable;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
@@ -42,22 +45,61 @@ final class WorkList {
     /**
      * Pointer entries to be processed.
      */
-    private final Map<Pointer, PointsToSet> pointerEntries = Maps.newLinkedHashMap();
+    private final Map<Pointer, PointsToSet> pointerEntries = Maps.newMap();
+
+    /**
+     * Decides the order of processing pointer entries.
+     */
+    private final PointerQueue pointerQueue;
 
     /**
      * Call edges to be processed.
      */
     private final Queue<Edge<CSCallSite, CSMethod>> callEdges = new ArrayDeque<>();
 
+    /**
+     * Number of pointer entries retrieved from this work list.
+     */
+    private long processedPointerEntries;
+
+    /**
+     * Number of call edges retrieved from this work list.
+     */
+    private long processedCallEdges;
+
+    /**
+     * Number of objects which are merged into existing entries.
+     */
+    private long mergedObjects;
+
+    WorkList(PointerQueue pointerQueue) {
+        this.pointerQueue = pointerQueue;
+    }
+
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
         PointsToSet set = pointerEntries.get(pointer);
         if (set != null) {
+            mergedObjects += pointsToSet.size();
             set.addAll(pointsToSet);
         } else {
             pointerEntries.put(pointer, pointsToSet.copy());
+            pointerQueue.add(pointer);
         }
     }
 
+    /**
+     * Removes the entry of given pointer from this work list.
+     * The pointer is left in the pointer queue, and it will be
+     * skipped when it is polled.
+     *
+     * @return the points-to set of the removed entry, or {@code null}
+     * if this work list contains no entry for the pointer.
+     */
+    @Nullable
+    PointsToSet removeEntry(Pointer pointer) {
+        return pointerEntries.remove(pointer);
+    }
+
     void addEntry(Edge<CSCallSite, CSMethod> edge) {
         callEdges.add(edge);
     }
@@ -66,21 +108,88 @@ final class WorkList {
         if (!callEdges.isEmpty()) {
             // for correctness, we need to ensure that any call edges in
             // the work list must be processed prior to the pointer entries
+            ++processedCallEdges;
             return new CallEdgeEntry(callEdges.poll());
         } else if (!pointerEntries.isEmpty()) {
-            var it = pointerEntries.entrySet().iterator();
-            var e = it.next();
-            it.remove();
-            return new PointerEntry(e.getKey(), e.getValue());
+            return pollPointerEntry();
         } else {
             throw new NoSuchElementException();
         }
     }
 
+    private PointerEntry pollPointerEntry() {
+        Pointer pointer;
+        PointsToSet pts;
+        do {
+            pointer = pointerQueue.poll();
+            if (pointer == null) {
+                throw new NoSuchElementException();
+            }
+            pts = pointerEntries.remove(pointer);
+        } while (pts == null); // skip the pointers whose entries were removed
+        ++processedPointerEntries;
+        return new PointerEntry(pointer, pts);
+    }
+
+    /**
+     * @return {@code true} if this work list contains call edges
+     * to be processed.
+     */
+    boolean hasCallEdges() {
+        return !callEdges.isEmpty();
+    }
+
+    /**
+     * Retrieves and removes the first call edge of this work list.
+     */
+    Edge<CSCallSite, CSMethod> pollCallEdge() {
+        Edge<CSCallSite, CSMethod> edge = callEdges.poll();
+        if (edge == null) {
+            throw new NoSuchElementException();
+        }
+        ++processedCallEdges;
+        return edge;
+    }
+
+    /**
+     * Retrieves and removes all pointer entries of this work list,
+     * in the order decided by the pointer queue.
+     * Each pointer occurs at most once in the returned list.
+     */
+    List<PointerEntry> pollPointerEntries() {
+        List<PointerEntry> entries = new ArrayList<>(pointerEntries.size());
+        while (!pointerEntries.isEmpty()) {
+            entries.add(pollPointerEntry());
+        }
+        return entries;
+    }
+
     boolean isEmpty() {
         return pointerEntries.isEmpty() && callEdges.isEmpty();
     }
 
+    /**
+     * @return number of pointer entries retrieved from this work list.
+     */
+    long getProcessedPointerEntries() {
+        return processedPointerEntries;
+    }
+
+    /**
+     * @return number of call edges retrieved from this work list.
+     */
+    long getProcessedCallEdges() {
+        return processedCallEdges;
+    }
+
+    /**
+     * @return number of objects which were merged into existing entries,
+     * i.e., the propagations saved by the work list.
+     */
+    long getMergedObjects() {
+        return mergedObjects;
+    }
+
     interface Entry {
     }
 
@@ -0,0 +1,78 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Provides the demand-driven points-to query engine.
+ * Unlike {@link pascal.taie.analysis.pta.PointerAnalysis}, this analysis
+ * does not solve the whole program, and the points-to sets are computed
+ * when they are queried via the resulting {@link DemandPointsTo}.
+ * <p>
+ * The queries traverse the call graph built by class hierarchy analysis.
+ * This analysis does not require {@link CallGraphBuilder}, whose default
+ * algorithm is the whole-program pointer analysis, instead, it builds the
+ * call graph by itself, unless the call graph has been built before
+ * (e.g., by {@code -a cg=algorithm:cha}).
+ */
+public class DemandPointerAnalysis extends ProgramAnalysis<DemandPointsTo> {
+
+    public static final String ID = "demand-pta";
+
+    public DemandPointerAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public DemandPointsTo analyze() {
+        AnalysisOptions options = getOptions();
+        return new DemandPointsTo(getCallGraph(),
+                new AllocationSiteBasedModel(options),
+                options.getInt("budget"), options.getBoolean("only-app"));
+    }
+
+    private static CallGraph<Invoke, JMethod> getCallGraph() {
+        CallGraph<Invoke, JMethod> callGraph = World.get()
+                .getResult(CallGraphBuilder.ID);
+        if (callGraph == null) {
+            if (World.get().getMainMethod() == null) {
+                throw new ConfigException(
+                        "Demand-driven pointer analysis requires main method");
+            }
+            callGraph = new CallGraphBuilder(AnalysisConfig.of(
+                    CallGraphBuilder.ID, "algorithm", "cha", "dump", false,
+                    "dump-methods", false, "dump-call-edges", false)).analyze();
+        }
+        return callGraph;
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Demand-driven, context-insensitive points-to query engine.
+ * <p>
+ * For a query on a variable, this engine traverses the assignments
+ * backward from the variable until it reaches the allocation sites,
+ * instead of solving the whole program. The traversal follows
+ * <ul>
+ *     <li>local assignments (copies and casts),</li>
+ *     <li>parameter passing and return values along the edges of the call
+ *     graph (typically built by class hierarchy analysis), where the
+ *     receiver objects passed to <i>this</i> variables are filtered by
+ *     dispatching,</li>
+ *     <li>static field stores, and</li>
+ *     <li>instance field (and array) stores whose base variables may be
+ *     aliases of the base variables of the loads, i.e., the field accesses
+ *     are matched as in CFL-reachability formulation, where the aliases
+ *     are computed by nested queries.</li>
+ * </ul>
+ * Each top-level query (including its nested queries) traverses at most
+ * {@code budget} variables and stores. When the budget is exhausted,
+ * the query returns the objects found so far and is marked incomplete
+ * (see {@link #isComplete(Var)}), and its traversal state is cached,
+ * so that the next query on the same variable continues from where
+ * it stopped. The results of completed queries are cached and reused
+ * by the following queries.
+ * <p>
+ * Note that this engine does not model exceptions, static initializers,
+ * reflection, native code and invokedynamic.
+ */
+public class DemandPointsTo {
+
+    private final HeapModel heapModel;
+
+    /**
+     * Maximum number of steps of each top-level query.
+     */
+    private final int budget;
+
+    /**
+     * Whether only analyzes application code.
+     */
+    private final boolean onlyApp;
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    private MultiMap<JField, StoreField> fieldStores;
+
+    private List<StoreArray> arrayStores;
+
+    /**
+     * Map from methods to the definitions of their variables.
+     */
+    private final Map<JMethod, MultiMap<Var, Stmt>> definitions = Maps.newMap();
+
+    private final Map<Var, Query> queries = Maps.newMap();
+
+    /**
+     * Remaining steps of current top-level query.
+     */
+    private int remaining;
+
+    /**
+     * Depth of nested queries.
+     */
+    private int depth = 0;
+
+    DemandPointsTo(CallGraph<Invoke, JMethod> callGraph, HeapModel heapModel,
+                   int budget, boolean onlyApp) {
+        this.callGraph = callGraph;
+        this.heapModel = heapModel;
+        this.budget = budget;
+        this.onlyApp = onlyApp;
+    }
+
+    /**
+     * @return the objects pointed to by given variable.
+     * If the query exceeds the budget, the result may be incomplete.
+     */
+    public Set<Obj> pointsTo(Var var) {
+        if (depth == 0) {
+            remaining = budget;
+        }
+        Query query = queries.computeIfAbsent(var, Query::new);
+        if (!query.isComplete() && !query.inProgress) {
+            query.inProgress = true;
+            ++depth;
+            try {
+                query.run();
+            } finally {
+                --depth;
+                query.inProgress = false;
+            }
+        }
+        return Collections.unmodifiableSet(query.objs);
+    }
+
+    /**
+     * @return {@code true} if the points-to set of given variable
+     * has been completely computed.
+     */
+    public boolean isComplete(Var var) {
+        Query query = queries.get(var);
+        return query != null && query.isComplete();
+    }
+
+    /**
+     * @return {@code true} if given two variables may be aliases.
+     * If any of the queries is incomplete, this method conservatively
+     * returns {@code true}.
+     */
+    public boolean mayAlias(Var v1, Var v2) {
+        if (v1.equals(v2)) {
+            return true;
+        }
+        Set<Obj> pts1 = pointsTo(v1);
+        Set<Obj> pts2 = pointsTo(v2);
+        if (!isComplete(v1) || !isComplete(v2)) {
+            return true;
+        }
+        return !Collections.disjoint(pts1, pts2);
+    }
+
+    /**
+     * @return the number of cached queries.
+     */
+    public int getQueryCount() {
+        return queries.size();
+    }
+
+    private MultiMap<JField, StoreField> getFieldStores() {
+        if (fieldStores == null) {
+            indexStores();
+        }
+        return fieldStores;
+    }
+
+    private List<StoreArray> getArrayStores() {
+        if (arrayStores == null) {
+            indexStores();
+        }
+        return arrayStores;
+    }
+
+    /**
+     * Collects the field and array stores in the reachable methods.
+     */
+    private void indexStores() {
+        fieldStores = Maps.newMultiMap();
+        arrayStores = new ArrayList<>();
+        callGraph.reachableMethods()
+                .filter(this::isAnalyzed)
+                .forEach(m -> m.getIR().forEach(stmt -> {
+                    if (stmt instanceof StoreField store) {
+                        JField field = store.getFieldRef().resolveNullable();
+                        if (field != null) {
+                            fieldStores.put(field, store);
+                        }
+                    } else if (stmt instanceof StoreArray store) {
+                        arrayStores.add(store);
+                    }
+                }));
+    }
+
+    private boolean isAnalyzed(JMethod method) {
+        return !method.isAbstract() && !method.isNative()
+                && (!onlyApp || method.isApplication());
+    }
+
+    private MultiMap<Var, Stmt> getDefinitions(JMethod method) {
+        return definitions.computeIfAbsent(method, m -> {
+            MultiMap<Var, Stmt> defs = Maps.newMultiMap();
+            m.getIR().forEach(stmt -> stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    defs.put(var, stmt);
+                }
+            }));
+            return defs;
+        });
+    }
+
+    /**
+     * State of the query on a variable.
+     */
+    private class Query {
+
+        private final Set<Obj> objs = Sets.newHybridSet();
+
+        /**
+         * Variables whose objects flow to the root.
+         */
+        private final Set<Var> reached = Sets.newSet();
+
+        /**
+         * Reached variables which have not been traversed.
+         */
+        private final Deque<Var> frontier = new ArrayDeque<>();
+
+        /**
+         * Edges passing receiver objects to <i>this</i> variables,
+         * whose receiver objects have not been completely computed.
+         */
+        private final List<ReceiverEdge> pendingReceivers = new ArrayList<>();
+
+        private boolean inProgress = false;
+
+        private Query(Var root) {
+            flow(root);
+        }
+
+        private boolean isComplete() {
+            return frontier.isEmpty() && pendingReceivers.isEmpty();
+        }
+
+        private void run() {
+            List<ReceiverEdge> receivers = new ArrayList<>(pendingReceivers);
+            pendingReceivers.clear();
+            receivers.forEach(this::passReceivers);
+            while (!frontier.isEmpty() && remaining > 0) {
+                --remaining;
+                Var var = frontier.poll();
+                if (isAnalyzed(var.getMethod())) {
+                    getDefinitions(var.getMethod()).get(var)
+                            .forEach(this::traverseDefinition);
+                    traverseParameter(var);
+                }
+            }
+        }
+
+        private void flow(Var var) {
+            if (reached.add(var)) {
+                frontier.add(var);
+            }
+        }
+
+        private void traverseDefinition(Stmt stmt) {
+            if (stmt instanceof New newStmt) {
+                objs.add(heapModel.getObj(newStmt));
+            } else if (stmt instanceof AssignLiteral assign) {
+                if (assign.getRValue() instanceof ReferenceLiteral literal) {
+                    objs.add(heapModel.getConstantObj(literal));
+                }
+            } else if (stmt instanceof Copy copy) {
+                flow(copy.getRValue());
+            } else if (stmt instanceof Cast cast) {
+                flow(cast.getRValue().getValue());
+            } else if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolveNullable();
+                if (field != null) {
+                    for (StoreField store : getFieldStores().get(field)) {
+                        if (load.isStatic() || matches(
+                                load.getFieldAccess(), store.getFieldAccess())) {
+                            flow(store.getRValue());
+                        }
+                    }
+                }
+            } else if (stmt instanceof LoadArray load) {
+                Var base = load.getArrayAccess().getBase();
+                for (StoreArray store : getArrayStores()) {
+                    --remaining;
+                    if (mayAliasNested(base, store.getArrayAccess().getBase())) {
+                        flow(store.getRValue());
+                    }
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                for (JMethod callee : callGraph.getCalleesOf(invoke)) {
+                    if (isAnalyzed(callee)) {
+                        callee.getIR().getReturnVars().forEach(this::flow);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if the bases of given instance field
+         * load and store may be aliases.
+         */
+        private boolean matches(FieldAccess load, FieldAccess store) {
+            --remaining;
+            return load instanceof InstanceFieldAccess loadAccess
+                    && store instanceof InstanceFieldAccess storeAccess
+                    && mayAliasNested(loadAccess.getBase(), storeAccess.getBase());
+        }
+
+        private void traverseParameter(Var var) {
+            JMethod method = var.getMethod();
+            IR ir = method.getIR();
+            if (var.equals(ir.getThis())) {
+                for (Invoke callSite : callGraph.getCallersOf(method)) {
+                    passReceivers(new ReceiverEdge(callSite, method));
+                }
+            } else {
+                int i = ir.getParams().indexOf(var);
+                if (i >= 0) {
+                    for (Invoke callSite : callGraph.getCallersOf(method)) {
+                        if (isAnalyzed(callSite.getContainer())) {
+                            flow(callSite.getInvokeExp().getArg(i));
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Passes the receiver objects of the call site, which are dispatched
+         * to the callee of given edge, to the root variable.
+         */
+        private void passReceivers(ReceiverEdge edge) {
+            Invoke callSite = edge.callSite();
+            if (!(callSite.getInvokeExp() instanceof InvokeInstanceExp invokeExp)
+                    || !isAnalyzed(callSite.getContainer())) {
+                return;
+            }
+            Var base = invokeExp.getBase();
+            if (reached.contains(base)) {
+                // the objects of base already flow to root
+                return;
+            }
+            Query baseQuery = queries.get(base);
+            if (baseQuery != null && baseQuery.inProgress) {
+                // the receiver objects depend on this query (recursively),
+                // then we give up filtering them to avoid the cycle
+                flow(base);
+                return;
+            }
+            for (Obj recv : pointsTo(base)) {
+                if (edge.callee().equals(
+                        CallGraphs.resolveCallee(recv.getType(), callSite))) {
+                    objs.add(recv);
+                }
+            }
+            if (!DemandPointsTo.this.isComplete(base)) {
+                pendingReceivers.add(edge);
+            }
+        }
+    }
+
+    /**
+     * Edge from a call site to a callee, along which the receiver objects
+     * are passed to <i>this</i> variable of the callee.
+     */
+    private record ReceiverEdge(Invoke callSite, JMethod callee) {
+    }
+
+    /**
+     * @return {@code true} if given two variables may be aliases according
+     * to nested queries. If any nested query is incomplete or in progress,
+     * this method conservatively returns {@code true}.
+     */
+    private boolean mayAliasNested(Var v1, Var v2) {
+        if (v1.equals(v2)) {
+            return true;
+        }
+        for (Var v : List.of(v1, v2)) {
+            Query query = queries.get(v);
+            if (query != null && query.inProgress) {
+                return true;
+            }
+        }
+        return mayAlias(v1, v2);
+    }
+}
@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.pta.plugin;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
@@ -33,17 +35,28 @@ import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Composite plugin which allows multiple independent plugins
  * to be used together.
+ * <p>
+ * The events of new points-to sets and call edges are delivered to each
+ * plugin via the batched callbacks if the plugin overrides them, otherwise
+ * via the per-event callbacks, and this class counts the events
+ * delivered to each plugin.
  */
 public class CompositePlugin implements Plugin {
 
+    private static final Logger logger = LogManager.getLogger(CompositePlugin.class);
+
     private final List<Plugin> allPlugins = new ArrayList<>();
 
     // Use separate lists to store plugins that overwrite
@@ -53,6 +66,22 @@ public class CompositePlugin implements Plugin {
 
     private final List<Plugin> onNewCallEdgePlugins = new ArrayList<>();
 
+    private final List<Plugin> onNewPointsToSetsPlugins = new ArrayList<>();
+
+    private final List<Plugin> onNewCallEdgesPlugins = new ArrayList<>();
+
+    // Numbers of the events delivered to each plugin, where the i-th
+    // counter belongs to the i-th plugin of the corresponding list.
+    // They are kept in arrays to avoid map look-ups on the hot path.
+
+    private long[] onNewPointsToSetCounts = new long[0];
+
+    private long[] onNewCallEdgeCounts = new long[0];
+
+    private long[] onNewPointsToSetsCounts = new long[0];
+
+    private long[] onNewCallEdgesCounts = new long[0];
+
     private final List<Plugin> onNewMethodPlugins = new ArrayList<>();
 
     private final List<Plugin> onNewStmtPlugins = new ArrayList<>();
@@ -64,25 +93,43 @@ public class CompositePlugin implements Plugin {
     public void addPlugin(Plugin... plugins) {
         for (Plugin plugin : plugins) {
             allPlugins.add(plugin);
-            addPlugin(plugin, onNewPointsToSetPlugins,
-                    "onNewPointsToSet", CSVar.class, PointsToSet.class);
-            addPlugin(plugin, onNewCallEdgePlugins, "onNewCallEdge", Edge.class);
+            // plugins overriding batched callbacks receive the events
+            // only via batched callbacks
+            if (!addPlugin(plugin, onNewPointsToSetsPlugins,
+                    "onNewPointsToSets", Map.class)) {
+                addPlugin(plugin, onNewPointsToSetPlugins,
+                        "onNewPointsToSet", CSVar.class, PointsToSet.class);
+            }
+            if (!addPlugin(plugin, onNewCallEdgesPlugins,
+                    "onNewCallEdges", Map.class)) {
+                addPlugin(plugin, onNewCallEdgePlugins, "onNewCallEdge", Edge.class);
+            }
             addPlugin(plugin, onNewMethodPlugins, "onNewMethod", JMethod.class);
             addPlugin(plugin, onNewStmtPlugins, "onNewStmt", Stmt.class, JMethod.class);
             addPlugin(plugin, onNewCSMethodPlugins, "onNewCSMethod", CSMethod.class);
             addPlugin(plugin, onUnresolvedCallPlugins,
                     "onUnresolvedCall", CSObj.class, Context.class, Invoke.class);
         }
+        onNewPointsToSetCounts = Arrays.copyOf(onNewPointsToSetCounts, onNewPointsToSetPlugins.size());
+        onNewCallEdgeCounts = Arrays.copyOf(onNewCallEdgeCounts, onNewCallEdgePlugins.size());
+        onNewPointsToSetsCounts = Arrays.copyOf(onNewPointsToSetsCounts, onNewPointsToSetsPlugins.size());
+        onNewCallEdgesCounts = Arrays.copyOf(onNewCallEdgesCounts, onNewCallEdgesPlugins.size());
     }
 
-    private void addPlugin(Plugin plugin, List<Plugin> plugins,
-                           String name, Class<?>... parameterTypes) {
+    /**
+     * @return {@code true} if the plugin overwrites the specific method
+     * and is added to the list.
+     */
+    private boolean addPlugin(Plugin plugin, List<Plugin> plugins,
+                              String name, Class<?>... parameterTypes) {
         try {
             Method method = plugin.getClass().getMethod(name, parameterTypes);
             if (!method.getDeclaringClass().equals(Plugin.class)) {
                 // the plugin does overwrite the specific method
                 plugins.add(plugin);
+                return true;
             }
+            return false;
         } catch (NoSuchMethodException e) {
             throw new RuntimeException("Can't find method '" + name +
                     "' in " + plugin.getClass(), e);
@@ -107,16 +154,92 @@ public class CompositePlugin implements Plugin {
     @Override
     public void onFinish() {
         allPlugins.forEach(Plugin::onFinish);
+        // map from plugins to the numbers of delivered events, i.e.,
+        // new points-to sets (at index 0) and new call edges (at index 1)
+        Map<Plugin, long[]> eventCounts = Maps.newLinkedHashMap();
+        collectEventCounts(eventCounts, onNewPointsToSetPlugins, onNewPointsToSetCounts, 0);
+        collectEventCounts(eventCounts, onNewPointsToSetsPlugins, onNewPointsToSetsCounts, 0);
+        collectEventCounts(eventCounts, onNewCallEdgePlugins, onNewCallEdgeCounts, 1);
+        collectEventCounts(eventCounts, onNewCallEdgesPlugins, onNewCallEdgesCounts, 1);
+        if (!eventCounts.isEmpty()) {
+            logger.info("Plugin events: {}", eventCounts.entrySet()
+                    .stream()
+                    .map(e -> String.format("%s (%d points-to sets, %d call edges)",
+                            e.getKey().getClass().getSimpleName(),
+                            e.getValue()[0], e.getValue()[1]))
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private static void collectEventCounts(Map<Plugin, long[]> eventCounts,
+                                           List<Plugin> plugins, long[] counts,
+                                           int kind) {
+        for (int i = 0; i < plugins.size(); ++i) {
+            if (counts[i] > 0) {
+                eventCounts.computeIfAbsent(plugins.get(i),
+                        __ -> new long[2])[kind] += counts[i];
+            }
+        }
     }
 
     @Override
     public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
-        onNewPointsToSetPlugins.forEach(p -> p.onNewPointsToSet(csVar, pts));
+        for (int i = 0; i < onNewPointsToSetPlugins.size(); ++i) {
+            ++onNewPointsToSetCounts[i];
+            onNewPointsToSetPlugins.get(i).onNewPointsToSet(csVar, pts);
+        }
+        if (!onNewPointsToSetsPlugins.isEmpty()) {
+            Map<CSVar, PointsToSet> ptsMap = Map.of(csVar, pts);
+            for (int i = 0; i < onNewPointsToSetsPlugins.size(); ++i) {
+                ++onNewPointsToSetsCounts[i];
+                onNewPointsToSetsPlugins.get(i).onNewPointsToSets(ptsMap);
+            }
+        }
     }
 
     @Override
     public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
-        onNewCallEdgePlugins.forEach(p -> p.onNewCallEdge(edge));
+        for (int i = 0; i < onNewCallEdgePlugins.size(); ++i) {
+            ++onNewCallEdgeCounts[i];
+            onNewCallEdgePlugins.get(i).onNewCallEdge(edge);
+        }
+        if (!onNewCallEdgesPlugins.isEmpty()) {
+            Map<CSMethod, List<Edge<CSCallSite, CSMethod>>> edges =
+                    Map.of(edge.getCallee(), List.of(edge));
+            for (int i = 0; i < onNewCallEdgesPlugins.size(); ++i) {
+                ++onNewCallEdgesCounts[i];
+                onNewCallEdgesPlugins.get(i).onNewCallEdges(edges);
+            }
+        }
+    }
+
+    @Override
+    public void onNewPointsToSets(Map<CSVar, PointsToSet> ptsMap) {
+        for (int i = 0; i < onNewPointsToSetPlugins.size(); ++i) {
+            onNewPointsToSetCounts[i] += ptsMap.size();
+            ptsMap.forEach(onNewPointsToSetPlugins.get(i)::onNewPointsToSet);
+        }
+        for (int i = 0; i < onNewPointsToSetsPlugins.size(); ++i) {
+            onNewPointsToSetsCounts[i] += ptsMap.size();
+            onNewPointsToSetsPlugins.get(i).onNewPointsToSets(ptsMap);
+        }
+    }
+
+    @Override
+    public void onNewCallEdges(Map<CSMethod, List<Edge<CSCallSite, CSMethod>>> edges) {
+        if (onNewCallEdgePlugins.isEmpty() && onNewCallEdgesPlugins.isEmpty()) {
+            return;
+        }
+        int nEdges = edges.values().stream().mapToInt(List::size).sum();
+        for (int i = 0; i < onNewCallEdgePlugins.size(); ++i) {
+            onNewCallEdgeCounts[i] += nEdges;
+            Plugin p = onNewCallEdgePlugins.get(i);
+            edges.values().forEach(calleeEdges -> calleeEdges.forEach(p::onNewCallEdge));
+        }
+        for (int i = 0; i < onNewCallEdgesPlugins.size(); ++i) {
+            onNewCallEdgesCounts[i] += nEdges;
+            onNewCallEdgesPlugins.get(i).onNewCallEdges(edges);
+        }
     }
 
     @Override
@@ -34,8 +34,25 @@ import pascal.taie.language.classes.JMethod;
  */
 public class EntryPointHandler implements Plugin {
 
+    /**
+     * Whether processes the main method.
+     */
+    private final boolean processMain;
+
     private Solver solver;
 
+    public EntryPointHandler() {
+        this(true);
+    }
+
+    /**
+     * @param processMain whether processes the main method; if not,
+     *                    only the implicit entries are processed.
+     */
+    public EntryPointHandler(boolean processMain) {
+        this.processMain = processMain;
+    }
+
     @Override
     public void setSolver(Solver solver) {
         this.solver = solver;
@@ -45,7 +62,7 @@ public class EntryPointHandler implements Plugin {
     public void onStart() {
         // process program main method
         JMethod main = World.get().getMainMethod();
-        if (main != null) {
+        if (processMain && main != null) {
             solver.addEntryPoint(new EntryPoint(main,
                     new DeclaredParamProvider(main, solver.getHeapModel(), 1)));
         }
@@ -34,6 +34,9 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Analysis plugin interface.
  * <p>
@@ -93,6 +96,33 @@ public interface Plugin {
     default void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
     }
 
+    /**
+     * Invoked with the new points-to sets buffered by the solver when
+     * batched event delivery is enabled (by option {@code plugin-batch-size}),
+     * where the new objects of the same variable are merged.
+     * By default, this method delivers the points-to sets one by one
+     * to {@link #onNewPointsToSet(CSVar, PointsToSet)}; plugins may override
+     * it to process the events in bulk.
+     *
+     * @param ptsMap map from variables to their sets of new objects
+     */
+    default void onNewPointsToSets(Map<CSVar, PointsToSet> ptsMap) {
+        ptsMap.forEach(this::onNewPointsToSet);
+    }
+
+    /**
+     * Invoked with the new call graph edges buffered by the solver when
+     * batched event delivery is enabled, where the edges are grouped by
+     * their callees. By default, this method delivers the edges one by one
+     * to {@link #onNewCallEdge(Edge)}; plugins may override it to process
+     * the events in bulk.
+     *
+     * @param edges map from callees to the new call graph edges to them
+     */
+    default void onNewCallEdges(Map<CSMethod, List<Edge<CSCallSite, CSMethod>>> edges) {
+        edges.values().forEach(calleeEdges -> calleeEdges.forEach(this::onNewCallEdge));
+    }
+
     /**
      * Invoked when a new reachable method is discovered.
      *
@@ -133,6 +133,22 @@ public class ExceptionAnalysis implements Plugin {
      */
     @Override
     public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+        addThrowEntries(csVar, pts);
+        propagateExceptions();
+    }
+
+    /**
+     * Adds the work-list entries for all new points-to sets, and then
+     * propagates the exceptions together, so that the exceptions
+     * thrown to the same statement are propagated once per batch.
+     */
+    @Override
+    public void onNewPointsToSets(Map<CSVar, PointsToSet> ptsMap) {
+        ptsMap.forEach(this::addThrowEntries);
+        propagateExceptions();
+    }
+
+    private void addThrowEntries(CSVar csVar, PointsToSet pts) {
         Set<Throw> throwStmts = var2Throws.get(csVar.getVar());
         if (!throwStmts.isEmpty()) {
             Var exceptionRef = csVar.getVar();
@@ -141,7 +157,6 @@ public class ExceptionAnalysis implements Plugin {
             CSMethod currentCSMethod = csManager.getCSMethod(ctx, currentMethod);
             throwStmts.forEach(throwStmt -> workList.add(
                     new Entry(currentCSMethod, throwStmt, pts.getObjects())));
-            propagateExceptions();
         }
     }
 
@@ -154,18 +169,37 @@ public class ExceptionAnalysis implements Plugin {
      */
     @Override
     public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
-        if (edge.getKind() != CallKind.OTHER) {
-            // currently, don't propagate exceptions along OTHER edges
-            CSMethod callee = edge.getCallee();
+        Optional<CSMethodThrowResult> csResult =
+                edge.getCallee().getResult(getClass().getName());
+        csResult.ifPresent(result -> {
+            addCallEntry(edge, result);
+            propagateExceptions();
+        });
+    }
+
+    /**
+     * Looks up the throw result of each callee once for all its new edges,
+     * and propagates the exceptions after adding the entries of all edges.
+     */
+    @Override
+    public void onNewCallEdges(Map<CSMethod, List<Edge<CSCallSite, CSMethod>>> edges) {
+        edges.forEach((callee, calleeEdges) -> {
             Optional<CSMethodThrowResult> csResult =
                     callee.getResult(getClass().getName());
-            csResult.ifPresent(result -> {
-                CSMethod caller = edge.getCallSite().getContainer();
-                Invoke invoke = edge.getCallSite().getCallSite();
-                Set<CSObj> exceptions = result.mayThrowUncaught();
-                workList.add(new Entry(caller, invoke, exceptions));
-                propagateExceptions();
-            });
+            csResult.ifPresent(result ->
+                    calleeEdges.forEach(edge -> addCallEntry(edge, result)));
+        });
+        propagateExceptions();
+    }
+
+    private void addCallEntry(Edge<CSCallSite, CSMethod> edge,
+                              CSMethodThrowResult result) {
+        if (edge.getKind() != CallKind.OTHER) {
+            // currently, don't propagate exceptions along OTHER edges
+            CSMethod caller = edge.getCallSite().getContainer();
+            Invoke invoke = edge.getCallSite().getCallSite();
+            Set<CSObj> exceptions = result.mayThrowUncaught();
+            workList.add(new Entry(caller, invoke, exceptions));
         }
     }
 
@@ -0,0 +1,550 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * A minimal reduced ordered binary decision diagram (BDD) package,
+ * which represents sets of object indexes and relations between
+ * pointer indexes and object indexes.
+ * <p>
+ * The manager uses two domains of variables. Each domain encodes
+ * a non-negative {@code int} with {@link #BITS} variables, from the most
+ * significant bit to the least one. The pointer domain is ordered before
+ * the object domain, so that the restriction of a relation to a pointer
+ * is exactly the BDD of the points-to set of the pointer.
+ * <p>
+ * A BDD is identified by the index of its root node. Nodes are never
+ * moved, and unused nodes are reclaimed by a mark-and-sweep collection
+ * whose roots are the BDDs held by live {@link Holder}s. The collection
+ * is only triggered by {@link #maybeGC()}, so a caller must not keep
+ * unregistered BDDs across calls of that method.
+ * <p>
+ * The manager is not thread-safe; callers synchronize on the manager.
+ */
+final class BDDManager {
+
+    /**
+     * Number of variables in each domain.
+     */
+    static final int BITS = 31;
+
+    static final int FALSE = 0;
+
+    static final int TRUE = 1;
+
+    /**
+     * First variable of pointer domain.
+     */
+    static final int POINTER_DOMAIN = 0;
+
+    /**
+     * First variable of object domain.
+     */
+    static final int OBJECT_DOMAIN = BITS;
+
+    /**
+     * Total number of variables; also the (virtual) variable of terminals.
+     */
+    private static final int NUM_VARS = 2 * BITS;
+
+    private static final int INIT_CAPACITY = 1 << 16;
+
+    private static final int CACHE_SIZE = 1 << 18;
+
+    private static final int OP_AND = 0, OP_OR = 1, OP_DIFF = 2;
+
+    /**
+     * Holders of BDDs which are the roots of garbage collection.
+     */
+    interface Holder {
+
+        /**
+         * @return the BDDs held by this holder.
+         */
+        int[] getRoots();
+    }
+
+    private int[] vars;
+
+    private int[] lows;
+
+    private int[] highs;
+
+    /**
+     * Next node in the same bucket of unique table,
+     * or the next free node if the node is free.
+     */
+    private int[] nexts;
+
+    private int[] buckets;
+
+    /**
+     * Head of free node list, -1 if no nodes are free.
+     */
+    private int freeHead = -1;
+
+    /**
+     * Number of nodes that have ever been allocated, including
+     * terminals and nodes which are freed later.
+     */
+    private int allocated;
+
+    /**
+     * Number of live (i.e., non-free) nodes.
+     */
+    private int liveNodes;
+
+    /**
+     * Number of live nodes that triggers next garbage collection.
+     */
+    private int gcThreshold = INIT_CAPACITY;
+
+    private final int[] cacheKeys1 = new int[CACHE_SIZE];
+
+    private final int[] cacheKeys2 = new int[CACHE_SIZE];
+
+    private final byte[] cacheOps = new byte[CACHE_SIZE];
+
+    private final int[] cacheResults = new int[CACHE_SIZE];
+
+    /**
+     * References to registered holders. A reference is removed from this
+     * list once its holder is garbage collected (see {@link #register}).
+     */
+    private final List<HolderRef> holders = new ArrayList<>();
+
+    /**
+     * Queue of the references whose holders have been garbage collected.
+     */
+    private final ReferenceQueue<Holder> collectedHolders = new ReferenceQueue<>();
+
+    private int gcCount;
+
+    BDDManager() {
+        vars = new int[INIT_CAPACITY];
+        lows = new int[INIT_CAPACITY];
+        highs = new int[INIT_CAPACITY];
+        nexts = new int[INIT_CAPACITY];
+        buckets = new int[INIT_CAPACITY];
+        Arrays.fill(buckets, -1);
+        Arrays.fill(cacheResults, -1);
+        // terminals
+        for (int i = FALSE; i <= TRUE; ++i) {
+            vars[i] = NUM_VARS;
+            lows[i] = highs[i] = i;
+            nexts[i] = -1;
+        }
+        allocated = liveNodes = 2;
+    }
+
+    /**
+     * Registers a holder whose BDDs are kept alive as long as
+     * the holder is reachable.
+     */
+    void register(Holder holder) {
+        removeCollectedHolders();
+        HolderRef ref = new HolderRef(holder, collectedHolders, holders.size());
+        holders.add(ref);
+    }
+
+    /**
+     * Removes the references whose holders have been garbage collected,
+     * so that the holder list does not grow with the holders that are
+     * no longer used, e.g., the temporary difference sets.
+     */
+    private void removeCollectedHolders() {
+        HolderRef ref;
+        while ((ref = (HolderRef) collectedHolders.poll()) != null) {
+            // moves the last reference to the slot of the removed one
+            HolderRef last = holders.remove(holders.size() - 1);
+            if (last != ref) {
+                holders.set(ref.index, last);
+                last.index = ref.index;
+            }
+        }
+    }
+
+    /**
+     * Weak reference to a holder, with its position in {@link #holders}.
+     */
+    private static final class HolderRef extends WeakReference<Holder> {
+
+        private int index;
+
+        private HolderRef(Holder holder, ReferenceQueue<Holder> queue, int index) {
+            super(holder, queue);
+            this.index = index;
+        }
+    }
+
+    /**
+     * @return the BDD which contains only the given index in given domain.
+     */
+    int singleton(int domain, int index) {
+        return singleton(domain, index, TRUE);
+    }
+
+    /**
+     * @return the BDD which represents (x == index) AND {@code rest},
+     * where x is the value of given domain; {@code rest} must not
+     * contain variables before the end of the domain.
+     */
+    int singleton(int domain, int index, int rest) {
+        int node = rest;
+        for (int i = BITS - 1; i >= 0; --i) {
+            int var = domain + i;
+            node = ((index >>> (BITS - 1 - i)) & 1) == 1 ?
+                    mk(var, FALSE, node) : mk(var, node, FALSE);
+        }
+        return node;
+    }
+
+    int and(int a, int b) {
+        return apply(OP_AND, a, b);
+    }
+
+    int or(int a, int b) {
+        return apply(OP_OR, a, b);
+    }
+
+    /**
+     * @return BDD of a AND (NOT b).
+     */
+    int diff(int a, int b) {
+        return apply(OP_DIFF, a, b);
+    }
+
+    /**
+     * @return the BDD obtained by fixing the variables of given domain
+     * to given index. The result does not contain variables of the domain.
+     */
+    int restrict(int bdd, int domain, int index) {
+        int node = bdd;
+        while (node > TRUE && vars[node] < domain + BITS) {
+            int i = vars[node] - domain;
+            node = ((index >>> (BITS - 1 - i)) & 1) == 1 ?
+                    highs[node] : lows[node];
+        }
+        return node;
+    }
+
+    /**
+     * @return whether given BDD contains given index, where the BDD
+     * is defined only on the variables of given domain.
+     */
+    boolean contains(int bdd, int domain, int index) {
+        return restrict(bdd, domain, index) == TRUE;
+    }
+
+    /**
+     * Calls action on each index in given BDD in ascending order,
+     * where the BDD is defined only on the variables of given domain.
+     */
+    void forEach(int bdd, int domain, IntConsumer action) {
+        forEach(bdd, domain, 0, 0, action);
+    }
+
+    private void forEach(int node, int domain, int level, int prefix,
+                         IntConsumer action) {
+        if (node == FALSE) {
+            return;
+        }
+        if (level == BITS) {
+            action.accept(prefix);
+            return;
+        }
+        int low, high;
+        if (vars[node] == domain + level) {
+            low = lows[node];
+            high = highs[node];
+        } else { // the variable at this level is free
+            low = high = node;
+        }
+        forEach(low, domain, level + 1, prefix << 1, action);
+        forEach(high, domain, level + 1, (prefix << 1) | 1, action);
+    }
+
+    /**
+     * @return the number of satisfying assignments of given BDD over
+     * the variables from {@code firstVar} (inclusive) to the end of
+     * the last domain.
+     */
+    long count(int bdd, int firstVar) {
+        return count(bdd, new HashMap<>()) << (vars[bdd] - firstVar);
+    }
+
+    /**
+     * @return the number of satisfying assignments of the variables
+     * from the variable of given node to the end of the last domain.
+     */
+    private long count(int node, Map<Integer, Long> memo) {
+        if (node <= TRUE) {
+            return node;
+        }
+        Long cached = memo.get(node);
+        if (cached != null) {
+            return cached;
+        }
+        int var = vars[node];
+        int low = lows[node], high = highs[node];
+        long result = (count(low, memo) << (vars[low] - var - 1))
+                + (count(high, memo) << (vars[high] - var - 1));
+        memo.put(node, result);
+        return result;
+    }
+
+    /**
+     * @return the number of nodes reachable from given BDD.
+     */
+    int nodeCount(int bdd) {
+        boolean[] visited = new boolean[allocated];
+        int[] stack = new int[allocated];
+        int top = 0, count = 0;
+        stack[top++] = bdd;
+        while (top > 0) {
+            int node = stack[--top];
+            if (!visited[node]) {
+                visited[node] = true;
+                ++count;
+                if (node > TRUE) {
+                    stack[top++] = lows[node];
+                    stack[top++] = highs[node];
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of live nodes in this manager.
+     */
+    int getLiveNodes() {
+        return liveNodes;
+    }
+
+    /**
+     * @return number of garbage collections performed so far.
+     */
+    int getGCCount() {
+        return gcCount;
+    }
+
+    /**
+     * @return estimated number of bytes occupied by the node table.
+     */
+    long estimateBytes() {
+        // vars, lows, highs, nexts and buckets
+        return 5L * Integer.BYTES * vars.length;
+    }
+
+    private int apply(int op, int a, int b) {
+        switch (op) {
+            case OP_AND -> {
+                if (a == FALSE || b == FALSE) {
+                    return FALSE;
+                }
+                if (a == TRUE || a == b) {
+                    return b;
+                }
+                if (b == TRUE) {
+                    return a;
+                }
+            }
+            case OP_OR -> {
+                if (a == TRUE || b == TRUE) {
+                    return TRUE;
+                }
+                if (a == FALSE || a == b) {
+                    return b;
+                }
+                if (b == FALSE) {
+                    return a;
+                }
+            }
+            default -> { // OP_DIFF
+                if (a == FALSE || b == TRUE || a == b) {
+                    return FALSE;
+                }
+                if (b == FALSE) {
+                    return a;
+                }
+            }
+        }
+        if (op != OP_DIFF && a > b) { // normalizes commutative operations
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int slot = cacheSlot(op, a, b);
+        if (cacheResults[slot] >= 0 && cacheOps[slot] == op
+                && cacheKeys1[slot] == a && cacheKeys2[slot] == b) {
+            return cacheResults[slot];
+        }
+        int va = vars[a], vb = vars[b];
+        int var = Math.min(va, vb);
+        int low = apply(op, va == var ? lows[a] : a, vb == var ? lows[b] : b);
+        int high = apply(op, va == var ? highs[a] : a, vb == var ? highs[b] : b);
+        int result = mk(var, low, high);
+        cacheKeys1[slot] = a;
+        cacheKeys2[slot] = b;
+        cacheOps[slot] = (byte) op;
+        cacheResults[slot] = result;
+        return result;
+    }
+
+    private static int cacheSlot(int op, int a, int b) {
+        int h = (a * 0x9E3779B9) ^ (b * 0x85EBCA6B) ^ op;
+        return (h ^ (h >>> 15)) & (CACHE_SIZE - 1);
+    }
+
+    private int mk(int var, int low, int high) {
+        if (low == high) {
+            return low;
+        }
+        int bucket = hash(var, low, high) & (buckets.length - 1);
+        for (int n = buckets[bucket]; n != -1; n = nexts[n]) {
+            if (vars[n] == var && lows[n] == low && highs[n] == high) {
+                return n;
+            }
+        }
+        int node;
+        if (freeHead != -1) {
+            node = freeHead;
+            freeHead = nexts[node];
+        } else {
+            if (allocated == vars.length) {
+                grow();
+                bucket = hash(var, low, high) & (buckets.length - 1);
+            }
+            node = allocated++;
+        }
+        vars[node] = var;
+        lows[node] = low;
+        highs[node] = high;
+        nexts[node] = buckets[bucket];
+        buckets[bucket] = node;
+        ++liveNodes;
+        return node;
+    }
+
+    private static int hash(int var, int low, int high) {
+        int h = var * 31 + low * 0x9E3779B9 + high * 0x85EBCA6B;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        int capacity = vars.length << 1;
+        vars = Arrays.copyOf(vars, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+        buckets = new int[capacity];
+        rehash();
+    }
+
+    /**
+     * Rebuilds the unique table from all live nodes.
+     */
+    private void rehash() {
+        Arrays.fill(buckets, -1);
+        for (int n = TRUE + 1; n < allocated; ++n) {
+            if (vars[n] != -1) {
+                int bucket = hash(vars[n], lows[n], highs[n]) & (buckets.length - 1);
+                nexts[n] = buckets[bucket];
+                buckets[bucket] = n;
+            }
+        }
+    }
+
+    /**
+     * Performs garbage collection if there are too many live nodes.
+     * This method must be called only when all BDDs in use are held
+     * by registered holders.
+     */
+    void maybeGC() {
+        if (liveNodes >= gcThreshold) {
+            gc();
+            // collects again after the live nodes are doubled
+            gcThreshold = Math.max(gcThreshold, liveNodes << 1);
+        }
+    }
+
+    private void gc() {
+        ++gcCount;
+        boolean[] marked = new boolean[allocated];
+        marked[FALSE] = marked[TRUE] = true;
+        int[] stack = new int[64];
+        int top = 0;
+        removeCollectedHolders();
+        for (HolderRef ref : holders) {
+            Holder holder = ref.get();
+            if (holder == null) { // collected but not enqueued yet
+                continue;
+            }
+            for (int root : holder.getRoots()) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top << 1);
+                }
+                stack[top++] = root;
+            }
+            while (top > 0) {
+                int node = stack[--top];
+                if (!marked[node]) {
+                    marked[node] = true;
+                    if (top + 2 > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length << 1);
+                    }
+                    stack[top++] = lows[node];
+                    stack[top++] = highs[node];
+                }
+            }
+        }
+        // sweeps unmarked nodes to free list
+        freeHead = -1;
+        liveNodes = 2;
+        for (int n = allocated - 1; n > TRUE; --n) {
+            if (marked[n]) {
+                ++liveNodes;
+            } else {
+                vars[n] = -1;
+            }
+        }
+        rehash();
+        for (int n = allocated - 1; n > TRUE; --n) {
+            if (vars[n] == -1) {
+                nexts[n] = freeHead;
+                freeHead = n;
+            }
+        }
+        Arrays.fill(cacheResults, -1);
+    }
+}
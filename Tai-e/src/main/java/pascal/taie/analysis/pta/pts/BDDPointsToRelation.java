@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.Indexer;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Points-to relation from pointers to objects, encoded as a single BDD
+ * over the indexes of pointers and objects. The relation shares the BDD
+ * nodes of the points-to sets of the pointers.
+ * <p>
+ * The relation is immutable, and it can be built only from pointers
+ * whose points-to sets are represented by BDDs.
+ */
+public class BDDPointsToRelation implements BDDManager.Holder {
+
+    private final BDDManager manager;
+
+    private final Indexer<CSObj> indexer;
+
+    private final int bdd;
+
+    private BDDPointsToRelation(BDDManager manager,
+                                Indexer<CSObj> indexer, int bdd) {
+        this.manager = manager;
+        this.indexer = indexer;
+        this.bdd = bdd;
+        manager.register(this);
+    }
+
+    /**
+     * Builds the points-to relation of given pointers.
+     *
+     * @return the relation, or {@code null} if the points-to sets of
+     * the pointers are not represented by BDDs.
+     */
+    @Nullable
+    public static BDDPointsToRelation of(Collection<? extends Pointer> pointers) {
+        BDDPointsToSet first = getFirstBDD(pointers);
+        if (first == null) {
+            return null;
+        }
+        BDDManager manager = first.getManager();
+        synchronized (manager) {
+            manager.maybeGC();
+            int rel = BDDManager.FALSE;
+            for (Pointer p : pointers) {
+                if (p.getPointsToSet() instanceof BDDPointsToSet pts) {
+                    rel = manager.or(rel, manager.singleton(
+                            BDDManager.POINTER_DOMAIN, p.getIndex(), pts.getBDD()));
+                }
+            }
+            return new BDDPointsToRelation(manager, first.getIndexer(), rel);
+        }
+    }
+
+    /**
+     * @return {@code true} if the points-to sets of given pointers are
+     * represented by BDDs, so that their relation can be built.
+     */
+    public static boolean isApplicable(Collection<? extends Pointer> pointers) {
+        return getFirstBDD(pointers) != null;
+    }
+
+    @Nullable
+    private static BDDPointsToSet getFirstBDD(Collection<? extends Pointer> pointers) {
+        for (Pointer p : pointers) {
+            if (p.getPointsToSet() != null) {
+                return p.getPointsToSet() instanceof BDDPointsToSet pts ? pts : null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int[] getRoots() {
+        return new int[]{ bdd };
+    }
+
+    /**
+     * @return the objects pointed to by given pointer in this relation.
+     */
+    public Stream<CSObj> objects(Pointer pointer) {
+        IntStream.Builder indexes = IntStream.builder();
+        synchronized (manager) {
+            int pts = manager.restrict(bdd, BDDManager.POINTER_DOMAIN,
+                    pointer.getIndex());
+            manager.forEach(pts, BDDManager.OBJECT_DOMAIN, indexes);
+        }
+        return indexes.build().mapToObj(indexer::getObject);
+    }
+
+    /**
+     * @return the number of (pointer, object) pairs in this relation.
+     */
+    public long size() {
+        synchronized (manager) {
+            return manager.count(bdd, BDDManager.POINTER_DOMAIN);
+        }
+    }
+
+    /**
+     * @return the number of BDD nodes used by this relation.
+     */
+    public int nodeCount() {
+        synchronized (manager) {
+            return manager.nodeCount(bdd);
+        }
+    }
+}
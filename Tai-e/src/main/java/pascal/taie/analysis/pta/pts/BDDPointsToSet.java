@@ -0,0 +1,247 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set represented by a BDD over the indexes of objects.
+ * <p>
+ * Points-to sets that contain the same objects share the same BDD,
+ * and sets with similar objects share most of their BDD nodes, which
+ * makes this representation compact when contexts are highly redundant,
+ * at the cost of more time for each set operation.
+ * <p>
+ * All operations synchronize on the shared {@link BDDManager}.
+ */
+class BDDPointsToSet implements PointsToSet, BDDManager.Holder {
+
+    private final BDDManager manager;
+
+    private final Indexer<CSObj> indexer;
+
+    private int bdd;
+
+    /**
+     * Cached size of this set, -1 if unknown.
+     */
+    private int size;
+
+    BDDPointsToSet(BDDManager manager, Indexer<CSObj> indexer) {
+        this(manager, indexer, BDDManager.FALSE, 0);
+    }
+
+    private BDDPointsToSet(BDDManager manager, Indexer<CSObj> indexer,
+                           int bdd, int size) {
+        this.manager = manager;
+        this.indexer = indexer;
+        this.bdd = bdd;
+        this.size = size;
+        synchronized (manager) {
+            manager.register(this);
+        }
+    }
+
+    @Override
+    public int[] getRoots() {
+        return new int[]{ bdd };
+    }
+
+    BDDManager getManager() {
+        return manager;
+    }
+
+    Indexer<CSObj> getIndexer() {
+        return indexer;
+    }
+
+    /**
+     * @return the BDD of this set. The caller must synchronize on the manager.
+     */
+    int getBDD() {
+        return bdd;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        int index = indexer.getIndex(obj);
+        synchronized (manager) {
+            if (manager.contains(bdd, BDDManager.OBJECT_DOMAIN, index)) {
+                return false;
+            }
+            manager.maybeGC();
+            bdd = manager.or(bdd, manager.singleton(
+                    BDDManager.OBJECT_DOMAIN, index));
+            if (size >= 0) {
+                ++size;
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        synchronized (manager) {
+            manager.maybeGC();
+            int old = bdd;
+            bdd = manager.or(bdd, toBDD(pts));
+            if (bdd != old) {
+                size = -1;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        synchronized (manager) {
+            manager.maybeGC();
+            int other = toBDD(pts);
+            int diff = manager.diff(other, bdd);
+            if (diff != BDDManager.FALSE) {
+                bdd = manager.or(bdd, other);
+                size = -1;
+            }
+            return new BDDPointsToSet(manager, indexer, diff,
+                    diff == BDDManager.FALSE ? 0 : -1);
+        }
+    }
+
+    @Override
+    public PointsToSet intersect(PointsToSet pts) {
+        synchronized (manager) {
+            manager.maybeGC();
+            int result = manager.and(bdd, toBDD(pts));
+            return new BDDPointsToSet(manager, indexer, result, -1);
+        }
+    }
+
+    @Override
+    public boolean containsAll(PointsToSet pts) {
+        synchronized (manager) {
+            manager.maybeGC();
+            return manager.diff(toBDD(pts), bdd) == BDDManager.FALSE;
+        }
+    }
+
+    /**
+     * Converts given points-to set to a BDD of this manager.
+     * The result is only valid before next garbage collection.
+     */
+    private int toBDD(PointsToSet pts) {
+        if (pts instanceof BDDPointsToSet other && other.manager == manager) {
+            return other.bdd;
+        }
+        int result = BDDManager.FALSE;
+        for (CSObj obj : pts) {
+            result = manager.or(result, manager.singleton(
+                    BDDManager.OBJECT_DOMAIN, indexer.getIndex(obj)));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        int index = indexer.getIndex(obj);
+        synchronized (manager) {
+            return manager.contains(bdd, BDDManager.OBJECT_DOMAIN, index);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        synchronized (manager) {
+            return bdd == BDDManager.FALSE;
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (manager) {
+            if (size < 0) {
+                size = (int) manager.count(bdd, BDDManager.OBJECT_DOMAIN);
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj && BDDPointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<CSObj> iterator() {
+                return objects().iterator();
+            }
+
+            @Override
+            public int size() {
+                return BDDPointsToSet.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return Arrays.stream(toIndexes()).mapToObj(indexer::getObject);
+    }
+
+    /**
+     * @return indexes of the objects in this set, in ascending order.
+     */
+    private int[] toIndexes() {
+        synchronized (manager) {
+            int[] indexes = new int[size()];
+            int[] i = { 0 };
+            manager.forEach(bdd, BDDManager.OBJECT_DOMAIN,
+                    index -> indexes[i[0]++] = index);
+            return indexes;
+        }
+    }
+
+    @Override
+    public PointsToSet copy() {
+        synchronized (manager) {
+            // BDDs are immutable, thus the copy can share the same BDD
+            return new BDDPointsToSet(manager, indexer, bdd, size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+}
@@ -95,6 +95,20 @@ abstract class DelegatePointsToSet implements PointsToSet {
         return newSet(set.addAllDiff(otherSet));
     }
 
+    @Override
+    public PointsToSet intersect(PointsToSet pts) {
+        SetEx<CSObj> result = set.copy();
+        result.retainAll(pts instanceof DelegatePointsToSet other ?
+                other.set : pts.getObjects());
+        return newSet(result);
+    }
+
+    @Override
+    public boolean containsAll(PointsToSet pts) {
+        return set.containsAll(pts instanceof DelegatePointsToSet other ?
+                other.set : pts.getObjects());
+    }
+
     @Override
     public PointsToSet copy() {
         return newSet(set.copy());
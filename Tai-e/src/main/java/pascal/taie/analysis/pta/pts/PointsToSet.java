@@ -57,11 +57,30 @@ public interface PointsToSet extends Iterable<CSObj>, Copyable<PointsToSet> {
      */
     PointsToSet addAllDiff(PointsToSet pts);
 
+    /**
+     * @return a new set containing the objects which are in both
+     * this set and {@code pts}.
+     */
+    PointsToSet intersect(PointsToSet pts);
+
     /**
      * @return true if this set contains given object, otherwise false.
      */
     boolean contains(CSObj obj);
 
+    /**
+     * @return true if this set contains all objects in {@code pts},
+     * otherwise false.
+     */
+    default boolean containsAll(PointsToSet pts) {
+        for (CSObj obj : pts) {
+            if (!contains(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @return whether this set if empty.
      */
@@ -22,20 +22,81 @@
 
 package pascal.taie.analysis.pta.pts;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.ConfigException;
 import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Sets;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Provides static factory methods for {@link PointsToSet}.
  */
 public class PointsToSetFactory {
 
+    private static final Logger logger = LogManager.getLogger(PointsToSetFactory.class);
+
     private final Supplier<PointsToSet> factory;
 
+    /**
+     * Canonicalizing table of points-to sets. This field is {@code null}
+     * if hash-consing is disabled.
+     */
+    private final SharedPointsToSet.Table table;
+
+    /**
+     * Manager of the BDDs of points-to sets. This field is {@code null}
+     * if points-to sets are not represented by BDDs.
+     */
+    private final BDDManager bddManager;
+
     public PointsToSetFactory(Indexer<CSObj> objIndexer) {
-        factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        this(objIndexer, false);
+    }
+
+    /**
+     * @param hashConsing if {@code true}, the points-to sets made by this
+     *                    factory share the same content when they contain
+     *                    the same objects, see {@link SharedPointsToSet}.
+     */
+    public PointsToSetFactory(Indexer<CSObj> objIndexer, boolean hashConsing) {
+        this(objIndexer, hashConsing, false);
+    }
+
+    /**
+     * @param hashConsing if {@code true}, the points-to sets made by this
+     *                    factory share the same content when they contain
+     *                    the same objects, see {@link SharedPointsToSet}.
+     * @param bdd         if {@code true}, the points-to sets made by this
+     *                    factory are represented by BDDs,
+     *                    see {@link BDDPointsToSet}.
+     * @throws ConfigException if both hash-consing and BDD are enabled.
+     */
+    public PointsToSetFactory(Indexer<CSObj> objIndexer,
+                              boolean hashConsing, boolean bdd) {
+        if (hashConsing && bdd) {
+            throw new ConfigException("Hash-consing and BDD points-to sets" +
+                    " cannot be enabled at the same time");
+        }
+        if (hashConsing) {
+            table = new SharedPointsToSet.Table(objIndexer);
+            bddManager = null;
+            factory = () -> new SharedPointsToSet(table);
+        } else if (bdd) {
+            table = null;
+            bddManager = new BDDManager();
+            factory = () -> new BDDPointsToSet(bddManager, objIndexer);
+        } else {
+            table = null;
+            bddManager = null;
+            factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        }
     }
 
     public PointsToSet make() {
@@ -50,4 +111,114 @@ public class PointsToSetFactory {
         set.addObject(obj);
         return set;
     }
+
+    /**
+     * Interns the contents of given points-to sets, so that the sets which
+     * contain the same objects share one content. This is meant to be
+     * called at the end of a phase of the analysis (e.g., when the solver
+     * reaches a fixed point), since the sets copy their interned contents
+     * again when they are modified. Does nothing if hash-consing is disabled.
+     *
+     * @param sets the points-to sets to be interned.
+     */
+    public void share(Stream<PointsToSet> sets) {
+        if (table != null) {
+            sets.forEach(pts -> {
+                if (pts instanceof SharedPointsToSet shared) {
+                    shared.intern();
+                }
+            });
+        }
+    }
+
+    /**
+     * Logs how given points-to sets share their contents, and the estimated
+     * memory saved by the sharing. Does nothing if neither hash-consing
+     * nor BDD is enabled.
+     *
+     * @param sets the points-to sets to be reported, typically the points-to
+     *             sets of all pointers. The same set may occur multiple times.
+     */
+    public void reportSharing(Stream<PointsToSet> sets) {
+        if (bddManager != null) {
+            reportBDD(sets);
+        }
+        if (table == null) {
+            return;
+        }
+        Sharing sharing = computeSharing(sets);
+        logger.info("Points-to set sharing: {} non-empty sets use {} contents" +
+                        " ({} interned, {} replaced by interned ones)",
+                sharing.sets(), sharing.contents(),
+                table.size(), table.getHits());
+        logger.info("Points-to set sharing: ~{} KB interned contents," +
+                        " ~{} KB private contents, ~{} KB without sharing," +
+                        " ~{} KB saved",
+                sharing.internedBytes() / 1024, sharing.privateBytes() / 1024,
+                sharing.unsharedBytes() / 1024, sharing.savedBytes() / 1024);
+    }
+
+    /**
+     * Computes how given points-to sets share their contents.
+     * Only the sets made by a hash-consing factory are counted.
+     */
+    Sharing computeSharing(Stream<PointsToSet> sets) {
+        Set<PointsToSet> distinctSets = Sets.newSet();
+        // contents are compared by identity, as equal contents may not be shared
+        Map<SharedPointsToSet.Content, Integer> users = new IdentityHashMap<>();
+        sets.forEach(pts -> {
+            if (pts instanceof SharedPointsToSet shared && !pts.isEmpty()
+                    && distinctSets.add(pts)) {
+                users.merge(shared.getContent(), 1, Integer::sum);
+            }
+        });
+        Indexer<CSObj> indexer = table.getIndexer();
+        long internedBytes = 0, privateBytes = 0, unsharedBytes = 0;
+        for (var entry : users.entrySet()) {
+            SharedPointsToSet.Content content = entry.getKey();
+            long bytes = content.estimateBytes(indexer);
+            if (content.isInterned()) {
+                internedBytes += bytes;
+            } else {
+                privateBytes += bytes;
+            }
+            unsharedBytes += entry.getValue() * bytes;
+        }
+        return new Sharing(distinctSets.size(), users.size(),
+                internedBytes, privateBytes, unsharedBytes);
+    }
+
+    /**
+     * Statistics of the sharing of points-to sets.
+     *
+     * @param sets          number of distinct non-empty points-to sets.
+     * @param contents      number of distinct contents used by the sets.
+     * @param internedBytes estimated memory of the interned contents.
+     * @param privateBytes  estimated memory of the private contents.
+     * @param unsharedBytes estimated memory of the sets if no content
+     *                      were shared.
+     */
+    record Sharing(int sets, int contents, long internedBytes,
+                   long privateBytes, long unsharedBytes) {
+
+        long savedBytes() {
+            return unsharedBytes - internedBytes - privateBytes;
+        }
+    }
+
+    private void reportBDD(Stream<PointsToSet> sets) {
+        long[] objects = { 0 };
+        sets.filter(pts -> pts != null && !pts.isEmpty())
+                .distinct()
+                .forEach(pts -> objects[0] += pts.size());
+        synchronized (bddManager) {
+            // compares with one 64-bit word per object in bit sets
+            logger.info("BDD points-to sets: {} objects in total, {} live nodes," +
+                            " {} garbage collections, ~{} KB node table," +
+                            " ~{} KB for bit sets",
+                    objects[0], bddManager.getLiveNodes(),
+                    bddManager.getGCCount(), bddManager.estimateBytes() / 1024,
+                    objects[0] * Long.BYTES / 1024);
+        }
+    }
 }
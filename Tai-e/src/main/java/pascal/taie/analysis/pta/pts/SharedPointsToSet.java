@@ -0,0 +1,330 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.SetEx;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set whose content may be shared with other points-to sets
+ * that contain the same objects.
+ * <p>
+ * The content of a points-to set is private until it is interned into
+ * a canonicalizing {@link Table}, which happens when a set of at least
+ * {@link #MIN_INTERN_SIZE} objects is copied, or when all sets are
+ * interned at the end of a phase of the analysis (see {@link #intern()}).
+ * Sets are never interned on modification, as the next modification
+ * would have to copy the interned content again.
+ * If the table already contains an equal content, the set drops its own
+ * content and shares the one in the table. Interned contents are never
+ * modified: a set copies its content before modifying it if the content
+ * has been interned (i.e., copy-on-write).
+ * <p>
+ * This class is not thread-safe, but different sets can be used by
+ * different threads, as the table is synchronized, interned contents
+ * are immutable, and a set never modifies other sets.
+ */
+class SharedPointsToSet implements PointsToSet {
+
+    /**
+     * Sets smaller than this size are not interned,
+     * as the table entries of them cost more memory than their contents.
+     */
+    private static final int MIN_INTERN_SIZE = 8;
+
+    private final Table table;
+
+    private Content content;
+
+    SharedPointsToSet(Table table) {
+        this(table, table.newContent());
+    }
+
+    private SharedPointsToSet(Table table, Content content) {
+        this.table = table;
+        this.content = content;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        if (content.set.contains(obj)) {
+            return false;
+        }
+        Content c = getPrivateContent();
+        c.set.add(obj);
+        c.hash += table.hash(obj);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        return !addAllDiff(pts).isEmpty();
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        if (content.set.isEmpty()
+                && pts instanceof SharedPointsToSet other
+                && other.content.interned) {
+            // shares the content of other set, and the difference
+            // is the whole other set
+            content = other.content;
+            return new SharedPointsToSet(table, content);
+        }
+        SetEx<CSObj> diff = table.newContent().set;
+        Set<CSObj> otherSet = getSet(pts);
+        if (!content.set.containsAll(otherSet)) {
+            Content c = getPrivateContent();
+            diff = c.set.addAllDiff(otherSet);
+            for (CSObj obj : diff) {
+                c.hash += table.hash(obj);
+            }
+        }
+        return new SharedPointsToSet(table, new Content(diff, table.hash(diff)));
+    }
+
+    @Override
+    public PointsToSet intersect(PointsToSet pts) {
+        SetEx<CSObj> result = content.set.copy();
+        result.retainAll(getSet(pts));
+        return new SharedPointsToSet(table, new Content(result, table.hash(result)));
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return content.set.contains(obj);
+    }
+
+    @Override
+    public boolean containsAll(PointsToSet pts) {
+        return content.set.containsAll(getSet(pts));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return content.set.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return content.set.size();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(content.set);
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return content.set.stream();
+    }
+
+    @Override
+    public PointsToSet copy() {
+        if (intern()) {
+            return new SharedPointsToSet(table, content);
+        } else {
+            return new SharedPointsToSet(table,
+                    new Content(content.set.copy(), content.hash));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return content.set.toString();
+    }
+
+    /**
+     * @return the content of this set, which may be shared.
+     */
+    Content getContent() {
+        return content;
+    }
+
+    /**
+     * @return the content of this set which is safe to modify.
+     */
+    private Content getPrivateContent() {
+        if (content.interned) {
+            content = new Content(content.set.copy(), content.hash);
+        }
+        return content;
+    }
+
+    /**
+     * Interns the content of this set if it is large enough.
+     *
+     * @return {@code true} if the content of this set is interned.
+     */
+    boolean intern() {
+        if (content.set.size() >= MIN_INTERN_SIZE) {
+            content = table.intern(content);
+            return true;
+        }
+        return false;
+    }
+
+    private static Set<CSObj> getSet(PointsToSet pts) {
+        return pts instanceof SharedPointsToSet other ?
+                other.content.set : pts.getObjects();
+    }
+
+    /**
+     * Objects of a points-to set with the hash code of them.
+     * The content is immutable after it is interned.
+     */
+    static final class Content {
+
+        private final SetEx<CSObj> set;
+
+        /**
+         * Sum of the hash codes of the objects, maintained incrementally.
+         */
+        private int hash;
+
+        private volatile boolean interned;
+
+        private Content(SetEx<CSObj> set, int hash) {
+            this.set = set;
+            this.hash = hash;
+        }
+
+        /**
+         * Estimates the memory used by the objects of this content,
+         * which is the number of 64-bit words that their indexes
+         * occupy in a bit set.
+         */
+        long estimateBytes(Indexer<CSObj> indexer) {
+            return set.stream()
+                    .mapToInt(o -> indexer.getIndex(o) >>> 6)
+                    .distinct()
+                    .count() * Long.BYTES;
+        }
+
+        boolean isInterned() {
+            return interned;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Content that)) {
+                return false;
+            }
+            return hash == that.hash
+                    && set.size() == that.set.size()
+                    && set.containsAll(that.set);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Canonicalizing table of the contents of points-to sets. The contents
+     * are weakly referenced, so that they can be garbage collected when no
+     * points-to sets use them.
+     */
+    static final class Table {
+
+        private final Indexer<CSObj> indexer;
+
+        private final Map<Content, WeakReference<Content>> contents = new WeakHashMap<>();
+
+        /**
+         * Number of contents that are replaced by equal interned ones.
+         */
+        private long hits;
+
+        Table(Indexer<CSObj> indexer) {
+            this.indexer = indexer;
+        }
+
+        private Content newContent() {
+            return new Content(new HybridBitSet<>(indexer, true), 0);
+        }
+
+        /**
+         * @return the interned content which is equal to given content.
+         */
+        private synchronized Content intern(Content content) {
+            if (content.interned) {
+                return content;
+            }
+            WeakReference<Content> ref = contents.get(content);
+            Content canonical = ref != null ? ref.get() : null;
+            if (canonical != null) {
+                ++hits;
+                return canonical;
+            }
+            content.interned = true;
+            contents.put(content, new WeakReference<>(content));
+            return content;
+        }
+
+        private int hash(CSObj obj) {
+            // spreads the indexes, so that the sums of them are unlikely to collide
+            return indexer.getIndex(obj) * 0x9E3779B9;
+        }
+
+        private int hash(Set<CSObj> set) {
+            int h = 0;
+            for (CSObj obj : set) {
+                h += hash(obj);
+            }
+            return h;
+        }
+
+        Indexer<CSObj> getIndexer() {
+            return indexer;
+        }
+
+        /**
+         * @return number of contents that are replaced by equal interned ones.
+         */
+        synchronized long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return number of interned contents which are still alive.
+         */
+        synchronized int size() {
+            return contents.size();
+        }
+    }
+}
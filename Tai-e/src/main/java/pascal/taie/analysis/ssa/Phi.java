@@ -0,0 +1,118 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Represents a phi function at the beginning of a {@link BasicBlock},
+ * which selects a version of a variable according to the predecessor
+ * from which the control flows into the block.
+ */
+public class Phi {
+
+    private final BasicBlock block;
+
+    private final Var var;
+
+    /**
+     * Predecessors of {@link #block}.
+     */
+    private final List<BasicBlock> preds;
+
+    /**
+     * Operands of this phi function, i.e., the versions of {@link #var}
+     * flowing from {@link #preds} at the same positions.
+     */
+    private final SSAVar[] operands;
+
+    private SSAVar result;
+
+    Phi(BasicBlock block, Var var, List<BasicBlock> preds) {
+        this.block = block;
+        this.var = var;
+        this.preds = preds;
+        this.operands = new SSAVar[preds.size()];
+    }
+
+    /**
+     * @return the block where this phi function is placed.
+     */
+    public BasicBlock getBlock() {
+        return block;
+    }
+
+    public Var getVar() {
+        return var;
+    }
+
+    /**
+     * @return the version of the variable defined by this phi function.
+     */
+    public SSAVar getResult() {
+        return result;
+    }
+
+    void setResult(SSAVar result) {
+        this.result = result;
+    }
+
+    /**
+     * @return the predecessors of the block of this phi function,
+     * which are in the same order as {@link #getOperands()}.
+     */
+    public List<BasicBlock> getPreds() {
+        return preds;
+    }
+
+    /**
+     * @return the operands of this phi function.
+     */
+    public List<SSAVar> getOperands() {
+        return Collections.unmodifiableList(Arrays.asList(operands));
+    }
+
+    /**
+     * @return the operand flowing from given predecessor.
+     */
+    public SSAVar getOperand(BasicBlock pred) {
+        return operands[preds.indexOf(pred)];
+    }
+
+    void setOperand(BasicBlock pred, SSAVar operand) {
+        operands[preds.indexOf(pred)] = operand;
+    }
+
+    @Override
+    public String toString() {
+        return result + " = phi(" + Arrays.stream(operands)
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ")) + ")";
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.graph.DominatorFinder;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Static single assignment (SSA) form of an {@link IR}, which is built
+ * by {@link SSABuilder}. This form does not rewrite the statements of
+ * the IR, instead, it maps each definition and use of variables in the
+ * statements to {@link SSAVar}s, and places {@link Phi}s at the beginning
+ * of the basic blocks of the IR.
+ */
+public class SSA {
+
+    private final CFG<Stmt> cfg;
+
+    private final BlockCFG blockCFG;
+
+    private final DominatorFinder<BasicBlock> domFinder;
+
+    /**
+     * Phi functions of basic blocks, indexed by the indexes of the blocks.
+     * The element is {@code null} if the block has no phi functions.
+     */
+    private final List<List<Phi>> phis;
+
+    /**
+     * Versions defined by statements, indexed by the indexes of
+     * the statements in {@link #cfg}.
+     */
+    private final SSAVar[] defs;
+
+    /**
+     * Versions used by statements, indexed by the indexes of
+     * the statements in {@link #cfg}.
+     */
+    private final SSAVar[][] uses;
+
+    /**
+     * Versions of all variables reaching the beginning of basic blocks
+     * (after the phi functions), indexed by the indexes of the blocks.
+     * Each array is indexed by the indexes of the variables.
+     */
+    private final SSAVar[][] entryVersions;
+
+    /**
+     * All versions, where the first ones are the versions on method entry
+     * in order of the indexes of their variables.
+     */
+    private final List<SSAVar> ssaVars;
+
+    SSA(CFG<Stmt> cfg, BlockCFG blockCFG, DominatorFinder<BasicBlock> domFinder,
+        List<List<Phi>> phis, SSAVar[] defs, SSAVar[][] uses,
+        SSAVar[][] entryVersions, List<SSAVar> ssaVars) {
+        this.cfg = cfg;
+        this.blockCFG = blockCFG;
+        this.domFinder = domFinder;
+        this.phis = phis;
+        this.defs = defs;
+        this.uses = uses;
+        this.entryVersions = entryVersions;
+        this.ssaVars = ssaVars;
+    }
+
+    public IR getIR() {
+        return cfg.getIR();
+    }
+
+    public CFG<Stmt> getCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the CFG of basic blocks where the phi functions are placed.
+     */
+    public BlockCFG getBlockCFG() {
+        return blockCFG;
+    }
+
+    /**
+     * @return the immediate dominator of {@code block}, or {@code null}
+     * if {@code block} is a root of the dominator tree, e.g., the entry.
+     */
+    @Nullable
+    public BasicBlock getImmediateDominatorOf(BasicBlock block) {
+        return domFinder.getImmediateDominatorOf(block);
+    }
+
+    /**
+     * @return the phi functions at the beginning of {@code block}.
+     */
+    public List<Phi> getPhis(BasicBlock block) {
+        List<Phi> blockPhis = phis.get(block.getIndex());
+        return blockPhis == null ? List.of()
+                : Collections.unmodifiableList(blockPhis);
+    }
+
+    /**
+     * @return the version defined by {@code stmt}, or {@code null}
+     * if {@code stmt} does not define any variable.
+     */
+    @Nullable
+    public SSAVar getDef(Stmt stmt) {
+        return defs[cfg.getIndex(stmt)];
+    }
+
+    /**
+     * @return the versions used by {@code stmt}.
+     */
+    public List<SSAVar> getUses(Stmt stmt) {
+        return Collections.unmodifiableList(
+                Arrays.asList(uses[cfg.getIndex(stmt)]));
+    }
+
+    /**
+     * @return the version of {@code var} used by {@code stmt}, or
+     * {@code null} if {@code var} is not used by {@code stmt}.
+     */
+    @Nullable
+    public SSAVar getUse(Stmt stmt, Var var) {
+        for (SSAVar use : uses[cfg.getIndex(stmt)]) {
+            if (use.getVar().equals(var)) {
+                return use;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the version of {@code var} on method entry.
+     */
+    public SSAVar getEntryVersion(Var var) {
+        return ssaVars.get(var.getIndex());
+    }
+
+    /**
+     * @return all versions of the variables in the IR.
+     */
+    public List<SSAVar> getSSAVars() {
+        return Collections.unmodifiableList(ssaVars);
+    }
+
+    /**
+     * Computes the versions of all variables that reach the point before
+     * {@code stmt}, or after {@code stmt} if {@code after} is {@code true}.
+     * The versions reaching the beginning of each basic block are recorded
+     * when renaming the variables, thus this method only needs to apply
+     * the definitions in the block of {@code stmt} up to the point.
+     *
+     * @return the reaching versions, one for each variable in the IR,
+     * in order of the indexes of the variables.
+     */
+    public List<SSAVar> getReachingVersions(Stmt stmt, boolean after) {
+        BasicBlock block = blockCFG.getBlockOf(stmt);
+        SSAVar[] reaching = entryVersions[block.getIndex()].clone();
+        List<Stmt> stmts = block.getStmts();
+        int end = blockCFG.getIndexInBlock(stmt) + (after ? 1 : 0);
+        for (int i = 0; i < end; ++i) {
+            SSAVar def = defs[cfg.getIndex(stmts.get(i))];
+            if (def != null) {
+                reaching[def.getVar().getIndex()] = def;
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(reaching));
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.CFGNodeIndexer;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.graph.DominatorFinder;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Builds {@link SSA} form for an IR by the algorithm in paper
+ * "Efficiently Computing Static Single Assignment Form and the Control
+ * Dependence Graph" (Cytron et al.), i.e., places phi functions at the
+ * iterated dominance frontiers of the definitions of each variable,
+ * and then renames the variables by traversing the dominator tree.
+ * The phi functions are placed on the basic blocks of {@link BlockCFG}.
+ */
+public class SSABuilder extends MethodAnalysis<SSA> {
+
+    public static final String ID = "ssa";
+
+    public SSABuilder(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public SSA analyze(IR ir) {
+        return build(ir.getResult(CFGBuilder.ID));
+    }
+
+    /**
+     * Builds SSA form for the IR of given CFG.
+     */
+    public static SSA build(CFG<Stmt> cfg) {
+        return new Builder(cfg).build();
+    }
+
+    private static class Builder {
+
+        private static final SSAVar[] NO_USES = new SSAVar[0];
+
+        private final CFG<Stmt> cfg;
+
+        private final List<Var> vars;
+
+        private final BlockCFG blockCFG;
+
+        private final DominatorFinder<BasicBlock> domFinder;
+
+        private final List<List<Phi>> phis;
+
+        private final SSAVar[] defs;
+
+        private final SSAVar[][] uses;
+
+        private final SSAVar[][] entryVersions;
+
+        private final List<SSAVar> ssaVars = new ArrayList<>();
+
+        /**
+         * Next version numbers of variables.
+         */
+        private final int[] versions;
+
+        private Builder(CFG<Stmt> cfg) {
+            this.cfg = cfg;
+            this.vars = cfg.getIR().getVars();
+            this.blockCFG = new BlockCFG(cfg);
+            this.domFinder = new DominatorFinder<>(
+                    blockCFG, new CFGNodeIndexer<>(blockCFG), true);
+            int nBlocks = blockCFG.getNumberOfNodes();
+            this.phis = new ArrayList<>(Collections.nCopies(nBlocks, null));
+            this.defs = new SSAVar[cfg.getNumberOfNodes()];
+            this.uses = new SSAVar[cfg.getNumberOfNodes()][];
+            this.entryVersions = new SSAVar[nBlocks][];
+            this.versions = new int[vars.size()];
+        }
+
+        private SSA build() {
+            // create versions on method entry, whose indexes
+            // are the same as the indexes of their variables
+            vars.forEach(var -> newVersion(var, null, null));
+            insertPhis();
+            rename();
+            return new SSA(cfg, blockCFG, domFinder, phis, defs, uses,
+                    entryVersions, ssaVars);
+        }
+
+        private SSAVar newVersion(Var var, @Nullable Stmt stmt, @Nullable Phi phi) {
+            SSAVar ssaVar = new SSAVar(var, versions[var.getIndex()]++,
+                    ssaVars.size(), stmt, phi);
+            ssaVars.add(ssaVar);
+            return ssaVar;
+        }
+
+        /**
+         * Places phi functions at the iterated dominance frontiers
+         * of the blocks defining each variable.
+         */
+        private void insertPhis() {
+            List<List<BasicBlock>> defBlocks = new ArrayList<>(
+                    Collections.nCopies(vars.size(), null));
+            for (BasicBlock block : blockCFG) {
+                for (Stmt stmt : block.getStmts()) {
+                    Var def = getDefVar(stmt);
+                    if (def != null) {
+                        List<BasicBlock> blocks = defBlocks.get(def.getIndex());
+                        if (blocks == null) {
+                            blocks = new ArrayList<>();
+                            defBlocks.set(def.getIndex(), blocks);
+                        }
+                        if (blocks.isEmpty() || blocks.get(blocks.size() - 1) != block) {
+                            blocks.add(block);
+                        }
+                    }
+                }
+            }
+            // stamps of blocks, which are the indexes of variables plus one,
+            // so that the arrays need not be cleared for each variable
+            int nBlocks = blockCFG.getNumberOfNodes();
+            int[] hasPhi = new int[nBlocks];
+            int[] added = new int[nBlocks];
+            Deque<BasicBlock> workList = new ArrayDeque<>();
+            for (Var var : vars) {
+                List<BasicBlock> blocks = defBlocks.get(var.getIndex());
+                if (blocks == null) {
+                    continue;
+                }
+                int stamp = var.getIndex() + 1;
+                for (BasicBlock block : blocks) {
+                    added[block.getIndex()] = stamp;
+                    workList.add(block);
+                }
+                while (!workList.isEmpty()) {
+                    BasicBlock block = workList.poll();
+                    for (BasicBlock frontier : domFinder.getDominanceFrontierOf(block)) {
+                        int i = frontier.getIndex();
+                        if (hasPhi[i] != stamp) {
+                            hasPhi[i] = stamp;
+                            addPhi(new Phi(frontier, var,
+                                    List.copyOf(blockCFG.getPredsOf(frontier))));
+                            if (added[i] != stamp) {
+                                added[i] = stamp;
+                                workList.add(frontier);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private void addPhi(Phi phi) {
+            int i = phi.getBlock().getIndex();
+            List<Phi> blockPhis = phis.get(i);
+            if (blockPhis == null) {
+                blockPhis = new ArrayList<>();
+                phis.set(i, blockPhis);
+            }
+            blockPhis.add(phi);
+        }
+
+        private List<Phi> getPhis(BasicBlock block) {
+            List<Phi> blockPhis = phis.get(block.getIndex());
+            return blockPhis == null ? List.of() : blockPhis;
+        }
+
+        /**
+         * Renames the definitions and uses of variables to versions
+         * by traversing the dominator tree in preorder, where the current
+         * versions of variables are restored when leaving a subtree.
+         * The versions reaching the beginning of each block are recorded
+         * for computing the versions reaching the statements on query.
+         */
+        private void rename() {
+            int nBlocks = blockCFG.getNumberOfNodes();
+            List<List<BasicBlock>> children = new ArrayList<>(nBlocks);
+            List<BasicBlock> roots = new ArrayList<>();
+            for (int i = 0; i < nBlocks; ++i) {
+                children.add(new ArrayList<>(2));
+            }
+            for (BasicBlock block : blockCFG) {
+                BasicBlock idom = domFinder.getImmediateDominatorOf(block);
+                if (idom == null) {
+                    roots.add(block);
+                } else {
+                    children.get(idom.getIndex()).add(block);
+                }
+            }
+            SSAVar[] current = ssaVars.toArray(new SSAVar[0]);
+            // versions replaced in current, which are restored when
+            // leaving the subtrees of the blocks defining new versions
+            List<SSAVar> replaced = new ArrayList<>();
+            int[] marks = new int[nBlocks];
+            // use iterative traversal to avoid stack overflow for huge
+            // methods, where ~i represents leaving the block with index i
+            Deque<Integer> stack = new ArrayDeque<>();
+            for (int i = roots.size() - 1; i >= 0; --i) {
+                stack.push(roots.get(i).getIndex());
+            }
+            while (!stack.isEmpty()) {
+                int i = stack.pop();
+                if (i < 0) {
+                    for (int j = replaced.size() - 1; j >= marks[~i]; --j) {
+                        SSAVar ssaVar = replaced.remove(j);
+                        current[ssaVar.getVar().getIndex()] = ssaVar;
+                    }
+                    continue;
+                }
+                BasicBlock block = blockCFG.getNode(i);
+                marks[i] = replaced.size();
+                for (Phi phi : getPhis(block)) {
+                    SSAVar result = newVersion(phi.getVar(), null, phi);
+                    phi.setResult(result);
+                    replaced.add(current[phi.getVar().getIndex()]);
+                    current[phi.getVar().getIndex()] = result;
+                }
+                entryVersions[i] = current.clone();
+                for (Stmt stmt : block.getStmts()) {
+                    int s = cfg.getIndex(stmt);
+                    List<SSAVar> stmtUses = new ArrayList<>();
+                    for (RValue use : stmt.getUses()) {
+                        if (use instanceof Var var) {
+                            SSAVar ssaVar = current[var.getIndex()];
+                            ssaVar.addUser(stmt);
+                            stmtUses.add(ssaVar);
+                        }
+                    }
+                    uses[s] = stmtUses.isEmpty() ? NO_USES
+                            : stmtUses.toArray(new SSAVar[0]);
+                    Var def = getDefVar(stmt);
+                    if (def != null) {
+                        SSAVar ssaVar = newVersion(def, stmt, null);
+                        defs[s] = ssaVar;
+                        replaced.add(current[def.getIndex()]);
+                        current[def.getIndex()] = ssaVar;
+                    }
+                }
+                for (BasicBlock succ : blockCFG.getSuccsOf(block)) {
+                    for (Phi phi : getPhis(succ)) {
+                        SSAVar ssaVar = current[phi.getVar().getIndex()];
+                        phi.setOperand(block, ssaVar);
+                        ssaVar.addUser(phi);
+                    }
+                }
+                stack.push(~i);
+                List<BasicBlock> blockChildren = children.get(i);
+                for (int j = blockChildren.size() - 1; j >= 0; --j) {
+                    stack.push(blockChildren.get(j).getIndex());
+                }
+            }
+        }
+
+        @Nullable
+        private static Var getDefVar(Stmt stmt) {
+            return stmt.getDef().orElse(null) instanceof Var var ? var : null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a version of a variable in SSA form. Each version is defined
+ * exactly once, by a statement, by a {@link Phi}, or on method entry.
+ * The version defined on method entry holds the value of a parameter
+ * (or {@code this}), or no value for other variables.
+ */
+public class SSAVar {
+
+    private final Var var;
+
+    private final int version;
+
+    /**
+     * Index of this version among all versions in the {@link SSA}.
+     */
+    private final int index;
+
+    @Nullable
+    private final Stmt defStmt;
+
+    @Nullable
+    private final Phi defPhi;
+
+    private final List<Stmt> stmtUsers = new ArrayList<>(2);
+
+    private final List<Phi> phiUsers = new ArrayList<>(0);
+
+    SSAVar(Var var, int version, int index,
+           @Nullable Stmt defStmt, @Nullable Phi defPhi) {
+        this.var = var;
+        this.version = version;
+        this.index = index;
+        this.defStmt = defStmt;
+        this.defPhi = defPhi;
+    }
+
+    /**
+     * @return the variable of this version.
+     */
+    public Var getVar() {
+        return var;
+    }
+
+    /**
+     * @return the version number, which is 0 for the version on method entry.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return {@code true} if this is the version on method entry.
+     */
+    public boolean isEntry() {
+        return defStmt == null && defPhi == null;
+    }
+
+    /**
+     * @return the statement that defines this version, or {@code null}
+     * if this version is not defined by a statement.
+     */
+    @Nullable
+    public Stmt getDefStmt() {
+        return defStmt;
+    }
+
+    /**
+     * @return the phi function that defines this version, or {@code null}
+     * if this version is not defined by a phi function.
+     */
+    @Nullable
+    public Phi getDefPhi() {
+        return defPhi;
+    }
+
+    /**
+     * @return the statements that use this version.
+     */
+    public List<Stmt> getStmtUsers() {
+        return Collections.unmodifiableList(stmtUsers);
+    }
+
+    /**
+     * @return the phi functions that use this version as operand.
+     */
+    public List<Phi> getPhiUsers() {
+        return Collections.unmodifiableList(phiUsers);
+    }
+
+    void addUser(Stmt stmt) {
+        stmtUsers.add(stmt);
+    }
+
+    void addUser(Phi phi) {
+        phiUsers.add(phi);
+    }
+
+    @Override
+    public String toString() {
+        return var + "#" + version;
+    }
+}
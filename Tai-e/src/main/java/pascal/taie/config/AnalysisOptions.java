@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Wrapper class for analysis options.
@@ -90,6 +91,13 @@ public class AnalysisOptions {
         return options.containsKey(key);
     }
 
+    /**
+     * @return an unmodifiable view of the keys of the options.
+     */
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(options.keySet());
+    }
+
     /**
      * @return value for given option key.
      * @throws ConfigException if this AnalysisOptions do not contain the key.
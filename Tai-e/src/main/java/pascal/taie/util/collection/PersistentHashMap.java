@@ -0,0 +1,663 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Persistent (immutable) hash map implemented as a hash array mapped trie
+ * (HAMT), see paper "Ideal Hash Trees" (Phil Bagwell).
+ * <p>
+ * Instead of modifying the map, the updating methods, i.e.,
+ * {@link #with(Object, Object)}, {@link #without(Object)} and
+ * {@link #withAll(PersistentHashMap)}, return new maps which share
+ * the unchanged sub-tries with this map, so that a map and its updated
+ * versions take little extra memory. The updating methods return this
+ * map itself if the update does not change any mapping.
+ * <p>
+ * This map does not permit null keys. The mutating methods of {@link Map}
+ * throw {@link UnsupportedOperationException}.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V>
+        implements Serializable {
+
+    private static final PersistentHashMap<?, ?> EMPTY =
+            new PersistentHashMap<>(null, 0);
+
+    /**
+     * Number of hash bits consumed by each level of the trie.
+     */
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * Maximum depth of the trie, i.e., the levels of bitmap nodes
+     * for 32-bit hash codes, plus one level of collision nodes.
+     */
+    private static final int MAX_DEPTH = (32 + BITS - 1) / BITS + 1;
+
+    /**
+     * Result of lookups for absent keys, as the values may be null.
+     */
+    private static final Object NOT_FOUND = new Object();
+
+    @Nullable
+    private final Node root;
+
+    private final int size;
+
+    private transient Set<Entry<K, V>> entrySet;
+
+    private PersistentHashMap(@Nullable Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return an empty persistent map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * @return a persistent map with the same mappings as given map,
+     * or the map itself if it is already a persistent map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentHashMap) {
+            // safe as the persistent map is immutable
+            return (PersistentHashMap<K, V>) map;
+        }
+        PersistentHashMap<K, V> result = empty();
+        for (Entry<? extends K, ? extends V> e : map.entrySet()) {
+            result = result.with(e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return root != null && key != null
+                && root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    @Override
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        if (root == null || key == null) {
+            return defaultValue;
+        }
+        Object value = root.find(0, hash(key), key);
+        return value == NOT_FOUND ? defaultValue : (V) value;
+    }
+
+    /**
+     * @return a map with the mappings of this map and the mapping from
+     * {@code key} to {@code value}, which replaces the existing mapping
+     * for {@code key}.
+     */
+    public PersistentHashMap<K, V> with(K key, V value) {
+        Objects.requireNonNull(key, "PersistentHashMap does not permit null keys");
+        int[] added = new int[1];
+        Node newRoot = (root == null ? BitmapNode.EMPTY : root)
+                .put(0, hash(key), key, value, added);
+        return newRoot == root ? this
+                : new PersistentHashMap<>(newRoot, size + added[0]);
+    }
+
+    /**
+     * @return a map with the mappings of this map except
+     * the mapping for {@code key}.
+     */
+    public PersistentHashMap<K, V> without(K key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty()
+                : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * @return a map with the mappings of this map and {@code other},
+     * where the mappings of {@code other} replace the ones of this map
+     * for the same keys. The sub-tries shared by the two maps are not
+     * traversed, thus merging two versions of a map is fast.
+     */
+    public PersistentHashMap<K, V> withAll(PersistentHashMap<K, V> other) {
+        if (other.root == null || other.root == root) {
+            return this;
+        }
+        if (root == null) {
+            return other;
+        }
+        int[] added = new int[1];
+        Node newRoot = root.merge(other.root, 0, added);
+        return newRoot == root ? this
+                : new PersistentHashMap<>(newRoot, size + added[0]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> es;
+        return (es = entrySet) == null ? (entrySet = new EntrySet()) : es;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PersistentHashMap<?, ?> that && that.root == root) {
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // follow the contract of Map.Entry.hashCode(), which
+        // is not followed by ImmutableMapEntry
+        int[] h = new int[1];
+        forEach((k, v) -> h[0] += Objects.hashCode(k) ^ Objects.hashCode(v));
+        return h[0];
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Iterates the entries by depth-first traversal of the trie.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+
+        private final int[] positions = new int[MAX_DEPTH];
+
+        private int depth = -1;
+
+        private Entry<K, V> next;
+
+        private EntryIterator() {
+            if (root != null) {
+                push(root);
+            }
+            advance();
+        }
+
+        private void push(Node node) {
+            ++depth;
+            arrays[depth] = node.array;
+            positions[depth] = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int pos = positions[depth];
+                if (pos >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                positions[depth] += 2;
+                if (array[pos] == null) {
+                    push((Node) array[pos + 1]);
+                } else {
+                    next = new ImmutableMapEntry<>((K) array[pos], (V) array[pos + 1]);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> result = next;
+            advance();
+            return result;
+        }
+    }
+
+    /**
+     * Node of the trie. The array of a node holds a pair of slots for each
+     * child: a key and its value, or {@code null} and a sub-node.
+     * Nodes are never modified after construction.
+     */
+    private abstract static class Node implements Serializable {
+
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        /**
+         * @return the value for {@code key}, or {@link #NOT_FOUND}.
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * @param added its first element is increased by one
+         *              if {@code key} is newly added
+         * @return the node with the mapping, or this node if unchanged.
+         */
+        abstract Node put(int shift, int hash, Object key, Object value, int[] added);
+
+        /**
+         * @return the node without the mapping for {@code key}, this node
+         * if unchanged, or {@code null} if the resulting node is empty.
+         */
+        @Nullable
+        abstract Node remove(int shift, int hash, Object key);
+
+        /**
+         * @param added its first element is increased by the number of
+         *              keys in {@code other} that are absent in this node
+         * @return the node with the mappings of this node and {@code other},
+         * where the mappings of {@code other} take precedence.
+         */
+        Node merge(Node other, int shift, int[] added) {
+            return putAll(this, other, shift, added);
+        }
+
+        /**
+         * Puts the mappings of {@code other} to {@code node} one by one.
+         */
+        private static Node putAll(Node node, Node other, int shift, int[] added) {
+            Node result = node;
+            Object[] otherArray = other.array;
+            for (int i = 0; i < otherArray.length; i += 2) {
+                Object key = otherArray[i];
+                if (key == null) {
+                    result = putAll(result, (Node) otherArray[i + 1], shift, added);
+                } else {
+                    result = result.put(shift, hash(key), key, otherArray[i + 1], added);
+                }
+            }
+            return result;
+        }
+
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        /**
+         * @return the number of mappings in the sub-trie rooted by this node.
+         */
+        int count() {
+            int count = 0;
+            for (int i = 0; i < array.length; i += 2) {
+                count += array[i] == null ? ((Node) array[i + 1]).count() : 1;
+            }
+            return count;
+        }
+
+        /**
+         * @return the single mapping of this node as a pair of slots,
+         * or {@code null} if this node does not have exactly one mapping.
+         */
+        @Nullable
+        Object[] getSingleton() {
+            return array.length == 2 && array[0] != null ? array : null;
+        }
+    }
+
+    /**
+     * Node whose children are indexed by a bitmap of 5 bits of hash codes.
+     */
+    private static final class BitmapNode extends Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        private BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        /**
+         * @return the index of the slots of given bit in the array.
+         */
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private BitmapNode set(int i, Object key, Object value) {
+            Object[] newArray = array.clone();
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, int[] added) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                ++added[0];
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node sub = (Node) v;
+                Node newSub = sub.put(shift + BITS, hash, key, value, added);
+                return newSub == sub ? this : set(i, null, newSub);
+            }
+            if (key.equals(k)) {
+                return Objects.equals(v, value) ? this : set(i, k, value);
+            }
+            ++added[0];
+            return set(i, null, createNode(shift + BITS, k, v, hash, key, value));
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = index(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node sub = (Node) array[i + 1];
+                Node newSub = sub.remove(shift + BITS, hash, key);
+                if (newSub == sub) {
+                    return this;
+                }
+                if (newSub == null) {
+                    return removeSlots(bit, i);
+                }
+                // inline the sub-node with single mapping
+                Object[] singleton = newSub.getSingleton();
+                return singleton != null
+                        ? set(i, singleton[0], singleton[1])
+                        : set(i, null, newSub);
+            }
+            return key.equals(k) ? removeSlots(bit, i) : this;
+        }
+
+        @Nullable
+        private BitmapNode removeSlots(int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, newArray);
+        }
+
+        @Override
+        Node merge(Node other, int shift, int[] added) {
+            if (other == this) {
+                return this;
+            }
+            if (!(other instanceof BitmapNode that)) {
+                return super.merge(other, shift, added);
+            }
+            int newBitmap = bitmap | that.bitmap;
+            Object[] newArray = new Object[2 * Integer.bitCount(newBitmap)];
+            boolean changed = newBitmap != bitmap;
+            for (int bits = newBitmap, j = 0; bits != 0; bits &= bits - 1, j += 2) {
+                int bit = bits & -bits;
+                if ((that.bitmap & bit) == 0) {
+                    int i = index(bit);
+                    newArray[j] = array[i];
+                    newArray[j + 1] = array[i + 1];
+                    continue;
+                }
+                int ti = that.index(bit);
+                Object tk = that.array[ti];
+                Object tv = that.array[ti + 1];
+                if ((bitmap & bit) == 0) {
+                    newArray[j] = tk;
+                    newArray[j + 1] = tv;
+                    added[0] += tk == null ? ((Node) tv).count() : 1;
+                    continue;
+                }
+                int i = index(bit);
+                Object k = array[i];
+                Object v = array[i + 1];
+                Object newK;
+                Object newV;
+                if (k == null && tk == null) {
+                    newK = null;
+                    newV = ((Node) v).merge((Node) tv, shift + BITS, added);
+                } else if (k == null) {
+                    newK = null;
+                    newV = ((Node) v).put(shift + BITS, hash(tk), tk, tv, added);
+                } else if (tk == null) {
+                    // the sub-node of other takes precedence
+                    // over the mapping of this node
+                    Node sub = (Node) tv;
+                    Object found = sub.find(shift + BITS, hash(k), k);
+                    int count = sub.count();
+                    if (found == NOT_FOUND) {
+                        newK = null;
+                        newV = sub.put(shift + BITS, hash(k), k, v, new int[1]);
+                        added[0] += count;
+                    } else if (count == 1 && Objects.equals(found, v)) {
+                        newK = k;
+                        newV = v;
+                    } else {
+                        newK = null;
+                        newV = sub;
+                        added[0] += count - 1;
+                    }
+                } else if (k.equals(tk)) {
+                    newK = k;
+                    newV = Objects.equals(v, tv) ? v : tv;
+                } else {
+                    ++added[0];
+                    newK = null;
+                    newV = createNode(shift + BITS, k, v, hash(tk), tk, tv);
+                }
+                changed |= newK != k || newV != v;
+                newArray[j] = newK;
+                newArray[j + 1] = newV;
+            }
+            return changed ? new BitmapNode(newBitmap, newArray) : this;
+        }
+
+        /**
+         * Creates a node with two mappings whose keys are different.
+         */
+        private static Node createNode(int shift, Object k1, Object v1,
+                                       int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[]{ k1, v1, k2, v2 });
+            }
+            int[] added = new int[1];
+            return EMPTY.put(shift, h1, k1, v1, added)
+                    .put(shift, h2, k2, v2, added);
+        }
+    }
+
+    /**
+     * Node holding the mappings whose keys have the same hash code.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+
+        private CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return NOT_FOUND;
+            }
+            int i = indexOf(key);
+            return i == -1 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, int[] added) {
+            if (hash != this.hash) {
+                // push this node down to a bitmap node
+                return new BitmapNode(BitmapNode.bit(this.hash, shift),
+                        new Object[]{ null, this })
+                        .put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            Object[] newArray;
+            if (i == -1) {
+                newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                newArray[array.length] = key;
+                newArray[array.length + 1] = value;
+                ++added[0];
+            } else if (Objects.equals(array[i + 1], value)) {
+                return this;
+            } else {
+                newArray = array.clone();
+                newArray[i + 1] = value;
+            }
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i == -1) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new CollisionNode(hash, newArray);
+        }
+    }
+}
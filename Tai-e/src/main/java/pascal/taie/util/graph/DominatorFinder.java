@@ -66,6 +66,18 @@ public class DominatorFinder<N> {
      */
     private Map<N, SetEx<N>> dom2Nodes;
 
+    /**
+     * Maps a node N to its immediate dominator.
+     * This map is computed on-demand by {@link #findImmediateDominators()}.
+     */
+    private Map<N, N> node2IDom;
+
+    /**
+     * Maps a node N to its dominance frontier.
+     * This map is computed on-demand by {@link #findDominanceFrontiers()}.
+     */
+    private Map<N, SetEx<N>> node2Frontier;
+
     private final boolean isSparse;
 
     public DominatorFinder(Graph<N> graph) {
@@ -165,6 +177,74 @@ public class DominatorFinder<N> {
         }
     }
 
+    /**
+     * @return the immediate dominator of {@code node}, or {@code null}
+     * if {@code node} is not strictly dominated by any node, e.g., a head node.
+     */
+    public N getImmediateDominatorOf(N node) {
+        if (node2IDom == null) {
+            findImmediateDominators();
+        }
+        return node2IDom.get(node);
+    }
+
+    private void findImmediateDominators() {
+        node2IDom = new IndexMap<>(indexer, graph.getNumberOfNodes());
+        int[] sizes = new int[graph.getNumberOfNodes()];
+        for (N node : graph) {
+            sizes[indexer.getIndex(node)] = node2Doms.get(node).size();
+        }
+        for (N node : graph) {
+            // the dominators of a node form a chain, and the immediate
+            // dominator is the strict dominator with the most dominators
+            int size = sizes[indexer.getIndex(node)];
+            for (N dom : node2Doms.get(node)) {
+                if (sizes[indexer.getIndex(dom)] == size - 1) {
+                    node2IDom.put(node, dom);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the dominance frontier of {@code node}, i.e., the nodes
+     * which have a predecessor dominated by {@code node} but are not
+     * strictly dominated by {@code node}.
+     */
+    public Set<N> getDominanceFrontierOf(N node) {
+        if (node2Frontier == null) {
+            findDominanceFrontiers();
+        }
+        SetEx<N> frontier = node2Frontier.get(node);
+        return frontier == null ? Set.of() : Collections.unmodifiableSet(frontier);
+    }
+
+    /**
+     * Computes dominance frontiers by the algorithm in paper
+     * "A Simple, Fast Dominance Algorithm" (Cooper et al.), which walks
+     * up the dominator tree from the predecessors of each join node.
+     */
+    private void findDominanceFrontiers() {
+        node2Frontier = new IndexMap<>(indexer, graph.getNumberOfNodes());
+        for (N node : graph) {
+            Set<N> preds = graph.getPredsOf(node);
+            if (preds.size() < 2) {
+                continue;
+            }
+            N idom = getImmediateDominatorOf(node);
+            for (N pred : preds) {
+                N runner = pred;
+                while (runner != null && !runner.equals(idom)) {
+                    node2Frontier.computeIfAbsent(runner,
+                                    __ -> new IndexerBitSet<>(indexer, isSparse))
+                            .add(node);
+                    runner = getImmediateDominatorOf(runner);
+                }
+            }
+        }
+    }
+
     /**
      * @return {@code true} if {@code dominator} is a dominator of {@code node}.
      */
@@ -41,4 +41,13 @@ public class IsNullTest {
         Tests.testInput(inputClass, folderPath, IsNullAnalysis.ID);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "NullDeref",
+            "NullDeref2",
+    })
+    void testIsNullValueWithBlockCFG(String inputClass) {
+        Tests.testInput(inputClass, folderPath, IsNullAnalysis.ID, "block-cfg:true");
+    }
+
 }
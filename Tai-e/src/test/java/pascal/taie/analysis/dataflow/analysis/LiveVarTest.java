@@ -46,4 +46,15 @@ public class LiveVarTest {
         testLV(inputClass);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Branch",
+            "BranchLoop",
+            "Fibonacci",
+    })
+    void testBlockCFG(String inputClass) {
+        Tests.testInput(inputClass, "src/test/resources/dataflow/livevar",
+                LiveVariable.ID, "strongly:false;block-cfg:true");
+    }
+
 }
@@ -59,4 +59,14 @@ public class LiveVarTestFull extends LiveVarTest {
         testSLV(inputClass);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "StronglyAssign",
+            "StronglyBranchLoop",
+    })
+    void testStrongBlockCFG(String inputClass) {
+        Tests.testInput(inputClass, "src/test/resources/dataflow/livevar",
+                LiveVariable.ID, "strongly:true;block-cfg:true");
+    }
+
 }
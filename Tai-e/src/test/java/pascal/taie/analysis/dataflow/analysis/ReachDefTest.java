@@ -32,4 +32,10 @@ public class ReachDefTest {
         Tests.testInput("ReachDef", "src/test/resources/dataflow/",
                 ReachingDefinition.ID);
     }
+
+    @Test
+    void testBlockCFG() {
+        Tests.testInput("ReachDef", "src/test/resources/dataflow/",
+                ReachingDefinition.ID, "block-cfg:true");
+    }
 }
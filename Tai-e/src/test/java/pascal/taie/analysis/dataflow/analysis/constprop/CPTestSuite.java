@@ -31,6 +31,7 @@ import org.junit.platform.suite.api.Suite;
         EdgeRefineTest.class,
         InterCPAliasTest.class,
         MeetValueTest.class,
+        SparseCPTest.class,
         ValueTest.class,
 })
 public class CPTestSuite {
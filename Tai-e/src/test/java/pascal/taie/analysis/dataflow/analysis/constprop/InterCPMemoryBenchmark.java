@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import picocli.CommandLine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the heap retained by the results of inter-procedural constant
+ * propagation, i.e., the difference of used heap after garbage collection
+ * with and without the results, for each given program. By default, the
+ * programs of {@link InterCPTest} are analyzed; a larger program can be
+ * given by its class path and main class.
+ */
+@CommandLine.Command
+public class InterCPMemoryBenchmark {
+
+    @CommandLine.Option(names = "-cp",
+            defaultValue = "src/test/resources/dataflow/constprop/inter",
+            description = "class path of the analyzed programs")
+    private String classPath;
+
+    @CommandLine.Option(names = "-cg", defaultValue = "cha",
+            description = "algorithm of call graph construction")
+    private String cg;
+
+    @CommandLine.Parameters(
+            defaultValue = "Example,Reference,Fibonacci,MultiIntArgs",
+            split = ",", description = "main classes of the analyzed programs")
+    private List<String> mainClasses;
+
+    public static void main(String[] args) {
+        InterCPMemoryBenchmark benchmark = CommandLine.populateCommand(
+                new InterCPMemoryBenchmark(), args);
+        benchmark.run();
+    }
+
+    private void run() {
+        List<String> results = new ArrayList<>();
+        for (String mainClass : mainClasses) {
+            Main.main(composeArgs(mainClass));
+            long withResult = usedHeap();
+            World.get().clearResult(InterConstantPropagation.ID);
+            long withoutResult = usedHeap();
+            results.add(String.format("  %-24s %10.2f KB", mainClass,
+                    (withResult - withoutResult) / 1024.0));
+        }
+        System.out.println("Heap retained by results of "
+                + InterConstantPropagation.ID + ":");
+        results.forEach(System.out::println);
+    }
+
+    private String[] composeArgs(String mainClass) {
+        List<String> args = new ArrayList<>();
+        Collections.addAll(args,
+                "-pp", "-cp", classPath, "-m", mainClass,
+                "-a", InterConstantPropagation.ID
+                        + "=edge-refine:false;alias-aware:false",
+                "-a", "cg=algorithm:" + cg);
+        return args.toArray(new String[0]);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the results of sparse conditional constant propagation with
+ * the results of constant propagation (without edge refinement):
+ * <ul>
+ *     <li>sparse result is at least as precise as the dense one, i.e.,
+ *     for every executable statement, the variables which are constants
+ *     in the dense result have the same constants or UNDEF (assigned
+ *     only by unexecutable statements) in the sparse result;</li>
+ *     <li>if all statements of a method are executable, the two results
+ *     are the same at every statement.</li>
+ * </ul>
+ */
+public class SparseCPTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Assign",
+            "SimpleConstant",
+            "SimpleBinary",
+            "SimpleBoolean",
+            "SimpleBranch",
+            "SimpleChar",
+            "BinaryOp",
+            "BranchConstant",
+            "BranchNAC",
+            "BranchUndef",
+            "ConditionOp",
+            "EdgeRefine",
+            "Interprocedural",
+            "Loop",
+            "LogicalOp",
+            "ComparisonOp",
+            "DivisionByZero",
+            "MultiplyByZero",
+    })
+    void test(String inputClass) {
+        Main.main("-pp", "-cp", "src/test/resources/dataflow/constprop/",
+                "--input-classes", inputClass,
+                "-a", ConstantPropagation.ID + "=edge-refine:false",
+                "-a", SparseConstantPropagation.ID);
+        World.get().getClassHierarchy()
+                .getClass(inputClass)
+                .getDeclaredMethods()
+                .stream()
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .forEach(SparseCPTest::compare);
+    }
+
+    private static void compare(IR ir) {
+        NodeResult<Stmt, CPFact> dense = ir.getResult(ConstantPropagation.ID);
+        SparseCPResult sparse = ir.getResult(SparseConstantPropagation.ID);
+        boolean allExecutable = ir.stmts().allMatch(sparse::isExecutable);
+        for (Stmt stmt : ir) {
+            if (!sparse.isExecutable(stmt)) {
+                continue;
+            }
+            compare(stmt, dense.getInFact(stmt), sparse.getInFact(stmt), allExecutable);
+            compare(stmt, dense.getOutFact(stmt), sparse.getOutFact(stmt), allExecutable);
+        }
+    }
+
+    private static void compare(Stmt stmt, CPFact denseFact, CPFact sparseFact,
+                                boolean same) {
+        denseFact.forEach((var, value) -> {
+            if (value.isConstant()) {
+                Value sparseValue = sparseFact.get(var);
+                assertTrue(sparseValue.isUndef() || sparseValue.equals(value),
+                        String.format("%s at %s: %s (dense) vs. %s (sparse)",
+                                var, stmt, value, sparseValue));
+            }
+        });
+        if (same) {
+            Set<Var> vars = new HashSet<>(denseFact.keySet());
+            vars.addAll(sparseFact.keySet());
+            for (Var var : vars) {
+                assertEquals(denseFact.get(var), sparseFact.get(var),
+                        String.format("%s at %s", var, stmt));
+            }
+        }
+    }
+}
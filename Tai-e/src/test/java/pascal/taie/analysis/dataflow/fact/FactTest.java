@@ -25,8 +25,11 @@ package pascal.taie.analysis.dataflow.fact;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FactTest {
@@ -75,6 +78,52 @@ public class FactTest {
         assertTrue(f3.isEmpty());
     }
 
+    @Test
+    void testMapFactUpdate() {
+        MapFact<String, String> f = new MapFact<>(Map.of());
+        assertTrue(f.update("x", "1"));
+        assertFalse(f.update("x", "1"));
+        assertTrue(f.update("x", "2"));
+        assertEquals("2", f.get("x"));
+        MapFact<String, String> copy = f.copy();
+        assertTrue(f.update("y", "3"));
+        assertEquals(2, f.keySet().size());
+        assertEquals(1, copy.keySet().size());
+        assertNull(copy.get("y"));
+    }
+
+    @Test
+    void testMapFactNullValue() {
+        MapFact<String, String> f = new MapFact<>(Map.of());
+        // mapping an absent key to null is not a change
+        assertFalse(f.update("x", null));
+        assertTrue(f.keySet().contains("x"));
+        assertNull(f.get("x"));
+        assertFalse(f.update("x", null));
+        assertTrue(f.update("x", "1"));
+        // mapping an existing key to null is a change
+        assertTrue(f.update("x", null));
+        assertNull(f.get("x"));
+    }
+
+    @Test
+    void testMapFactCopyFrom() {
+        MapFact<String, String> f1 = new MapFact<>(Map.of("x", "1"));
+        MapFact<String, String> f2 = f1.copy();
+        assertFalse(f2.copyFrom(f1));
+        f1.update("y", "2");
+        assertTrue(f2.copyFrom(f1));
+        assertEquals(f1, f2);
+        f1.update("x", "3");
+        assertTrue(f2.copyFrom(f1));
+        assertEquals("3", f2.get("x"));
+        // copying keys mapped to null is not a change, as update()
+        MapFact<String, String> f3 = f2.copy();
+        f3.update("z", null);
+        assertFalse(f2.copyFrom(f3));
+        assertTrue(f2.keySet().contains("z"));
+    }
+
     @SafeVarargs
     private static <T> SetFact<T> newSetFact(T... args) {
         return new SetFact<>(Arrays.asList(args));
@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that the results of {@link BlockSolver}, which keep the facts
+ * only at block boundaries, behave like the results which keep the facts
+ * of all statements.
+ */
+public class BlockSolverTest {
+
+    private static List<CFG<Stmt>> cfgs;
+
+    @BeforeAll
+    static void build() {
+        Main.main("-pp", "-cp", "src/test/resources/dataflow/livevar",
+                "--input-classes", "BranchLoop", "-a", CFGBuilder.ID);
+        cfgs = World.get()
+                .getClassHierarchy()
+                .getClass("BranchLoop")
+                .getDeclaredMethods()
+                .stream()
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .map(ir -> ir.<CFG<Stmt>>getResult(CFGBuilder.ID))
+                .toList();
+    }
+
+    @Test
+    void testSetFacts() {
+        for (CFG<Stmt> cfg : cfgs) {
+            DataflowResult<Stmt, CPFact> expected = new WorkListSolver<Stmt, CPFact>(true)
+                    .solve(new ConstantPropagation.Analysis(cfg, true));
+            DataflowResult<Stmt, CPFact> result = new BlockSolver<CPFact>()
+                    .solve(new ConstantPropagation.Analysis(cfg, true));
+            // overrides the facts of every other statement, which
+            // covers both the boundaries and the inside of blocks
+            Map<Stmt, CPFact> inFacts = Maps.newMap();
+            Map<Stmt, CPFact> outFacts = Maps.newMap();
+            for (Stmt stmt : cfg) {
+                if (stmt.getIndex() % 2 == 0) {
+                    inFacts.put(stmt, new CPFact());
+                    result.setInFact(stmt, inFacts.get(stmt));
+                    outFacts.put(stmt, new CPFact());
+                    result.setOutFact(stmt, outFacts.get(stmt));
+                }
+            }
+            for (Stmt stmt : cfg) {
+                if (inFacts.containsKey(stmt)) {
+                    assertSame(inFacts.get(stmt),
+                            result.getInFact(stmt), "in fact of " + stmt);
+                    assertSame(outFacts.get(stmt),
+                            result.getOutFact(stmt), "out fact of " + stmt);
+                } else {
+                    assertEquals(expected.getInFact(stmt),
+                            result.getInFact(stmt), "in fact of " + stmt);
+                    assertEquals(expected.getOutFact(stmt),
+                            result.getOutFact(stmt), "out fact of " + stmt);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the work list of {@link WorkListSolver} in reverse postorder
+ * reaches the same fixed point as the one in order of node indexes on
+ * generated methods with many backward jumps, i.e., a table-driven parser
+ * and deep loop nests.
+ */
+public class WorkListSolverTest {
+
+    private static final String CLASS_NAME = "GeneratedParser";
+
+    /**
+     * Number of states of the generated parser.
+     */
+    private static final int STATES = 100;
+
+    /**
+     * Depth of the generated loop nests.
+     */
+    private static final int DEPTH = 6;
+
+    /**
+     * Number of local variables in generated methods.
+     */
+    private static final int VARS = 8;
+
+    private static List<CFG<Stmt>> cfgs;
+
+    @BeforeAll
+    static void build(@TempDir Path dir) throws IOException {
+        generate(dir);
+        Main.main("-pp", "-cp", dir.toString(),
+                "--input-classes", CLASS_NAME, "-a", CFGBuilder.ID);
+        cfgs = World.get()
+                .getClassHierarchy()
+                .getClass(CLASS_NAME)
+                .getDeclaredMethods()
+                .stream()
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .map(ir -> ir.<CFG<Stmt>>getResult(CFGBuilder.ID))
+                .toList();
+    }
+
+    @Test
+    void testForward() {
+        compare(cfg -> new ConstantPropagation.Analysis(cfg, true));
+    }
+
+    @Test
+    void testBackward() {
+        compare(LiveVars::new);
+    }
+
+    private static <Fact> void compare(
+            Function<CFG<Stmt>, DataflowAnalysis<Stmt, Fact>> factory) {
+        for (CFG<Stmt> cfg : cfgs) {
+            DataflowResult<Stmt, Fact> indexOrder =
+                    new WorkListSolver<Stmt, Fact>(false).solve(factory.apply(cfg));
+            DataflowResult<Stmt, Fact> reversePostOrder =
+                    new WorkListSolver<Stmt, Fact>(true).solve(factory.apply(cfg));
+            for (Stmt stmt : cfg) {
+                assertEquals(indexOrder.getInFact(stmt),
+                        reversePostOrder.getInFact(stmt), "in fact of " + stmt);
+                assertEquals(indexOrder.getOutFact(stmt),
+                        reversePostOrder.getOutFact(stmt), "out fact of " + stmt);
+            }
+        }
+    }
+
+    /**
+     * Generates the source of the test class into given directory.
+     */
+    private static void generate(Path dir) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("public class ").append(CLASS_NAME).append(" {\n");
+        generateParser(sb);
+        generateLoopNest(sb);
+        sb.append("}\n");
+        Files.writeString(dir.resolve(CLASS_NAME + ".java"), sb);
+    }
+
+    /**
+     * Generates a state machine in the style of generated parsers, i.e.,
+     * a loop over the input with a switch on the current state, where
+     * each state may jump backward to an earlier state.
+     */
+    private static void generateParser(StringBuilder sb) {
+        sb.append("  static int parse(int[] in) {\n");
+        declareVars(sb);
+        sb.append("    int state = 0, pos = 0;\n");
+        sb.append("    while (pos < in.length) {\n");
+        sb.append("      int c = in[pos++];\n");
+        sb.append("      switch (state) {\n");
+        for (int s = 0; s < STATES; ++s) {
+            int v = s % VARS;
+            int u = (s + 1) % VARS;
+            sb.append("        case ").append(s).append(":\n");
+            sb.append("          if (c == ").append(s).append(") {\n");
+            sb.append("            state = ").append((s * 7 + 3) % STATES).append(";\n");
+            sb.append("            v").append(v).append(" = v").append(u).append(";\n");
+            sb.append("          } else if (c < ").append(s).append(") {\n");
+            sb.append("            state = ").append(s / 2).append(";\n");
+            sb.append("            v").append(u).append(" = v").append(v).append(" + 1;\n");
+            sb.append("            continue;\n");
+            sb.append("          } else {\n");
+            sb.append("            state = ").append((s + 1) % STATES).append(";\n");
+            sb.append("          }\n");
+            sb.append("          break;\n");
+        }
+        sb.append("        default:\n");
+        sb.append("          return -1;\n");
+        sb.append("      }\n");
+        sb.append("    }\n");
+        returnVars(sb);
+        sb.append("  }\n");
+    }
+
+    /**
+     * Generates loop nests whose bodies copy variables in a cycle,
+     * so that facts have to flow around the nests several times.
+     */
+    private static void generateLoopNest(StringBuilder sb) {
+        sb.append("  static int nest(int n) {\n");
+        declareVars(sb);
+        for (int i = 0; i < VARS; ++i) {
+            for (int d = 0; d < DEPTH; ++d) {
+                sb.append("  ".repeat(d + 2))
+                        .append("for (int i").append(i).append('_').append(d)
+                        .append(" = 0; i").append(i).append('_').append(d)
+                        .append(" < n; ++i").append(i).append('_').append(d)
+                        .append(") {\n");
+                sb.append("  ".repeat(d + 3))
+                        .append('v').append((i + d) % VARS)
+                        .append(" = v").append((i + d + 1) % VARS).append(";\n");
+            }
+            for (int d = DEPTH - 1; d >= 0; --d) {
+                sb.append("  ".repeat(d + 2)).append("}\n");
+            }
+        }
+        returnVars(sb);
+        sb.append("  }\n");
+    }
+
+    private static void declareVars(StringBuilder sb) {
+        for (int i = 0; i < VARS; ++i) {
+            sb.append("    int v").append(i).append(" = ").append(i).append(";\n");
+        }
+    }
+
+    private static void returnVars(StringBuilder sb) {
+        sb.append("    return 0");
+        for (int i = 0; i < VARS; ++i) {
+            sb.append(" + v").append(i);
+        }
+        sb.append(";\n");
+    }
+
+    /**
+     * Simple live variable analysis, which serves as the backward analysis
+     * of this test.
+     */
+    private static class LiveVars
+            extends AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+
+        private LiveVars(CFG<Stmt> cfg) {
+            super(cfg);
+        }
+
+        @Override
+        public boolean isForward() {
+            return false;
+        }
+
+        @Override
+        public SetFact<Var> newBoundaryFact() {
+            return new SetFact<>();
+        }
+
+        @Override
+        public SetFact<Var> newInitialFact() {
+            return new SetFact<>();
+        }
+
+        @Override
+        public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
+            target.union(fact);
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
+            SetFact<Var> oldIn = in.copy();
+            in.set(out);
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    in.remove(var);
+                }
+            });
+            stmt.getUses().forEach(use -> {
+                if (use instanceof Var var) {
+                    in.add(var);
+                }
+            });
+            return !in.equals(oldIn);
+        }
+    }
+}
@@ -47,4 +47,18 @@ public class DeadCodeTest {
         testDCD(inputClass);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "ControlFlowUnreachable",
+            "UnreachableIfBranch",
+            "UnreachableSwitchBranch",
+            "DeadAssignment",
+            "Loops",
+    })
+    void testSparse(String inputClass) {
+        Tests.testInput(inputClass, "src/test/resources/deadcode/",
+                DeadCodeDetection.ID, "sparse:true",
+                "-a", "live-var=strongly:false");
+    }
+
 }
@@ -52,6 +52,9 @@ public class BenchmarkRunner {
     @CommandLine.Option(names = "-advanced", defaultValue = "null")
     private String advanced;
 
+    @CommandLine.Option(names = "-cs-manager", defaultValue = "map")
+    private String csManager;
+
     @CommandLine.Parameters
     private List<String> benchmarks;
 
@@ -90,6 +93,7 @@ public class BenchmarkRunner {
                 "merge-string-objects", "false",
                 "cs", cs,
                 "advanced", advanced,
+                "cs-manager", csManager,
                 "reflection-inference", "null",
                 "reflection-log", new File(BENCHMARK_HOME, info.reflectionLog()).toString());
         Collections.addAll(args,
@@ -0,0 +1,213 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.demand.DemandPointerAnalysis;
+import pascal.taie.analysis.pta.demand.DemandPointsTo;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DemandPointsToTest {
+
+    private static final String PTA_TEST_ROOT = "src/test/resources/pta";
+
+    /**
+     * Checks that the complete results of demand-driven queries
+     * cover the results of whole-program pointer analysis.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Assign", "Call", "InstanceField", "Array", "Dispatch",
+            "StaticField", "Recursion", "LinkedQueue",
+    })
+    void test(String mainClass) {
+        run(mainClass, "only-app:true");
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        DemandPointsTo demand = World.get().getResult(DemandPointerAnalysis.ID);
+        for (Var var : getVars(pta)) {
+            Set<Object> allocations = getAllocations(demand.pointsTo(var));
+            assertTrue(demand.isComplete(var), var + " is incomplete");
+            assertTrue(allocations.containsAll(getAllocations(pta.getPointsToSet(var))),
+                    "Missing objects of " + var + " in " + var.getMethod());
+        }
+    }
+
+    /**
+     * Checks that the variables which are aliases in the results of
+     * whole-program pointer analysis are also reported as aliases.
+     */
+    @Test
+    void testMayAlias() {
+        run("InstanceField", "only-app:true");
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        DemandPointsTo demand = World.get().getResult(DemandPointerAnalysis.ID);
+        List<Var> vars = getVars(pta);
+        int nonAliases = 0;
+        for (Var v1 : vars) {
+            for (Var v2 : vars) {
+                Set<Object> pts1 = getAllocations(pta.getPointsToSet(v1));
+                Set<Object> pts2 = getAllocations(pta.getPointsToSet(v2));
+                boolean mayAlias = demand.mayAlias(v1, v2);
+                if (pts1.stream().anyMatch(pts2::contains)) {
+                    assertTrue(mayAlias, v1 + " and " + v2 + " may be aliases");
+                }
+                if (!mayAlias) {
+                    ++nonAliases;
+                }
+            }
+        }
+        assertTrue(nonAliases > 0, "All variables are reported as aliases");
+    }
+
+    /**
+     * Checks that the queries exceeding the budget return incomplete
+     * results, and the queries on the same variables resume from
+     * the previous results until they are completed.
+     */
+    @Test
+    void testBudget() {
+        run("InstanceField", "only-app:true;budget:1");
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        DemandPointsTo demand = World.get().getResult(DemandPointerAnalysis.ID);
+        boolean resumed = false;
+        for (Var var : getVars(pta)) {
+            Set<Object> prev = getAllocations(demand.pointsTo(var));
+            for (int i = 0; i < 10000 && !demand.isComplete(var); ++i) {
+                resumed = true;
+                Set<Object> curr = getAllocations(demand.pointsTo(var));
+                assertTrue(curr.containsAll(prev),
+                        "Resumed query on " + var + " loses objects");
+                prev = curr;
+            }
+            assertTrue(demand.isComplete(var), var + " is incomplete");
+            assertTrue(prev.containsAll(getAllocations(pta.getPointsToSet(var))),
+                    "Missing objects of " + var + " in " + var.getMethod());
+        }
+        assertTrue(resumed, "No query exceeds the budget");
+    }
+
+    /**
+     * Checks that a query exceeding the budget returns incomplete
+     * result, and the result is completed by querying again.
+     */
+    @Test
+    void testIncompleteQuery() {
+        run("InstanceField", "only-app:true;budget:1");
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        DemandPointsTo demand = World.get().getResult(DemandPointerAnalysis.ID);
+        // x = a.b.c.d in longAP() needs to traverse multiple variables
+        Var x = pta.getVars()
+                .stream()
+                .filter(v -> v.getName().equals("x")
+                        && v.getMethod().getName().equals("longAP"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(demand.pointsTo(x).isEmpty());
+        assertFalse(demand.isComplete(x));
+        assertTrue(demand.mayAlias(x, x.getMethod().getIR().getThis()),
+                "Incomplete queries should be conservative");
+        for (int i = 0; i < 10000 && !demand.isComplete(x); ++i) {
+            demand.pointsTo(x);
+        }
+        assertTrue(demand.isComplete(x));
+        assertTrue(getAllocations(demand.pointsTo(x))
+                .containsAll(getAllocations(pta.getPointsToSet(x))));
+    }
+
+    /**
+     * Checks that demand-driven queries do not need whole-program
+     * pointer analysis, i.e., neither pointer analysis nor the call graph
+     * builder (whose default algorithm is pointer analysis) is run.
+     */
+    @Test
+    void testWithoutPTA() {
+        Main.main(new String[]{
+                "-pp",
+                "-cp", PTA_TEST_ROOT,
+                "-cp", PTA_TEST_ROOT + "/basic",
+                "-m", "Call",
+                "-a", "demand-pta=only-app:true",
+        });
+        assertFalse(World.get().hasResult(PointerAnalysis.ID));
+        assertFalse(World.get().hasResult(CallGraphBuilder.ID));
+        DemandPointsTo demand = World.get().getResult(DemandPointerAnalysis.ID);
+        JMethod main = World.get().getMainMethod();
+        for (Var var : main.getIR().getVars()) {
+            demand.pointsTo(var);
+            assertTrue(demand.isComplete(var), var + " is incomplete");
+        }
+        assertTrue(main.getIR().getVars()
+                .stream()
+                .anyMatch(var -> !demand.pointsTo(var).isEmpty()));
+    }
+
+    private static void run(String mainClass, String demandOptions) {
+        Main.main(new String[]{
+                "-pp",
+                "-cp", PTA_TEST_ROOT,
+                "-cp", PTA_TEST_ROOT + "/basic",
+                "-m", mainClass,
+                "-a", "pta=implicit-entries:false;only-app:true",
+                "-a", "demand-pta=" + demandOptions,
+        });
+    }
+
+    /**
+     * @return the variables to query. Caught exceptions are excluded
+     * as they are not modeled by demand queries.
+     */
+    private static List<Var> getVars(PointerAnalysisResult pta) {
+        return pta.getVars()
+                .stream()
+                .filter(v -> !isCaught(v))
+                .toList();
+    }
+
+    private static boolean isCaught(Var var) {
+        return var.getMethod().getIR().stmts().anyMatch(stmt ->
+                stmt instanceof Catch c && c.getExceptionRef().equals(var));
+    }
+
+    private static Set<Object> getAllocations(Set<Obj> objs) {
+        return objs.stream()
+                .filter(NewObj.class::isInstance)
+                .map(Obj::getAllocation)
+                .collect(Collectors.toSet());
+    }
+}
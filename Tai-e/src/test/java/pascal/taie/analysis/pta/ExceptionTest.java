@@ -42,6 +42,16 @@ public class ExceptionTest {
         Tests.testPTA(DIR, mainClass);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "ExceptionCircle",
+            "ExceptionCircleAndRecursion",
+            "ExceptionTreeAndRecursion",
+    })
+    void testPluginBatch(String mainClass) {
+        Tests.testPTA(DIR, mainClass, "plugin-batch-size:8");
+    }
+
     @Test
     void testExceptionFromClinit() {
         Tests.testPTA(DIR, "ExceptionFromClinit", "cs:1-call");
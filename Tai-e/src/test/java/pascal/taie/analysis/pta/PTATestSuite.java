@@ -25,10 +25,17 @@ package pascal.taie.analysis.pta;
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 import pascal.taie.analysis.pta.core.cs.context.ContextTest;
+import pascal.taie.analysis.pta.core.cs.element.ElementTableTest;
+import pascal.taie.analysis.pta.core.solver.CheckpointTest;
+import pascal.taie.analysis.pta.core.solver.MemoryWatchdogTest;
+import pascal.taie.analysis.pta.core.solver.ParallelSolverTest;
+import pascal.taie.analysis.pta.pts.SharedPointsToSetTest;
 
 @Suite
 @SelectClasses({
         ContextTest.class,
+        ElementTableTest.class,
+        SharedPointsToSetTest.class,
         BasicTestFull.class,
         ContextSensitivityTestFull.class,
         ExceptionTest.class,
@@ -36,6 +43,10 @@ import pascal.taie.analysis.pta.core.cs.context.ContextTest;
         Java9StringConcatTest.class,
         ReflectionTest.class,
         TaintTest.class,
+        SolverTest.class,
+        ParallelSolverTest.class,
+        CheckpointTest.class,
+        MemoryWatchdogTest.class,
         WorldCacheTest.class,
 })
 public class PTATestSuite {
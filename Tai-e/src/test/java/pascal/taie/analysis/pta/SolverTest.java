@@ -0,0 +1,391 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.MultiStringsSource;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests alternative pointer analysis solvers, which are
+ * expected to produce the same results as the default one.
+ */
+public class SolverTest {
+
+    private static final String PARALLEL = "solver:parallel";
+
+    private static final String THREADS = "solver-threads:4";
+
+    private static final String CYCLE = "cycle-elimination:true";
+
+    /**
+     * Temporary directory of each test, which keeps the files
+     * saved by the analysis, e.g., the state of incremental analysis.
+     */
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue", PARALLEL, THREADS})
+    @MultiStringsSource({"basic", "RedBlackBST", PARALLEL, THREADS})
+    @MultiStringsSource({"basic", "Cycle", PARALLEL, THREADS})
+    @MultiStringsSource({"basic", "Cast", PARALLEL, THREADS})
+    @MultiStringsSource({"basic", "Array", PARALLEL, THREADS})
+    @MultiStringsSource({"contextsensitivity", "TwoObject",
+            "cs:2-obj", PARALLEL, THREADS})
+    @MultiStringsSource({"taint", "CycleTaint", PARALLEL, THREADS,
+            TaintTest.TAINT_CONFIG})
+    void testParallel(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "Cycle", CYCLE})
+    @MultiStringsSource({"basic", "LinkedQueue", CYCLE})
+    @MultiStringsSource({"basic", "Cast", CYCLE})
+    @MultiStringsSource({"basic", "Array", CYCLE})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj", CYCLE})
+    @MultiStringsSource({"taint", "CycleTaint", CYCLE, TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"basic", "Cycle", CYCLE, PARALLEL, THREADS})
+    @MultiStringsSource({"basic", "LinkedQueue", CYCLE, PARALLEL, THREADS})
+    void testCycleElimination(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue", "worklist-order:topo"})
+    @MultiStringsSource({"basic", "Cycle", "worklist-order:topo"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "worklist-order:topo"})
+    @MultiStringsSource({"basic", "LinkedQueue", "worklist-order:lrf"})
+    @MultiStringsSource({"basic", "Cycle", "worklist-order:lrf"})
+    @MultiStringsSource({"taint", "CycleTaint", "worklist-order:lrf",
+            TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"basic", "Cycle", "worklist-order:topo", CYCLE})
+    @MultiStringsSource({"basic", "RedBlackBST", "worklist-order:topo",
+            PARALLEL, THREADS})
+    void testWorkListOrder(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue", "pts-sharing:true"})
+    @MultiStringsSource({"basic", "RedBlackBST", "pts-sharing:true"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "pts-sharing:true"})
+    @MultiStringsSource({"basic", "LinkedQueue", "pts-bdd:true"})
+    @MultiStringsSource({"basic", "Cast", "pts-bdd:true"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "pts-bdd:true"})
+    @MultiStringsSource({"basic", "Cycle", "pts-bdd:true", CYCLE})
+    @MultiStringsSource({"basic", "Array", "pts-bdd:true", PARALLEL, THREADS})
+    void testPointsToSet(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue", "var-substitution:true"})
+    @MultiStringsSource({"basic", "RedBlackBST", "var-substitution:true"})
+    @MultiStringsSource({"basic", "Cast", "var-substitution:true"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "var-substitution:true"})
+    @MultiStringsSource({"taint", "CycleTaint", "var-substitution:true",
+            TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"basic", "Cycle", "var-substitution:true", CYCLE})
+    void testVarSubstitution(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue"})
+    @MultiStringsSource({"basic", "Cycle", CYCLE})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj"})
+    @MultiStringsSource({"taint", "CycleTaint", TaintTest.TAINT_CONFIG})
+    void testIncremental(String dir, String mainClass, String... opts) {
+        String[] incOpts = Arrays.copyOf(opts, opts.length + 1);
+        // the state is kept in a fresh directory, so that the first run
+        // does not load the state left by other runs
+        incOpts[opts.length] = "incremental-state:" + tempDir.resolve("pta.state");
+        // the second run reuses the state saved by the first run
+        Tests.testPTA(dir, mainClass, incOpts);
+        Tests.testPTA(dir, mainClass, incOpts);
+    }
+
+    /**
+     * Analyzes the original program, and then a new version of it
+     * incrementally, which is expected to produce the same result as
+     * from-scratch analysis of the new version. In "changed", the bodies
+     * of two methods are changed, so that the facts derived from them
+     * are retracted; in "removed", a method is removed, so that the
+     * state of the original program is not reused.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"changed", "removed"})
+    void testIncrementalChange(String version, @TempDir Path stateDir) {
+        String dir = "incremental/";
+        String mainClass = "Incremental";
+        String state = "incremental-state:" + stateDir.resolve("pta.state");
+        Map<String, Set<String>> original = getCSPointsToSets(
+                analyze(dir + "original", mainClass, state));
+        PointerAnalysisResult incResult = analyze(dir + version, mainClass, state);
+        Map<String, Set<String>> incPointsTo = getCSPointsToSets(incResult);
+        Set<String> incEdges = getCSCallEdges(incResult);
+        assertNotEquals(original, incPointsTo);
+        PointerAnalysisResult result = analyze(dir + version, mainClass);
+        assertEquals(getCSPointsToSets(result), incPointsTo);
+        assertEquals(getCSCallEdges(result), incEdges);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue", "checkpoint-interval:0"})
+    @MultiStringsSource({"basic", "Cycle", "checkpoint-interval:1", CYCLE})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "checkpoint-interval:0"})
+    void testCheckpoint(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+        String[] resumeOpts = Arrays.copyOf(opts, opts.length + 1);
+        resumeOpts[opts.length] = "resume:true";
+        Tests.testPTA(dir, mainClass, resumeOpts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue", "cs-manager:array"})
+    @MultiStringsSource({"basic", "RedBlackBST", "cs-manager:array"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "cs-manager:array"})
+    @MultiStringsSource({"contextsensitivity", "TwoCall", "cs:2-call",
+            "cs-manager:array", "var-substitution:true"})
+    @MultiStringsSource({"basic", "Array", "cs-manager:array", PARALLEL, THREADS})
+    void testCSManager(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "RedBlackBST"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj"})
+    @MultiStringsSource({"contextsensitivity", "TwoCall", "cs:2-call",
+            "var-substitution:true"})
+    @MultiStringsSource({"contextsensitivity", "TwoType", "cs:2-type"})
+    void testCSManagerSameResults(String dir, String mainClass, String... opts) {
+        PointerAnalysisResult mapResult = analyze(dir, mainClass,
+                append(opts, "cs-manager:map"));
+        Map<String, Set<String>> mapPointsTo = getCSPointsToSets(mapResult);
+        Set<String> mapEdges = getCSCallEdges(mapResult);
+        PointerAnalysisResult arrayResult = analyze(dir, mainClass,
+                append(opts, "cs-manager:array"));
+        assertEquals(mapPointsTo, getCSPointsToSets(arrayResult));
+        assertEquals(mapEdges, getCSCallEdges(arrayResult));
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "adaptive-cs:true"})
+    @MultiStringsSource({"contextsensitivity", "TwoCall", "cs:2-call",
+            "adaptive-cs:true"})
+    void testAdaptiveCS(String dir, String mainClass, String... opts) {
+        // the budgets are not exceeded, thus the results are the same
+        // as the ones of the plain context sensitivity
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    /**
+     * Checks that adaptive context selection with tiny budgets, which
+     * demotes methods to shorter contexts during the analysis, produces
+     * sound results, i.e., supersets of the results of the plain context
+     * sensitivity, with fewer context-sensitive methods.
+     */
+    @ParameterizedTest
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj"})
+    @MultiStringsSource({"contextsensitivity", "TwoCall", "cs:2-call"})
+    @MultiStringsSource({"contextsensitivity", "TwoType", "cs:2-type"})
+    void testAdaptiveCSDemotion(String dir, String mainClass, String... opts) {
+        PointerAnalysisResult plain = analyze(dir, mainClass, opts);
+        Map<String, Set<String>> plainPts = getPointsToSets(plain);
+        int plainMethods = plain.getCSCallGraph().getNumberOfMethods();
+        String[] adaptiveOpts = Arrays.copyOf(opts, opts.length + 4);
+        adaptiveOpts[opts.length] = "adaptive-cs:true";
+        adaptiveOpts[opts.length + 1] = "adaptive-method-budget:1";
+        adaptiveOpts[opts.length + 2] = "adaptive-pts-budget:1";
+        adaptiveOpts[opts.length + 3] = "adaptive-global-budget:1";
+        PointerAnalysisResult adaptive = analyze(dir, mainClass, adaptiveOpts);
+        assertSound(plainPts, getPointsToSets(adaptive));
+        assertTrue(adaptive.getCSCallGraph().getNumberOfMethods() < plainMethods,
+                "no method is demoted");
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue", "plugin-batch-size:16"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "plugin-batch-size:1"})
+    @MultiStringsSource({"taint", "CycleTaint", "plugin-batch-size:16",
+            TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"taint", "CycleTaint", "plugin-batch-size:16",
+            PARALLEL, THREADS, TaintTest.TAINT_CONFIG})
+    void testPluginBatch(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "Array", "ci-projection:true"})
+    @MultiStringsSource({"basic", "LinkedQueue", "ci-projection:true"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj",
+            "ci-projection:true"})
+    @MultiStringsSource({"basic", "StaticField", "ci-projection:true", "pts-bdd:true"})
+    void testCIProjection(String dir, String mainClass, String... opts) {
+        Tests.testPTA(dir, mainClass, opts);
+    }
+
+    /**
+     * Checks that the analysis seeded by library summary produces
+     * the same results as the full analysis of the library.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"LinkedQueue", "Strings"})
+    void testLibrarySummary(String mainClass, @TempDir Path summaryDir) {
+        String summary = "library-summary:" + summaryDir;
+        Map<String, Set<String>> full = analyzeWithLibrary(mainClass);
+        // the first run computes the summary, and the second run reuses it
+        assertEquals(full, analyzeWithLibrary(mainClass, summary));
+        assertEquals(full, analyzeWithLibrary(mainClass, summary));
+    }
+
+    /**
+     * Analyzes given program together with the library (from implicit entries).
+     *
+     * @return the points-to sets of all variables, instance fields
+     * and array indexes.
+     */
+    private static Map<String, Set<String>> analyzeWithLibrary(
+            String mainClass, String... opts) {
+        String ptaTestRoot = "src/test/resources/pta";
+        String ptaArgs = String.join(";", opts);
+        Main.main(new String[]{
+                "-pp",
+                "-cp", ptaTestRoot,
+                "-cp", ptaTestRoot + "/basic",
+                "-m", mainClass,
+                "-a", PointerAnalysis.ID + "=implicit-entries:true;only-app:false"
+                + (ptaArgs.isEmpty() ? "" : ";" + ptaArgs),
+        });
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        // field and array pointers of the library are compared as well,
+        // as heap accesses on the objects of library summary may be deferred
+        Map<String, Set<String>> pointsToSets = getPointsToSets(result);
+        Stream.<Pointer>concat(result.getInstanceFields().stream(),
+                        result.getArrayIndexes().stream())
+                .forEach(p -> pointsToSets.put(p.toString(), p.objects()
+                        .map(o -> o.getObject().toString())
+                        .collect(Collectors.toSet())));
+        return pointsToSets;
+    }
+
+    /**
+     * Analyzes given program without checking the expected results.
+     *
+     * @return the result of pointer analysis.
+     */
+    private static PointerAnalysisResult analyze(
+            String dir, String mainClass, String... opts) {
+        Tests.testPTA(false, dir, mainClass, opts);
+        return World.get().getResult(PointerAnalysis.ID);
+    }
+
+    /**
+     * @return the points-to sets of all variables in given result,
+     * which can be compared with the ones of other runs.
+     */
+    private static Map<String, Set<String>> getPointsToSets(
+            PointerAnalysisResult result) {
+        return result.getVars()
+                .stream()
+                .collect(Collectors.toMap(
+                        v -> v.getMethod() + "/" + v.getName(),
+                        v -> result.getPointsToSet(v)
+                                .stream()
+                                .map(Obj::toString)
+                                .collect(Collectors.toSet())));
+    }
+
+    /**
+     * @return the points-to sets of all context-sensitive pointers in
+     * given result, which can be compared with the ones of other runs.
+     */
+    private static Map<String, Set<String>> getCSPointsToSets(
+            PointerAnalysisResult result) {
+        return Stream.<Collection<? extends Pointer>>of(result.getCSVars(),
+                        result.getInstanceFields(), result.getArrayIndexes(),
+                        result.getStaticFields())
+                .<Pointer>flatMap(Collection::stream)
+                .collect(Collectors.toMap(Pointer::toString,
+                        p -> p.objects()
+                                .map(CSObj::toString)
+                                .collect(Collectors.toSet())));
+    }
+
+    /**
+     * @return the context-sensitive call edges in given result.
+     */
+    private static Set<String> getCSCallEdges(PointerAnalysisResult result) {
+        return result.getCSCallGraph()
+                .edges()
+                .map(Edge::toString)
+                .collect(Collectors.toSet());
+    }
+
+    private static String[] append(String[] opts, String opt) {
+        String[] result = Arrays.copyOf(opts, opts.length + 1);
+        result[opts.length] = opt;
+        return result;
+    }
+
+    /**
+     * Asserts that the points-to sets of a less precise analysis
+     * contain the ones of a more precise analysis.
+     */
+    private static void assertSound(Map<String, Set<String>> precise,
+                                    Map<String, Set<String>> imprecise) {
+        precise.forEach((var, objs) -> assertTrue(
+                imprecise.getOrDefault(var, Set.of()).containsAll(objs),
+                () -> "unsound points-to set of " + var));
+    }
+}
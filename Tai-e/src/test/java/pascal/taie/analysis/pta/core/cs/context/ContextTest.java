@@ -25,6 +25,8 @@ package pascal.taie.analysis.pta.core.cs.context;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class ContextTest {
 
@@ -45,6 +47,43 @@ public class ContextTest {
         assertEquals(cde.getParent(), cd);
     }
 
+    @Test
+    void testInternedContext() {
+        testContext(new InternedContext.Factory<>());
+    }
+
+    @Test
+    void testInternedContextAppend() {
+        InternedContext.Factory<String> factory = new InternedContext.Factory<>();
+        Context abc = factory.make("A", "B", "C");
+        // exceeds the limit, thus computed and cached
+        InternedContext bcd1 = factory.append(abc, "D", 3);
+        // hits the cache
+        InternedContext bcd2 = factory.append(abc, "D", 3);
+        // within the limit, thus not via the cache
+        InternedContext bcd3 = factory.append(factory.make("B", "C"), "D", 3);
+        InternedContext bcd4 = factory.make("B", "C", "D");
+        InternedContext bcd5 = factory.makeLastK(factory.make("X", "B", "C", "D"), 3);
+        for (InternedContext bcd : new InternedContext[]{ bcd2, bcd3, bcd4, bcd5 }) {
+            assertSame(bcd1, bcd);
+            assertEquals(bcd1, bcd);
+            assertEquals(bcd1.getId(), bcd.getId());
+        }
+        assertEquals("[B, C, D]", bcd1.toString());
+        // the cache is kept per limit
+        InternedContext cd = factory.append(abc, "D", 2);
+        assertSame(factory.make("C", "D"), cd);
+        assertNotSame(bcd1, cd);
+        // elements with colliding hash codes
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        InternedContext aa = factory.append(abc, "Aa", 1);
+        InternedContext bb = factory.append(abc, "BB", 1);
+        assertNotSame(aa, bb);
+        assertSame(factory.make("Aa"), aa);
+        assertSame(factory.make("BB"), bb);
+        assertEquals("BB", bb.getElementAt(0));
+    }
+
     private static void testContext(ContextFactory<String> factory) {
         Context a = factory.make("A");
         Context empty1 = factory.getEmptyContext();
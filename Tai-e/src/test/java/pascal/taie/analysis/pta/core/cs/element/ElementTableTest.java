@@ -0,0 +1,128 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ElementTableTest {
+
+    private record Elem(String key1, Integer key2) {
+    }
+
+    private static ElementTable<String, Integer, Elem> newTable() {
+        return new ElementTable<>(Elem::key1, Elem::key2);
+    }
+
+    @Test
+    void testComputeIfAbsent() {
+        ElementTable<String, Integer, Elem> table = newTable();
+        assertNull(table.get("A", 1));
+        Elem a1 = table.computeIfAbsent("A", 1, Elem::new);
+        assertSame(a1, table.get("A", 1));
+        assertSame(a1, table.computeIfAbsent("A", 1, (k1, k2) -> {
+            throw new AssertionError("factory is called for existing element");
+        }));
+        Elem a2 = table.computeIfAbsent("A", 2, Elem::new);
+        Elem b1 = table.computeIfAbsent("B", 1, Elem::new);
+        assertNotSame(a1, a2);
+        assertNotSame(a1, b1);
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    void testNestedComputeIfAbsent() {
+        ElementTable<String, Integer, Elem> table = newTable();
+        // the factory adds other elements to the table,
+        // like CSMethod is created when creating CSCallSite
+        for (int i = 0; i < 100; ++i) {
+            String key1 = "E" + i;
+            Elem e = table.computeIfAbsent(key1, 0, (k1, k2) -> {
+                table.computeIfAbsent(k1, 1, Elem::new);
+                return new Elem(k1, k2);
+            });
+            assertSame(e, table.get(key1, 0));
+            assertEquals(new Elem(key1, 1), table.get(key1, 1));
+        }
+        assertEquals(200, table.size());
+    }
+
+    @Test
+    void testResize() {
+        ElementTable<String, Integer, Elem> table = newTable();
+        int n = 10_000;
+        Elem[] elems = new Elem[n];
+        for (int i = 0; i < n; ++i) {
+            elems[i] = table.computeIfAbsent("E" + (i % 100), i, Elem::new);
+        }
+        assertEquals(n, table.size());
+        for (int i = 0; i < n; ++i) {
+            assertSame(elems[i], table.get("E" + (i % 100), i));
+        }
+        assertNull(table.get("E0", n));
+    }
+
+    @Test
+    void testValues() {
+        ElementTable<String, Integer, Elem> table = newTable();
+        Set<Elem> expected = new HashSet<>();
+        for (int i = 0; i < 500; ++i) {
+            expected.add(table.computeIfAbsent("E" + i, i % 7, Elem::new));
+        }
+        assertEquals(expected.size(), table.values().size());
+        assertEquals(expected, new HashSet<>(table.values()));
+        Iterator<Elem> iter = table.values().iterator();
+        table.values().forEach(__ -> iter.next());
+        assertFalse(iter.hasNext());
+        assertThrows(NoSuchElementException.class, iter::next);
+    }
+
+    @Test
+    void testCollidingHashes() {
+        ElementTable<String, Integer, Elem> table = newTable();
+        // "Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        Elem aa = table.computeIfAbsent("Aa", 1, Elem::new);
+        Elem bb = table.computeIfAbsent("BB", 1, Elem::new);
+        assertNotSame(aa, bb);
+        assertSame(aa, table.get("Aa", 1));
+        assertSame(bb, table.get("BB", 1));
+        // (key1 * 31 + key2) collides as well
+        Elem aa32 = table.computeIfAbsent("Aa", 32, Elem::new);
+        Elem ab1 = table.computeIfAbsent("Ab", 1, Elem::new);
+        assertSame(aa32, table.get("Aa", 32));
+        assertSame(ab1, table.get("Ab", 1));
+        assertEquals(4, table.size());
+    }
+}
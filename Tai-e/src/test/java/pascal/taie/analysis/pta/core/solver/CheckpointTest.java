@@ -0,0 +1,215 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.util.MultiStringsSource;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests resuming pointer analysis from the checkpoint saved
+ * when the analysis is stopped before reaching the fixed point.
+ */
+public class CheckpointTest {
+
+    private static final String PLUGIN = "plugins:[" +
+            StopSolver.class.getName() + "]";
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue", "5"})
+    @MultiStringsSource({"basic", "RedBlackBST", "20"})
+    @MultiStringsSource({"basic", "Cycle", "3", "cycle-elimination:true"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "10", "cs:2-obj"})
+    void testResume(String dir, String mainClass, String stopAfter, String... opts) {
+        String[] args = new String[opts.length + 3];
+        System.arraycopy(opts, 0, args, 0, opts.length);
+        args[opts.length] = "checkpoint-interval:0";
+        args[opts.length + 1] = PLUGIN;
+        // stops the analysis after given number of new points-to sets
+        StopSolver.stopAfter = Integer.parseInt(stopAfter);
+        args[opts.length + 2] = "resume:false";
+        Tests.testPTA(false, dir, mainClass, args);
+        PointerAnalysisResult stopped = World.get().getResult(PointerAnalysis.ID);
+        assertTrue(stopped.isPartial(), "the analysis is not stopped");
+        // resumes the analysis from the checkpoint, which is expected to
+        // reach the same result as the full analysis
+        StopSolver.stopAfter = -1;
+        args[opts.length + 2] = "resume:true";
+        Tests.testPTA(dir, mainClass, args);
+        PointerAnalysisResult resumed = World.get().getResult(PointerAnalysis.ID);
+        assertFalse(resumed.isPartial(), "the resumed analysis is not finished");
+    }
+
+    /**
+     * Stops the analysis of a program, and then resumes it on a new version
+     * of the program where only the bodies of some methods are changed.
+     * The checkpoint of the old version is expected to be ignored, so that
+     * the result is the same as the from-scratch analysis of the new version.
+     */
+    @Test
+    void testResumeChangedProgram() {
+        String[] args = {"checkpoint-interval:0", PLUGIN, "resume:false"};
+        StopSolver.stopAfter = 3;
+        Tests.testPTA(false, "incremental/original", "Incremental", args);
+        assertTrue(World.get().<PointerAnalysisResult>getResult(PointerAnalysis.ID)
+                .isPartial(), "the analysis is not stopped");
+        StopSolver.stopAfter = -1;
+        args[2] = "resume:true";
+        Tests.testPTA(false, "incremental/changed", "Incremental", args);
+        Map<String, Set<String>> resumed = getPointsToSets(
+                World.get().getResult(PointerAnalysis.ID));
+        Tests.testPTA(false, "incremental/changed", "Incremental");
+        assertEquals(getPointsToSets(World.get().getResult(PointerAnalysis.ID)),
+                resumed);
+    }
+
+    private static Map<String, Set<String>> getPointsToSets(
+            PointerAnalysisResult result) {
+        return result.getCSVars()
+                .stream()
+                .collect(Collectors.toMap(CSVar::toString, v -> v.objects()
+                        .map(Object::toString)
+                        .collect(Collectors.toSet())));
+    }
+
+    /**
+     * Computes library summary in the run resumed from the checkpoint of
+     * the whole program, and checks that the summary is not seeded by the
+     * checkpoint, i.e., it contains no facts of the application code.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"LinkedQueue", "Strings"})
+    void testLibrarySummaryResume(String mainClass, @TempDir Path summaryDir) {
+        // the first run saves the checkpoint of the whole program
+        StopSolver.stopAfter = 100;
+        analyzeWithLibrary(mainClass, "checkpoint-interval:0", PLUGIN);
+        assertTrue(World.get().<PointerAnalysisResult>getResult(PointerAnalysis.ID)
+                .isPartial(), "the analysis is not stopped");
+        // the second run computes library summary, and then resumes
+        // the analysis of the whole program from the checkpoint
+        StopSolver.stopAfter = -1;
+        analyzeWithLibrary(mainClass, "library-summary:" + summaryDir,
+                "checkpoint-interval:0", "resume:true", PLUGIN);
+        assertFalse(World.get().<PointerAnalysisResult>getResult(PointerAnalysis.ID)
+                .isPartial(), "the resumed analysis is not finished");
+        assertTrue(new File(World.get().getOptions().getOutputDir(),
+                Checkpoint.FILE_NAME).exists());
+        // the summary file is named by the fingerprint that it keeps
+        File[] files = summaryDir.toFile().listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length, "the summary is not computed");
+        String name = files[0].getName();
+        long fingerprint = Long.parseUnsignedLong(name.substring(
+                name.lastIndexOf('-') + 1, name.lastIndexOf('.')), 16);
+        Checkpoint summary = new Checkpoint(files[0], fingerprint, "library summary");
+        String appMethod = "<" + mainClass + ":";
+        for (Map.Entry<String, String[]> entry : summary.load().entrySet()) {
+            assertFalse(entry.getKey().contains(appMethod),
+                    "application pointer in summary: " + entry.getKey());
+            assertFalse(Arrays.stream(entry.getValue())
+                            .anyMatch(obj -> obj.contains(appMethod)),
+                    "application object in summary: " + entry.getKey());
+        }
+    }
+
+    /**
+     * Checks that the fingerprint of classes changes when only the bodies
+     * of their methods are changed, so that the checkpoints and library
+     * summaries of other versions of the classes are not loaded.
+     */
+    @Test
+    void testFingerprintMethodBodies() {
+        long original = fingerprint("incremental/original");
+        assertEquals(original, fingerprint("incremental/original"));
+        // "changed" only changes the bodies of two methods
+        assertNotEquals(original, fingerprint("incremental/changed"));
+    }
+
+    private static long fingerprint(String dir) {
+        Tests.testPTA(false, dir, "Incremental");
+        return Checkpoint.fingerprint(
+                World.get().getClassHierarchy().applicationClasses(),
+                new AnalysisOptions(Map.of()));
+    }
+
+    private static void analyzeWithLibrary(String mainClass, String... opts) {
+        String ptaTestRoot = "src/test/resources/pta";
+        Main.main(new String[]{
+                "-pp",
+                "-cp", ptaTestRoot,
+                "-cp", ptaTestRoot + "/basic",
+                "-m", mainClass,
+                "-a", PointerAnalysis.ID + "=implicit-entries:true;only-app:false;"
+                + String.join(";", opts),
+        });
+    }
+
+    /**
+     * Plugin that stops the solver after {@link #stopAfter} new points-to
+     * sets, which is disabled if {@link #stopAfter} is negative.
+     */
+    public static class StopSolver implements Plugin {
+
+        private static int stopAfter;
+
+        private DefaultSolver solver;
+
+        private int count;
+
+        @Override
+        public void setSolver(Solver solver) {
+            this.solver = (DefaultSolver) solver;
+        }
+
+        @Override
+        public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+            if (stopAfter >= 0 && ++count >= stopAfter) {
+                solver.requestStop();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.heap.MergedObj;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.ConfigException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pascal.taie.analysis.pta.core.solver.MemoryWatchdog.Action.CI;
+import static pascal.taie.analysis.pta.core.solver.MemoryWatchdog.Action.MERGE;
+import static pascal.taie.analysis.pta.core.solver.MemoryWatchdog.Action.STOP;
+
+public class MemoryWatchdogTest {
+
+    @Test
+    void testMake() {
+        assertEquals(List.of(
+                        new MemoryWatchdog.Step(MERGE, 0.8),
+                        new MemoryWatchdog.Step(CI, 0.9),
+                        new MemoryWatchdog.Step(STOP, 0.95)),
+                MemoryWatchdog.make("merge=0.8, ci = 0.9,STOP=0.95").getSteps());
+        assertEquals(List.of(new MemoryWatchdog.Step(STOP, 0.5)),
+                MemoryWatchdog.make("stop=0.5").getSteps());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "merge",
+            "merge=",
+            "=0.5",
+            "merge=high",
+            "drop=0.5",
+            "merge=0.5=0.6",
+            "merge=0.5;stop=0.9",
+            "merge=0",
+            "merge=-0.5",
+            "stop=1",
+            "stop=1.5",
+            "merge=0.9,stop=0.8",
+            "merge=0.8,stop=0.8",
+            "merge=0.8,,stop=0.9",
+    })
+    void testMakeMalformed(String steps) {
+        assertThrows(ConfigException.class, () -> MemoryWatchdog.make(steps));
+    }
+
+    @Test
+    void testCheck() {
+        double[] usage = {0};
+        MemoryWatchdog watchdog = MemoryWatchdog.make(
+                "merge=0.5,ci=0.6,stop=0.7", () -> usage[0]);
+        usage[0] = 0.3;
+        watchdog.check();
+        assertNull(watchdog.pollAction());
+        usage[0] = 0.55;
+        watchdog.check();
+        assertEquals(MERGE, watchdog.pollAction());
+        assertNull(watchdog.pollAction());
+        // each step is taken only once
+        watchdog.check();
+        assertNull(watchdog.pollAction());
+        // the steps whose thresholds are exceeded at once are taken in order
+        usage[0] = 0.75;
+        watchdog.check();
+        assertEquals(CI, watchdog.pollAction());
+        assertEquals(STOP, watchdog.pollAction());
+        assertNull(watchdog.pollAction());
+        usage[0] = 0.9;
+        watchdog.check();
+        assertNull(watchdog.pollAction());
+    }
+
+    /**
+     * Drives the watchdog of the solver with given heap usage,
+     * and checks that the solver takes the actions in order.
+     */
+    @Test
+    void testSolverActions() {
+        RaiseUsage.states.clear();
+        Tests.testPTA(false, "basic", "RedBlackBST",
+                "plugins:[" + RaiseUsage.class.getName() + "]");
+        assertEquals(List.of("ci=false, stopped=false", "ci=true, stopped=false"),
+                RaiseUsage.states);
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        assertTrue(result.isPartial(), "the analysis is not stopped");
+        assertTrue(result.getObjects()
+                        .stream()
+                        .anyMatch(o -> o instanceof MergedObj),
+                "no objects are merged");
+    }
+
+    /**
+     * Plugin that raises the heap usage seen by the memory watchdog
+     * of the solver as the analysis proceeds, and records the states
+     * of the solver when raising the usage.
+     */
+    public static class RaiseUsage implements Plugin {
+
+        private static final List<String> states = new ArrayList<>();
+
+        private DefaultSolver solver;
+
+        private MemoryWatchdog watchdog;
+
+        private double usage;
+
+        private int count;
+
+        @Override
+        public void setSolver(Solver solver) {
+            this.solver = (DefaultSolver) solver;
+        }
+
+        @Override
+        public void onStart() {
+            // the two merge steps make the heap model merge all objects
+            watchdog = MemoryWatchdog.make(
+                    "merge=0.5,merge=0.55,ci=0.6,stop=0.7", () -> usage);
+            solver.setMemoryWatchdog(watchdog);
+        }
+
+        @Override
+        public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+            switch (++count) {
+                case 2 -> raiseUsage(0.57);
+                case 10 -> raiseUsage(0.65);
+                case 20 -> raiseUsage(0.75);
+            }
+        }
+
+        private void raiseUsage(double usage) {
+            if (usage > 0.6) {
+                states.add("ci=" + solver.isCICallEdges()
+                        + ", stopped=" + solver.isStopped());
+            }
+            this.usage = usage;
+            watchdog.check();
+        }
+    }
+}
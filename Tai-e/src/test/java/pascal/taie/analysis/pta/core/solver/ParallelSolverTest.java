@@ -0,0 +1,72 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.util.MultiStringsSource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the parallel propagation of {@link ParallelSolver}, which is
+ * skipped for the small rounds of the test programs by default.
+ */
+public class ParallelSolverTest {
+
+    private static final String PLUGIN = "plugins:[" +
+            ParallelPropagation.class.getName() + "]";
+
+    @ParameterizedTest
+    @MultiStringsSource({"basic", "LinkedQueue"})
+    @MultiStringsSource({"basic", "RedBlackBST"})
+    @MultiStringsSource({"basic", "Cast"})
+    @MultiStringsSource({"basic", "Cycle", "cycle-elimination:true"})
+    @MultiStringsSource({"contextsensitivity", "TwoObject", "cs:2-obj"})
+    void testParallelPropagation(String dir, String mainClass, String... opts) {
+        String[] args = new String[opts.length + 3];
+        System.arraycopy(opts, 0, args, 0, opts.length);
+        args[opts.length] = "solver:parallel";
+        args[opts.length + 1] = "solver-threads:4";
+        args[opts.length + 2] = PLUGIN;
+        Tests.testPTA(dir, mainClass, args);
+        assertTrue(ParallelPropagation.solver.getParallelEntries() > 0,
+                "no entries are propagated in parallel");
+    }
+
+    /**
+     * Plugin that makes the solver propagate every round in parallel,
+     * and keeps the solver for checking its statistics.
+     */
+    public static class ParallelPropagation implements Plugin {
+
+        private static ParallelSolver solver;
+
+        @Override
+        public void setSolver(Solver solver) {
+            ParallelPropagation.solver = (ParallelSolver) solver;
+            ParallelPropagation.solver.setMinParallelEntries(1);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.Indexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SharedPointsToSetTest {
+
+    /**
+     * Large enough to be interned.
+     */
+    private static final int SIZE = 10;
+
+    private static Indexer<CSObj> indexer;
+
+    /**
+     * Objects whose indexes are consecutive, so that they fall in
+     * the same 64-bit word of a bit set.
+     */
+    private static List<CSObj> objs;
+
+    @BeforeAll
+    static void initObjects() {
+        Main.buildWorld("-cp", "src/test/resources/world", "--input-classes", "Types");
+        Type object = World.get().getTypeSystem().getClassType(ClassNames.OBJECT);
+        Context context = new TrieContext.Factory<>().getEmptyContext();
+        CSManager csManager = new MapBasedCSManager();
+        objs = new ArrayList<>();
+        for (int i = 0; i < SIZE + 2; ++i) {
+            MockObj obj = new MockObj(() -> "TestObj", "o" + i, object, null, false);
+            objs.add(csManager.getCSObj(context, obj));
+        }
+        indexer = csManager.getObjectIndexer();
+    }
+
+    private static PointsToSet make(PointsToSetFactory factory, int size) {
+        PointsToSet pts = factory.make();
+        objs.subList(0, size).forEach(pts::addObject);
+        return pts;
+    }
+
+    private static SharedPointsToSet make(SharedPointsToSet.Table table, int size) {
+        SharedPointsToSet pts = new SharedPointsToSet(table);
+        objs.subList(0, size).forEach(pts::addObject);
+        return pts;
+    }
+
+    private static SharedPointsToSet.Content contentOf(PointsToSet pts) {
+        return ((SharedPointsToSet) pts).getContent();
+    }
+
+    @Test
+    void testModifyInternedContent() {
+        PointsToSetFactory factory = new PointsToSetFactory(indexer, true);
+        PointsToSet a = make(factory, SIZE);
+        PointsToSet b = a.copy();
+        PointsToSet c = factory.make();
+        c.addAll(b);
+        SharedPointsToSet.Content shared = contentOf(a);
+        assertTrue(shared.isInterned());
+        assertSame(shared, contentOf(b));
+        assertSame(shared, contentOf(c));
+
+        CSObj added = objs.get(SIZE);
+        assertTrue(a.addObject(added));
+        assertTrue(a.contains(added));
+        assertEquals(SIZE + 1, a.size());
+        assertNotSame(shared, contentOf(a));
+        assertFalse(contentOf(a).isInterned());
+        // the sharers and the interned content are unchanged
+        for (PointsToSet pts : List.of(b, c)) {
+            assertSame(shared, contentOf(pts));
+            assertFalse(pts.contains(added));
+            assertEquals(SIZE, pts.size());
+        }
+
+        PointsToSet diff = c.addAllDiff(factory.make(objs.get(SIZE + 1)));
+        assertEquals(1, diff.size());
+        assertEquals(SIZE + 1, c.size());
+        assertFalse(b.contains(objs.get(SIZE + 1)));
+        assertEquals(SIZE, b.size());
+    }
+
+    @Test
+    void testEqualSetsShareContent() {
+        PointsToSetFactory factory = new PointsToSetFactory(indexer, true);
+        // equal sets which are built separately
+        PointsToSet a = make(factory, SIZE);
+        PointsToSet b = make(factory, SIZE);
+        assertNotSame(contentOf(a), contentOf(b));
+        // copy() interns the content of the set
+        PointsToSet aCopy = a.copy();
+        PointsToSet bCopy = b.copy();
+        assertSame(contentOf(a), contentOf(aCopy));
+        assertSame(contentOf(a), contentOf(b));
+        assertSame(contentOf(a), contentOf(bCopy));
+
+        // share() interns the contents of the sets at the end of a phase
+        PointsToSet c = make(factory, SIZE);
+        PointsToSet d = make(factory, SIZE);
+        factory.share(Stream.of(c, d));
+        assertSame(contentOf(a), contentOf(c));
+        assertSame(contentOf(a), contentOf(d));
+
+        // small sets are never interned
+        PointsToSet e = make(factory, 3);
+        PointsToSet f = make(factory, 3);
+        PointsToSet eCopy = e.copy();
+        factory.share(Stream.of(e, f));
+        assertFalse(contentOf(e).isInterned());
+        assertNotSame(contentOf(e), contentOf(f));
+        assertNotSame(contentOf(e), contentOf(eCopy));
+        assertEquals(e.getObjects(), eCopy.getObjects());
+    }
+
+    @Test
+    void testHits() {
+        SharedPointsToSet.Table table = new SharedPointsToSet.Table(indexer);
+        SharedPointsToSet a = make(table, SIZE);
+        SharedPointsToSet b = make(table, SIZE);
+        assertTrue(a.intern());
+        assertEquals(0, table.getHits());
+        assertEquals(1, table.size());
+        assertTrue(b.intern());
+        assertEquals(1, table.getHits());
+        assertEquals(1, table.size());
+        // interning an interned content is not a hit
+        a.copy();
+        b.intern();
+        assertEquals(1, table.getHits());
+        // small sets do not touch the table
+        assertFalse(make(table, 3).intern());
+        assertEquals(1, table.getHits());
+        assertEquals(1, table.size());
+        // a modified set interns a new content
+        b.addObject(objs.get(SIZE));
+        assertTrue(b.intern());
+        assertEquals(1, table.getHits());
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void testSharingStatistics() {
+        PointsToSetFactory factory = new PointsToSetFactory(indexer, true);
+        PointsToSet a = make(factory, SIZE);
+        PointsToSet b = make(factory, SIZE);
+        PointsToSet c = a.copy();
+        PointsToSet small = make(factory, 3);
+        factory.share(Stream.of(a, b, c, small));
+        // a, b and c share one interned content, and small has a private one.
+        // All objects fall in one 64-bit word, so each content takes 8 bytes.
+        // The same set occurring multiple times and empty sets are not counted.
+        PointsToSetFactory.Sharing sharing = factory.computeSharing(
+                Stream.of(a, b, c, small, a, factory.make()));
+        assertEquals(4, sharing.sets());
+        assertEquals(2, sharing.contents());
+        assertEquals(8, sharing.internedBytes());
+        assertEquals(8, sharing.privateBytes());
+        assertEquals(4 * 8, sharing.unsharedBytes());
+        assertEquals(2 * 8, sharing.savedBytes());
+    }
+}
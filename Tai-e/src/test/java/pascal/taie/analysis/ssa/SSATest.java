@@ -0,0 +1,135 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.ssa;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SSATest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Assign",
+            "SimpleBranch",
+            "BranchConstant",
+            "Loop",
+            "LogicalOp",
+            "SameVarNames",
+    })
+    void test(String inputClass) {
+        Main.main("-pp", "-cp", "src/test/resources/dataflow/constprop/",
+                "--input-classes", inputClass, "-a", SSABuilder.ID);
+        World.get().getClassHierarchy()
+                .getClass(inputClass)
+                .getDeclaredMethods()
+                .stream()
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .forEach(SSATest::checkSSA);
+    }
+
+    private static void checkSSA(IR ir) {
+        SSA ssa = ir.getResult(SSABuilder.ID);
+        for (SSAVar ssaVar : ssa.getSSAVars()) {
+            if (ssaVar.isEntry()) {
+                assertSame(ssaVar, ssa.getEntryVersion(ssaVar.getVar()));
+            } else if (ssaVar.getDefStmt() != null) {
+                assertSame(ssaVar, ssa.getDef(ssaVar.getDefStmt()));
+            } else {
+                assertSame(ssaVar, ssaVar.getDefPhi().getResult());
+            }
+        }
+        for (Stmt stmt : ir) {
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var) {
+                    SSAVar ssaVar = ssa.getUse(stmt, var);
+                    assertNotNull(ssaVar);
+                    assertTrue(ssaVar.getStmtUsers().contains(stmt));
+                    assertTrue(dominates(ssa, ssaVar, stmt),
+                            ssaVar + " does not dominate " + stmt);
+                    // the version used by stmt must be the reaching one
+                    assertTrue(ssa.getReachingVersions(stmt, false).contains(ssaVar));
+                }
+            }
+        }
+        for (BasicBlock block : ssa.getBlockCFG()) {
+            List<Stmt> stmts = block.getStmts();
+            for (int i = 0; i < stmts.size(); ++i) {
+                assertSame(block, ssa.getBlockCFG().getBlockOf(stmts.get(i)));
+                assertEquals(i, ssa.getBlockCFG().getIndexInBlock(stmts.get(i)));
+            }
+            for (Phi phi : ssa.getPhis(block)) {
+                List<SSAVar> operands = phi.getOperands();
+                assertEquals(phi.getPreds().size(), operands.size());
+                operands.forEach(operand -> {
+                    assertNotNull(operand);
+                    assertEquals(phi.getVar(), operand.getVar());
+                    assertTrue(operand.getPhiUsers().contains(phi));
+                });
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the definition of {@code ssaVar}
+     * dominates {@code stmt}.
+     */
+    private static boolean dominates(SSA ssa, SSAVar ssaVar, Stmt stmt) {
+        if (ssaVar.isEntry()) {
+            return true;
+        }
+        BasicBlock block = ssa.getBlockCFG().getBlockOf(stmt);
+        BasicBlock defBlock;
+        Stmt defStmt = ssaVar.getDefStmt();
+        if (defStmt != null) {
+            defBlock = ssa.getBlockCFG().getBlockOf(defStmt);
+            if (defBlock == block) {
+                return ssa.getBlockCFG().getIndexInBlock(defStmt)
+                        < ssa.getBlockCFG().getIndexInBlock(stmt);
+            }
+        } else {
+            defBlock = ssaVar.getDefPhi().getBlock();
+        }
+        for (BasicBlock b = block; b != null; b = ssa.getImmediateDominatorOf(b)) {
+            if (b == defBlock) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.util.SerializationUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistentHashMapTest {
+
+    @Test
+    void testWith() {
+        PersistentHashMap<Integer, String> m0 = PersistentHashMap.empty();
+        PersistentHashMap<Integer, String> m1 = m0.with(1, "a");
+        PersistentHashMap<Integer, String> m2 = m1.with(1, "b").with(2, "c");
+        assertTrue(m0.isEmpty());
+        assertEquals(Map.of(1, "a"), m1);
+        assertEquals(Map.of(1, "b", 2, "c"), m2);
+        assertEquals("b", m2.get(1));
+        assertNull(m2.get(3));
+        assertEquals("x", m2.getOrDefault(3, "x"));
+        assertSame(m2, m2.with(2, "c"));
+    }
+
+    @Test
+    void testWithNullKey() {
+        assertThrows(NullPointerException.class, () ->
+                PersistentHashMap.empty().with(null, 1));
+    }
+
+    @Test
+    void testWithout() {
+        PersistentHashMap<Integer, String> m = PersistentHashMap.<Integer, String>empty()
+                .with(1, "a").with(2, "b");
+        assertSame(m, m.without(3));
+        assertEquals(Map.of(2, "b"), m.without(1));
+        assertTrue(m.without(1).without(2).isEmpty());
+        assertEquals(2, m.size());
+    }
+
+    @Test
+    void testUnsupported() {
+        Map<Integer, String> m = PersistentHashMap.<Integer, String>empty().with(1, "a");
+        assertThrows(UnsupportedOperationException.class, () -> m.put(2, "b"));
+        assertThrows(UnsupportedOperationException.class, () ->
+                m.entrySet().iterator().next().setValue("b"));
+    }
+
+    @Test
+    void testRandom() {
+        Random random = new Random(0);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 100_000; ++i) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    void testCollisions() {
+        PersistentHashMap<Colliding, Integer> map = PersistentHashMap.empty();
+        List<Colliding> keys = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            Colliding key = new Colliding(i, i % 3);
+            keys.add(key);
+            map = map.with(key, i);
+        }
+        assertEquals(100, map.size());
+        for (Colliding key : keys) {
+            assertEquals(key.id, map.get(key));
+        }
+        for (Colliding key : keys) {
+            map = map.without(key);
+            assertFalse(map.containsKey(key));
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void testWithAll() {
+        Random random = new Random(1);
+        PersistentHashMap<Integer, Integer> base = PersistentHashMap.empty();
+        for (int i = 0; i < 1000; ++i) {
+            base = base.with(random.nextInt(2000), i);
+        }
+        PersistentHashMap<Integer, Integer> m1 = base;
+        PersistentHashMap<Integer, Integer> m2 = base;
+        for (int i = 0; i < 100; ++i) {
+            m1 = m1.with(random.nextInt(2000), -i);
+            m2 = m2.with(random.nextInt(2000), i);
+            m2 = m2.without(random.nextInt(2000));
+        }
+        Map<Integer, Integer> expected = new HashMap<>(m1);
+        expected.putAll(m2);
+        PersistentHashMap<Integer, Integer> merged = m1.withAll(m2);
+        assertEquals(expected.size(), merged.size());
+        assertEquals(expected, merged);
+        assertSame(merged, merged.withAll(m2));
+        assertSame(m1, m1.withAll(PersistentHashMap.empty()));
+        assertSame(m2, PersistentHashMap.<Integer, Integer>empty().withAll(m2));
+    }
+
+    @Test
+    void testWithAllCollisions() {
+        PersistentHashMap<Colliding, Integer> m1 = PersistentHashMap.empty();
+        PersistentHashMap<Colliding, Integer> m2 = PersistentHashMap.empty();
+        Map<Colliding, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50; ++i) {
+            Colliding key = new Colliding(i, i % 4);
+            if (i % 2 == 0) {
+                m1 = m1.with(key, i);
+                expected.put(key, i);
+            }
+            if (i % 3 == 0) {
+                m2 = m2.with(key, -i);
+                expected.put(key, -i);
+            }
+        }
+        assertEquals(expected, m1.withAll(m2));
+        assertEquals(expected.size(), m1.withAll(m2).size());
+    }
+
+    @Test
+    void testSerializable() {
+        PersistentHashMap<Integer, String> map = PersistentHashMap.<Integer, String>empty()
+                .with(1, "a").with(2, "b");
+        assertEquals(map, SerializationUtils.serializedCopy(map));
+    }
+
+    private record Colliding(int id, int hash) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -139,6 +140,19 @@ public class GraphTest {
         assertEquals(domFinder.getNodesDominatedBy(5), Set.of(5));
         assertEquals(domFinder.getNodesDominatedBy(7), Set.of(7, 8, 9, 10));
         assertEquals(domFinder.getNodesDominatedBy(9), Set.of(9));
+
+        assertNull(domFinder.getImmediateDominatorOf(1));
+        assertEquals(1, domFinder.getImmediateDominatorOf(3));
+        assertEquals(4, domFinder.getImmediateDominatorOf(7));
+        assertEquals(7, domFinder.getImmediateDominatorOf(8));
+
+        assertEquals(domFinder.getDominanceFrontierOf(1), Set.of());
+        assertEquals(domFinder.getDominanceFrontierOf(2), Set.of(3));
+        assertEquals(domFinder.getDominanceFrontierOf(4), Set.of(3, 4));
+        assertEquals(domFinder.getDominanceFrontierOf(5), Set.of(7));
+        assertEquals(domFinder.getDominanceFrontierOf(7), Set.of(3, 4, 7));
+        assertEquals(domFinder.getDominanceFrontierOf(8), Set.of(3, 7));
+        assertEquals(domFinder.getDominanceFrontierOf(9), Set.of());
     }
 
     private static SimpleGraph<Integer> readGraph(String filePath) {
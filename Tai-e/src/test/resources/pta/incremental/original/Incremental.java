@@ -0,0 +1,31 @@
+class Incremental {
+    public static void main(String[] args) {
+        Factory factory = new Factory();
+        Object o1 = factory.make();
+        Object o2 = factory.id(new Object());
+        Holder holder = new Holder();
+        holder.f = o1;
+        Object o3 = holder.f;
+        Object o4 = factory.other();
+        holder.f = o2;
+    }
+}
+
+class Factory {
+
+    Object make() {
+        return new Holder();
+    }
+
+    Object id(Object x) {
+        return x;
+    }
+
+    Object other() {
+        return make();
+    }
+}
+
+class Holder {
+    Object f;
+}
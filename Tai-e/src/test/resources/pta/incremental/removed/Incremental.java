@@ -0,0 +1,27 @@
+class Incremental {
+    public static void main(String[] args) {
+        Factory factory = new Factory();
+        Object o1 = factory.make();
+        Object o2 = factory.id(new Object());
+        Holder holder = new Holder();
+        holder.f = o1;
+        Object o3 = holder.f;
+        Object o4 = factory.make();
+        holder.f = o2;
+    }
+}
+
+class Factory {
+
+    Object make() {
+        return new Holder();
+    }
+
+    Object id(Object x) {
+        return x;
+    }
+}
+
+class Holder {
+    Object f;
+}